@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# Builds the fast-start artifacts in target/fast-start:
+#  1. the jar, with the application context processed ahead of time by Spring AOT in the fast-start profile
+#  2. the jar extracted into a launcher jar and lib/, the layout class data sharing needs
+#  3. an AppCDS archive of the classes loaded by a training run, which starts the instance,
+#     matches one ride on it and stops it; the JVM writes the archive as it exits
+# The training run listens on $TRAINING_PORT, 18099 by default. Arguments go to Maven, e.g.
+# -Dspring-boot.aot.jvmArguments="-Dheatmap.enabled=true" for a feature the instances will run with.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+./mvnw -B -q -Pfast-start -DskipTests package "$@"
+jar=$(ls target/ride-matching-service-*.jar)
+
+rm -rf target/fast-start
+java -Djarmode=tools -jar "$jar" extract --destination target/fast-start
+scripts/time-to-first-match.sh -p "${TRAINING_PORT:-18099}" -- \
+  java -XX:ArchiveClassesAtExit=target/fast-start/application.jsa -Xlog:cds=error \
+  -Dspring.aot.enabled=true \
+  -jar "target/fast-start/$(basename "$jar")" --spring.profiles.active=fast-start
+
+echo "Built target/fast-start; start it with scripts/start-fast.sh"
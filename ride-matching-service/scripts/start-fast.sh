@@ -0,0 +1,11 @@
+#!/usr/bin/env bash
+# Starts the instance built by scripts/build-fast-start.sh, with the AOT-processed context, the
+# fast-start profile and the AppCDS archive. Arguments go to the application. The archive only
+# applies to the JVM and jars it was recorded with; otherwise the JVM warns and starts without it.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+jar=$(ls target/fast-start/ride-matching-service-*.jar)
+exec java -XX:SharedArchiveFile=target/fast-start/application.jsa -Xlog:cds=error \
+  -Dspring.aot.enabled=true \
+  -jar "$jar" --spring.profiles.active=fast-start "$@"
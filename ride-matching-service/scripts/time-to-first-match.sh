@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Measures time-to-first-match: from launching an instance to the first ride matched on it. Each
+# run launches the command with --server.port=<port> appended, registers one driver as soon as
+# the port answers, requests a ride next to it and stops the instance.
+#
+# Usage: scripts/time-to-first-match.sh [-n runs] [-p port] [-- command...]
+#   scripts/time-to-first-match.sh -n 5                                           # scripts/start-fast.sh
+#   scripts/time-to-first-match.sh -n 5 -- java -jar target/ride-matching-service-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+runs=1
+port=18080
+while getopts "n:p:" option; do
+  case $option in
+    n) runs=$OPTARG ;;
+    p) port=$OPTARG ;;
+    *) sed -n '7,9p' "$0" >&2; exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+[[ ${1:-} == "--" ]] && shift
+command=("$@")
+[[ ${#command[@]} -eq 0 ]] && command=(scripts/start-fast.sh)
+
+url=http://localhost:$port
+log=$(mktemp)
+trap 'rm -f "$log"' EXIT
+
+now_ms() { date +%s%3N; }
+
+post() {
+  curl -s -o /dev/null -w '%{http_code} %{time_total}' -H 'Content-Type: application/json' -d "$2" "$url$1" || true
+}
+
+matches=()
+for ((run = 1; run <= runs; run++)); do
+  started=$(now_ms)
+  # Its own process group, so wrappers such as mvn are stopped with the JVM they start
+  setsid "${command[@]}" "--server.port=$port" > "$log" 2>&1 &
+  pid=$!
+
+  until [[ $(post /drivers '{"driverId":"ttfm-driver","x":0,"y":0}') == 200* ]]; do
+    if ! kill -0 "$pid" 2> /dev/null || (($(now_ms) - started > 120000)); then
+      echo "Instance did not start; its output:" >&2
+      cat "$log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  registered=$(now_ms)
+
+  read -r status seconds <<< "$(post /rides '{"riderId":"ttfm-rider","x":1,"y":1}')"
+  matched=$(now_ms)
+  kill -- -"$pid" 2> /dev/null || kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  if [[ $status != 200 ]]; then
+    echo "Ride request answered $status" >&2
+    exit 1
+  fi
+
+  matches+=($((matched - started)))
+  printf 'Run %d: first registration after %d ms, first match after %d ms (ride request %.1f ms)\n' \
+    "$run" $((registered - started)) $((matched - started)) "$(awk -v s="$seconds" 'BEGIN { print s * 1000 }')"
+done
+
+sorted=($(printf '%s\n' "${matches[@]}" | sort -n))
+echo "Time to first match over $runs runs: min ${sorted[0]} ms, median ${sorted[$((runs / 2))]} ms"
@@ -0,0 +1,184 @@
+package com.jonathan.ride_matching_service.stress;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZZ_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Races the transitions of a driver's state word against each other: claims for a ride,
+ * releases, position writes and the driver's own availability updates. Claims and releases are
+ * compare-and-set on the word while position writes hold it, so each pair must end in an
+ * outcome of one of the two orders, with nothing lost.
+ */
+public class DriverClaimStressTest {
+
+    private static final Location START = new Location(0, 0);
+
+    private static Driver claimed() {
+        Driver driver = new Driver("driver-1", START);
+        driver.tryMarkUnavailable();
+        return driver;
+    }
+
+    private static boolean moved(Driver driver) {
+        return driver.getLocation().equals(new Location(5, 5));
+    }
+
+    @JCStressTest
+    @Outcome(id = {"true, false", "false, true"}, expect = ACCEPTABLE, desc = "One claim wins")
+    @Outcome(id = "true, true", expect = FORBIDDEN, desc = "Driver claimed for two rides")
+    @Outcome(expect = FORBIDDEN, desc = "An available driver was not claimed")
+    @State
+    public static class TwoClaims {
+
+        private final Driver driver = new Driver("driver-1", START);
+
+        @Actor
+        public void first(ZZ_Result r) {
+            r.r1 = driver.tryMarkUnavailable();
+        }
+
+        @Actor
+        public void second(ZZ_Result r) {
+            r.r2 = driver.tryMarkUnavailable();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "false, true", expect = ACCEPTABLE, desc = "Claim before the release: refused, then released")
+    @Outcome(id = "true, false", expect = ACCEPTABLE, desc = "Release before the claim: claimed again")
+    @Outcome(expect = FORBIDDEN, desc = "Release or claim lost")
+    @State
+    public static class ClaimAndRelease {
+
+        private final Driver driver = claimed();
+
+        @Actor
+        public void release() {
+            driver.release();
+        }
+
+        @Actor
+        public void claim(ZZ_Result r) {
+            r.r1 = driver.tryMarkUnavailable();
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r2 = driver.isAvailable();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true, true, true", expect = ACCEPTABLE, desc = "Claimed and moved")
+    @Outcome(id = "true, false, true", expect = FORBIDDEN, desc = "Position write published over the claim")
+    @Outcome(expect = FORBIDDEN, desc = "Claim or position lost")
+    @State
+    public static class ClaimAndPing {
+
+        private final Driver driver = new Driver("driver-1", START);
+
+        @Actor
+        public void claim(ZZZ_Result r) {
+            r.r1 = driver.tryMarkUnavailable();
+        }
+
+        @Actor
+        public void ping() {
+            driver.updateLocation(5, 5);
+        }
+
+        @Arbiter
+        public void arbiter(ZZZ_Result r) {
+            r.r2 = driver.isOnRide() && !driver.isAvailable();
+            r.r3 = moved(driver);
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true, true", expect = ACCEPTABLE, desc = "Released and moved")
+    @Outcome(id = "false, true", expect = FORBIDDEN, desc = "Position write published over the release")
+    @Outcome(expect = FORBIDDEN, desc = "Release or position lost")
+    @State
+    public static class ReleaseAndPing {
+
+        private final Driver driver = claimed();
+
+        @Actor
+        public void release() {
+            driver.release();
+        }
+
+        @Actor
+        public void ping() {
+            driver.updateLocation(5, 5);
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r1 = driver.isAvailable() && !driver.isOnRide();
+            r.r2 = moved(driver);
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true, true, false", expect = ACCEPTABLE, desc = "Update before the claim, then claimed")
+    @Outcome(id = "true, false, false", expect = ACCEPTABLE, desc = "Claim before the update: availability refused")
+    @Outcome(id = "true, .*, true", expect = FORBIDDEN, desc = "Claimed driver made available again")
+    @Outcome(expect = FORBIDDEN, desc = "Claim lost")
+    @State
+    public static class ClaimAndDriverUpdate {
+
+        private final Driver driver = new Driver("driver-1", START);
+
+        @Actor
+        public void claim(ZZZ_Result r) {
+            r.r1 = driver.tryMarkUnavailable();
+        }
+
+        @Actor
+        public void update(ZZZ_Result r) {
+            r.r2 = driver.updateState(5, 5, true);
+        }
+
+        @Arbiter
+        public void arbiter(ZZZ_Result r) {
+            r.r3 = driver.isAvailable();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true, true, true", expect = ACCEPTABLE, desc = "Claimed; the driver was already unavailable")
+    @Outcome(id = "false, true, false", expect = ACCEPTABLE, desc = "Offline before the claim: refused")
+    @Outcome(expect = FORBIDDEN, desc = "Offline update lost, or an offline driver claimed")
+    @State
+    public static class ClaimAndGoOffline {
+
+        private final Driver driver = new Driver("driver-1", START);
+
+        @Actor
+        public void claim(ZZZ_Result r) {
+            r.r1 = driver.tryMarkUnavailable();
+        }
+
+        @Actor
+        public void offline(ZZZ_Result r) {
+            r.r2 = driver.setAvailable(false);
+        }
+
+        @Arbiter
+        public void arbiter(ZZZ_Result r) {
+            r.r2 = r.r2 && !driver.isAvailable();
+            r.r3 = driver.isOnRide();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.jonathan.ride_matching_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class RideMatchingServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,150 @@
+package com.jonathan.ride_matching_service.admission;
+
+import com.jonathan.ride_matching_service.config.AdmissionProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient concurrency limit: compares recent latency with a slowly moving baseline and shrinks
+ * the number of concurrent requests while latency rises, so queueing happens here instead of
+ * inside the matcher. Requests over the limit wait up to the queue deadline; when Little's law
+ * says the queue ahead of them cannot drain in time they are rejected without waiting.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // EWMA weights: recent latency follows the last ~10 requests, the baseline the last ~500
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.002;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long queueDeadlineNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+
+    // Guarded by lock; volatile so metrics read them without locking
+    private volatile double limit;
+    private volatile int inflight;
+    private volatile int queued;
+    private volatile double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties properties) {
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.tolerance = properties.tolerance();
+        this.smoothing = properties.smoothing();
+        this.queueDeadlineNanos = properties.queueDeadline().toNanos();
+        this.limit = clamp(properties.initialLimit(), minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a permit, waiting at most the queue deadline for one.
+     * @return true if admitted; the caller must then {@link #release(long)} the permit
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inflight < (int) limit) {
+                inflight++;
+                return true;
+            }
+
+            // Little's law: `limit` requests in service, each taking shortRtt, free a permit every shortRtt / limit
+            if ((queued + 1) * shortRttNanos / limit > queueDeadlineNanos) {
+                rejected.increment();
+                return false;
+            }
+
+            queued++;
+            try {
+                long remaining = queueDeadlineNanos;
+                while (inflight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inflight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the request's latency into the limit.
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            int busy = inflight--;
+            update(rttNanos, busy);
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int busy) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_WEIGHT;
+        // A sustained slowdown would otherwise raise the baseline and hide itself
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos = 2 * shortRttNanos;
+        }
+
+        double gradient = clamp(tolerance * longRttNanos / shortRttNanos, MIN_GRADIENT, 1.0);
+        // Only grow while the limit is actually being used; an idle service learns nothing about capacity
+        if (gradient == 1.0 && busy * 2 < limit) {
+            return;
+        }
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + estimate * smoothing, minLimit, maxLimit);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public double getRttMillis() {
+        return shortRttNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
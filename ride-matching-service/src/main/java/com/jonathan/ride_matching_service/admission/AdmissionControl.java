@@ -0,0 +1,55 @@
+package com.jonathan.ride_matching_service.admission;
+
+import com.jonathan.ride_matching_service.config.AdmissionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One adaptive limiter per protected endpoint, published as {@code admission.*} metrics tagged
+ * with the endpoint. The interceptors are registered by {@code WebConfig}.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true")
+public class AdmissionControl {
+
+    @Getter
+    private final AdmissionProperties properties;
+    // POST /rides
+    @Getter
+    private final AdaptiveConcurrencyLimiter rideRequests;
+    // GET /rides/available-drivers
+    @Getter
+    private final AdaptiveConcurrencyLimiter driverQueries;
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rideRequests = new AdaptiveConcurrencyLimiter(properties);
+        this.driverQueries = new AdaptiveConcurrencyLimiter(properties);
+
+        register(meterRegistry, "ride-requests", rideRequests);
+        register(meterRegistry, "available-drivers", driverQueries);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String endpoint, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("admission.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("admission.latency", limiter, AdaptiveConcurrencyLimiter::getRttMillis)
+                .tag("endpoint", endpoint)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.jonathan.ride_matching_service.admission;
+
+import com.jonathan.ride_matching_service.exception.OverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits requests of one method through an {@link AdaptiveConcurrencyLimiter} and reports their
+ * latency back to it; requests that are not admitted fail with {@code 503} before any matching work.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = AdmissionControlInterceptor.class.getName() + ".startedAt";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final HttpMethod method;
+    private final Duration retryAfter;
+
+    public AdmissionControlInterceptor(AdaptiveConcurrencyLimiter limiter, HttpMethod method, Duration retryAfter) {
+        this.limiter = limiter;
+        this.method = method;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!method.matches(request.getMethod())) {
+            return true;
+        }
+        if (!limiter.tryAcquire()) {
+            throw new OverloadedException("Service is at capacity; retry later", retryAfter);
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_AT) instanceof Long startedAt) {
+            limiter.release(System.nanoTime() - startedAt);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.jonathan.ride_matching_service.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One immutable segment file of the ride archive, memory-mapped for reading.
+ * <p>
+ * Rows are sorted by request time and stored column by column:
+ * <pre>
+ * magic:int  version:byte  rows:int  minRequestedAt:long  maxRequestedAt:long  columns:byte
+ * (offset:int  length:int) per column
+ * column data
+ * </pre>
+ * Ride ids are length-prefixed UTF-8; rider and driver ids are dictionary-encoded, a varint code
+ * per row into a dictionary at the head of the column (code 0 is null); request times are varint
+ * deltas from the previous row, the first from {@code minRequestedAt}; completion times are
+ * zigzag varints of the ride's duration; pickup coordinates are plain doubles. A scan only reads
+ * the columns it needs, and stops decoding at the first row past its time range.
+ */
+final class ArchiveSegment {
+
+    /**
+     * Receives the pickup of each ride in the scanned range, in request time order.
+     */
+    interface PickupVisitor {
+
+        void visit(long requestedAt, double x, double y);
+    }
+
+    static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x52415243;
+    private static final byte VERSION = 1;
+
+    private static final int RIDE_IDS = 0;
+    private static final int RIDERS = 1;
+    private static final int DRIVERS = 2;
+    private static final int REQUESTED_AT = 3;
+    private static final int DURATIONS = 4;
+    private static final int PICKUP_X = 5;
+    private static final int PICKUP_Y = 6;
+    private static final int COLUMNS = 7;
+
+    private static final int HEADER = 4 + 1 + 4 + 8 + 8 + 1 + COLUMNS * 8;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final long minRequestedAt;
+    private final long maxRequestedAt;
+    private final int[] offsets = new int[COLUMNS];
+    private final int[] lengths = new int[COLUMNS];
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION
+                || buffer.get(25) != COLUMNS) {
+            throw new IOException("Not a ride archive segment: " + path);
+        }
+        this.rows = buffer.getInt(5);
+        this.minRequestedAt = buffer.getLong(9);
+        this.maxRequestedAt = buffer.getLong(17);
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column] = buffer.getInt(26 + column * 8);
+            lengths[column] = buffer.getInt(30 + column * 8);
+            if (offsets[column] < HEADER || (long) offsets[column] + lengths[column] > buffer.capacity()) {
+                throw new IOException("Corrupt column directory in " + path);
+            }
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes {@code rides}, sorted by request time, to a new segment file at {@code path}. The
+     * file is written beside it and moved into place, so a segment is either whole or absent.
+     */
+    static ArchiveSegment write(Path path, List<ArchivedRide> rides) throws IOException {
+        int rows = rides.size();
+        long minRequestedAt = rows == 0 ? 0 : rides.get(0).requestedAt().toEpochMilli();
+        long maxRequestedAt = rows == 0 ? 0 : rides.get(rows - 1).requestedAt().toEpochMilli();
+
+        ColumnWriter[] columns = new ColumnWriter[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = new ColumnWriter(rows * (column >= PICKUP_X ? 8 : 4));
+        }
+        Dictionary riders = new Dictionary();
+        Dictionary drivers = new Dictionary();
+        int[] riderCodes = new int[rows];
+        int[] driverCodes = new int[rows];
+        long previous = minRequestedAt;
+        for (int row = 0; row < rows; row++) {
+            ArchivedRide ride = rides.get(row);
+            long requestedAt = ride.requestedAt().toEpochMilli();
+            if (requestedAt < previous) {
+                throw new IllegalArgumentException("Rides must be sorted by request time");
+            }
+            columns[RIDE_IDS].writeString(ride.rideId());
+            riderCodes[row] = riders.code(ride.riderId());
+            driverCodes[row] = drivers.code(ride.driverId());
+            columns[REQUESTED_AT].writeVarint(requestedAt - previous);
+            columns[DURATIONS].writeVarint(zigzag(ride.completedAt().toEpochMilli() - requestedAt));
+            columns[PICKUP_X].writeDouble(ride.pickupX());
+            columns[PICKUP_Y].writeDouble(ride.pickupY());
+            previous = requestedAt;
+        }
+        riders.writeTo(columns[RIDERS], riderCodes);
+        drivers.writeTo(columns[DRIVERS], driverCodes);
+
+        int size = HEADER;
+        for (ColumnWriter column : columns) {
+            size += column.size;
+        }
+        ByteBuffer file = ByteBuffer.allocate(size);
+        file.putInt(MAGIC).put(VERSION).putInt(rows).putLong(minRequestedAt).putLong(maxRequestedAt).put((byte) COLUMNS);
+        int offset = HEADER;
+        for (ColumnWriter column : columns) {
+            file.putInt(offset).putInt(column.size);
+            offset += column.size;
+        }
+        for (ColumnWriter column : columns) {
+            file.put(column.bytes, 0, column.size);
+        }
+        file.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (file.hasRemaining()) {
+                channel.write(file);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return whether any ride in this segment may have been requested in [from, to)
+     */
+    boolean overlaps(long from, long to) {
+        return rows > 0 && minRequestedAt < to && maxRequestedAt >= from;
+    }
+
+    /**
+     * Visits the pickup of every ride requested in [from, to), reading only the request time and
+     * pickup columns.
+     */
+    void scanPickups(long from, long to, PickupVisitor visitor) {
+        ByteBuffer times = column(REQUESTED_AT);
+        int xs = offsets[PICKUP_X];
+        int ys = offsets[PICKUP_Y];
+        long requestedAt = minRequestedAt;
+        for (int row = 0; row < rows; row++) {
+            requestedAt += readVarint(times);
+            if (requestedAt >= to) {
+                return;
+            }
+            if (requestedAt >= from) {
+                visitor.visit(requestedAt, buffer.getDouble(xs + row * 8), buffer.getDouble(ys + row * 8));
+            }
+        }
+    }
+
+    /**
+     * Decodes every ride requested in [from, to), in request time order.
+     */
+    void scan(long from, long to, Consumer<ArchivedRide> action) {
+        ByteBuffer ids = column(RIDE_IDS);
+        ByteBuffer riderCodes = column(RIDERS);
+        String[] riders = readDictionary(riderCodes);
+        ByteBuffer driverCodes = column(DRIVERS);
+        String[] drivers = readDictionary(driverCodes);
+        ByteBuffer times = column(REQUESTED_AT);
+        ByteBuffer durations = column(DURATIONS);
+        int xs = offsets[PICKUP_X];
+        int ys = offsets[PICKUP_Y];
+
+        long requestedAt = minRequestedAt;
+        for (int row = 0; row < rows; row++) {
+            requestedAt += readVarint(times);
+            if (requestedAt >= to) {
+                return;
+            }
+            String rideId = readString(ids);
+            String riderId = riders[(int) readVarint(riderCodes)];
+            String driverId = drivers[(int) readVarint(driverCodes)];
+            long completedAt = requestedAt + unzigzag(readVarint(durations));
+            if (requestedAt >= from) {
+                action.accept(new ArchivedRide(rideId, riderId, driverId,
+                        buffer.getDouble(xs + row * 8), buffer.getDouble(ys + row * 8),
+                        Instant.ofEpochMilli(requestedAt), Instant.ofEpochMilli(completedAt)));
+            }
+        }
+    }
+
+    // A view of one column with its own position, so concurrent scans do not interfere
+    private ByteBuffer column(int column) {
+        return buffer.slice(offsets[column], lengths[column]);
+    }
+
+    // Index 0 is null, matching code 0
+    private static String[] readDictionary(ByteBuffer column) {
+        String[] entries = new String[(int) readVarint(column) + 1];
+        for (int i = 1; i < entries.length; i++) {
+            entries[i] = readString(column);
+        }
+        return entries;
+    }
+
+    private static String readString(ByteBuffer column) {
+        byte[] bytes = new byte[(int) readVarint(column)];
+        column.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(ByteBuffer column) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = column.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class ColumnWriter {
+
+        private byte[] bytes;
+        private int size;
+
+        ColumnWriter(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(encoded.length);
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        void writeDouble(double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    // Distinct values in order of first appearance, coded from 1
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size();
+            });
+        }
+
+        void writeTo(ColumnWriter column, int[] rowCodes) {
+            column.writeVarint(values.size());
+            for (String value : values) {
+                column.writeString(value);
+            }
+            for (int code : rowCodes) {
+                column.writeVarint(code);
+            }
+        }
+    }
+}
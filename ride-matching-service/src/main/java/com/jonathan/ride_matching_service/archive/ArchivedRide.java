@@ -0,0 +1,18 @@
+package com.jonathan.ride_matching_service.archive;
+
+import java.time.Instant;
+
+/**
+ * A completed ride as read back from the archive.
+ *
+ * @param rideId      id of the ride
+ * @param riderId     rider who requested it
+ * @param driverId    driver who served it
+ * @param pickupX     x of the pickup location
+ * @param pickupY     y of the pickup location
+ * @param requestedAt when the ride was requested
+ * @param completedAt when the ride was completed
+ */
+public record ArchivedRide(String rideId, String riderId, String driverId, double pickupX, double pickupY,
+                           Instant requestedAt, Instant completedAt) {
+}
@@ -0,0 +1,15 @@
+package com.jonathan.ride_matching_service.archive;
+
+import java.time.Instant;
+
+/**
+ * Archived rides with a pickup in one cell, requested within one hour.
+ *
+ * @param cellId {@code CellId} of the cell at the requested level
+ * @param x      x of the cell centre
+ * @param y      y of the cell centre
+ * @param hour   start of the hour
+ * @param rides  number of rides
+ */
+public record CellHourCount(long cellId, double x, double y, Instant hour, long rides) {
+}
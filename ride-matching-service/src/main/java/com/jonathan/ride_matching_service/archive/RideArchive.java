@@ -0,0 +1,371 @@
+package com.jonathan.ride_matching_service.archive;
+
+import com.jonathan.ride_matching_service.config.ArchiveProperties;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.RideListener;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Archive of completed rides in columnar segment files on local disk, so they neither pile up in
+ * the heap nor vanish on restart.
+ * <p>
+ * A completion only queues the ride. Every {@code archive.flush-interval} a flusher thread writes
+ * the queued rides, sorted by request time, to a new {@link ArchiveSegment} of at most
+ * {@code archive.segment-rides} rows and, with {@code archive.evict}, drops them from the
+ * {@link RideRepository}. Segments are never rewritten; the ones found in the directory on
+ * startup are reopened.
+ * <p>
+ * Scans map every segment read-only and process the segments overlapping their time range in
+ * parallel, one task per segment, merging the partial results on the calling thread.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class RideArchive implements RideListener, SmartLifecycle {
+
+    private static final long HOUR_MILLIS = 3_600_000;
+
+    private record Pending(Ride ride, long completedAt) {
+    }
+
+    // Rides per cell of each hour
+    private static final class HourlyCounts {
+
+        private final Map<Long, CellCounts> byHour = new HashMap<>();
+        private long lastHour = Long.MIN_VALUE;
+        private CellCounts last;
+
+        CellCounts of(long hour) {
+            if (hour != lastHour) {
+                last = byHour.computeIfAbsent(hour, h -> new CellCounts());
+                lastHour = hour;
+            }
+            return last;
+        }
+    }
+
+    // Open-addressing cell -> count table; a zero count marks a free slot
+    private static final class CellCounts {
+
+        interface Visitor {
+
+            void visit(long cell, long count);
+        }
+
+        private long[] cells = new long[64];
+        private long[] counts = new long[64];
+        private int size;
+
+        void add(long cell, long count) {
+            if ((size + 1) * 4 > cells.length * 3) {
+                grow();
+            }
+            int slot = slot(cell);
+            if (counts[slot] == 0) {
+                cells[slot] = cell;
+                size++;
+            }
+            counts[slot] += count;
+        }
+
+        void addAll(CellCounts other) {
+            other.forEach(this::add);
+        }
+
+        void forEach(Visitor visitor) {
+            for (int i = 0; i < cells.length; i++) {
+                if (counts[i] != 0) {
+                    visitor.visit(cells[i], counts[i]);
+                }
+            }
+        }
+
+        private int slot(long cell) {
+            int mask = cells.length - 1;
+            int slot = (int) ((cell * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (counts[slot] != 0 && cells[slot] != cell) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldCells = cells;
+            long[] oldCounts = counts;
+            cells = new long[oldCells.length * 2];
+            counts = new long[oldCells.length * 2];
+            for (int i = 0; i < oldCells.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int slot = slot(oldCells[i]);
+                    cells[slot] = oldCells[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    private final RideRepository rideRepository;
+    private final Clock clock;
+    private final Path directory;
+    private final long flushMillis;
+    private final int segmentRides;
+    private final boolean evict;
+    private final int parallelism;
+    // Shut down by stop() and recreated by start()
+    private volatile ForkJoinPool scanners;
+
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    // In the order they were written
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private long nextSegment;
+
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public RideArchive(RideRepository rideRepository, ArchiveProperties properties) {
+        this(rideRepository, properties, Clock.systemUTC());
+    }
+
+    public RideArchive(RideRepository rideRepository, ArchiveProperties properties, Clock clock) {
+        this.rideRepository = rideRepository;
+        this.clock = clock;
+        this.directory = Path.of(properties.directory());
+        this.flushMillis = Math.max(1, properties.flushInterval().toMillis());
+        this.segmentRides = Math.max(1, properties.segmentRides());
+        this.evict = properties.evict();
+        this.parallelism = properties.parallelism() > 0
+                ? properties.parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.scanners = new ForkJoinPool(parallelism);
+
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.sorted().toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(ArchiveSegment.SUFFIX + ".tmp")) {
+                        // Left by a flush that did not finish; its rides were lost with the heap
+                        Files.delete(file);
+                    } else if (name.endsWith(ArchiveSegment.SUFFIX)) {
+                        segments.add(ArchiveSegment.open(file));
+                        nextSegment = Math.max(nextSegment, sequenceOf(name) + 1);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the ride archive in " + directory, e);
+        }
+
+        rideRepository.addListener(this);
+    }
+
+    @Override
+    public void onCompleted(Ride ride) {
+        pending.add(new Pending(ride, clock.millis()));
+    }
+
+    /**
+     * Writes every completed ride queued so far to new segments. Runs on the flusher thread every
+     * flush interval; rides that fail to be written stay queued for the next flush.
+     *
+     * @return the number of rides archived
+     */
+    public synchronized int flush() {
+        int archived = 0;
+        while (!pending.isEmpty()) {
+            List<Pending> batch = new ArrayList<>(Math.min(segmentRides, pending.size()));
+            Pending next;
+            while (batch.size() < segmentRides && (next = pending.poll()) != null) {
+                batch.add(next);
+            }
+            List<ArchivedRide> rows = new ArrayList<>(batch.size());
+            for (Pending entry : batch) {
+                rows.add(toArchived(entry));
+            }
+            rows.sort(Comparator.comparing(ArchivedRide::requestedAt));
+
+            Path file = directory.resolve(String.format("rides-%012d%s", nextSegment, ArchiveSegment.SUFFIX));
+            try {
+                segments.add(ArchiveSegment.write(file, rows));
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to archive {} rides to {}", batch.size(), file, e);
+                pending.addAll(batch);
+                return archived;
+            }
+            nextSegment++;
+            archived += batch.size();
+
+            if (evict) {
+                for (Pending entry : batch) {
+                    Ride ride = entry.ride();
+                    // Only the completed ride itself; an id that now maps elsewhere is still live
+                    if (ride.isCompleted() && rideRepository.findById(ride.getId()) == ride) {
+                        rideRepository.remove(ride.getId());
+                    }
+                }
+            }
+        }
+        return archived;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scanners.isShutdown()) {
+            scanners = new ForkJoinPool(parallelism);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ride-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        // Completions since the last flush would otherwise be lost with the heap
+        flush();
+        scanners.shutdown();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return flusher != null;
+    }
+
+    /**
+     * @return the number of archived rides, over every segment
+     */
+    public long size() {
+        long rides = 0;
+        for (ArchiveSegment segment : segments) {
+            rides += segment.getRows();
+        }
+        return rides;
+    }
+
+    /**
+     * Counts the rides requested in [from, to) per pickup cell at {@code level} and per hour,
+     * reading only the request time and pickup columns.
+     *
+     * @return the counts ordered by hour, then cell
+     * @throws BadRequestException if the range or level is invalid
+     */
+    public List<CellHourCount> ridesPerCellPerHour(Instant from, Instant to, int level) {
+        if (level < 0 || level > CellId.MAX_LEVEL) {
+            throw new BadRequestException("'level' must be between 0 and " + CellId.MAX_LEVEL);
+        }
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        // Rows come in request time order, so the hour's table is looked up once per hour, not per row
+        List<HourlyCounts> partials = scanSegments(from, to, HourlyCounts::new, (segment, partial) ->
+                segment.scanPickups(fromMillis, toMillis, (requestedAt, x, y) ->
+                        partial.of(Math.floorDiv(requestedAt, HOUR_MILLIS)).add(CellId.prefixOf(x, y, level), 1)));
+        HourlyCounts counts = new HourlyCounts();
+        for (HourlyCounts partial : partials) {
+            partial.byHour.forEach((hour, cells) -> counts.of(hour).addAll(cells));
+        }
+
+        double cellSize = CellId.cellSize(level);
+        List<CellHourCount> result = new ArrayList<>();
+        counts.byHour.forEach((hour, cells) -> cells.forEach((cell, rides) -> result.add(new CellHourCount(cell,
+                (CellId.gridX(cell) + 0.5) * cellSize - CellId.MAX_COORDINATE,
+                (CellId.gridY(cell) + 0.5) * cellSize - CellId.MAX_COORDINATE,
+                Instant.ofEpochMilli(hour * HOUR_MILLIS), rides))));
+        result.sort(Comparator.comparing(CellHourCount::hour).thenComparingLong(CellHourCount::cellId));
+        return result;
+    }
+
+    /**
+     * Reduces every ride requested in [from, to) with {@code collector}. Segments are scanned in
+     * parallel, each into its own container, so the collector must combine correctly.
+     *
+     * @throws BadRequestException if {@code from} is after {@code to}
+     */
+    public <A, R> R scan(Instant from, Instant to, Collector<ArchivedRide, A, R> collector) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        BiConsumer<A, ArchivedRide> accumulator = collector.accumulator();
+        List<A> partials = scanSegments(from, to, collector.supplier(), (segment, partial) ->
+                segment.scan(fromMillis, toMillis, ride -> accumulator.accept(partial, ride)));
+
+        A result = partials.isEmpty() ? collector.supplier().get() : partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            result = collector.combiner().apply(result, partials.get(i));
+        }
+        return collector.finisher().apply(result);
+    }
+
+    // One partial result per segment overlapping [from, to), in segment order
+    private <P> List<P> scanSegments(Instant from, Instant to, Supplier<P> supplier, BiConsumer<ArchiveSegment, P> scan) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<ForkJoinTask<P>> tasks = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            if (segment.overlaps(fromMillis, toMillis)) {
+                tasks.add(scanners.submit(() -> {
+                    P partial = supplier.get();
+                    scan.accept(segment, partial);
+                    return partial;
+                }));
+            }
+        }
+        List<P> partials = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<P> task : tasks) {
+            partials.add(task.join());
+        }
+        return partials;
+    }
+
+    private long sequenceOf(String name) {
+        try {
+            return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - ArchiveSegment.SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static ArchivedRide toArchived(Pending entry) {
+        Ride ride = entry.ride();
+        return new ArchivedRide(ride.getId(), ride.getRiderId(), ride.getDriver().getId(),
+                ride.getPickupLocation().x(), ride.getPickupLocation().y(),
+                Instant.ofEpochMilli(ride.getRequestedAt()), Instant.ofEpochMilli(entry.completedAt()));
+    }
+}
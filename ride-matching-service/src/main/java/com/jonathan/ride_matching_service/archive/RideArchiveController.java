@@ -0,0 +1,33 @@
+package com.jonathan.ride_matching_service.archive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/archive")
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class RideArchiveController {
+
+    private final RideArchive rideArchive;
+
+    public RideArchiveController(RideArchive rideArchive) {
+        this.rideArchive = rideArchive;
+    }
+
+    /**
+     * Archived rides requested in [{@code from}, {@code to}), per pickup cell at {@code level} and per hour.
+     */
+    @GetMapping("/rides-per-cell")
+    public List<CellHourCount> getRidesPerCell(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                               @RequestParam(defaultValue = "17") int level) {
+        return rideArchive.ridesPerCellPerHour(from, to, level);
+    }
+}
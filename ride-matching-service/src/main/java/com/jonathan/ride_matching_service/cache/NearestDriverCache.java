@@ -0,0 +1,269 @@
+package com.jonathan.ride_matching_service.cache;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Caches the candidates of nearest-driver queries per quantised pickup cell and limit.
+ * <p>
+ * An entry holds every available driver that can be among the {@code limit} nearest to any
+ * point of its key cell: all drivers within the k-th nearest distance from the cell centre plus
+ * the cell diagonal. A hit re-ranks those few drivers for the actual pickup, so it returns the
+ * same drivers as a full scan. Driver changes stamp their invalidation cell with the time of
+ * the change; an entry is dropped once any cell its candidate disc overlaps was stamped after
+ * the entry's scan started, or after the TTL.
+ * <p>
+ * Only straight-line planar matching is cached; the disc is in coordinate units.
+ */
+@Component
+@ConditionalOnProperty(prefix = "matching.cache", name = "enabled", havingValue = "true")
+public class NearestDriverCache implements DriverListener {
+
+    private static final int CACHE_STRIPES = 16;
+    private static final int CHANGE_STRIPES = 4096;
+
+    private final int keyLevel;
+    private final int invalidateLevel;
+    private final double keyCellSize;
+    private final long ttlNanos;
+    private final int maxCoveredCells;
+    private final Map<Key, Entry>[] cache;
+    // nanoTime of the last driver change per invalidation cell, hashed into stripes; collisions only invalidate more
+    private final AtomicLongArray changedAt = new AtomicLongArray(CHANGE_STRIPES);
+    private final Counter hits;
+    private final Counter misses;
+
+    @SuppressWarnings("unchecked")
+    public NearestDriverCache(DriverRepository driverRepository, MatchingProperties matchingProperties, MeterRegistry meterRegistry) {
+        MatchingProperties.Cache properties = matchingProperties.cache();
+        this.keyLevel = properties.keyLevel();
+        this.invalidateLevel = properties.invalidateLevel();
+        this.keyCellSize = CellId.cellSize(keyLevel);
+        this.ttlNanos = properties.ttl().toNanos();
+        this.maxCoveredCells = properties.maxCoveredCells();
+        this.cache = new Map[CACHE_STRIPES];
+
+        int stripeCapacity = Math.max(1, properties.size() / CACHE_STRIPES);
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            cache[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > stripeCapacity;
+                }
+            };
+        }
+        for (int i = 0; i < CHANGE_STRIPES; i++) {
+            changedAt.set(i, Long.MIN_VALUE);
+        }
+
+        this.hits = Counter.builder("matching.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("matching.cache.misses").register(meterRegistry);
+        driverRepository.addListener(this);
+    }
+
+    /**
+     * Returns the {@code limit} nearest available drivers to {@code pickup}, closest first,
+     * scanning {@code drivers} only when no valid entry covers the query.
+     */
+    public List<Driver> findNearest(Location pickup, int limit, Supplier<List<Driver>> drivers) {
+        Key key = new Key(CellId.prefixOf(pickup.x(), pickup.y(), keyLevel), limit);
+        Map<Key, Entry> stripe = cache[(int) (mix(key.cell() * 31 + limit) & (CACHE_STRIPES - 1))];
+
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+        }
+        if (entry != null && isValid(entry)) {
+            List<Driver> nearest = rerank(entry.candidates(), pickup, limit);
+            // A driver claimed since the last check makes the entry stale; never serve it
+            if (nearest != null) {
+                hits.increment();
+                return nearest;
+            }
+        }
+
+        misses.increment();
+        long startedAt = System.nanoTime();
+        List<Driver> available = drivers.get();
+        Entry computed = scan(key.cell(), limit, available, startedAt);
+        synchronized (stripe) {
+            if (computed != null) {
+                stripe.put(key, computed);
+            } else {
+                stripe.remove(key);
+            }
+        }
+
+        return rerankAvailable(computed != null ? Arrays.asList(computed.candidates()) : available, pickup, limit);
+    }
+
+    /**
+     * @return the entry for the key cell, or null if it cannot be cached (too few drivers or too large a disc)
+     */
+    private Entry scan(long keyCell, int limit, List<Driver> drivers, long startedAt) {
+        double centreX = (CellId.gridX(keyCell) + 0.5) * keyCellSize - CellId.MAX_COORDINATE;
+        double centreY = (CellId.gridY(keyCell) + 0.5) * keyCellSize - CellId.MAX_COORDINATE;
+        DistanceMetric.Ranker ranker = DistanceMetric.PLANAR.ranker(new Location(centreX, centreY));
+
+        List<Candidate> byDistance = new ArrayList<>(drivers.size());
+        for (Driver driver : drivers) {
+            double squared = driver.rankIfAvailable(ranker);
+            if (!Double.isNaN(squared)) {
+                byDistance.add(new Candidate(driver, squared));
+            }
+        }
+        if (limit <= 0 || byDistance.size() < limit) {
+            return null;
+        }
+        byDistance.sort(Comparator.comparingDouble(Candidate::squaredDistance));
+
+        double radius = Math.sqrt(byDistance.get(limit - 1).squaredDistance()) + keyCellSize * Math.sqrt(2);
+        int[] coveredStripes = coveredStripes(centreX, centreY, radius);
+        if (coveredStripes == null) {
+            return null;
+        }
+
+        Driver[] candidates = byDistance.stream()
+                .takeWhile(candidate -> candidate.squaredDistance() <= radius * radius)
+                .map(Candidate::driver)
+                .toArray(Driver[]::new);
+        return new Entry(candidates, coveredStripes, startedAt);
+    }
+
+    private int[] coveredStripes(double x, double y, double radius) {
+        long low = CellId.prefixOf(x - radius, y - radius, invalidateLevel);
+        long high = CellId.prefixOf(x + radius, y + radius, invalidateLevel);
+        long width = CellId.gridX(high) - CellId.gridX(low) + 1;
+        long height = CellId.gridY(high) - CellId.gridY(low) + 1;
+        if (width * height > maxCoveredCells) {
+            return null;
+        }
+
+        int[] stripes = new int[(int) (width * height)];
+        int i = 0;
+        for (long gridY = CellId.gridY(low); gridY <= CellId.gridY(high); gridY++) {
+            for (long gridX = CellId.gridX(low); gridX <= CellId.gridX(high); gridX++) {
+                stripes[i++] = changeStripe(CellId.fromGrid(gridX, gridY));
+            }
+        }
+        return stripes;
+    }
+
+    private boolean isValid(Entry entry) {
+        if (System.nanoTime() - entry.scannedAt() > ttlNanos) {
+            return false;
+        }
+        for (int stripe : entry.coveredStripes()) {
+            if (changedAt.get(stripe) >= entry.scannedAt()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the nearest {@code limit} candidates to {@code pickup}, or null if one of them is no longer available
+     */
+    private static List<Driver> rerank(Driver[] candidates, Location pickup, int limit) {
+        DistanceMetric.Ranker ranker = DistanceMetric.PLANAR.ranker(pickup);
+        Candidate[] ranked = new Candidate[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            double squared = candidates[i].rankIfAvailable(ranker);
+            if (Double.isNaN(squared)) {
+                return null;
+            }
+            ranked[i] = new Candidate(candidates[i], squared);
+        }
+        Arrays.sort(ranked, Comparator.comparingDouble(Candidate::squaredDistance));
+
+        return Arrays.stream(ranked, 0, Math.min(limit, ranked.length))
+                .map(Candidate::driver)
+                .toList();
+    }
+
+    private static List<Driver> rerankAvailable(List<Driver> candidates, Location pickup, int limit) {
+        DistanceMetric.Ranker ranker = DistanceMetric.PLANAR.ranker(pickup);
+        return candidates.stream()
+                .map(driver -> new Candidate(driver, driver.rankIfAvailable(ranker)))
+                .filter(candidate -> !Double.isNaN(candidate.squaredDistance()))
+                .sorted(Comparator.comparingDouble(Candidate::squaredDistance))
+                .limit(limit)
+                .map(Candidate::driver)
+                .toList();
+    }
+
+    @Override
+    public void onSaved(Driver driver) {
+        changed(driver.getCellId());
+    }
+
+    @Override
+    public void onRemoved(Driver driver) {
+        changed(driver.getCellId());
+    }
+
+    // The new cell is stamped by the onLocationChanged that follows
+    @Override
+    public void onCellChanged(Driver driver, long oldCellId, long newCellId) {
+        changed(oldCellId);
+    }
+
+    @Override
+    public void onLocationChanged(Driver driver) {
+        changed(driver.getCellId());
+    }
+
+    @Override
+    public void onAvailabilityChanged(Driver driver, boolean available) {
+        changed(driver.getCellId());
+    }
+
+    // Callbacks run after the change is visible, so a scan that starts after this stamp sees it
+    private void changed(long cellId) {
+        int stripe = changeStripe(CellId.prefix(cellId, invalidateLevel));
+        long now = System.nanoTime();
+        while (true) {
+            long current = changedAt.get(stripe);
+            if (current >= now || changedAt.compareAndSet(stripe, current, now)) {
+                return;
+            }
+        }
+    }
+
+    private static int changeStripe(long cell) {
+        return (int) (mix(cell) & (CHANGE_STRIPES - 1));
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        return key ^ (key >>> 33);
+    }
+
+    private record Key(long cell, int limit) {
+    }
+
+    private record Entry(Driver[] candidates, int[] coveredStripes, long scannedAt) {
+    }
+
+    private record Candidate(Driver driver, double squaredDistance) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.jonathan.ride_matching_service.cluster;
+
+import com.jonathan.ride_matching_service.dto.DriverHandoff;
+import com.jonathan.ride_matching_service.service.DriverService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Node-to-node endpoints; not meant for clients.
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private final DriverService driverService;
+
+    public ClusterController(DriverService driverService) {
+        this.driverService = driverService;
+    }
+
+    /**
+     * Releases a driver that is not on a ride to the calling node, which now owns its position.
+     * Asked again by the same node, answers with the same handoff until it is acknowledged.
+     * Replies 409 if the driver is on a ride and 404 if this node does not hold it.
+     */
+    @PostMapping("/drivers/{driverId}/handoff")
+    public DriverHandoff handOffDriver(@PathVariable String driverId, @RequestParam String node) {
+        return driverService.handOffDriver(driverId, node);
+    }
+
+    /**
+     * Called by the node that took the driver once it is registered there.
+     */
+    @DeleteMapping("/drivers/{driverId}/handoff")
+    public void acknowledgeHandoff(@PathVariable String driverId, @RequestParam String node) {
+        driverService.acknowledgeHandoff(driverId, node);
+    }
+}
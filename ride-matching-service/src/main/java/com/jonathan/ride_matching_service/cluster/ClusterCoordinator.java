@@ -0,0 +1,311 @@
+package com.jonathan.ride_matching_service.cluster;
+
+import com.jonathan.ride_matching_service.config.ClusterProperties;
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.dto.DriverHandoff;
+import com.jonathan.ride_matching_service.dto.DriverRegistrationRequest;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideRequest;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.dto.UpdateDriverRequest;
+import com.jonathan.ride_matching_service.exception.ClusterException;
+import com.jonathan.ride_matching_service.exception.ConflictException;
+import com.jonathan.ride_matching_service.exception.ErrorResponse;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.exception.RepositorySaveException;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Routes driver and ride operations to the node owning the affected location.
+ * <p>
+ * Drivers live on the owner of their position. A driver that moves into another node's
+ * partition is handed off to that node, unless it is on a ride: it then stays with the node
+ * holding the ride until a later update after completion. Rides live on the node that matched
+ * them. Near a partition border, matching asks every owner within
+ * {@link ClusterProperties#borderDistance()} for its nearest driver and books on the closest.
+ */
+@Service
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterCoordinator {
+
+    private static final int TAKEOVER_STRIPES = 16;
+    private static final ParameterizedTypeReference<List<DriverResponse>> DRIVER_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final ClusterRouter router;
+    private final DriverService driverService;
+    private final RideService rideService;
+    private final MatchingService matchingService;
+    private final DriverRepository driverRepository;
+    private final DistanceMetric distanceMetric;
+    private final double borderDistance;
+    // Takeovers of one driver run one at a time, so concurrent first pings pull it from its peer once
+    private final Object[] takeoverLocks = new Object[TAKEOVER_STRIPES];
+
+    public ClusterCoordinator(ClusterRouter router,
+                              DriverService driverService,
+                              RideService rideService,
+                              MatchingService matchingService,
+                              DriverRepository driverRepository,
+                              ClusterProperties clusterProperties,
+                              MatchingProperties matchingProperties) {
+        this.router = router;
+        this.driverService = driverService;
+        this.rideService = rideService;
+        this.matchingService = matchingService;
+        this.driverRepository = driverRepository;
+        this.distanceMetric = matchingProperties.distanceMetric();
+        this.borderDistance = clusterProperties.borderDistance();
+        Arrays.setAll(takeoverLocks, stripe -> new Object());
+    }
+
+    public void registerDriver(DriverRegistrationRequest request) {
+        String owner = router.ownerOf(new Location(request.x(), request.y()));
+
+        if (router.isLocal(owner)) {
+            driverService.registerDriver(request.driverId(), new Location(request.x(), request.y()),
+                    DriverProfile.of(request.vehicleType(), request.rating()));
+            return;
+        }
+        remote(owner, () -> router.client(owner).post()
+                .uri("/drivers")
+                .body(request)
+                .retrieve()
+                .toBodilessEntity());
+    }
+
+    /**
+     * @param forwarded true if another node already routed the request here
+     */
+    public DriverResponse updateDriver(String driverId, UpdateDriverRequest request, boolean forwarded) {
+        String owner = router.ownerOf(new Location(request.x(), request.y()));
+
+        String holder = forwarded || router.isLocal(owner) ? takeOwnership(driverId) : owner;
+        if (holder == null) {
+            return driverService.updateDriver(driverId, new Location(request.x(), request.y()), request.available());
+        }
+        return remote(holder, () -> router.client(holder).put()
+                .uri("/drivers/{driverId}", driverId)
+                .body(request)
+                .retrieve()
+                .body(DriverResponse.class));
+    }
+
+    /**
+     * Location ping; returns the driver when {@code representation} is set, otherwise null.
+     */
+    public DriverResponse updateDriverLocation(String driverId, double x, double y, boolean representation, boolean forwarded) {
+        String owner = router.ownerOf(new Location(x, y));
+
+        String holder = forwarded || router.isLocal(owner) ? takeOwnership(driverId) : owner;
+        if (holder == null) {
+            driverService.updateDriverLocation(driverId, x, y);
+            return representation ? driverService.getDriver(driverId) : null;
+        }
+        return remote(holder, () -> {
+            var ping = router.client(holder).put()
+                    .uri("/drivers/{driverId}/location?x={x}&y={y}", driverId, x, y);
+            if (representation) {
+                ping.header("Prefer", "return=representation");
+            }
+            return ping.retrieve().body(DriverResponse.class);
+        });
+    }
+
+    public RideResponse requestRide(RideRequest request) {
+        Location pickup = new Location(request.x(), request.y());
+        Set<String> owners = router.ownersNear(pickup, borderDistance);
+
+        List<String> candidates = owners.size() == 1 ? List.copyOf(owners) : byNearestDriver(owners, pickup);
+        for (String node : candidates) {
+            try {
+                if (router.isLocal(node)) {
+                    return request.wantsSharedRide()
+                            ? rideService.requestSharedRide(request.riderId(), pickup, request.dropoffLocation(), request.vehicleType())
+                            : rideService.requestRide(request.riderId(), pickup, request.vehicleType());
+                }
+                return remote(node, () -> router.client(node).post()
+                        .uri("/rides")
+                        .body(request)
+                        .retrieve()
+                        .body(RideResponse.class));
+            } catch (NotFoundException e) {
+                // The driver was taken in the meantime; try the next closest node
+            }
+        }
+        throw new NotFoundException("No available drivers found");
+    }
+
+    /**
+     * Completes a ride on whichever node booked it.
+     */
+    public void completeRide(String rideId) {
+        try {
+            rideService.completeRide(rideId);
+            return;
+        } catch (NotFoundException e) {
+            // Booked on another node
+        }
+
+        for (String peer : router.peers()) {
+            try {
+                remote(peer, () -> router.client(peer).post()
+                        .uri("/rides/{rideId}/complete", rideId)
+                        .retrieve()
+                        .toBodilessEntity());
+                return;
+            } catch (NotFoundException e) {
+                // Not this node either
+            }
+        }
+        throw new NotFoundException("Ride not found");
+    }
+
+    /**
+     * Merges the nearest drivers of every owner within the border distance.
+     * Results are ordered by the configured distance metric.
+     */
+    public List<DriverResponse> findNearestAvailableDrivers(Location location, int limit) {
+        List<DriverResponse> drivers = new ArrayList<>();
+        for (String node : router.ownersNear(location, borderDistance)) {
+            drivers.addAll(nearestDrivers(node, location, limit));
+        }
+
+        return drivers.stream()
+                .sorted(Comparator.comparingDouble(driver -> distanceMetric.distance(location, new Location(driver.x(), driver.y()))))
+                .limit(limit)
+                .toList();
+    }
+
+    // Orders nodes by the distance of their nearest available driver; nodes without one are dropped
+    private List<String> byNearestDriver(Set<String> owners, Location pickup) {
+        record Candidate(String node, double distance) {
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (String node : owners) {
+            for (DriverResponse driver : nearestDrivers(node, pickup, 1)) {
+                candidates.add(new Candidate(node, distanceMetric.distance(pickup, new Location(driver.x(), driver.y()))));
+            }
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distance))
+                .map(Candidate::node)
+                .toList();
+    }
+
+    private List<DriverResponse> nearestDrivers(String node, Location location, int limit) {
+        try {
+            if (router.isLocal(node)) {
+                return matchingService.findNearestAvailableDrivers(location, limit);
+            }
+            return remote(node, () -> router.client(node).get()
+                    .uri("/rides/available-drivers?x={x}&y={y}&limit={limit}", location.x(), location.y(), limit)
+                    .retrieve()
+                    .body(DRIVER_LIST));
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Makes sure this node holds the driver, pulling it from the peer that owns it unless it is on
+     * a ride. Idempotent: a driver that is already local, or was registered here meanwhile, counts
+     * as taken, and a peer answers a retry after a lost response with the same handoff.
+     * @return null if the driver is now local, otherwise the peer that keeps it because it is on a ride
+     */
+    private String takeOwnership(String driverId) {
+        if (driverRepository.findById(driverId) != null) {
+            return null;
+        }
+
+        synchronized (takeoverLocks[Math.floorMod(driverId.hashCode(), TAKEOVER_STRIPES)]) {
+            // A concurrent ping may have pulled the driver while this one waited
+            if (driverRepository.findById(driverId) != null) {
+                return null;
+            }
+            for (String peer : router.peers()) {
+                try {
+                    DriverHandoff handedOff = remote(peer, () -> router.client(peer).post()
+                            .uri("/internal/cluster/drivers/{driverId}/handoff?node={node}", driverId, router.getNodeId())
+                            .retrieve()
+                            .body(DriverHandoff.class));
+                    takeOver(handedOff);
+                    acknowledge(peer, driverId);
+                    return null;
+                } catch (ConflictException e) {
+                    return peer;
+                } catch (NotFoundException e) {
+                    // Not on this peer
+                }
+            }
+        }
+        throw new NotFoundException("Driver not found with id: " + driverId);
+    }
+
+    private void takeOver(DriverHandoff handedOff) {
+        try {
+            driverService.takeOverDriver(handedOff);
+        } catch (RepositorySaveException e) {
+            // Registered here by a concurrent registration, which keeps its own state
+            if (driverRepository.findById(handedOff.driverId()) == null) {
+                throw e;
+            }
+        }
+    }
+
+    // Best effort: a peer that misses it drops the handoff on its own after a while
+    private void acknowledge(String peer, String driverId) {
+        try {
+            remote(peer, () -> router.client(peer).delete()
+                    .uri("/internal/cluster/drivers/{driverId}/handoff?node={node}", driverId, router.getNodeId())
+                    .retrieve()
+                    .toBodilessEntity());
+        } catch (ClusterException | NotFoundException e) {
+            // The driver is registered here either way
+        }
+    }
+
+    // Maps remote error responses back onto the local exception types
+    private <T> T remote(String node, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (RestClientResponseException e) {
+            ErrorResponse error = e.getResponseBodyAs(ErrorResponse.class);
+            String message = error != null ? error.message() : e.getStatusText();
+
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                throw new NotFoundException(message);
+            }
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)) {
+                throw new ConflictException(message);
+            }
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.BAD_REQUEST)) {
+                throw new RepositorySaveException(message);
+            }
+            throw new ClusterException("Node " + node + " failed: " + message, e);
+        } catch (RestClientException e) {
+            throw new ClusterException("Node " + node + " is unreachable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.jonathan.ride_matching_service.cluster;
+
+import com.jonathan.ride_matching_service.config.ClusterProperties;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps locations to the node that owns them. The plane is cut into {@link CellId} partitions
+ * at {@link ClusterProperties#partitionLevel()} and each partition is assigned to a node with a
+ * {@link ConsistentHashRing}, so every node computes the same owner without coordination.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterRouter {
+
+    /**
+     * Set on node-to-node requests; the receiving node handles them without routing them again.
+     */
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded-By";
+
+    // Border searches spanning more partitions than this simply ask every node
+    private static final int MAX_BORDER_PARTITIONS = 1024;
+
+    private final String nodeId;
+    private final int partitionLevel;
+    private final double partitionSize;
+    private final ConsistentHashRing ring;
+    private final Map<String, RestClient> clients = new LinkedHashMap<>();
+
+    public ClusterRouter(ClusterProperties properties) {
+        List<String> nodeIds = properties.nodes().stream().map(ClusterProperties.Node::id).toList();
+        if (!nodeIds.contains(properties.nodeId())) {
+            throw new IllegalStateException("cluster.node-id '" + properties.nodeId() + "' is not one of cluster.nodes " + nodeIds);
+        }
+
+        this.nodeId = properties.nodeId();
+        this.partitionLevel = properties.partitionLevel();
+        this.partitionSize = CellId.cellSize(partitionLevel);
+        this.ring = new ConsistentHashRing(nodeIds, properties.virtualNodes());
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.timeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.timeout());
+
+        for (ClusterProperties.Node node : properties.nodes()) {
+            if (!node.id().equals(nodeId)) {
+                clients.put(node.id(), RestClient.builder()
+                        .baseUrl(node.url().toString())
+                        .requestFactory(requestFactory)
+                        .defaultHeader(FORWARDED_HEADER, nodeId)
+                        .build());
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isLocal(String owner) {
+        return nodeId.equals(owner);
+    }
+
+    public String ownerOf(Location location) {
+        return ring.ownerOf(CellId.prefixOf(location.x(), location.y(), partitionLevel));
+    }
+
+    /**
+     * Returns the owners of every partition within {@code radius} (per axis) of {@code location},
+     * starting with the owner of the location itself.
+     */
+    public Set<String> ownersNear(Location location, double radius) {
+        Set<String> owners = new LinkedHashSet<>();
+        owners.add(ownerOf(location));
+
+        long minX = partitionIndex(location.x() - radius);
+        long maxX = partitionIndex(location.x() + radius);
+        long minY = partitionIndex(location.y() - radius);
+        long maxY = partitionIndex(location.y() + radius);
+
+        if ((maxX - minX + 1) * (maxY - minY + 1) > MAX_BORDER_PARTITIONS) {
+            owners.add(nodeId);
+            owners.addAll(clients.keySet());
+            return owners;
+        }
+
+        for (long px = minX; px <= maxX; px++) {
+            for (long py = minY; py <= maxY; py++) {
+                // Partition centres avoid rounding onto a neighbouring partition
+                owners.add(ring.ownerOf(CellId.prefixOf((px + 0.5) * partitionSize, (py + 0.5) * partitionSize, partitionLevel)));
+            }
+        }
+        return owners;
+    }
+
+    public Set<String> peers() {
+        return clients.keySet();
+    }
+
+    /**
+     * @return a client for {@code owner} that marks its requests with {@link #FORWARDED_HEADER}
+     */
+    public RestClient client(String owner) {
+        RestClient client = clients.get(owner);
+        if (client == null) {
+            throw new IllegalArgumentException("Unknown cluster node: " + owner);
+        }
+        return client;
+    }
+
+    private long partitionIndex(double coordinate) {
+        return (long) Math.floor(coordinate / partitionSize);
+    }
+}
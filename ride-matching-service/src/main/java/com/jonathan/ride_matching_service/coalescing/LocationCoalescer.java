@@ -0,0 +1,193 @@
+package com.jonathan.ride_matching_service.coalescing;
+
+import com.jonathan.ride_matching_service.config.CoalescingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers driver positions and publishes only the latest one per driver at a fixed cadence,
+ * so bursts of pings cost one seqlock write and at most one index move per flush instead of
+ * one per ping. A driver that jumps further than the immediate distance from its published
+ * position is published at once, so large moves never wait for the next flush.
+ * <p>
+ * Positions are buffered in lock-striped open-addressing tables keyed on the driver, which a
+ * ping only allocates into when a table has to grow.
+ */
+@Component
+@ConditionalOnProperty(name = "location.coalescing.enabled", havingValue = "true")
+public class LocationCoalescer implements SmartLifecycle {
+
+    private final Stripe[] stripes;
+    private final double immediateDistance;
+    private final long flushIntervalNanos;
+
+    // Flush only; flushes are serialised
+    private Driver[] flushDrivers = new Driver[64];
+    private double[] flushXs = new double[64];
+    private double[] flushYs = new double[64];
+
+    private ScheduledExecutorService flusher;
+
+    public LocationCoalescer(CoalescingProperties properties) {
+        int count = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.immediateDistance = properties.immediateDistance();
+        this.flushIntervalNanos = properties.flushInterval().toNanos();
+    }
+
+    /**
+     * Records the newest position of {@code driver}.
+     * @return true if the position was published right away because the driver moved far
+     */
+    public boolean submit(Driver driver, double x, double y) {
+        stripes[spread(driver.getHandle()) & (stripes.length - 1)].put(driver, x, y);
+
+        if (!driver.isWithin(x, y, immediateDistance)) {
+            // The buffered copy is republished at the next flush, which is harmless
+            driver.updateLocation(x, y);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publishes every buffered position.
+     * @return the number of drivers updated
+     */
+    public synchronized int flush() {
+        int flushed = 0;
+        for (Stripe stripe : stripes) {
+            int count = stripe.drain(this);
+            for (int i = 0; i < count; i++) {
+                flushDrivers[i].updateLocation(flushXs[i], flushYs[i]);
+                flushDrivers[i] = null;
+            }
+            flushed += count;
+        }
+        return flushed;
+    }
+
+    @Override
+    public synchronized void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = flusher;
+            flusher = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return flusher != null;
+    }
+
+    private void ensureFlushCapacity(int capacity) {
+        if (flushDrivers.length < capacity) {
+            flushDrivers = Arrays.copyOf(flushDrivers, capacity);
+            flushXs = Arrays.copyOf(flushXs, capacity);
+            flushYs = Arrays.copyOf(flushYs, capacity);
+        }
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * Latest pending position per driver, in an open-addressing table kept at most half full.
+     */
+    private static final class Stripe {
+
+        private Driver[] drivers = new Driver[16];
+        private double[] xs = new double[16];
+        private double[] ys = new double[16];
+        private int size;
+
+        synchronized void put(Driver driver, double x, double y) {
+            int slot = slotOf(drivers, driver);
+            if (drivers[slot] == null) {
+                if ((size + 1) * 2 > drivers.length) {
+                    grow();
+                    slot = slotOf(drivers, driver);
+                }
+                drivers[slot] = driver;
+                size++;
+            }
+            xs[slot] = x;
+            ys[slot] = y;
+        }
+
+        // Copies the pending positions into the coalescer's flush arrays and empties the table
+        synchronized int drain(LocationCoalescer target) {
+            if (size == 0) {
+                return 0;
+            }
+            target.ensureFlushCapacity(size);
+
+            int count = 0;
+            for (int slot = 0; slot < drivers.length; slot++) {
+                if (drivers[slot] != null) {
+                    target.flushDrivers[count] = drivers[slot];
+                    target.flushXs[count] = xs[slot];
+                    target.flushYs[count] = ys[slot];
+                    drivers[slot] = null;
+                    count++;
+                }
+            }
+            size = 0;
+            return count;
+        }
+
+        private void grow() {
+            Driver[] oldDrivers = drivers;
+            double[] oldXs = xs;
+            double[] oldYs = ys;
+            drivers = new Driver[oldDrivers.length * 2];
+            xs = new double[drivers.length];
+            ys = new double[drivers.length];
+
+            for (int i = 0; i < oldDrivers.length; i++) {
+                if (oldDrivers[i] != null) {
+                    int slot = slotOf(drivers, oldDrivers[i]);
+                    drivers[slot] = oldDrivers[i];
+                    xs[slot] = oldXs[i];
+                    ys[slot] = oldYs[i];
+                }
+            }
+        }
+
+        private static int slotOf(Driver[] table, Driver driver) {
+            int mask = table.length - 1;
+            // Higher bits than the stripe index, which would otherwise be the same for the whole stripe
+            int slot = (spread(driver.getHandle()) >>> 8) & mask;
+            while (table[slot] != null && table[slot] != driver) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
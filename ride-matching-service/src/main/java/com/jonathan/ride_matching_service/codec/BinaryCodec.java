@@ -0,0 +1,68 @@
+package com.jonathan.ride_matching_service.codec;
+
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary encoding for the high-volume response DTOs.
+ * <p>
+ * All values are big-endian. Strings are written with {@link DataOutput#writeUTF(String)}
+ * (2-byte length prefix), doubles as raw IEEE 754 bits and booleans as a single byte.
+ * <pre>
+ * DriverResponse       = id:utf x:f64 y:f64 available:u8
+ * RideResponse         = rideId:utf driverId:utf riderId:utf pickupX:f64 pickupY:f64
+ * List&lt;DriverResponse&gt; = count:i32 DriverResponse*
+ * </pre>
+ */
+public final class BinaryCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-ride-binary";
+
+    private BinaryCodec() {
+    }
+
+    public static void writeDriver(DataOutput out, DriverResponse driver) throws IOException {
+        out.writeUTF(driver.id());
+        out.writeDouble(driver.x());
+        out.writeDouble(driver.y());
+        out.writeBoolean(driver.available());
+    }
+
+    public static void writeDrivers(DataOutput out, List<DriverResponse> drivers) throws IOException {
+        out.writeInt(drivers.size());
+        for (DriverResponse driver : drivers) {
+            writeDriver(out, driver);
+        }
+    }
+
+    public static void writeRide(DataOutput out, RideResponse ride) throws IOException {
+        out.writeUTF(ride.rideId());
+        out.writeUTF(ride.driverId());
+        out.writeUTF(ride.riderId());
+        out.writeDouble(ride.pickupX());
+        out.writeDouble(ride.pickupY());
+    }
+
+    public static DriverResponse readDriver(DataInput in) throws IOException {
+        return new DriverResponse(in.readUTF(), in.readDouble(), in.readDouble(), in.readBoolean());
+    }
+
+    public static List<DriverResponse> readDrivers(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<DriverResponse> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            drivers.add(readDriver(in));
+        }
+        return drivers;
+    }
+
+    public static RideResponse readRide(DataInput in) throws IOException {
+        return new RideResponse(in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,80 @@
+package com.jonathan.ride_matching_service.codec;
+
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractSmartHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link DriverResponse}, {@code List<DriverResponse>} and {@link RideResponse} in the
+ * {@link BinaryCodec} layout when the client asks for {@value BinaryCodec#MEDIA_TYPE_VALUE}.
+ * Encoding goes straight into the response body stream without an intermediate buffer.
+ */
+public class BinaryHttpMessageConverter extends AbstractSmartHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(BinaryCodec.MEDIA_TYPE_VALUE);
+
+    public BinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canRead(ResolvableType type, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType targetType, Class<?> valueClass, MediaType mediaType) {
+        return isEncodable(targetType, valueClass) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(ResolvableType type, HttpInputMessage inputMessage, Map<String, Object> hints) {
+        throw new HttpMessageNotReadableException("Binary request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, ResolvableType type, HttpOutputMessage outputMessage,
+                                 Map<String, Object> hints) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputMessage.getBody());
+
+        if (body instanceof DriverResponse driver) {
+            BinaryCodec.writeDriver(out, driver);
+        } else if (body instanceof RideResponse ride) {
+            BinaryCodec.writeRide(out, ride);
+        } else if (body instanceof List<?> drivers && drivers.stream().allMatch(DriverResponse.class::isInstance)) {
+            BinaryCodec.writeDrivers(out, (List<DriverResponse>) drivers);
+        } else {
+            throw new HttpMessageNotWritableException("Unsupported type: " + body.getClass().getName());
+        }
+
+        out.flush();
+    }
+
+    private boolean isEncodable(ResolvableType targetType, Class<?> valueClass) {
+        Class<?> type = targetType.resolve(valueClass);
+
+        if (type == DriverResponse.class || type == RideResponse.class) {
+            return true;
+        }
+
+        if (!List.class.isAssignableFrom(type)) {
+            return false;
+        }
+
+        // The write phase passes the runtime list class without generics; elements are checked there
+        Class<?> elementType = targetType.asCollection().resolveGeneric(0);
+        return elementType == null || elementType == DriverResponse.class;
+    }
+}
@@ -0,0 +1,31 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Adaptive admission control for ride requests and driver queries, bound from {@code admission.*}.
+ *
+ * @param enabled       limit concurrent requests per endpoint and shed the excess with {@code 503}
+ * @param initialLimit  concurrency limit before any latency has been measured
+ * @param minLimit      lower bound of the adaptive limit
+ * @param maxLimit      upper bound of the adaptive limit
+ * @param tolerance     how much slower than the baseline latency requests may get before the limit shrinks
+ * @param smoothing     weight of each new limit estimate, between 0 and 1
+ * @param queueDeadline longest a request may wait for a permit; requests expected to wait longer are shed at once
+ * @param retryAfter    {@code Retry-After} sent with shed requests
+ */
+@ConfigurationProperties("admission")
+public record AdmissionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("32") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("512") int maxLimit,
+        @DefaultValue("1.5") double tolerance,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("100ms") Duration queueDeadline,
+        @DefaultValue("1s") Duration retryAfter
+) {
+}
@@ -0,0 +1,27 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * On-disk archive of completed rides, bound from {@code archive.*}.
+ *
+ * @param enabled       flush completed rides to segment files and serve scans from {@code /archive}
+ * @param directory     where segment files are written; existing segments are reopened on startup
+ * @param flushInterval how often completed rides are flushed to a new segment
+ * @param segmentRides  maximum number of rides in one segment file
+ * @param evict         drop archived rides from the in-memory repository once they are on disk
+ * @param parallelism   threads scanning segments in parallel; 0 for one per available processor
+ */
+@ConfigurationProperties("archive")
+public record ArchiveProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("ride-archive") String directory,
+        @DefaultValue("30s") Duration flushInterval,
+        @DefaultValue("65536") int segmentRides,
+        @DefaultValue("true") boolean evict,
+        @DefaultValue("0") int parallelism
+) {
+}
@@ -0,0 +1,34 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Multi-node cluster settings, bound from {@code cluster.*}.
+ *
+ * @param enabled        run as one node of a geo-partitioned cluster
+ * @param nodeId         id of this node; must appear in {@code nodes}
+ * @param nodes          every node of the cluster, including this one
+ * @param partitionLevel {@code CellId} level of the partitions assigned to nodes
+ * @param virtualNodes   points per node on the consistent hash ring
+ * @param borderDistance matching within this distance of another node's partition fans out to it
+ * @param timeout        connect and read timeout of node-to-node calls
+ */
+@ConfigurationProperties("cluster")
+public record ClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        String nodeId,
+        @DefaultValue List<Node> nodes,
+        @DefaultValue("17") int partitionLevel,
+        @DefaultValue("64") int virtualNodes,
+        @DefaultValue("1.0") double borderDistance,
+        @DefaultValue("2s") Duration timeout
+) {
+
+    public record Node(String id, URI url) {
+    }
+}
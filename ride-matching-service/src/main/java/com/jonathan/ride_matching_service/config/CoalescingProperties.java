@@ -0,0 +1,23 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Location update coalescing, bound from {@code location.coalescing.*}.
+ *
+ * @param enabled           buffer driver positions and publish only the latest one per interval
+ * @param flushInterval     cadence at which buffered positions are published to drivers and the cell index
+ * @param immediateDistance a move further than this from the published position (coordinate units) is published at once
+ * @param stripes           number of independently locked buffers; rounded up to a power of two
+ */
+@ConfigurationProperties("location.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("250ms") Duration flushInterval,
+        @DefaultValue("1.0") double immediateDistance,
+        @DefaultValue("16") int stripes
+) {
+}
@@ -0,0 +1,23 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Live supply and demand per area, bound from {@code heatmap.*}.
+ *
+ * @param enabled   maintain the per-cell aggregate and serve it from {@code GET /heatmap}
+ * @param level     {@code CellId} level of the heatmap cells
+ * @param bucket    granularity of the demand time windows
+ * @param retention longest window that can be queried
+ */
+@ConfigurationProperties("heatmap")
+public record HeatmapProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("17") int level,
+        @DefaultValue("10s") Duration bucket,
+        @DefaultValue("15m") Duration retention
+) {
+}
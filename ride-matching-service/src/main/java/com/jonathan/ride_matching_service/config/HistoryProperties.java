@@ -0,0 +1,25 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Driver position history, bound from {@code history.*}.
+ *
+ * @param enabled     record every driver's positions and serve them from {@code /history}
+ * @param segment     time span of one history segment; the unit in which history expires
+ * @param retention   how far back positions can be queried
+ * @param interval    how often the position of every driver that moved is recorded
+ * @param precision   coordinates are recorded as multiples of it
+ */
+@ConfigurationProperties("history")
+public record HistoryProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1m") Duration segment,
+        @DefaultValue("1h") Duration retention,
+        @DefaultValue("1s") Duration interval,
+        @DefaultValue("1.0E-6") double precision
+) {
+}
@@ -0,0 +1,99 @@
+package com.jonathan.ride_matching_service.config;
+
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the matching algorithm, bound from {@code matching.*}.
+ *
+ * @param distanceMetric metric used to rank and report driver distances
+ * @param eta            road-network ETA re-ranking
+ * @param cache          cache of nearest-driver query results
+ * @param scoring        multi-criteria scoring of ride assignments
+ */
+@ConfigurationProperties("matching")
+public record MatchingProperties(
+        @DefaultValue("planar") DistanceMetric distanceMetric,
+        @DefaultValue Eta eta,
+        @DefaultValue Cache cache,
+        @DefaultValue Scoring scoring
+) {
+
+    public static MatchingProperties defaults() {
+        return new MatchingProperties(DistanceMetric.PLANAR, Eta.disabled(), Cache.disabled(), Scoring.disabled());
+    }
+
+    /**
+     * @param enabled     re-rank straight-line candidates by road travel time
+     * @param graphFile   road graph in the {@code RoadGraphLoader} text format
+     * @param candidates  number of nearest straight-line candidates to re-rank
+     * @param landmarks   number of ALT landmarks precomputed at startup
+     * @param cacheSize   capacity of the LRU cache of node-to-node travel times
+     * @param accessSpeed speed used off the network, between a point and its snapped node,
+     *                    in distance-metric units per second
+     */
+    public record Eta(
+            @DefaultValue("false") boolean enabled,
+            Path graphFile,
+            @DefaultValue("8") int candidates,
+            @DefaultValue("8") int landmarks,
+            @DefaultValue("100000") int cacheSize,
+            @DefaultValue("5") double accessSpeed
+    ) {
+
+        public static Eta disabled() {
+            return new Eta(false, null, 8, 8, 100_000, 5);
+        }
+    }
+
+    /**
+     * @param enabled         serve repeated {@code available-drivers} queries from cached candidates
+     * @param keyLevel        {@code CellId} level queries are quantised to; queries in one cell share an entry
+     * @param invalidateLevel {@code CellId} level at which driver changes invalidate entries
+     * @param ttl             longest an entry is served, even without driver changes
+     * @param maxCoveredCells entries whose candidates span more invalidation cells are not cached
+     * @param size            capacity of the LRU cache
+     */
+    public record Cache(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("23") int keyLevel,
+            @DefaultValue("19") int invalidateLevel,
+            @DefaultValue("500ms") Duration ttl,
+            @DefaultValue("64") int maxCoveredCells,
+            @DefaultValue("10000") int size
+    ) {
+
+        public static Cache disabled() {
+            return new Cache(false, 23, 19, Duration.ofMillis(500), 64, 10_000);
+        }
+    }
+
+    /**
+     * Weights are applied to criteria normalised to {@code [0, 1]}, 0 being best; a criterion
+     * with weight 0 is not computed.
+     *
+     * @param enabled         assign rides by weighted score instead of by distance alone
+     * @param candidates      nearest drivers, by straight-line ranking key, that are scored
+     * @param distanceWeight  distance (or travel time in ETA mode) relative to the farthest candidate
+     * @param headingWeight   angle between the driver's last move and the direction to the pickup
+     * @param idleWeight      time since the last ride, relative to the longest-idle candidate; favours waiting drivers
+     * @param ratingWeight    driver rating below the maximum of 5; favours better-rated drivers
+     */
+    public record Scoring(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("16") int candidates,
+            @DefaultValue("1.0") double distanceWeight,
+            @DefaultValue("0.0") double headingWeight,
+            @DefaultValue("0.0") double idleWeight,
+            @DefaultValue("0.0") double ratingWeight
+    ) {
+
+        public static Scoring disabled() {
+            return new Scoring(false, 16, 1.0, 0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Pipelined ride matching, bound from {@code ride-pipeline.*}.
+ *
+ * @param enabled     queue ride requests for dedicated matcher threads instead of matching on the HTTP thread
+ * @param matchers    number of matcher threads; each owns the regions hashed to it
+ * @param ringSize    preallocated slots per matcher; rounded up to a power of two
+ * @param batchSize   most requests a matcher takes from its ring at once
+ * @param regionLevel {@code CellId} level of the regions assigned to matchers
+ * @param timeout     how long an HTTP handler waits for its match
+ */
+@ConfigurationProperties("ride-pipeline")
+public record PipelineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("2") int matchers,
+        @DefaultValue("1024") int ringSize,
+        @DefaultValue("64") int batchSize,
+        @DefaultValue("15") int regionLevel,
+        @DefaultValue("2s") Duration timeout
+) {
+}
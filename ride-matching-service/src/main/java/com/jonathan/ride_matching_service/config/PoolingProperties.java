@@ -0,0 +1,26 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Shared rides, bound from {@code pooling.*}.
+ *
+ * @param enabled           let riders who give a drop-off and ask for a shared ride join a driver's in-progress trip
+ * @param level             {@code CellId} level of the cells trip routes are indexed under
+ * @param candidates        nearest trips, by distance from the route, whose insertion cost is evaluated
+ * @param maxDetour         longest in-vehicle distance of a rider, as a multiple of their direct distance
+ * @param maxPickupDistance longest route distance to a waiting rider's pickup; a joining rider
+ *                          never pushes a pickup beyond it, or beyond where it already was
+ * @param arrivalRadius     distance at which a driver is taken to have picked a rider up
+ */
+@ConfigurationProperties("pooling")
+public record PoolingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("17") int level,
+        @DefaultValue("4") int candidates,
+        @DefaultValue("1.5") double maxDetour,
+        @DefaultValue("10.0") double maxPickupDistance,
+        @DefaultValue("0.25") double arrivalRadius
+) {
+}
@@ -0,0 +1,33 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hot-standby replication settings, bound from {@code replication.*}.
+ *
+ * @param role           {@code none}, {@code primary} or {@code replica}
+ * @param listenPort     port the change stream is served on while this node is primary; 0 to not serve it
+ * @param primaryHost    host of the primary a replica follows
+ * @param primaryPort    stream port of the primary a replica follows
+ * @param batchInterval  changes are coalesced and shipped once per interval; idle intervals send a heartbeat
+ * @param retryInterval  delay before a replica reconnects to its primary
+ */
+@ConfigurationProperties("replication")
+public record ReplicationProperties(
+        @DefaultValue("none") Role role,
+        @DefaultValue("0") int listenPort,
+        @DefaultValue("localhost") String primaryHost,
+        @DefaultValue("0") int primaryPort,
+        @DefaultValue("50ms") Duration batchInterval,
+        @DefaultValue("1s") Duration retryInterval
+) {
+
+    public enum Role {
+        NONE,
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -0,0 +1,30 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Predictive repositioning of idle drivers, bound from {@code repositioning.*}. Works on the
+ * cells of the supply/demand heatmap, which it enables.
+ *
+ * @param enabled     forecast demand and suggest moves to idle drivers
+ * @param interval    length of a forecasting round; demand is observed over the same window
+ * @param smoothing   weight of the latest observation in the exponentially smoothed forecast, between 0 and 1
+ * @param maxDistance longest suggested move, in coordinate units
+ * @param maxCells    most surplus and most deficit cells considered per round
+ * @param tick        how often the engine thread wakes up to continue a round
+ * @param cpuBudget   longest the engine works per tick
+ */
+@ConfigurationProperties("repositioning")
+public record RepositioningProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration interval,
+        @DefaultValue("0.3") double smoothing,
+        @DefaultValue("8.0") double maxDistance,
+        @DefaultValue("64") int maxCells,
+        @DefaultValue("100ms") Duration tick,
+        @DefaultValue("2ms") Duration cpuBudget
+) {
+}
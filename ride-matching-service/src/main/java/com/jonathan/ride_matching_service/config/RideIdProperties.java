@@ -0,0 +1,21 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Instant;
+
+/**
+ * Ride id generation, bound from {@code ride-ids.*}.
+ *
+ * @param mode   {@code uuid} for random UUIDs, {@code snowflake} for time-ordered 64-bit ids
+ * @param nodeId id of this node in snowflake ids, 0-255; must differ between nodes of a cluster
+ * @param epoch  start of snowflake timestamps, which cover about 69 years from it
+ */
+@ConfigurationProperties("ride-ids")
+public record RideIdProperties(
+        @DefaultValue("uuid") String mode,
+        @DefaultValue("0") int nodeId,
+        @DefaultValue("2025-01-01T00:00:00Z") Instant epoch
+) {
+}
@@ -0,0 +1,31 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Rides booked ahead, bound from {@code scheduling.*}.
+ *
+ * @param enabled       accept bookings on {@code /rides/scheduled}
+ * @param tick          resolution of the timing wheel
+ * @param slotsPerLevel slots on each level of the timing wheel (a power of two)
+ * @param levels        levels of the timing wheel; it spans {@code tick * slotsPerLevel^levels}
+ * @param leadTime      how long before the pickup time a driver is matched and held
+ * @param retryInterval pause between matching attempts while no driver is available
+ * @param horizon       how far ahead rides can be booked
+ * @param retention     how long finished bookings can still be looked up
+ */
+@ConfigurationProperties("scheduling")
+public record SchedulingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("64") int slotsPerLevel,
+        @DefaultValue("4") int levels,
+        @DefaultValue("10m") Duration leadTime,
+        @DefaultValue("30s") Duration retryInterval,
+        @DefaultValue("30d") Duration horizon,
+        @DefaultValue("1h") Duration retention
+) {
+}
@@ -0,0 +1,32 @@
+package com.jonathan.ride_matching_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Startup behaviour, bound from {@code startup.*}.
+ *
+ * @param warmup synthetic pre-touch of the matching path before requests are accepted
+ */
+@ConfigurationProperties("startup")
+public record StartupProperties(
+        @DefaultValue Warmup warmup
+) {
+
+    /**
+     * @param enabled run the matching path on synthetic drivers and rides before the web server starts
+     * @param drivers synthetic drivers registered
+     * @param rides   most synthetic rides requested and completed
+     * @param budget  longest the warm-up runs; it delays the first request, so only the first
+     *                rides, which load the classes on the path, are worth waiting for
+     */
+    public record Warmup(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("256") int drivers,
+            @DefaultValue("2000") int rides,
+            @DefaultValue("250ms") Duration budget
+    ) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.jonathan.ride_matching_service.config;
+
+import com.jonathan.ride_matching_service.admission.AdmissionControl;
+import com.jonathan.ride_matching_service.admission.AdmissionControlInterceptor;
+import com.jonathan.ride_matching_service.codec.BinaryHttpMessageConverter;
+import com.jonathan.ride_matching_service.replication.ReadOnlyReplicaInterceptor;
+import com.jonathan.ride_matching_service.replication.ReplicationManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ReplicationManager> replicationManager;
+    private final ObjectProvider<AdmissionControl> admissionControl;
+
+    public WebConfig(ObjectProvider<ReplicationManager> replicationManager,
+                     ObjectProvider<AdmissionControl> admissionControl) {
+        this.replicationManager = replicationManager;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * The binary converter is appended after the defaults so JSON stays the
+     * response format unless the client explicitly accepts the binary media type.
+     */
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.configureMessageConvertersList(converters -> converters.add(new BinaryHttpMessageConverter()));
+    }
+
+    // The replication manager is absent in web slice tests
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        replicationManager.ifAvailable(manager -> registry
+                .addInterceptor(new ReadOnlyReplicaInterceptor(manager))
+                .addPathPatterns("/drivers/**", "/rides/**"));
+        admissionControl.ifAvailable(control -> {
+            Duration retryAfter = control.getProperties().retryAfter();
+            registry.addInterceptor(new AdmissionControlInterceptor(control.getRideRequests(), HttpMethod.POST, retryAfter))
+                    .addPathPatterns("/rides");
+            registry.addInterceptor(new AdmissionControlInterceptor(control.getDriverQueries(), HttpMethod.GET, retryAfter))
+                    .addPathPatterns("/rides/available-drivers");
+        });
+    }
+}
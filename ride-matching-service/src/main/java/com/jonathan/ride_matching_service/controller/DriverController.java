@@ -1,8 +1,11 @@
 package com.jonathan.ride_matching_service.controller;
 
+import com.jonathan.ride_matching_service.cluster.ClusterCoordinator;
+import com.jonathan.ride_matching_service.cluster.ClusterRouter;
 import com.jonathan.ride_matching_service.dto.DriverRegistrationRequest;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.dto.UpdateDriverRequest;
+import com.jonathan.ride_matching_service.model.DriverProfile;
 import com.jonathan.ride_matching_service.model.Location;
 import com.jonathan.ride_matching_service.service.DriverService;
 import jakarta.validation.Valid;
@@ -11,30 +14,51 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/drivers")
 public class DriverController {
 
+    private static final String RETURN_REPRESENTATION = "return=representation";
+
     private final DriverService driverService;
+    // Present in cluster mode only
+    private final ClusterCoordinator cluster;
 
-    public DriverController(DriverService driverService) {
+    public DriverController(DriverService driverService, Optional<ClusterCoordinator> cluster) {
         this.driverService = driverService;
+        this.cluster = cluster.orElse(null);
     }
 
     @PostMapping
-    public ResponseEntity<Void> registerDriver(@RequestBody @Valid DriverRegistrationRequest request) {
+    public ResponseEntity<Void> registerDriver(@RequestBody @Valid DriverRegistrationRequest request,
+                                               @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (cluster != null && forwardedBy == null) {
+            cluster.registerDriver(request);
+            return ResponseEntity.ok().build();
+        }
+
         driverService.registerDriver(
                 request.driverId(),
-                new Location(request.x(), request.y())
+                new Location(request.x(), request.y()),
+                DriverProfile.of(request.vehicleType(), request.rating())
         );
         return ResponseEntity.ok().build();
     }
 
     @PutMapping("/{driverId}")
-    public ResponseEntity<DriverResponse> updateDriver(@PathVariable String driverId, @RequestBody UpdateDriverRequest request) {
+    public ResponseEntity<DriverResponse> updateDriver(@PathVariable String driverId, @RequestBody UpdateDriverRequest request,
+                                                       @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (cluster != null) {
+            return ResponseEntity.ok(cluster.updateDriver(driverId, request, forwardedBy != null));
+        }
+
         DriverResponse updatedDriver = driverService.updateDriver(
                 driverId,
                 new Location(request.x(), request.y()),
@@ -43,4 +67,29 @@ public class DriverController {
         return ResponseEntity.ok(updatedDriver);
     }
 
+    /**
+     * High-frequency GPS ping. Replies 204 without a body unless the client sends
+     * {@code Prefer: return=representation}.
+     */
+    @PutMapping("/{driverId}/location")
+    public ResponseEntity<DriverResponse> updateDriverLocation(@PathVariable String driverId,
+                                                               @RequestParam double x,
+                                                               @RequestParam double y,
+                                                               @RequestHeader(name = "Prefer", required = false) String prefer,
+                                                               @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        boolean representation = RETURN_REPRESENTATION.equals(prefer);
+
+        if (cluster != null) {
+            DriverResponse driver = cluster.updateDriverLocation(driverId, x, y, representation, forwardedBy != null);
+            return representation ? ResponseEntity.ok(driver) : ResponseEntity.noContent().build();
+        }
+
+        driverService.updateDriverLocation(driverId, x, y);
+
+        if (representation) {
+            return ResponseEntity.ok(driverService.getDriver(driverId));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
 }
@@ -1,21 +1,25 @@
 package com.jonathan.ride_matching_service.controller;
 
+import com.jonathan.ride_matching_service.cluster.ClusterCoordinator;
+import com.jonathan.ride_matching_service.cluster.ClusterRouter;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.dto.RideRequest;
 import com.jonathan.ride_matching_service.dto.RideResponse;
-import com.jonathan.ride_matching_service.mapper.DriverMapper;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.pipeline.RidePipeline;
 import com.jonathan.ride_matching_service.service.MatchingService;
 import com.jonathan.ride_matching_service.service.RideService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/rides")
@@ -23,27 +27,60 @@ public class RideController {
 
     private final RideService rideService;
     private final MatchingService matchingService;
+    // Present in cluster mode only; requests forwarded by another node are always served locally
+    private final ClusterCoordinator cluster;
+    // Present in pipelined mode only
+    private final RidePipeline ridePipeline;
 
-    public RideController(RideService rideService, MatchingService matchingService) {
+    public RideController(RideService rideService,
+                          MatchingService matchingService,
+                          Optional<ClusterCoordinator> cluster,
+                          Optional<RidePipeline> ridePipeline) {
         this.rideService = rideService;
         this.matchingService = matchingService;
+        this.cluster = cluster.orElse(null);
+        this.ridePipeline = ridePipeline.orElse(null);
     }
 
     @PostMapping
-    public RideResponse requestRide(@RequestBody RideRequest request) {
+    public RideResponse requestRide(@RequestBody RideRequest request,
+                                    @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (cluster != null && forwardedBy == null) {
+            return cluster.requestRide(request);
+        }
+        if (request.wantsSharedRide()) {
+            return rideService.requestSharedRide(request.riderId(), new Location(request.x(), request.y()),
+                    request.dropoffLocation(), request.vehicleType());
+        }
+        if (ridePipeline != null) {
+            return ridePipeline.requestRide(request.riderId(), new Location(request.x(), request.y()), request.vehicleType());
+        }
+
         return rideService.requestRide(
                 request.riderId(),
-                new Location(request.x(), request.y())
+                new Location(request.x(), request.y()),
+                request.vehicleType()
         );
     }
 
     @PostMapping("/{rideId}/complete")
-    public void completeRide(@PathVariable String rideId) {
+    public void completeRide(@PathVariable String rideId,
+                             @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (cluster != null && forwardedBy == null) {
+            cluster.completeRide(rideId);
+            return;
+        }
+
         rideService.completeRide(rideId);
     }
 
     @GetMapping("/available-drivers")
-    public List<DriverResponse> getAvailableDrivers(@RequestParam double x, @RequestParam double y, @RequestParam(defaultValue = "5") int limit) {
+    public List<DriverResponse> getAvailableDrivers(@RequestParam double x, @RequestParam double y, @RequestParam(defaultValue = "5") int limit,
+                                                    @RequestHeader(name = ClusterRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (cluster != null && forwardedBy == null) {
+            return cluster.findNearestAvailableDrivers(new Location(x, y), limit);
+        }
+
         return matchingService.findNearestAvailableDrivers(
                 new Location(x, y),
                 limit
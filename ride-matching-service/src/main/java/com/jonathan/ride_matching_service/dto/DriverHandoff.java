@@ -0,0 +1,16 @@
+package com.jonathan.ride_matching_service.dto;
+
+import com.jonathan.ride_matching_service.model.VehicleType;
+
+/**
+ * A driver released by one cluster node, with what the node taking it over re-creates it from.
+ */
+public record DriverHandoff(
+        String driverId,
+        double x,
+        double y,
+        VehicleType vehicleType,
+        double rating,
+        boolean available
+) {
+}
@@ -1,9 +1,19 @@
 package com.jonathan.ride_matching_service.dto;
 
+import com.jonathan.ride_matching_service.model.VehicleType;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
 public record DriverRegistrationRequest(
         @NotNull String driverId,
         @NotNull double x,
-        @NotNull double y
-) {}
+        @NotNull double y,
+        VehicleType vehicleType,
+        @DecimalMin("1") @DecimalMax("5") Double rating
+) {
+
+    public DriverRegistrationRequest(String driverId, double x, double y) {
+        this(driverId, x, y, null, null);
+    }
+}
@@ -1,7 +1,37 @@
 package com.jonathan.ride_matching_service.dto;
 
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+
 public record RideRequest(
         String riderId,
         double x,
-        double y
-) {}
+        double y,
+        VehicleType vehicleType,
+        Double dropoffX,
+        Double dropoffY,
+        Boolean shared
+) {
+
+    public RideRequest(String riderId, double x, double y) {
+        this(riderId, x, y, null);
+    }
+
+    public RideRequest(String riderId, double x, double y, VehicleType vehicleType) {
+        this(riderId, x, y, vehicleType, null, null, null);
+    }
+
+    /**
+     * @return true if the rider asked for a shared ride and gave a drop-off
+     */
+    public boolean wantsSharedRide() {
+        return Boolean.TRUE.equals(shared) && dropoffLocation() != null;
+    }
+
+    /**
+     * @return the drop-off, or null if the rider did not give one
+     */
+    public Location dropoffLocation() {
+        return dropoffX == null || dropoffY == null ? null : new Location(dropoffX, dropoffY);
+    }
+}
@@ -0,0 +1,14 @@
+package com.jonathan.ride_matching_service.dto;
+
+import com.jonathan.ride_matching_service.model.VehicleType;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+public record ScheduledRideRequest(
+        @NotNull String riderId,
+        double x,
+        double y,
+        VehicleType vehicleType,
+        @NotNull Instant pickupTime
+) {}
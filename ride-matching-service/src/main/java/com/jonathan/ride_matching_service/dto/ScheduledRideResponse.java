@@ -0,0 +1,17 @@
+package com.jonathan.ride_matching_service.dto;
+
+import com.jonathan.ride_matching_service.model.VehicleType;
+
+import java.time.Instant;
+
+public record ScheduledRideResponse(
+        String id,
+        String riderId,
+        double pickupX,
+        double pickupY,
+        VehicleType vehicleType,
+        Instant pickupTime,
+        String status,
+        String driverId,
+        String rideId
+) {}
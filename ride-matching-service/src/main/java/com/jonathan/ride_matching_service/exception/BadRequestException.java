@@ -0,0 +1,7 @@
+package com.jonathan.ride_matching_service.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.jonathan.ride_matching_service.exception;
+
+/**
+ * A call to another cluster node failed or returned an unexpected error.
+ */
+public class ClusterException extends RuntimeException {
+    public ClusterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.jonathan.ride_matching_service.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jonathan.ride_matching_service.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * The request was shed because the service is at capacity; clients should retry later.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
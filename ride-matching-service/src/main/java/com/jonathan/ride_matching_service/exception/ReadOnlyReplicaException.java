@@ -0,0 +1,7 @@
+package com.jonathan.ride_matching_service.exception;
+
+public class ReadOnlyReplicaException extends RuntimeException {
+    public ReadOnlyReplicaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.jonathan.ride_matching_service.heatmap;
+
+import java.util.List;
+
+/**
+ * @param level         {@code CellId} level of the cells
+ * @param cellSize      side length of a cell, in coordinate units
+ * @param windowSeconds length of the window the demand was counted over
+ * @param cells         every cell with available drivers or requests in the window
+ */
+public record Heatmap(int level, double cellSize, long windowSeconds, List<HeatmapCell> cells) {
+}
@@ -0,0 +1,268 @@
+package com.jonathan.ride_matching_service.heatmap;
+
+import com.jonathan.ride_matching_service.config.HeatmapProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally maintained supply and demand per {@code CellId} cell. Supply is the number of
+ * available drivers, kept up to date from availability transitions and cell changes; demand is
+ * counted per time bucket in a ring covering the retention, so any window up to it is a sum of
+ * buckets. A snapshot costs O(cells), independent of the number of drivers and rides.
+ */
+@Component
+// Repositioning forecasts from the same aggregate
+@ConditionalOnExpression("${heatmap.enabled:false} or ${repositioning.enabled:false}")
+public class HeatmapAggregator implements DriverListener {
+
+    private static final int LOCK_STRIPES = 16;
+    private static final long NOT_COUNTED = -1;
+
+    private final DriverRepository driverRepository;
+    private final Clock clock;
+    private final int level;
+    private final long bucketMillis;
+    private final int buckets;
+
+    private final ConcurrentHashMap<Long, CellStats> cells = new ConcurrentHashMap<>();
+    // Serialise reconciliation per driver handle
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Handle -> cell its driver is counted in, or NOT_COUNTED. Entries are guarded by the
+    // handle's lock; the array is only replaced while holding every lock.
+    private volatile long[] countedIn = newCounts(64);
+
+    @Autowired
+    public HeatmapAggregator(DriverRepository driverRepository, HeatmapProperties properties) {
+        this(driverRepository, properties, Clock.systemUTC());
+    }
+
+    public HeatmapAggregator(DriverRepository driverRepository, HeatmapProperties properties, Clock clock) {
+        this.driverRepository = driverRepository;
+        this.clock = clock;
+        this.level = properties.level();
+        this.bucketMillis = properties.bucket().toMillis();
+        this.buckets = (int) Math.max(1, ceilDiv(properties.retention().toMillis(), bucketMillis));
+        Arrays.setAll(locks, stripe -> new Object());
+
+        driverRepository.addListener(this);
+        for (Driver driver : driverRepository.findAll()) {
+            reconcile(driver);
+        }
+    }
+
+    /**
+     * Counts a ride request with its pickup in the cell of {@code pickupLocation}.
+     */
+    public void recordRequest(Location pickupLocation, boolean matched) {
+        long cell = CellId.prefixOf(pickupLocation.x(), pickupLocation.y(), level);
+        long bucket = currentBucket();
+        while (true) {
+            CellStats stats = cells.computeIfAbsent(cell, this::newStats);
+            synchronized (stats) {
+                if (!stats.retired) {
+                    stats.record(bucket, matched);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param window demand is counted over the most recent {@code window}, rounded up to whole buckets
+     */
+    public Heatmap snapshot(Duration window) {
+        int windowBuckets = (int) Math.min(buckets, Math.max(1, ceilDiv(window.toMillis(), bucketMillis)));
+        long current = currentBucket();
+        long first = current - windowBuckets + 1;
+        double cellSize = CellId.cellSize(level);
+
+        List<HeatmapCell> result = new ArrayList<>();
+        for (CellStats stats : cells.values()) {
+            int supply;
+            int requests;
+            int unmatched;
+            synchronized (stats) {
+                supply = stats.supply;
+                requests = stats.sum(stats.requests, first, current);
+                unmatched = stats.sum(stats.unmatched, first, current);
+
+                // Cells without drivers or any retained demand are dropped, so the map tracks the active area only
+                if (supply == 0 && stats.sum(stats.requests, current - buckets + 1, current) == 0) {
+                    stats.retired = true;
+                    cells.remove(stats.cell, stats);
+                }
+            }
+            if (supply > 0 || requests > 0) {
+                result.add(new HeatmapCell(stats.cell,
+                        (CellId.gridX(stats.cell) + 0.5) * cellSize - CellId.MAX_COORDINATE,
+                        (CellId.gridY(stats.cell) + 0.5) * cellSize - CellId.MAX_COORDINATE,
+                        supply, requests, unmatched));
+            }
+        }
+        result.sort(Comparator.comparingLong(HeatmapCell::cellId));
+        return new Heatmap(level, cellSize, windowBuckets * bucketMillis / 1000, result);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public void onSaved(Driver driver) {
+        reconcile(driver);
+    }
+
+    @Override
+    public void onRemoved(Driver driver) {
+        reconcile(driver);
+    }
+
+    @Override
+    public void onCellChanged(Driver driver, long oldCellId, long newCellId) {
+        if (CellId.prefix(oldCellId, level) != CellId.prefix(newCellId, level)) {
+            reconcile(driver);
+        }
+    }
+
+    @Override
+    public void onAvailabilityChanged(Driver driver, boolean available) {
+        reconcile(driver);
+    }
+
+    /**
+     * Moves the supply count of the driver registered under the driver's handle to match its
+     * current state. Serialised per handle and always reading the current state and owner, so
+     * out-of-order callbacks from racing updates, or from a removed driver whose handle was
+     * reused, converge. Allocation-free: no id lookup, boxing or state snapshot.
+     */
+    private void reconcile(Driver driver) {
+        int handle = driver.getHandle();
+        if (handle < 0) {
+            return;
+        }
+        if (handle >= countedIn.length) {
+            grow(handle, 0);
+        }
+        synchronized (locks[handle & (LOCK_STRIPES - 1)]) {
+            Driver owner = driverRepository.findByHandle(handle);
+            // Availability and cell may come from different versions; the change in between
+            // reconciles again once it is published
+            long target = owner != null && owner.isAvailable() ? CellId.prefix(owner.getCellId(), level) : NOT_COUNTED;
+            long[] counts = countedIn;
+            long counted = counts[handle];
+            if (target == counted) {
+                return;
+            }
+
+            if (counted != NOT_COUNTED) {
+                addSupply(counted, -1);
+            }
+            if (target != NOT_COUNTED) {
+                addSupply(target, 1);
+            }
+            counts[handle] = target;
+        }
+    }
+
+    // Takes every lock in order, so no entry is written while the array is copied
+    private void grow(int handle, int stripe) {
+        if (stripe < LOCK_STRIPES) {
+            synchronized (locks[stripe]) {
+                grow(handle, stripe + 1);
+            }
+            return;
+        }
+        long[] counts = countedIn;
+        if (handle >= counts.length) {
+            long[] grown = newCounts(Math.max(handle + 1, counts.length * 2));
+            System.arraycopy(counts, 0, grown, 0, counts.length);
+            countedIn = grown;
+        }
+    }
+
+    private static long[] newCounts(int length) {
+        long[] counts = new long[length];
+        Arrays.fill(counts, NOT_COUNTED);
+        return counts;
+    }
+
+    private void addSupply(long cell, int delta) {
+        while (true) {
+            CellStats stats = cells.computeIfAbsent(cell, this::newStats);
+            synchronized (stats) {
+                if (!stats.retired) {
+                    stats.supply += delta;
+                    return;
+                }
+            }
+        }
+    }
+
+    private CellStats newStats(long cell) {
+        return new CellStats(cell, buckets);
+    }
+
+    private long currentBucket() {
+        return clock.millis() / bucketMillis;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    // Guarded by its own monitor
+    private static final class CellStats {
+
+        private final long cell;
+        private final long[] bucketOf;
+        private final int[] requests;
+        private final int[] unmatched;
+        private int supply;
+        private boolean retired;
+
+        private CellStats(long cell, int buckets) {
+            this.cell = cell;
+            this.bucketOf = new long[buckets];
+            this.requests = new int[buckets];
+            this.unmatched = new int[buckets];
+            Arrays.fill(bucketOf, -1);
+        }
+
+        private void record(long bucket, boolean matched) {
+            int slot = (int) (bucket % bucketOf.length);
+            if (bucketOf[slot] != bucket) {
+                bucketOf[slot] = bucket;
+                requests[slot] = 0;
+                unmatched[slot] = 0;
+            }
+            requests[slot]++;
+            if (!matched) {
+                unmatched[slot]++;
+            }
+        }
+
+        private int sum(int[] counts, long first, long last) {
+            int total = 0;
+            for (int slot = 0; slot < bucketOf.length; slot++) {
+                if (bucketOf[slot] >= first && bucketOf[slot] <= last) {
+                    total += counts[slot];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.jonathan.ride_matching_service.heatmap;
+
+/**
+ * Supply and demand of one heatmap cell.
+ *
+ * @param cellId    {@code CellId} of the cell at the heatmap level
+ * @param x         x of the cell centre
+ * @param y         y of the cell centre
+ * @param supply    drivers available in the cell now
+ * @param requests  ride requests with a pickup in the cell during the window
+ * @param unmatched requests among them that found no driver
+ */
+public record HeatmapCell(long cellId, double x, double y, int supply, int requests, int unmatched) {
+}
@@ -0,0 +1,30 @@
+package com.jonathan.ride_matching_service.heatmap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DurationFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/heatmap")
+@ConditionalOnProperty(name = "heatmap.enabled", havingValue = "true")
+public class HeatmapController {
+
+    private final HeatmapAggregator heatmapAggregator;
+
+    public HeatmapController(HeatmapAggregator heatmapAggregator) {
+        this.heatmapAggregator = heatmapAggregator;
+    }
+
+    /**
+     * Available drivers now and ride requests over the last {@code window} (e.g. {@code 5m}), per cell.
+     */
+    @GetMapping
+    public Heatmap getHeatmap(@RequestParam(defaultValue = "5m") @DurationFormat(style = DurationFormat.Style.SIMPLE) Duration window) {
+        return heatmapAggregator.snapshot(window);
+    }
+}
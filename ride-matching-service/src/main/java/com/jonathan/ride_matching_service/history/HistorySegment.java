@@ -0,0 +1,67 @@
+package com.jonathan.ride_matching_service.history;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Every driver's track over one time bucket of the history, indexed by driver handle.
+ */
+final class HistorySegment {
+
+    private final long bucket;
+    private final long start;
+    // Handle -> track; written and grown under this, read without locking
+    private volatile AtomicReferenceArray<Track> tracks = new AtomicReferenceArray<>(64);
+
+    HistorySegment(long bucket, long start) {
+        this.bucket = bucket;
+        this.start = start;
+    }
+
+    long getBucket() {
+        return bucket;
+    }
+
+    Track track(int handle) {
+        AtomicReferenceArray<Track> table = tracks;
+        Track track = handle < table.length() ? table.get(handle) : null;
+        if (track != null) {
+            return track;
+        }
+        synchronized (this) {
+            table = tracks;
+            if (handle >= table.length()) {
+                AtomicReferenceArray<Track> grown = new AtomicReferenceArray<>(Math.max(table.length() * 2, handle + 1));
+                for (int i = 0; i < table.length(); i++) {
+                    grown.set(i, table.get(i));
+                }
+                tracks = grown;
+                table = grown;
+            }
+            track = table.get(handle);
+            if (track == null) {
+                track = new Track(start);
+                table.set(handle, track);
+            }
+            return track;
+        }
+    }
+
+    /**
+     * @return the driver's track, or null if it recorded nothing in this segment
+     */
+    Track find(int handle) {
+        AtomicReferenceArray<Track> table = tracks;
+        return handle >= 0 && handle < table.length() ? table.get(handle) : null;
+    }
+
+    void forEach(ObjIntConsumer<Track> action) {
+        AtomicReferenceArray<Track> table = tracks;
+        for (int handle = 0; handle < table.length(); handle++) {
+            Track track = table.get(handle);
+            if (track != null) {
+                action.accept(track, handle);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.jonathan.ride_matching_service.history;
+
+import com.jonathan.ride_matching_service.config.HistoryProperties;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.model.DriverState;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.util.ConcurrentBitSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only history of every driver's positions, to answer where the fleet was at a past
+ * instant or how one driver moved.
+ * <p>
+ * A location update only sets the driver's bit in a set of moved drivers, so the ping path
+ * stays allocation-free and never reads the clock. Every {@code history.interval} a sampler
+ * thread drains the set and appends the current position of each moved driver, stamped with the
+ * time of the pass, to the driver's delta-encoded columnar {@link Track}.
+ * <p>
+ * Time is cut into segments of {@code history.segment}, kept in a ring covering the retention;
+ * a segment that falls out of the retention is overwritten whole, so memory is bounded by the
+ * retention, the fleet size and the interval, and nothing is ever deleted entry by entry.
+ * <p>
+ * The fleet at instant T is read from T's segment, decoding each track up to T, and from the
+ * latest sample of earlier segments for drivers that did not move since, which costs O(1) per
+ * track.
+ */
+@Component
+@ConditionalOnProperty(name = "history.enabled", havingValue = "true")
+public class PositionHistory implements DriverListener, SmartLifecycle {
+
+    private final DriverRepository driverRepository;
+    private final Clock clock;
+    private final long segmentMillis;
+    private final long intervalMillis;
+    private final Duration retention;
+    // Coordinates are recorded as round(c * scale)
+    private final double scale;
+    // Segment of bucket b at b % length
+    private final AtomicReferenceArray<HistorySegment> segments;
+    // Handles of drivers saved or moved since the last pass
+    private final ConcurrentBitSet moved = new ConcurrentBitSet();
+
+    private ScheduledExecutorService sampler;
+
+    @Autowired
+    public PositionHistory(DriverRepository driverRepository, HistoryProperties properties) {
+        this(driverRepository, properties, Clock.systemUTC());
+    }
+
+    public PositionHistory(DriverRepository driverRepository, HistoryProperties properties, Clock clock) {
+        this.driverRepository = driverRepository;
+        this.clock = clock;
+        this.segmentMillis = Math.max(1, properties.segment().toMillis());
+        this.intervalMillis = Math.max(1, properties.interval().toMillis());
+        this.retention = properties.retention();
+        this.scale = 1 / properties.precision();
+        // The segment being written plus enough whole segments to cover the retention
+        this.segments = new AtomicReferenceArray<>((int) (ceilDiv(retention.toMillis(), segmentMillis) + 1));
+
+        driverRepository.addListener(this);
+        for (Driver driver : driverRepository.findAll()) {
+            moved.set(driver.getHandle());
+        }
+    }
+
+    @Override
+    public void onSaved(Driver driver) {
+        moved.set(driver.getHandle());
+    }
+
+    @Override
+    public void onLocationChanged(Driver driver) {
+        moved.set(driver.getHandle());
+    }
+
+    /**
+     * Records the position of every driver saved or moved since the last pass. Runs on the
+     * sampler thread every interval.
+     */
+    public void sample() {
+        long now = clock.millis();
+        HistorySegment segment = segmentForWrite(Math.floorDiv(now, segmentMillis));
+        if (segment == null) {
+            return;
+        }
+        moved.drain(handle -> {
+            Driver driver = driverRepository.findByHandle(handle);
+            if (driver != null) {
+                DriverState state = driver.getState();
+                segment.track(handle).append(now, Math.round(state.x() * scale), Math.round(state.y() * scale));
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "position-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return sampler != null;
+    }
+
+    /**
+     * @return the last recorded position at or before {@code time} of every driver with one
+     *         within the retention, removed drivers included
+     * @throws BadRequestException if {@code time} lies beyond the retention
+     */
+    public List<PositionSample> fleetAt(Instant time) {
+        long at = time.toEpochMilli();
+        checkRetained(at);
+        long bucket = Math.floorDiv(at, segmentMillis);
+
+        List<PositionSample> fleet = new ArrayList<>();
+        BitSet found = new BitSet();
+        for (long b = bucket; b > bucket - segments.length(); b--) {
+            HistorySegment segment = segment(b);
+            if (segment == null) {
+                continue;
+            }
+            boolean latest = b == bucket;
+            segment.forEach((track, handle) -> {
+                if (found.get(handle)) {
+                    return;
+                }
+                long[] sample = latest ? lastAtOrBefore(track, at) : last(track);
+                if (sample != null) {
+                    found.set(handle);
+                    fleet.add(toSample(driverRepository.idOf(handle), sample));
+                }
+            });
+        }
+        return fleet;
+    }
+
+    /**
+     * @return the recorded positions of the driver from {@code from} up to now, in time order
+     * @throws NotFoundException if the driver never registered
+     */
+    public List<PositionSample> trajectory(String driverId, Instant from) {
+        return trajectory(driverId, from, clock.instant());
+    }
+
+    /**
+     * @return the recorded positions of the driver from {@code from} to {@code to}, in time order
+     * @throws NotFoundException if the driver never registered
+     */
+    public List<PositionSample> trajectory(String driverId, Instant from, Instant to) {
+        int handle = driverRepository.handleOf(driverId);
+        if (handle < 0) {
+            throw new NotFoundException("Driver not found");
+        }
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        if (toMillis < fromMillis) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        checkRetained(toMillis);
+
+        List<PositionSample> samples = new ArrayList<>();
+        long first = Math.max(Math.floorDiv(fromMillis, segmentMillis), Math.floorDiv(toMillis, segmentMillis) - segments.length() + 1);
+        for (long b = first; b <= Math.floorDiv(toMillis, segmentMillis); b++) {
+            HistorySegment segment = segment(b);
+            Track track = segment != null ? segment.find(handle) : null;
+            if (track == null) {
+                continue;
+            }
+            track.forEach((time, x, y) -> {
+                if (time > toMillis) {
+                    return false;
+                }
+                if (time >= fromMillis) {
+                    samples.add(toSample(driverId, new long[]{time, x, y}));
+                }
+                return true;
+            });
+        }
+        return samples;
+    }
+
+    private HistorySegment segmentForWrite(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) segments.length());
+        while (true) {
+            HistorySegment current = segments.get(slot);
+            if (current != null && current.getBucket() >= bucket) {
+                // A pass stamped before a newer one, across a whole turn of the ring, is dropped
+                return current.getBucket() == bucket ? current : null;
+            }
+            HistorySegment created = new HistorySegment(bucket, bucket * segmentMillis);
+            if (segments.compareAndSet(slot, current, created)) {
+                return created;
+            }
+        }
+    }
+
+    private HistorySegment segment(long bucket) {
+        HistorySegment segment = segments.get((int) Math.floorMod(bucket, (long) segments.length()));
+        return segment != null && segment.getBucket() == bucket ? segment : null;
+    }
+
+    private void checkRetained(long millis) {
+        if (millis < clock.millis() - retention.toMillis()) {
+            throw new BadRequestException("History is only kept for " + retention);
+        }
+    }
+
+    private static long[] lastAtOrBefore(Track track, long at) {
+        long[] found = new long[3];
+        boolean[] any = new boolean[1];
+        track.forEach((time, x, y) -> {
+            if (time > at) {
+                return false;
+            }
+            found[0] = time;
+            found[1] = x;
+            found[2] = y;
+            any[0] = true;
+            return true;
+        });
+        return any[0] ? found : null;
+    }
+
+    private static long[] last(Track track) {
+        long[] found = new long[3];
+        boolean any = track.last((time, x, y) -> {
+            found[0] = time;
+            found[1] = x;
+            found[2] = y;
+            return true;
+        });
+        return any ? found : null;
+    }
+
+    private PositionSample toSample(String driverId, long[] sample) {
+        return new PositionSample(driverId, sample[1] / scale, sample[2] / scale, Instant.ofEpochMilli(sample[0]));
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
@@ -0,0 +1,42 @@
+package com.jonathan.ride_matching_service.history;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/history")
+@ConditionalOnProperty(name = "history.enabled", havingValue = "true")
+public class PositionHistoryController {
+
+    private final PositionHistory positionHistory;
+
+    public PositionHistoryController(PositionHistory positionHistory) {
+        this.positionHistory = positionHistory;
+    }
+
+    /**
+     * Every driver's last recorded position at {@code at}.
+     */
+    @GetMapping("/fleet")
+    public List<PositionSample> getFleet(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return positionHistory.fleetAt(at);
+    }
+
+    /**
+     * One driver's recorded positions from {@code from} to {@code to} (default: now).
+     */
+    @GetMapping("/drivers/{driverId}")
+    public List<PositionSample> getTrajectory(@PathVariable String driverId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return to != null ? positionHistory.trajectory(driverId, from, to) : positionHistory.trajectory(driverId, from);
+    }
+}
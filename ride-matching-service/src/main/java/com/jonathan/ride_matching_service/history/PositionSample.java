@@ -0,0 +1,14 @@
+package com.jonathan.ride_matching_service.history;
+
+import java.time.Instant;
+
+/**
+ * Where a driver was, as recorded at {@code timestamp}.
+ */
+public record PositionSample(
+        String driverId,
+        double x,
+        double y,
+        Instant timestamp
+) {
+}
@@ -0,0 +1,121 @@
+package com.jonathan.ride_matching_service.history;
+
+import java.util.Arrays;
+
+/**
+ * One driver's positions within one history segment, append-only.
+ * <p>
+ * Samples are stored column by column: times, x and y each in their own byte array, every value
+ * as a varint of its delta from the previous sample (coordinates zigzag-encoded), so a driver
+ * moving a few metres a second costs a handful of bytes per sample. The first sample of a track
+ * is encoded against the segment start and zero.
+ */
+final class Track {
+
+    /**
+     * Receives decoded samples in time order.
+     */
+    interface Visitor {
+
+        /**
+         * @return false to stop the visit
+         */
+        boolean visit(long time, long x, long y);
+    }
+
+    private final long start;
+    private byte[] times = new byte[16];
+    private byte[] xs = new byte[16];
+    private byte[] ys = new byte[16];
+    private int timesSize;
+    private int xsSize;
+    private int ysSize;
+    private int count;
+    // Last sample, the base of the next delta
+    private long lastTime;
+    private long lastX;
+    private long lastY;
+
+    Track(long start) {
+        this.start = start;
+        this.lastTime = start;
+    }
+
+    synchronized void append(long time, long x, long y) {
+        time = Math.max(time, lastTime);
+        times = ensure(times, timesSize);
+        timesSize = writeVarint(times, timesSize, time - lastTime);
+        xs = ensure(xs, xsSize);
+        xsSize = writeVarint(xs, xsSize, zigzag(x - lastX));
+        ys = ensure(ys, ysSize);
+        ysSize = writeVarint(ys, ysSize, zigzag(y - lastY));
+        lastTime = time;
+        lastX = x;
+        lastY = y;
+        count++;
+    }
+
+    /**
+     * Visits every sample in time order.
+     */
+    synchronized void forEach(Visitor visitor) {
+        long time = start;
+        long x = 0;
+        long y = 0;
+        // Read positions in times, xs and ys
+        int[] at = new int[3];
+        for (int i = 0; i < count; i++) {
+            time += readVarint(times, at, 0);
+            x += unzigzag(readVarint(xs, at, 1));
+            y += unzigzag(readVarint(ys, at, 2));
+            if (!visitor.visit(time, x, y)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Visits the latest sample in O(1), without decoding.
+     * @return false if the track is empty
+     */
+    synchronized boolean last(Visitor visitor) {
+        if (count == 0) {
+            return false;
+        }
+        visitor.visit(lastTime, lastX, lastY);
+        return true;
+    }
+
+    private static byte[] ensure(byte[] column, int size) {
+        // A varint of a long takes at most 10 bytes
+        return size + 10 <= column.length ? column : Arrays.copyOf(column, Math.max(column.length * 2, size + 10));
+    }
+
+    private static int writeVarint(byte[] column, int at, long value) {
+        while ((value & ~0x7FL) != 0) {
+            column[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        column[at++] = (byte) value;
+        return at;
+    }
+
+    private static long readVarint(byte[] column, int[] at, int cursor) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = column[at[cursor]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.jonathan.ride_matching_service.ids;
+
+/**
+ * Source of ride ids; one bean is active, chosen by {@code ride-ids.mode}.
+ */
+public interface RideIdGenerator {
+
+    /**
+     * @return a new id, unique across the cluster
+     */
+    String nextId();
+}
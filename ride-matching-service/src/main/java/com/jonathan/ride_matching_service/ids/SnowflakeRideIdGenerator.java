@@ -0,0 +1,104 @@
+package com.jonathan.ride_matching_service.ids;
+
+import com.jonathan.ride_matching_service.config.RideIdProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-ordered 64-bit ids, Snowflake style, written as 16 lower-case hex digits so that ids
+ * sort as strings in the order they sort as numbers.
+ * <p>
+ * From the top: 41 bits of milliseconds since {@code ride-ids.epoch}, 8 bits of node id, 4 bits
+ * of lane and 10 bits of sequence. Threads are spread over the lanes by thread id, each lane
+ * counting its own sequence with a single CAS, so generation takes no lock and threads rarely
+ * share a counter. A lane that runs out of sequence within a millisecond, or sees the clock go
+ * back, carries on into the following milliseconds, so ids stay unique and increase per lane
+ * without ever waiting for the clock.
+ */
+@Component
+@ConditionalOnProperty(name = "ride-ids.mode", havingValue = "snowflake")
+public class SnowflakeRideIdGenerator implements RideIdGenerator {
+
+    private static final int SEQUENCE_BITS = 10;
+    private static final int LANE_BITS = 4;
+    private static final int NODE_BITS = 8;
+    private static final int TIMESTAMP_BITS = 41;
+    private static final int LANE_SHIFT = SEQUENCE_BITS;
+    private static final int NODE_SHIFT = LANE_SHIFT + LANE_BITS;
+    private static final int TIMESTAMP_SHIFT = NODE_SHIFT + NODE_BITS;
+    private static final int LANES = 1 << LANE_BITS;
+    // Lane counters a cache line apart
+    private static final int STRIDE = 16;
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final Clock clock;
+    private final long epochMillis;
+    private final long node;
+    // Per lane: milliseconds since the epoch << SEQUENCE_BITS | sequence of the last id
+    private final AtomicLongArray lanes = new AtomicLongArray(LANES * STRIDE);
+
+    @Autowired
+    public SnowflakeRideIdGenerator(RideIdProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public SnowflakeRideIdGenerator(RideIdProperties properties, Clock clock) {
+        if (properties.nodeId() < 0 || properties.nodeId() >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.clock = clock;
+        this.epochMillis = properties.epoch().toEpochMilli();
+        this.node = properties.nodeId();
+        long elapsed = clock.millis() - epochMillis;
+        if (elapsed < 0 || elapsed >= 1L << TIMESTAMP_BITS) {
+            throw new IllegalArgumentException("Epoch must lie in the past 69 years");
+        }
+    }
+
+    @Override
+    public String nextId() {
+        long lane = Thread.currentThread().getId() & (LANES - 1);
+        int index = (int) lane * STRIDE;
+        long now = (clock.millis() - epochMillis) << SEQUENCE_BITS;
+        long current;
+        long next;
+        do {
+            current = lanes.get(index);
+            next = Math.max(current + 1, now);
+        } while (!lanes.compareAndSet(index, current, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1 << SEQUENCE_BITS) - 1);
+        return format(millis << TIMESTAMP_SHIFT | node << NODE_SHIFT | lane << LANE_SHIFT | sequence);
+    }
+
+    /**
+     * @return when the ride with this id was created, to the millisecond
+     */
+    public Instant createdAt(String id) {
+        return Instant.ofEpochMilli(epochMillis + (Long.parseUnsignedLong(id, 16) >>> TIMESTAMP_SHIFT));
+    }
+
+    /**
+     * @return the lowest id stamped at {@code time}, to bound scans of ids by creation time
+     */
+    public String firstIdAt(Instant time) {
+        long millis = Math.max(0, time.toEpochMilli() - epochMillis);
+        return format(Math.min(millis, (1L << TIMESTAMP_BITS) - 1) << TIMESTAMP_SHIFT);
+    }
+
+    private static String format(long id) {
+        byte[] hex = new byte[16];
+        for (int i = hex.length - 1; i >= 0; i--) {
+            hex[i] = DIGITS[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(hex, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jonathan.ride_matching_service.ids;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs, the default.
+ */
+@Component
+@ConditionalOnProperty(name = "ride-ids.mode", havingValue = "uuid", matchIfMissing = true)
+public class UuidRideIdGenerator implements RideIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
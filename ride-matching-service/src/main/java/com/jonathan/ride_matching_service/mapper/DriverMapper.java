@@ -2,17 +2,19 @@ package com.jonathan.ride_matching_service.mapper;
 
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverState;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DriverMapper {
 
     public DriverResponse toDriverResponse(Driver driver) {
+        DriverState state = driver.getState();
         return new DriverResponse(
                 driver.getId(),
-                driver.getLocation().x(),
-                driver.getLocation().y(),
-                driver.isAvailable()
+                state.x(),
+                state.y(),
+                state.available()
         );
     }
 }
@@ -1,38 +1,378 @@
 package com.jonathan.ride_matching_service.model;
 
+import com.jonathan.ride_matching_service.util.CellId;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
 import lombok.Getter;
+import lombok.Setter;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 public class Driver {
+    private static final VarHandle STATE;
+
+    // Layout of the state word
+    private static final long WRITING = 1;
+    private static final long AVAILABLE = 2;
+    private static final long ON_RIDE = 4;
+    private static final long VERSION_STEP = 8;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Driver.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @Getter
     private String id;
+    // Dense handle assigned by the repository on save; -1 until then
+    @Getter
+    @Setter
+    private int handle = -1;
+    // Position, cell id and availability are published together through one seqlock word:
+    // bit 0 is set while a position write is in progress, bit 1 is availability, bit 2 is set
+    // while the driver is claimed for a ride and the remaining bits count versions. Readers never
+    // lock and see all fields from one version.
+    private double x;
+    private double y;
+    private long cellId;
+    // Last non-zero move, published with the position; the heading is only derived when scored
+    private double headingX;
+    private double headingY;
+    private volatile long state = AVAILABLE;
+    @Setter
+    private DriverListener listener = DriverListener.NONE;
     @Getter
-    private volatile Location location;
-    private final AtomicBoolean available = new AtomicBoolean(true);
+    @Setter
+    private volatile DriverProfile profile = DriverProfile.DEFAULT;
+    // Wall-clock millis of the last transition to available
+    private volatile long idleSince = System.currentTimeMillis();
 
     public Driver(String  id, Location location) {
-        this.location = location;
+        this.x = location.x();
+        this.y = location.y();
+        this.cellId = CellId.of(x, y);
         this.id = id;
     }
 
+    public Driver(String id, Location location, DriverProfile profile) {
+        this(id, location);
+        this.profile = profile;
+    }
+
     public void updateLocation(Location location) {
-        this.location = location;
+        updateLocation(location.x(), location.y());
+    }
+
+    /**
+     * Overwrites the position in place without allocating and recomputes the cached cell id.
+     */
+    public void updateLocation(double x, double y) {
+        long newCellId = CellId.of(x, y);
+        long current = beginWrite();
+
+        long oldCellId = this.cellId;
+        move(x, y, newCellId);
+        STATE.setRelease(this, current + VERSION_STEP);
+
+        if (oldCellId != newCellId) {
+            listener.onCellChanged(this, oldCellId, newCellId);
+        }
+        listener.onLocationChanged(this);
+    }
+
+    /**
+     * Publishes a new position and availability as one version, so no reader sees one without the other.
+     * A driver claimed for a ride stays unavailable until {@link #release()}, whatever {@code available} says.
+     * @return whether the driver's availability is now {@code available}
+     */
+    public boolean updateState(double x, double y, boolean available) {
+        long newCellId = CellId.of(x, y);
+        long current = beginWrite();
+        boolean applied = available && (current & ON_RIDE) == 0;
+
+        long oldCellId = this.cellId;
+        move(x, y, newCellId);
+        STATE.setRelease(this, ((current & ~AVAILABLE) | (applied ? AVAILABLE : 0)) + VERSION_STEP);
+
+        stateWritten(current, oldCellId, newCellId, applied);
+        return applied == available;
+    }
+
+    /**
+     * Copies the state of this driver's record on another node, ride claim included, as one
+     * version. Only for replicas, which mirror the primary's claims instead of making their own.
+     */
+    public void replicateState(double x, double y, boolean available, boolean onRide) {
+        long newCellId = CellId.of(x, y);
+        long current = beginWrite();
+
+        long oldCellId = this.cellId;
+        move(x, y, newCellId);
+        long flags = (available ? AVAILABLE : 0) | (onRide ? ON_RIDE : 0);
+        STATE.setRelease(this, ((current & ~(AVAILABLE | ON_RIDE)) | flags) + VERSION_STEP);
+
+        stateWritten(current, oldCellId, newCellId, available);
+    }
+
+    /**
+     * Returns the finest-level {@link CellId} of the current position.
+     */
+    public long getCellId() {
+        while (true) {
+            long version = state;
+            long currentCellId = cellId;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                return currentCellId;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns a consistent snapshot of the current position.
+     */
+    public Location getLocation() {
+        while (true) {
+            long version = state;
+            double currentX = x;
+            double currentY = y;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                return new Location(currentX, currentY);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns position, availability and ride claim from the same version.
+     */
+    public DriverState getState() {
+        while (true) {
+            long version = state;
+            double currentX = x;
+            double currentY = y;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                return new DriverState(currentX, currentY, (version & AVAILABLE) != 0, (version & ON_RIDE) != 0);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Allocation-free ranking for matching scans: reads position and availability from one version.
+     * @return the rank of the current position, or {@code NaN} if the driver is unavailable
+     */
+    public double rankIfAvailable(DistanceMetric.Ranker ranker) {
+        while (true) {
+            long version = state;
+            double currentX = x;
+            double currentY = y;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                return (version & AVAILABLE) != 0 ? ranker.rank(currentX, currentY) : Double.NaN;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Allocation-free check whether {@code (x, y)} lies within {@code distance} of the current position.
+     */
+    public boolean isWithin(double x, double y, double distance) {
+        while (true) {
+            long version = state;
+            double dx = x - this.x;
+            double dy = y - this.y;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                return dx * dx + dy * dy <= distance * distance;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Allocation-free cosine between the driver's last move and the direction to {@code (x, y)}.
+     * @return 1 when heading straight there, -1 when heading away, {@code NaN} if the driver
+     * has not moved yet or is already there
+     */
+    public double headingAlignment(double x, double y) {
+        while (true) {
+            long version = state;
+            double toX = x - this.x;
+            double toY = y - this.y;
+            double currentHeadingX = headingX;
+            double currentHeadingY = headingY;
+            VarHandle.loadLoadFence();
+
+            if ((version & WRITING) == 0 && version == state) {
+                double norms = Math.hypot(toX, toY) * Math.hypot(currentHeadingX, currentHeadingY);
+                return norms == 0 ? Double.NaN : (toX * currentHeadingX + toY * currentHeadingY) / norms;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return how long the driver has been available at {@code nowMillis}, or 0 while on a ride
+     */
+    public long getIdleMillis(long nowMillis) {
+        return isAvailable() ? Math.max(0, nowMillis - idleSince) : 0;
     }
 
     public boolean isAvailable() {
-        return available.get();
+        return (state & AVAILABLE) != 0;
+    }
+
+    /**
+     * @return whether the driver is claimed for a ride, from {@link #tryMarkUnavailable()} until {@link #release()}
+     */
+    public boolean isOnRide() {
+        return (state & ON_RIDE) != 0;
     }
 
     /**
-     * Atomically marks the driver as unavailable.
+     * Atomically claims the driver for a ride: marks it unavailable, and keeps it so against the
+     * driver's own availability updates until {@link #release()}.
      * @return true if successfully marked unavailable, false otherwise
      */
     public boolean tryMarkUnavailable() {
-        return available.compareAndSet(true, false);
+        while (true) {
+            long current = state;
+            if ((current & AVAILABLE) == 0) {
+                return false;
+            }
+            // A concurrent position write would overwrite the flag when it publishes
+            if ((current & WRITING) == 0 && STATE.compareAndSet(this, current, ((current & ~AVAILABLE) | ON_RIDE) + VERSION_STEP)) {
+                listener.onAvailabilityChanged(this, false);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Claims the driver whether it is available or offline, so it can be removed without
+     * matching assigning it meanwhile; a driver already on a ride is left alone.
+     * @return position and availability at the moment of the claim, or null if the driver is on a ride
+     */
+    public DriverState tryClaim() {
+        while (true) {
+            long current = state;
+            if ((current & ON_RIDE) != 0) {
+                return null;
+            }
+            double currentX = x;
+            double currentY = y;
+            VarHandle.loadLoadFence();
+
+            // The CAS succeeding on the version just read also validates the position
+            if ((current & WRITING) == 0 && STATE.compareAndSet(this, current, ((current & ~AVAILABLE) | ON_RIDE) + VERSION_STEP)) {
+                boolean available = (current & AVAILABLE) != 0;
+                if (available) {
+                    listener.onAvailabilityChanged(this, false);
+                }
+                return new DriverState(currentX, currentY, available);
+            }
+            Thread.onSpinWait();
+        }
     }
 
+    /**
+     * Ends the driver's ride, or brings it back from offline, and makes it available.
+     */
     public void release() {
-        available.set(true);
+        while (true) {
+            long current = state;
+            if ((current & AVAILABLE) != 0) {
+                return;
+            }
+            if ((current & WRITING) == 0 && STATE.compareAndSet(this, current, ((current | AVAILABLE) & ~ON_RIDE) + VERSION_STEP)) {
+                idleSince = System.currentTimeMillis();
+                listener.onAvailabilityChanged(this, true);
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Applies availability set by the driver: going offline always succeeds, coming back is
+     * refused while the driver is claimed for a ride.
+     * @return whether the driver's availability is now {@code available}
+     */
+    public boolean setAvailable(boolean available) {
+        while (true) {
+            long current = state;
+            if (((current & AVAILABLE) != 0) == available) {
+                return true;
+            }
+            if (available && (current & ON_RIDE) != 0) {
+                return false;
+            }
+            long next = (available ? current | AVAILABLE : current & ~AVAILABLE) + VERSION_STEP;
+            if ((current & WRITING) == 0 && STATE.compareAndSet(this, current, next)) {
+                if (available) {
+                    idleSince = System.currentTimeMillis();
+                }
+                listener.onAvailabilityChanged(this, available);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // After a write section that ended with the given availability
+    private void stateWritten(long previous, long oldCellId, long newCellId, boolean available) {
+        if (oldCellId != newCellId) {
+            listener.onCellChanged(this, oldCellId, newCellId);
+        }
+        listener.onLocationChanged(this);
+        if (((previous & AVAILABLE) != 0) != available) {
+            if (available) {
+                idleSince = System.currentTimeMillis();
+            }
+            listener.onAvailabilityChanged(this, available);
+        }
+    }
+
+    // Only inside a write section
+    private void move(double x, double y, long newCellId) {
+        if (x != this.x || y != this.y) {
+            headingX = x - this.x;
+            headingY = y - this.y;
+        }
+        this.x = x;
+        this.y = y;
+        this.cellId = newCellId;
+    }
+
+    // Spins until no other write is in progress, then marks one as in progress.
+    // This must be a compare-and-set, not a plain store and a fence: the state word is shared
+    // with claims, releases and availability changes made by other threads, and a store of a
+    // value read before one of those would silently undo it. Pings for one driver can also
+    // race each other, from different request threads or the coalescer's flush, so the CAS is
+    // what keeps two writers out of the section. Uncontended it costs one CAS per ping; the
+    // publishing store that ends the section needs only release semantics, since no other
+    // writer can change the word while the WRITING bit is set.
+    private long beginWrite() {
+        while (true) {
+            long current = state;
+            if ((current & WRITING) == 0 && STATE.compareAndSet(this, current, current | WRITING)) {
+                return current;
+            }
+            Thread.onSpinWait();
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.jonathan.ride_matching_service.model;
+
+/**
+ * Receives state transitions of a {@link Driver}. Callbacks run on the thread that made the
+ * change, after it is visible, so implementations must be cheap and thread-safe.
+ */
+public interface DriverListener {
+
+    DriverListener NONE = new DriverListener() {
+    };
+
+    /**
+     * Called by the repository when the driver is saved.
+     */
+    default void onSaved(Driver driver) {
+    }
+
+    /**
+     * Called by the repository when the driver is removed.
+     */
+    default void onRemoved(Driver driver) {
+    }
+
+    /**
+     * Called when a location update moves the driver into a different finest-level cell.
+     */
+    default void onCellChanged(Driver driver, long oldCellId, long newCellId) {
+    }
+
+    /**
+     * Called after every location update, including moves inside the current cell.
+     */
+    default void onLocationChanged(Driver driver) {
+    }
+
+    /**
+     * Called when the driver is claimed for a ride or released, not on no-op transitions.
+     */
+    default void onAvailabilityChanged(Driver driver, boolean available) {
+    }
+}
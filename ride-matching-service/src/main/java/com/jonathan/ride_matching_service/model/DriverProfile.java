@@ -0,0 +1,21 @@
+package com.jonathan.ride_matching_service.model;
+
+/**
+ * Attributes of a driver that change rarely, published together as one immutable value.
+ *
+ * @param vehicleType vehicle the driver operates
+ * @param rating      average rider rating, from 1 to 5
+ */
+public record DriverProfile(VehicleType vehicleType, double rating) {
+
+    public static final DriverProfile DEFAULT = new DriverProfile(VehicleType.STANDARD, 5.0);
+
+    /**
+     * Fills in defaults for the attributes a request left out.
+     */
+    public static DriverProfile of(VehicleType vehicleType, Double rating) {
+        return new DriverProfile(
+                vehicleType != null ? vehicleType : DEFAULT.vehicleType(),
+                rating != null ? rating : DEFAULT.rating());
+    }
+}
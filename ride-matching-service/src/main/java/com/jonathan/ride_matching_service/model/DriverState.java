@@ -0,0 +1,20 @@
+package com.jonathan.ride_matching_service.model;
+
+/**
+ * Position, availability and ride claim of a {@link Driver} as they were at one instant.
+ */
+public record DriverState(
+        double x,
+        double y,
+        boolean available,
+        boolean onRide
+) {
+
+    public DriverState(double x, double y, boolean available) {
+        this(x, y, available, false);
+    }
+
+    public Location location() {
+        return new Location(x, y);
+    }
+}
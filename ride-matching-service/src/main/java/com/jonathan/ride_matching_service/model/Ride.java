@@ -1,6 +1,7 @@
 package com.jonathan.ride_matching_service.model;
 
 import lombok.Getter;
+import lombok.Setter;
 
 public class Ride {
     @Getter
@@ -11,17 +12,28 @@ public class Ride {
     private final Driver driver;
     @Getter
     private final Location pickupLocation;
+    // Epoch millis at which the ride was created
     @Getter
-    private boolean completed;
+    private final long requestedAt;
+    @Getter
+    private volatile boolean completed;
+    @Setter
+    private RideListener listener = RideListener.NONE;
 
     public Ride(String id, String riderId, Driver driver, Location pickupLocation) {
+        this(id, riderId, driver, pickupLocation, System.currentTimeMillis());
+    }
+
+    public Ride(String id, String riderId, Driver driver, Location pickupLocation, long requestedAt) {
         this.id = id;
         this.riderId = riderId;
         this.driver = driver;
         this.pickupLocation = pickupLocation;
+        this.requestedAt = requestedAt;
     }
 
     public void complete() {
         this.completed = true;
+        listener.onCompleted(this);
     }
 }
@@ -0,0 +1,25 @@
+package com.jonathan.ride_matching_service.model;
+
+/**
+ * Receives state transitions of a {@link Ride}, on the thread that made the change.
+ */
+public interface RideListener {
+
+    RideListener NONE = new RideListener() {
+    };
+
+    /**
+     * Called by the repository when the ride is saved.
+     */
+    default void onSaved(Ride ride) {
+    }
+
+    default void onCompleted(Ride ride) {
+    }
+
+    /**
+     * Called by the repository when the ride is dropped from it.
+     */
+    default void onRemoved(Ride ride) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.jonathan.ride_matching_service.model;
+
+import lombok.Getter;
+
+public enum VehicleType {
+    STANDARD(3),
+    COMFORT(3),
+    XL(5);
+
+    /**
+     * Riders the vehicle can carry at once on a shared ride.
+     */
+    @Getter
+    private final int seats;
+
+    VehicleType(int seats) {
+        this.seats = seats;
+    }
+}
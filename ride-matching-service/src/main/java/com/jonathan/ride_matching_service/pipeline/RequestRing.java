@@ -0,0 +1,85 @@
+package com.jonathan.ride_matching_service.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated multi-producer, single-consumer ring of ride request slots, in the style of the
+ * LMAX Disruptor. Producers claim a sequence with a CAS, fill the slot in place and publish it
+ * with a release store of the sequence into the slot's published marker; the consumer reads
+ * contiguous published sequences and frees them in one store after processing a batch.
+ */
+final class RequestRing {
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final RequestSlot[] slots;
+    private final long[] published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+
+    RequestRing(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+        this.slots = new RequestSlot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new RequestSlot();
+        }
+        this.published = new long[capacity];
+        Arrays.fill(published, -1);
+        this.mask = capacity - 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return the claimed sequence, or -1 if the ring is full
+     */
+    long tryClaim() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - consumed > slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    RequestSlot slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        PUBLISHED.setRelease(published, (int) sequence & mask, sequence);
+    }
+
+    /**
+     * @return the last sequence of the contiguous published run starting at {@code from},
+     * at most {@code max}; {@code from - 1} if {@code from} is not published yet
+     */
+    long publishedUpTo(long from, long max) {
+        long sequence = from;
+        while (sequence <= max && (long) PUBLISHED.getAcquire(published, (int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * Frees every slot up to and including {@code sequence} for producers.
+     */
+    void release(long sequence) {
+        consumed = sequence;
+    }
+
+    long depth() {
+        return claimed.get() - consumed;
+    }
+}
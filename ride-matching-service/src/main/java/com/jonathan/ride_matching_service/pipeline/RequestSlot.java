@@ -0,0 +1,25 @@
+package com.jonathan.ride_matching_service.pipeline;
+
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.model.VehicleType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Mutable ride request reused across laps of the ring. Written by one producer before the
+ * slot is published and read by the matcher after, so the fields need no synchronisation.
+ */
+final class RequestSlot {
+
+    String riderId;
+    double x;
+    double y;
+    VehicleType vehicleType;
+    CompletableFuture<RideResponse> result;
+
+    void clear() {
+        riderId = null;
+        vehicleType = null;
+        result = null;
+    }
+}
@@ -0,0 +1,204 @@
+package com.jonathan.ride_matching_service.pipeline;
+
+import com.jonathan.ride_matching_service.config.PipelineProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.OverloadedException;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipelined ride matching. Each matcher thread owns the regions (coarse {@code CellId} cells)
+ * hashed to it and consumes their requests from its own {@link RequestRing} in batches, so
+ * requests for the same area are matched one after another instead of racing for the same
+ * drivers. A full ring sheds the request at once, which keeps latency bounded under spikes.
+ */
+@Component
+@ConditionalOnProperty(name = "ride-pipeline.enabled", havingValue = "true")
+public class RidePipeline implements SmartLifecycle {
+
+    // Matchers spin this often before parking when their ring is empty
+    private static final int IDLE_SPINS = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RideService rideService;
+    private final RequestRing[] rings;
+    private final Thread[] matchers;
+    private final int batchSize;
+    private final int regionLevel;
+    private final Duration timeout;
+
+    private volatile boolean running;
+
+    public RidePipeline(RideService rideService, PipelineProperties properties) {
+        this.rideService = rideService;
+        this.batchSize = properties.batchSize();
+        this.regionLevel = properties.regionLevel();
+        this.timeout = properties.timeout();
+
+        this.rings = new RequestRing[properties.matchers()];
+        this.matchers = new Thread[properties.matchers()];
+        for (int i = 0; i < rings.length; i++) {
+            RequestRing ring = new RequestRing(properties.ringSize());
+            rings[i] = ring;
+            matchers[i] = new Thread(() -> consume(ring), "ride-matcher-" + i);
+            matchers[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * Queues the request with the matcher owning the pickup region and waits for the result.
+     * @throws OverloadedException if that matcher's ring is full or the match times out
+     */
+    public RideResponse requestRide(String riderId, Location pickupLocation) {
+        return requestRide(riderId, pickupLocation, null);
+    }
+
+    /**
+     * @param vehicleType vehicle the rider asked for, or null for any
+     */
+    public RideResponse requestRide(String riderId, Location pickupLocation, VehicleType vehicleType) {
+        CompletableFuture<RideResponse> result = submit(riderId, pickupLocation, vehicleType);
+        try {
+            try {
+                return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // A cancelled request is skipped by its matcher; one matched in the meantime is still returned
+                if (result.cancel(false)) {
+                    throw new OverloadedException("Ride matching timed out", timeout);
+                }
+                return result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!result.cancel(false)) {
+                result.thenAccept(ride -> rideService.cancelRide(ride.rideId()));
+            }
+            throw new IllegalStateException("Interrupted while waiting for a match", e);
+        }
+    }
+
+    public CompletableFuture<RideResponse> submit(String riderId, Location pickupLocation) {
+        return submit(riderId, pickupLocation, null);
+    }
+
+    public CompletableFuture<RideResponse> submit(String riderId, Location pickupLocation, VehicleType vehicleType) {
+        RequestRing ring = rings[regionOf(pickupLocation)];
+        long sequence = ring.tryClaim();
+        if (sequence < 0) {
+            throw new OverloadedException("Too many pending ride requests", timeout);
+        }
+
+        CompletableFuture<RideResponse> result = new CompletableFuture<>();
+        RequestSlot slot = ring.slot(sequence);
+        slot.riderId = riderId;
+        slot.x = pickupLocation.x();
+        slot.y = pickupLocation.y();
+        slot.vehicleType = vehicleType;
+        slot.result = result;
+        ring.publish(sequence);
+        return result;
+    }
+
+    /**
+     * @return requests queued or being matched, over all matchers
+     */
+    public long getDepth() {
+        long depth = 0;
+        for (RequestRing ring : rings) {
+            depth += ring.depth();
+        }
+        return depth;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Thread matcher : matchers) {
+            matcher.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread matcher : matchers) {
+            LockSupport.unpark(matcher);
+            try {
+                matcher.join(timeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private int regionOf(Location location) {
+        long region = CellId.prefixOf(location.x(), location.y(), regionLevel);
+        return (int) Math.floorMod(region * 0x9E3779B97F4A7C15L >>> 32, (long) rings.length);
+    }
+
+    private void consume(RequestRing ring) {
+        long next = 0;
+        int idle = 0;
+
+        // Requests still queued at shutdown are matched before the thread exits
+        while (running || ring.publishedUpTo(next, next) == next) {
+            long last = ring.publishedUpTo(next, next + batchSize - 1);
+            if (last < next) {
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+
+            idle = 0;
+            for (long sequence = next; sequence <= last; sequence++) {
+                match(ring.slot(sequence));
+            }
+            ring.release(last);
+            next = last + 1;
+        }
+    }
+
+    private void match(RequestSlot slot) {
+        CompletableFuture<RideResponse> result = slot.result;
+        try {
+            // The caller gave up waiting; matching now would claim a driver for nobody
+            if (result.isDone()) {
+                return;
+            }
+            RideResponse ride = rideService.requestRide(slot.riderId, new Location(slot.x, slot.y), slot.vehicleType);
+            if (!result.complete(ride)) {
+                // Abandoned while it was being matched, so the driver is handed straight back
+                rideService.cancelRide(ride.rideId());
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            slot.clear();
+        }
+    }
+}
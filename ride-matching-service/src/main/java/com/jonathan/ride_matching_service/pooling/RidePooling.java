@@ -0,0 +1,194 @@
+package com.jonathan.ride_matching_service.pooling;
+
+import com.jonathan.ride_matching_service.config.PoolingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared rides: a rider who gives a drop-off can join a driver's in-progress trip instead of
+ * waiting for an idle driver, which adds seats to the supply during peaks.
+ * <p>
+ * Each trip's remaining route is indexed under the {@code CellId} cells it passes through,
+ * and re-indexed whenever its stops change, so finding trips near a pickup reads the pickup's
+ * cell and its neighbours instead of every active ride. The trips are ranked by how close
+ * their route passes to the pickup and drop-off, and only the nearest {@code candidates} are
+ * given the exact insertion check over every stop position.
+ */
+@Component
+@ConditionalOnProperty(name = "pooling.enabled", havingValue = "true")
+public class RidePooling {
+
+    private final int level;
+    private final double cellSize;
+    private final int candidates;
+    private final double maxDetour;
+    private final double maxPickupDistance;
+    private final double arrivalRadius;
+
+    private final ConcurrentHashMap<String, SharedTrip> tripsByRide = new ConcurrentHashMap<>();
+    // Route cell -> trips whose route passes through it
+    private final ConcurrentHashMap<Long, Set<SharedTrip>> routeCells = new ConcurrentHashMap<>();
+
+    public RidePooling(PoolingProperties properties) {
+        this.level = properties.level();
+        this.cellSize = CellId.cellSize(level);
+        this.candidates = Math.max(1, properties.candidates());
+        this.maxDetour = properties.maxDetour();
+        this.maxPickupDistance = properties.maxPickupDistance();
+        this.arrivalRadius = properties.arrivalRadius();
+    }
+
+    /**
+     * Books the rider onto the nearby trip that their stops lengthen least, keeping every rider
+     * of that trip within the seat, detour and pickup limits.
+     * @param vehicleType required vehicle type, or null for any
+     * @return the trip's driver, or null if no trip can take the rider
+     */
+    public Driver join(String rideId, Location pickup, Location dropoff, VehicleType vehicleType) {
+        List<Candidate> nearest = new ArrayList<>();
+        for (SharedTrip trip : tripsNear(pickup)) {
+            if (vehicleType == null || trip.driver.getProfile().vehicleType() == vehicleType) {
+                nearest.add(new Candidate(trip, trip.distanceToRoute(pickup.x(), pickup.y())
+                        + trip.distanceToRoute(dropoff.x(), dropoff.y())));
+            }
+        }
+        nearest.sort(Comparator.comparingDouble(Candidate::value));
+
+        List<Candidate> feasible = new ArrayList<>();
+        for (Candidate candidate : nearest.subList(0, Math.min(candidates, nearest.size()))) {
+            double cost = candidate.trip().insertionCost(pickup, dropoff);
+            if (!Double.isNaN(cost)) {
+                feasible.add(new Candidate(candidate.trip(), cost));
+            }
+        }
+        feasible.sort(Comparator.comparingDouble(Candidate::value));
+
+        // The route may have changed since it was costed; insert re-checks it under the trip's lock
+        for (Candidate candidate : feasible) {
+            SharedTrip trip = candidate.trip();
+            if (trip.insert(rideId, pickup, dropoff)) {
+                tripsByRide.put(rideId, trip);
+                reindex(trip);
+                return trip.driver;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a shared trip for a driver that was just matched to the rider alone, so later
+     * riders can join it.
+     */
+    public void open(Driver driver, String rideId, Location pickup, Location dropoff) {
+        SharedTrip trip = new SharedTrip(driver, driver.getProfile().vehicleType().getSeats(),
+                maxDetour, maxPickupDistance, arrivalRadius);
+        trip.open(rideId, pickup, dropoff);
+        tripsByRide.put(rideId, trip);
+        reindex(trip);
+    }
+
+    /**
+     * Takes a finished ride off its trip.
+     * @return true if the driver has no riders left and can be released, which is always the
+     * case for a ride that was not shared
+     */
+    public boolean complete(String rideId) {
+        SharedTrip trip = tripsByRide.remove(rideId);
+        if (trip == null) {
+            return true;
+        }
+        boolean empty = trip.remove(rideId);
+        reindex(trip);
+        return empty;
+    }
+
+    /**
+     * @return the number of open shared trips
+     */
+    public int getActiveTrips() {
+        return (int) tripsByRide.values().stream().distinct().count();
+    }
+
+    private List<SharedTrip> tripsNear(Location location) {
+        long cell = CellId.prefixOf(location.x(), location.y(), level);
+        long gridX = CellId.gridX(cell);
+        long gridY = CellId.gridY(cell);
+
+        List<SharedTrip> trips = new ArrayList<>();
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                Set<SharedTrip> inCell = routeCells.get(CellId.fromGrid(gridX + dx, gridY + dy));
+                if (inCell == null) {
+                    continue;
+                }
+                for (SharedTrip trip : inCell) {
+                    if (!trips.contains(trip)) {
+                        trips.add(trip);
+                    }
+                }
+            }
+        }
+        return trips;
+    }
+
+    // Serialised per trip, and always indexing the trip's current route, so racing updates converge
+    private void reindex(SharedTrip trip) {
+        synchronized (trip) {
+            long[] updated = trip.isClosed() ? new long[0] : cellsOf(trip.routePoints());
+            for (long cell : trip.cells) {
+                if (Arrays.binarySearch(updated, cell) < 0) {
+                    routeCells.computeIfPresent(cell, (key, trips) -> {
+                        trips.remove(trip);
+                        return trips.isEmpty() ? null : trips;
+                    });
+                }
+            }
+            for (long cell : updated) {
+                // Added inside compute, so a concurrent removal cannot drop the set in between
+                routeCells.compute(cell, (key, trips) -> {
+                    Set<SharedTrip> updatedTrips = trips != null ? trips : ConcurrentHashMap.newKeySet();
+                    updatedTrips.add(trip);
+                    return updatedTrips;
+                });
+            }
+            trip.cells = updated;
+        }
+    }
+
+    // Sorted, distinct cells along the route, sampled at half a cell so no crossed cell is skipped
+    private long[] cellsOf(double[] points) {
+        double step = cellSize / 2;
+        long[] cells = new long[16];
+        int count = 0;
+        for (int p = 0; p < points.length; p += 2) {
+            double fromX = p == 0 ? points[0] : points[p - 2];
+            double fromY = p == 0 ? points[1] : points[p - 1];
+            int steps = (int) Math.ceil(Math.hypot(points[p] - fromX, points[p + 1] - fromY) / step);
+            for (int s = p == 0 ? 0 : 1; s <= steps; s++) {
+                double t = steps == 0 ? 1 : (double) s / steps;
+                long cell = CellId.prefixOf(fromX + t * (points[p] - fromX), fromY + t * (points[p + 1] - fromY), level);
+                if (count == 0 || cells[count - 1] != cell) {
+                    if (count == cells.length) {
+                        cells = Arrays.copyOf(cells, count * 2);
+                    }
+                    cells[count++] = cell;
+                }
+            }
+        }
+        return Arrays.stream(cells, 0, count).sorted().distinct().toArray();
+    }
+
+    private record Candidate(SharedTrip trip, double value) {
+    }
+}
@@ -0,0 +1,297 @@
+package com.jonathan.ride_matching_service.pooling;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+
+import java.util.Arrays;
+
+/**
+ * A driver's shared trip: the stops still ahead of it, in visiting order. A rider's pickup
+ * stays on the route until the driver comes within the arrival radius of it, and their
+ * drop-off until their ride is completed. Guarded by its own monitor.
+ */
+final class SharedTrip {
+
+    // Slack for rounding in the detour limit
+    private static final double EPSILON = 1e-9;
+
+    final Driver driver;
+    private final int seats;
+    private final double maxDetour;
+    private final double maxPickupDistance;
+    private final double arrivalRadius;
+
+    private String[] rideIds = new String[4];
+    private boolean[] pickups = new boolean[4];
+    private double[] xs = new double[4];
+    private double[] ys = new double[4];
+    // Direct pickup-to-drop-off distance of the stop's rider
+    private double[] directs = new double[4];
+    // Route distance at which each stop is reached; scratch for the walks
+    private double[] reachedAt = new double[4];
+    private double[] reachedBefore = new double[4];
+    private int size;
+    private int riders;
+    private boolean closed;
+
+    // Cells the route is indexed under; read and written by RidePooling under this monitor
+    long[] cells = new long[0];
+
+    SharedTrip(Driver driver, int seats, double maxDetour, double maxPickupDistance, double arrivalRadius) {
+        this.driver = driver;
+        this.seats = seats;
+        this.maxDetour = maxDetour;
+        this.maxPickupDistance = maxPickupDistance;
+        this.arrivalRadius = arrivalRadius;
+    }
+
+    /**
+     * Adds the first rider, whom the driver was matched to alone.
+     */
+    synchronized void open(String rideId, Location pickup, Location dropoff) {
+        double direct = distance(pickup.x(), pickup.y(), dropoff.x(), dropoff.y());
+        insertStop(size, rideId, true, pickup.x(), pickup.y(), direct);
+        insertStop(size, rideId, false, dropoff.x(), dropoff.y(), direct);
+        riders++;
+    }
+
+    /**
+     * @return the shortest distance from {@code (x, y)} to the driver's remaining route
+     */
+    synchronized double distanceToRoute(double x, double y) {
+        Location location = driver.getLocation();
+        double fromX = location.x();
+        double fromY = location.y();
+        double nearest = distance(x, y, fromX, fromY);
+        for (int k = 0; k < size; k++) {
+            nearest = Math.min(nearest, distanceToSegment(x, y, fromX, fromY, xs[k], ys[k]));
+            fromX = xs[k];
+            fromY = ys[k];
+        }
+        return nearest;
+    }
+
+    /**
+     * @return the extra route distance of the cheapest insertion that keeps every rider within
+     * the seat, detour and pickup limits, or {@code NaN} if there is none
+     */
+    synchronized double insertionCost(Location pickup, Location dropoff) {
+        if (closed) {
+            return Double.NaN;
+        }
+        Location location = driver.getLocation();
+        advance(location);
+        return best(location, pickup, dropoff, null);
+    }
+
+    /**
+     * Inserts the rider's stops at the cheapest feasible positions of the current route.
+     * @return false if the trip has ended or can no longer take the rider
+     */
+    synchronized boolean insert(String rideId, Location pickup, Location dropoff) {
+        if (closed) {
+            return false;
+        }
+        Location location = driver.getLocation();
+        advance(location);
+        int[] at = new int[2];
+        if (Double.isNaN(best(location, pickup, dropoff, at))) {
+            return false;
+        }
+
+        double direct = distance(pickup.x(), pickup.y(), dropoff.x(), dropoff.y());
+        // Drop-off first, so the pickup insert shifts it behind the pickup
+        insertStop(at[1], rideId, false, dropoff.x(), dropoff.y(), direct);
+        insertStop(at[0], rideId, true, pickup.x(), pickup.y(), direct);
+        riders++;
+        return true;
+    }
+
+    /**
+     * Drops a completed ride's stops.
+     * @return true if no riders are left, in which case the trip is closed for good
+     */
+    synchronized boolean remove(String rideId) {
+        int kept = 0;
+        for (int k = 0; k < size; k++) {
+            if (!rideIds[k].equals(rideId)) {
+                moveStop(k, kept++);
+            }
+        }
+        Arrays.fill(rideIds, kept, size, null);
+        size = kept;
+        riders--;
+        closed = riders == 0;
+        return closed;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the driver's position followed by the stops ahead, as {@code x, y} pairs
+     */
+    synchronized double[] routePoints() {
+        Location location = driver.getLocation();
+        double[] points = new double[2 * size + 2];
+        points[0] = location.x();
+        points[1] = location.y();
+        for (int k = 0; k < size; k++) {
+            points[2 * k + 2] = xs[k];
+            points[2 * k + 3] = ys[k];
+        }
+        return points;
+    }
+
+    // Drops pickups the driver has arrived at; their riders are on board from now on
+    private void advance(Location location) {
+        while (size > 0 && pickups[0] && distance(location.x(), location.y(), xs[0], ys[0]) <= arrivalRadius) {
+            for (int k = 1; k < size; k++) {
+                moveStop(k, k - 1);
+            }
+            rideIds[--size] = null;
+        }
+    }
+
+    // Tries every pickup position i and drop-off position j >= i (both "before stop k")
+    private double best(Location from, Location pickup, Location dropoff, int[] at) {
+        // Pickups of the current route, which a joining rider may delay up to the pickup limit
+        double length = walk(from, null, null, 0, -1, -1);
+        System.arraycopy(reachedAt, 0, reachedBefore, 0, size);
+
+        double direct = distance(pickup.x(), pickup.y(), dropoff.x(), dropoff.y());
+        double bestLength = Double.NaN;
+        for (int i = 0; i <= size; i++) {
+            for (int j = i; j <= size; j++) {
+                double inserted = walk(from, pickup, dropoff, direct, i, j);
+                if (!Double.isNaN(inserted) && !(inserted >= bestLength)) {
+                    bestLength = inserted;
+                    if (at != null) {
+                        at[0] = i;
+                        at[1] = j;
+                    }
+                }
+            }
+        }
+        return bestLength - length;
+    }
+
+    /**
+     * Length of the route from the driver's position with the new rider's pickup before stop
+     * {@code i} and drop-off before stop {@code j}, or {@code NaN} if a seat, detour or pickup
+     * limit is broken. Riders on board count their detour from now on, which only relaxes their limit.
+     */
+    private double walk(Location from, Location pickup, Location dropoff, double direct, int i, int j) {
+        double length = 0;
+        double x = from.x();
+        double y = from.y();
+        int load = onBoard();
+        double pickedUpAt = 0;
+
+        for (int k = 0; k <= size; k++) {
+            if (k == i) {
+                length += distance(x, y, pickup.x(), pickup.y());
+                x = pickup.x();
+                y = pickup.y();
+                pickedUpAt = length;
+                if (++load > seats || length > maxPickupDistance) {
+                    return Double.NaN;
+                }
+            }
+            if (k == j) {
+                length += distance(x, y, dropoff.x(), dropoff.y());
+                x = dropoff.x();
+                y = dropoff.y();
+                load--;
+                if (length - pickedUpAt > maxDetour * direct + EPSILON) {
+                    return Double.NaN;
+                }
+            }
+            if (k == size) {
+                break;
+            }
+
+            length += distance(x, y, xs[k], ys[k]);
+            x = xs[k];
+            y = ys[k];
+            reachedAt[k] = length;
+            if (pickups[k]) {
+                if (++load > seats || (i >= 0 && length > Math.max(maxPickupDistance, reachedBefore[k]) + EPSILON)) {
+                    return Double.NaN;
+                }
+            } else {
+                load--;
+                int pickupStop = pickupOf(k);
+                double ridden = pickupStop < 0 ? length : length - reachedAt[pickupStop];
+                if (ridden > maxDetour * directs[k] + EPSILON) {
+                    return Double.NaN;
+                }
+            }
+        }
+        return length;
+    }
+
+    // Riders whose pickup has been passed but whose drop-off has not
+    private int onBoard() {
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            if (!pickups[k] && pickupOf(k) < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Index of the pending pickup of the drop-off at k, or -1 if the rider is on board
+    private int pickupOf(int dropoff) {
+        for (int k = 0; k < dropoff; k++) {
+            if (pickups[k] && rideIds[k].equals(rideIds[dropoff])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private void insertStop(int index, String rideId, boolean pickup, double x, double y, double direct) {
+        if (size == rideIds.length) {
+            int capacity = size * 2;
+            rideIds = Arrays.copyOf(rideIds, capacity);
+            pickups = Arrays.copyOf(pickups, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            directs = Arrays.copyOf(directs, capacity);
+            reachedAt = Arrays.copyOf(reachedAt, capacity);
+            reachedBefore = Arrays.copyOf(reachedBefore, capacity);
+        }
+        for (int k = size; k > index; k--) {
+            moveStop(k - 1, k);
+        }
+        rideIds[index] = rideId;
+        pickups[index] = pickup;
+        xs[index] = x;
+        ys[index] = y;
+        directs[index] = direct;
+        size++;
+    }
+
+    private void moveStop(int from, int to) {
+        rideIds[to] = rideIds[from];
+        pickups[to] = pickups[from];
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        directs[to] = directs[from];
+    }
+
+    private static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        return distance(x, y, x1 + t * dx, y1 + t * dy);
+    }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        return Math.hypot(x2 - x1, y2 - y1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.jonathan.ride_matching_service.replication;
+
+import com.jonathan.ride_matching_service.exception.ReadOnlyReplicaException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects writes to drivers and rides while this node is an unpromoted replica.
+ */
+public class ReadOnlyReplicaInterceptor implements HandlerInterceptor {
+
+    private final ReplicationManager replicationManager;
+
+    public ReadOnlyReplicaInterceptor(ReplicationManager replicationManager) {
+        this.replicationManager = replicationManager;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (replicationManager.isReadOnly() && !HttpMethod.GET.matches(request.getMethod())) {
+            throw new ReadOnlyReplicaException("This node is a read-only replica; send writes to the primary");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+package com.jonathan.ride_matching_service.replication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Wire format of the replication stream. Each frame is
+ * <pre>
+ * kind:byte  sequence:long  createdAt:long  rawLength:int  compressedLength:int  deflated entries
+ * </pre>
+ * and the entries are upserts of the latest driver or ride state or removals of one, so replaying them is idempotent.
+ * A {@link #SNAPSHOT} frame carries the complete state and replaces whatever the replica holds.
+ */
+final class ReplicationCodec {
+
+    static final byte BATCH = 0;
+    static final byte SNAPSHOT = 1;
+
+    static final byte DRIVER = 1;
+    static final byte DRIVER_REMOVED = 2;
+    static final byte RIDE = 3;
+    static final byte RIDE_REMOVED = 4;
+
+    private ReplicationCodec() {
+    }
+
+    record Frame(byte kind, long sequence, long createdAt, int rawLength, int compressedLength, byte[] entries) {
+    }
+
+    /**
+     * Compresses {@code entries} and writes one frame.
+     * @return the number of compressed bytes written
+     */
+    static int writeFrame(DataOutputStream out, Deflater deflater, byte kind, long sequence, long createdAt,
+                          ByteArrayOutputStream entries) throws IOException {
+        byte[] raw = entries.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+
+        out.writeByte(kind);
+        out.writeLong(sequence);
+        out.writeLong(createdAt);
+        out.writeInt(raw.length);
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+        out.flush();
+        return compressed.size();
+    }
+
+    static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static Frame readFrame(DataInputStream in, Inflater inflater) throws IOException {
+        byte kind = in.readByte();
+        long sequence = in.readLong();
+        long createdAt = in.readLong();
+        int rawLength = in.readInt();
+        int compressedLength = in.readInt();
+        byte[] compressed = in.readNBytes(compressedLength);
+        if (compressed.length != compressedLength) {
+            throw new IOException("Replication stream ended inside a frame");
+        }
+
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated replication frame " + sequence);
+                }
+                inflated += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt replication frame " + sequence, e);
+        }
+        return new Frame(kind, sequence, createdAt, rawLength, compressedLength, raw);
+    }
+}
@@ -0,0 +1,30 @@
+package com.jonathan.ride_matching_service.replication;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/replication")
+public class ReplicationController {
+
+    private final ReplicationManager replicationManager;
+
+    public ReplicationController(ReplicationManager replicationManager) {
+        this.replicationManager = replicationManager;
+    }
+
+    @GetMapping("/status")
+    public ReplicationStatus getStatus() {
+        return replicationManager.getStatus();
+    }
+
+    /**
+     * Turns this replica into the primary, e.g. after the primary crashed.
+     */
+    @PostMapping("/promote")
+    public ReplicationStatus promote() {
+        return replicationManager.promote();
+    }
+}
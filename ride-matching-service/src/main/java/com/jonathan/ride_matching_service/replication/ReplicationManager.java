@@ -0,0 +1,126 @@
+package com.jonathan.ride_matching_service.replication;
+
+import com.jonathan.ride_matching_service.config.ReplicationProperties;
+import com.jonathan.ride_matching_service.config.ReplicationProperties.Role;
+import com.jonathan.ride_matching_service.exception.ConflictException;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Runs this node as replication primary or replica and handles promotion.
+ * A replica applies the primary's change stream and serves reads only until it is promoted.
+ */
+@Component
+public class ReplicationManager implements SmartLifecycle {
+
+    private final ReplicationProperties properties;
+    private final DriverRepository driverRepository;
+    private final RideRepository rideRepository;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Role role;
+    private ReplicationPublisher publisher;
+    private ReplicationSubscriber subscriber;
+    private boolean running;
+
+    public ReplicationManager(ReplicationProperties properties,
+                              DriverRepository driverRepository,
+                              RideRepository rideRepository,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.driverRepository = driverRepository;
+        this.rideRepository = rideRepository;
+        this.meterRegistry = meterRegistry;
+        this.role = properties.role();
+    }
+
+    @Override
+    public synchronized void start() {
+        // As after a promotion, a primary without a listen port serves no change stream
+        if (role == Role.PRIMARY && properties.listenPort() > 0) {
+            startPublisher(0);
+        } else if (role == Role.REPLICA) {
+            subscriber = new ReplicationSubscriber(driverRepository, rideRepository, properties.primaryHost(),
+                    properties.primaryPort(), properties.retryInterval(), meterRegistry);
+            subscriber.start();
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (publisher != null) {
+            publisher.stop();
+        }
+        if (subscriber != null) {
+            stopSubscriber();
+        }
+        running = false;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public boolean isReadOnly() {
+        return role == Role.REPLICA;
+    }
+
+    /**
+     * Stops following the primary and starts accepting writes, keeping every replicated ride.
+     * The change stream is served on {@code replication.listen-port} if one is configured.
+     */
+    public synchronized ReplicationStatus promote() {
+        if (role != Role.REPLICA) {
+            throw new ConflictException("Only a replica can be promoted, this node is " + role.name().toLowerCase());
+        }
+
+        stopSubscriber();
+        role = Role.PRIMARY;
+        if (properties.listenPort() > 0) {
+            startPublisher(subscriber.getSequence());
+        }
+        return getStatus();
+    }
+
+    public synchronized ReplicationStatus getStatus() {
+        return new ReplicationStatus(
+                role.name().toLowerCase(),
+                role == Role.REPLICA ? subscriber.getSequence() : publisher != null ? publisher.getSequence() : 0,
+                role == Role.REPLICA ? subscriber.getLagMillis() : 0,
+                publisher != null ? publisher.getReplicaCount() : 0
+        );
+    }
+
+    /**
+     * @return the port the change stream is served on, or -1 if this node does not serve it
+     */
+    public synchronized int getStreamPort() {
+        return publisher != null ? publisher.getPort() : -1;
+    }
+
+    private void startPublisher(long lastSequence) {
+        publisher = new ReplicationPublisher(driverRepository, rideRepository, properties.listenPort(),
+                properties.batchInterval(), meterRegistry);
+        try {
+            publisher.start(lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serve the replication stream on port " + properties.listenPort(), e);
+        }
+    }
+
+    private void stopSubscriber() {
+        try {
+            subscriber.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.jonathan.ride_matching_service.replication;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.DriverState;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.RideListener;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.util.ConcurrentBitSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Primary side of replication. Change callbacks only mark the driver or ride as dirty, so the
+ * location ping path stays allocation-free; once per batch interval a single shipper thread
+ * reads the latest state of everything dirty and sends it to all replicas as one compressed frame.
+ * A replica that connects first receives a snapshot of the complete state.
+ */
+@Slf4j
+class ReplicationPublisher implements DriverListener, RideListener {
+
+    private final DriverRepository driverRepository;
+    private final RideRepository rideRepository;
+    private final int listenPort;
+    private final Duration batchInterval;
+
+    // Driver handles, so the ping path marks a bit instead of hashing an id
+    private final ConcurrentBitSet dirtyDrivers = new ConcurrentBitSet();
+    private final Set<String> dirtyRides = ConcurrentHashMap.newKeySet();
+    private final Queue<Socket> joining = new ConcurrentLinkedQueue<>();
+
+    // Shipper thread only
+    private final List<DataOutputStream> replicas = new ArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private long sequence;
+
+    private final AtomicInteger connectedReplicas = new AtomicInteger();
+    private final Counter batches;
+    private final Counter rawBytes;
+    private final Counter compressedBytes;
+
+    private ServerSocket serverSocket;
+    private ScheduledExecutorService shipper;
+
+    ReplicationPublisher(DriverRepository driverRepository, RideRepository rideRepository,
+                         int listenPort, Duration batchInterval, MeterRegistry meterRegistry) {
+        this.driverRepository = driverRepository;
+        this.rideRepository = rideRepository;
+        this.listenPort = listenPort;
+        this.batchInterval = batchInterval;
+
+        meterRegistry.gauge("replication.replicas", connectedReplicas);
+        this.batches = meterRegistry.counter("replication.batches.sent");
+        this.rawBytes = meterRegistry.counter("replication.bytes.sent", "encoding", "raw");
+        this.compressedBytes = meterRegistry.counter("replication.bytes.sent", "encoding", "compressed");
+    }
+
+    /**
+     * @param lastSequence sequence of the last batch already applied, when continuing a promoted replica's stream
+     */
+    synchronized void start(long lastSequence) throws IOException {
+        sequence = lastSequence;
+        serverSocket = new ServerSocket(listenPort);
+
+        driverRepository.addListener(this);
+        rideRepository.addListener(this);
+
+        Thread acceptor = new Thread(this::acceptReplicas, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-shipper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        shipper.scheduleWithFixedDelay(this::ship, batchInterval.toNanos(), batchInterval.toNanos(), TimeUnit.NANOSECONDS);
+        log.info("Serving the replication stream on port {}", serverSocket.getLocalPort());
+    }
+
+    synchronized void stop() {
+        if (shipper == null) {
+            return;
+        }
+        driverRepository.removeListener(this);
+        rideRepository.removeListener(this);
+        shipper.shutdownNow();
+        close(serverSocket);
+        for (DataOutputStream replica : replicas) {
+            close(replica);
+        }
+        shipper = null;
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getReplicaCount() {
+        return connectedReplicas.get();
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void onSaved(Driver driver) {
+        dirtyDrivers.set(driver.getHandle());
+    }
+
+    @Override
+    public void onRemoved(Driver driver) {
+        dirtyDrivers.set(driver.getHandle());
+    }
+
+    @Override
+    public void onLocationChanged(Driver driver) {
+        dirtyDrivers.set(driver.getHandle());
+    }
+
+    @Override
+    public void onAvailabilityChanged(Driver driver, boolean available) {
+        dirtyDrivers.set(driver.getHandle());
+    }
+
+    @Override
+    public void onSaved(Ride ride) {
+        dirtyRides.add(ride.getId());
+    }
+
+    @Override
+    public void onCompleted(Ride ride) {
+        dirtyRides.add(ride.getId());
+    }
+
+    @Override
+    public void onRemoved(Ride ride) {
+        dirtyRides.add(ride.getId());
+    }
+
+    private void acceptReplicas() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                joining.add(socket);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Failed to accept a replica", e);
+                }
+            }
+        }
+    }
+
+    private void ship() {
+        try {
+            Socket socket;
+            while ((socket = joining.poll()) != null) {
+                DataOutputStream replica = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                if (send(replica, ReplicationCodec.SNAPSHOT, sequence, snapshot())) {
+                    replicas.add(replica);
+                    log.info("Replica {} joined at sequence {}", socket.getRemoteSocketAddress(), sequence);
+                }
+            }
+
+            // Idle intervals still ship an empty batch, which replicas use to measure lag
+            ByteArrayOutputStream changes = drainChanges();
+            sequence++;
+            replicas.removeIf(replica -> !send(replica, ReplicationCodec.BATCH, sequence, changes));
+            connectedReplicas.set(replicas.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Replication batch {} failed", sequence, e);
+        }
+    }
+
+    private boolean send(DataOutputStream replica, byte kind, long frameSequence, ByteArrayOutputStream entries) {
+        try {
+            int compressed = ReplicationCodec.writeFrame(replica, deflater, kind, frameSequence, System.currentTimeMillis(), entries);
+            batches.increment();
+            rawBytes.increment(entries.size());
+            compressedBytes.increment(compressed);
+            return true;
+        } catch (IOException e) {
+            log.warn("Dropping replica after a failed send: {}", e.getMessage());
+            close(replica);
+            return false;
+        }
+    }
+
+    private ByteArrayOutputStream drainChanges() throws IOException {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(entries);
+
+        // Drivers before rides, so a ride always finds its driver on the replica.
+        // Ids are removed before reading the state, so a concurrent change marks them dirty again.
+        try {
+            dirtyDrivers.drain(handle -> {
+                try {
+                    Driver driver = driverRepository.findByHandle(handle);
+                    if (driver == null) {
+                        out.writeByte(ReplicationCodec.DRIVER_REMOVED);
+                        out.writeUTF(driverRepository.idOf(handle));
+                    } else {
+                        writeDriver(out, driver);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Iterator<String> ids = dirtyRides.iterator(); ids.hasNext(); ) {
+            String id = ids.next();
+            ids.remove();
+            Ride ride = rideRepository.findById(id);
+            if (ride == null) {
+                out.writeByte(ReplicationCodec.RIDE_REMOVED);
+                out.writeUTF(id);
+            } else {
+                writeRide(out, ride);
+            }
+        }
+        return entries;
+    }
+
+    private ByteArrayOutputStream snapshot() throws IOException {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(entries);
+        for (Driver driver : driverRepository.findAll()) {
+            writeDriver(out, driver);
+        }
+        for (Ride ride : rideRepository.findAll()) {
+            writeRide(out, ride);
+        }
+        return entries;
+    }
+
+    private static void writeDriver(DataOutputStream out, Driver driver) throws IOException {
+        DriverState state = driver.getState();
+        DriverProfile profile = driver.getProfile();
+        out.writeByte(ReplicationCodec.DRIVER);
+        out.writeUTF(driver.getId());
+        out.writeDouble(state.x());
+        out.writeDouble(state.y());
+        out.writeBoolean(state.available());
+        out.writeBoolean(state.onRide());
+        out.writeByte(profile.vehicleType().ordinal());
+        out.writeDouble(profile.rating());
+    }
+
+    private static void writeRide(DataOutputStream out, Ride ride) throws IOException {
+        out.writeByte(ReplicationCodec.RIDE);
+        out.writeUTF(ride.getId());
+        ReplicationCodec.writeNullableUTF(out, ride.getRiderId());
+        out.writeUTF(ride.getDriver().getId());
+        out.writeDouble(ride.getPickupLocation().x());
+        out.writeDouble(ride.getPickupLocation().y());
+        out.writeBoolean(ride.isCompleted());
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already broken
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.jonathan.ride_matching_service.replication;
+
+/**
+ * @param sequence  last batch shipped (primary) or applied (replica)
+ * @param lagMillis age of the newest applied frame on a replica; -1 before the first frame
+ * @param replicas  replicas connected to this node
+ */
+public record ReplicationStatus(
+        String role,
+        long sequence,
+        long lagMillis,
+        int replicas
+) {}
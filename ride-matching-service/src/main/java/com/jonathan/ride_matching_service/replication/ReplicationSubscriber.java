@@ -0,0 +1,218 @@
+package com.jonathan.ride_matching_service.replication;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Inflater;
+
+/**
+ * Replica side of replication: follows the primary's stream on a single thread and applies
+ * every frame to the local repositories, reconnecting (and re-snapshotting) after failures.
+ */
+@Slf4j
+class ReplicationSubscriber {
+
+    private final DriverRepository driverRepository;
+    private final RideRepository rideRepository;
+    private final String primaryHost;
+    private final int primaryPort;
+    private final Duration retryInterval;
+
+    private final Inflater inflater = new Inflater();
+    private final Counter batches;
+    private final Counter compressedBytes;
+
+    private volatile boolean running;
+    private volatile Socket socket;
+    private volatile long sequence;
+    private volatile long lastFrameCreatedAt;
+    private Thread thread;
+
+    ReplicationSubscriber(DriverRepository driverRepository, RideRepository rideRepository,
+                          String primaryHost, int primaryPort, Duration retryInterval, MeterRegistry meterRegistry) {
+        this.driverRepository = driverRepository;
+        this.rideRepository = rideRepository;
+        this.primaryHost = primaryHost;
+        this.primaryPort = primaryPort;
+        this.retryInterval = retryInterval;
+
+        Gauge.builder("replication.lag", this, subscriber -> subscriber.getLagMillis())
+                .baseUnit("milliseconds")
+                .description("Age of the newest primary frame applied by this replica")
+                .register(meterRegistry);
+        Gauge.builder("replication.sequence", this, subscriber -> subscriber.sequence).register(meterRegistry);
+        this.batches = meterRegistry.counter("replication.batches.applied");
+        this.compressedBytes = meterRegistry.counter("replication.bytes.received");
+    }
+
+    synchronized void start() {
+        running = true;
+        thread = new Thread(this::follow, "replication-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Closing only unblocks the reader
+            }
+        }
+        thread.interrupt();
+        thread.join();
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return milliseconds since the newest applied frame was created on the primary, or -1 before the first frame
+     */
+    long getLagMillis() {
+        long createdAt = lastFrameCreatedAt;
+        return createdAt == 0 ? -1 : Math.max(0, System.currentTimeMillis() - createdAt);
+    }
+
+    private void follow() {
+        while (running) {
+            try (Socket connection = new Socket(primaryHost, primaryPort)) {
+                socket = connection;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                while (running) {
+                    apply(ReplicationCodec.readFrame(in, inflater));
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Lost the replication stream from {}:{}: {}", primaryHost, primaryPort, e.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void apply(ReplicationCodec.Frame frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame.entries()));
+        Set<String> snapshotDrivers = frame.kind() == ReplicationCodec.SNAPSHOT ? new HashSet<>() : null;
+        Set<String> snapshotRides = frame.kind() == ReplicationCodec.SNAPSHOT ? new HashSet<>() : null;
+
+        while (in.available() > 0) {
+            byte type = in.readByte();
+            switch (type) {
+                case ReplicationCodec.DRIVER -> {
+                    String id = applyDriver(in);
+                    if (snapshotDrivers != null) {
+                        snapshotDrivers.add(id);
+                    }
+                }
+                case ReplicationCodec.DRIVER_REMOVED -> {
+                    Driver driver = driverRepository.findById(in.readUTF());
+                    if (driver != null) {
+                        driverRepository.remove(driver);
+                    }
+                }
+                case ReplicationCodec.RIDE -> {
+                    String id = applyRide(in);
+                    if (snapshotRides != null) {
+                        snapshotRides.add(id);
+                    }
+                }
+                case ReplicationCodec.RIDE_REMOVED -> rideRepository.remove(in.readUTF());
+                default -> throw new IOException("Unknown replication entry type " + type);
+            }
+        }
+
+        // A snapshot replaces the local state, including drivers and rides removed while disconnected
+        if (snapshotDrivers != null) {
+            for (Driver driver : driverRepository.findAll()) {
+                if (!snapshotDrivers.contains(driver.getId())) {
+                    driverRepository.remove(driver);
+                }
+            }
+            for (Ride ride : rideRepository.findAll()) {
+                if (!snapshotRides.contains(ride.getId())) {
+                    rideRepository.remove(ride.getId());
+                }
+            }
+        }
+
+        sequence = frame.sequence();
+        lastFrameCreatedAt = frame.createdAt();
+        batches.increment();
+        compressedBytes.increment(frame.compressedLength());
+    }
+
+    private String applyDriver(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        double x = in.readDouble();
+        double y = in.readDouble();
+        boolean available = in.readBoolean();
+        boolean onRide = in.readBoolean();
+        DriverProfile profile = new DriverProfile(VehicleType.values()[in.readByte()], in.readDouble());
+
+        Driver driver = driverRepository.findById(id);
+        if (driver == null) {
+            driver = new Driver(id, new Location(x, y), profile);
+            driver.replicateState(x, y, available, onRide);
+            driverRepository.save(driver);
+        } else {
+            driver.setProfile(profile);
+            // The claim too, so that after a promotion a driver on a ride is not matched again
+            driver.replicateState(x, y, available, onRide);
+        }
+        return id;
+    }
+
+    private String applyRide(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        String riderId = ReplicationCodec.readNullableUTF(in);
+        String driverId = in.readUTF();
+        Location pickup = new Location(in.readDouble(), in.readDouble());
+        boolean completed = in.readBoolean();
+
+        Ride ride = rideRepository.findById(id);
+        if (ride == null) {
+            Driver driver = driverRepository.findById(driverId);
+            // The driver may have been handed off to another cluster node since
+            ride = new Ride(id, riderId, driver != null ? driver : new Driver(driverId, pickup), pickup);
+            rideRepository.save(ride);
+        }
+        if (completed && !ride.isCompleted()) {
+            ride.complete();
+        }
+        return id;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
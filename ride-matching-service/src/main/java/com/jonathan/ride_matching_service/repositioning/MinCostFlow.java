@@ -0,0 +1,124 @@
+package com.jonathan.ride_matching_service.repositioning;
+
+import java.util.Arrays;
+
+/**
+ * Min-cost flow by successive shortest paths, one augmenting path per {@link #augment()} call so
+ * a caller can spread a solve over several time slices. Edges are kept in primitive arrays with
+ * a paired reverse edge at {@code edge ^ 1}; shortest paths use SPFA, which tolerates the
+ * negative costs of residual edges.
+ */
+final class MinCostFlow {
+
+    private final int nodes;
+    private final int source;
+    private final int sink;
+    private final int[] head;
+
+    private int[] to = new int[16];
+    private int[] next = new int[16];
+    private int[] capacity = new int[16];
+    private double[] cost = new double[16];
+    private int edges;
+
+    // SPFA scratch, reused between augmentations
+    private final double[] distance;
+    private final int[] previousEdge;
+    private final boolean[] queued;
+    private final int[] queue;
+
+    MinCostFlow(int nodes, int source, int sink) {
+        this.nodes = nodes;
+        this.source = source;
+        this.sink = sink;
+        this.head = new int[nodes];
+        Arrays.fill(head, -1);
+        this.distance = new double[nodes];
+        this.previousEdge = new int[nodes];
+        this.queued = new boolean[nodes];
+        this.queue = new int[nodes];
+    }
+
+    /**
+     * @return the id of the forward edge, for {@link #flow(int)}
+     */
+    int addEdge(int from, int target, int edgeCapacity, double edgeCost) {
+        if (edges + 2 > to.length) {
+            int grown = to.length * 2;
+            to = Arrays.copyOf(to, grown);
+            next = Arrays.copyOf(next, grown);
+            capacity = Arrays.copyOf(capacity, grown);
+            cost = Arrays.copyOf(cost, grown);
+        }
+        int edge = edges;
+        link(from, target, edgeCapacity, edgeCost);
+        link(target, from, 0, -edgeCost);
+        return edge;
+    }
+
+    int flow(int edge) {
+        return capacity[edge ^ 1];
+    }
+
+    /**
+     * Pushes flow along one cheapest augmenting path.
+     * @return false once no augmenting path is left, i.e. the flow is maximal at minimum cost
+     */
+    boolean augment() {
+        if (!shortestPaths()) {
+            return false;
+        }
+
+        int bottleneck = Integer.MAX_VALUE;
+        for (int node = sink; node != source; node = to[previousEdge[node] ^ 1]) {
+            bottleneck = Math.min(bottleneck, capacity[previousEdge[node]]);
+        }
+        for (int node = sink; node != source; node = to[previousEdge[node] ^ 1]) {
+            capacity[previousEdge[node]] -= bottleneck;
+            capacity[previousEdge[node] ^ 1] += bottleneck;
+        }
+        return true;
+    }
+
+    private boolean shortestPaths() {
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousEdge, -1);
+        distance[source] = 0;
+
+        // Circular queue; a node is in it at most once, so `nodes` slots suffice
+        int first = 0;
+        int size = 0;
+        queue[0] = source;
+        queued[source] = true;
+        size++;
+
+        while (size > 0) {
+            int node = queue[first];
+            first = (first + 1) % nodes;
+            size--;
+            queued[node] = false;
+
+            for (int edge = head[node]; edge >= 0; edge = next[edge]) {
+                if (capacity[edge] > 0 && distance[node] + cost[edge] < distance[to[edge]] - 1e-9) {
+                    distance[to[edge]] = distance[node] + cost[edge];
+                    previousEdge[to[edge]] = edge;
+                    if (!queued[to[edge]]) {
+                        queued[to[edge]] = true;
+                        queue[(first + size) % nodes] = to[edge];
+                        size++;
+                    }
+                }
+            }
+        }
+        return previousEdge[sink] >= 0;
+    }
+
+    private void link(int from, int target, int edgeCapacity, double edgeCost) {
+        to[edges] = target;
+        capacity[edges] = edgeCapacity;
+        cost[edges] = edgeCost;
+        next[edges] = head[from];
+        head[from] = edges;
+        edges++;
+    }
+}
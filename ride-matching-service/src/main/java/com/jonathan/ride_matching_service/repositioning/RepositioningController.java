@@ -0,0 +1,27 @@
+package com.jonathan.ride_matching_service.repositioning;
+
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@ConditionalOnProperty(name = "repositioning.enabled", havingValue = "true")
+public class RepositioningController {
+
+    private final RepositioningEngine repositioningEngine;
+
+    public RepositioningController(RepositioningEngine repositioningEngine) {
+        this.repositioningEngine = repositioningEngine;
+    }
+
+    /**
+     * Where the idle driver should head to meet forecast demand; 404 if it should stay.
+     */
+    @GetMapping("/drivers/{driverId}/repositioning")
+    public RepositioningSuggestion getSuggestion(@PathVariable String driverId) {
+        return repositioningEngine.getSuggestion(driverId)
+                .orElseThrow(() -> new NotFoundException("No repositioning suggestion for driver " + driverId));
+    }
+}
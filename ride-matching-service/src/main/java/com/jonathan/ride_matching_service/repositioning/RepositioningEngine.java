@@ -0,0 +1,287 @@
+package com.jonathan.ride_matching_service.repositioning;
+
+import com.jonathan.ride_matching_service.config.RepositioningProperties;
+import com.jonathan.ride_matching_service.heatmap.Heatmap;
+import com.jonathan.ride_matching_service.heatmap.HeatmapAggregator;
+import com.jonathan.ride_matching_service.heatmap.HeatmapCell;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forecasts demand per heatmap cell and suggests moves that bring idle drivers from cells with
+ * more drivers than forecast requests to cells with fewer, at minimum total distance.
+ * <p>
+ * Every {@code interval} a round observes the demand of the last interval from the heatmap,
+ * updates an exponentially smoothed forecast per cell, solves the surplus-to-deficit transport
+ * problem as a min-cost flow and publishes one suggestion per moved driver. A round is split
+ * into small steps (one cell, one augmenting path, one cell pair) and the engine thread runs
+ * steps for at most {@code cpu-budget} per {@code tick}, so it never takes more than that share
+ * of a core from live matching; unfinished rounds resume on the next tick.
+ */
+@Component
+@ConditionalOnProperty(name = "repositioning.enabled", havingValue = "true")
+public class RepositioningEngine implements SmartLifecycle {
+
+    private enum Phase { IDLE, FORECAST, SOLVE, ASSIGN }
+
+    // Forecasts below this are dropped for cells without drivers, so the forecast map stays small
+    private static final double NEGLIGIBLE_DEMAND = 0.05;
+
+    private final HeatmapAggregator heatmap;
+    private final DriverRepository driverRepository;
+    private final RepositioningProperties properties;
+    private final long budgetNanos;
+
+    // Engine state, guarded by this
+    private final Map<Long, Double> forecast = new HashMap<>();
+    private Phase phase = Phase.IDLE;
+    private long nextRoundAt = System.nanoTime();
+    private double cellSize;
+    private Map<Long, HeatmapCell> observed;
+    private long[] roundCells;
+    private int cursor;
+    private MinCostFlow flow;
+    private long[] pairFrom;
+    private long[] pairTo;
+    private int[] pairEdge;
+    private Map<String, RepositioningSuggestion> building;
+
+    private volatile Map<String, RepositioningSuggestion> suggestions = Map.of();
+    private ScheduledExecutorService scheduler;
+
+    public RepositioningEngine(HeatmapAggregator heatmap, DriverRepository driverRepository, RepositioningProperties properties) {
+        this.heatmap = heatmap;
+        this.driverRepository = driverRepository;
+        this.properties = properties;
+        this.budgetNanos = properties.cpuBudget().toNanos();
+    }
+
+    /**
+     * @return the current suggestion for the driver, if it is still idle
+     */
+    public Optional<RepositioningSuggestion> getSuggestion(String driverId) {
+        RepositioningSuggestion suggestion = suggestions.get(driverId);
+        Driver driver = driverRepository.findById(driverId);
+        if (suggestion == null || driver == null || !driver.isAvailable()) {
+            return Optional.empty();
+        }
+        return Optional.of(suggestion);
+    }
+
+    public Map<String, RepositioningSuggestion> getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Continues the current round, or starts one when it is due, for at most the CPU budget.
+     * At least one step is taken per call, so a round always finishes.
+     */
+    public synchronized void tick() {
+        if (phase == Phase.IDLE) {
+            if (System.nanoTime() - nextRoundAt < 0) {
+                return;
+            }
+            startRound();
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        do {
+            step();
+        } while (phase != Phase.IDLE && System.nanoTime() - deadline < 0);
+    }
+
+    /**
+     * Runs a complete round regardless of the budget.
+     */
+    public synchronized void runRound() {
+        startRound();
+        while (phase != Phase.IDLE) {
+            step();
+        }
+    }
+
+    private void startRound() {
+        Heatmap snapshot = heatmap.snapshot(properties.interval());
+        cellSize = snapshot.cellSize();
+        observed = new HashMap<>();
+        for (HeatmapCell cell : snapshot.cells()) {
+            observed.put(cell.cellId(), cell);
+        }
+
+        Set<Long> cells = new LinkedHashSet<>(observed.keySet());
+        cells.addAll(forecast.keySet());
+        roundCells = cells.stream().mapToLong(Long::longValue).toArray();
+        cursor = 0;
+        nextRoundAt = System.nanoTime() + properties.interval().toNanos();
+        phase = Phase.FORECAST;
+    }
+
+    private void step() {
+        switch (phase) {
+            case FORECAST -> forecastStep();
+            case SOLVE -> {
+                if (!flow.augment()) {
+                    cursor = 0;
+                    building = new HashMap<>();
+                    phase = Phase.ASSIGN;
+                }
+            }
+            case ASSIGN -> assignStep();
+            case IDLE -> {
+            }
+        }
+    }
+
+    private void forecastStep() {
+        if (cursor == roundCells.length) {
+            buildFlow();
+            return;
+        }
+
+        long cell = roundCells[cursor++];
+        HeatmapCell seen = observed.get(cell);
+        double demand = seen == null ? 0 : seen.requests();
+
+        Double previous = forecast.get(cell);
+        double updated = previous == null ? demand : properties.smoothing() * demand + (1 - properties.smoothing()) * previous;
+        if (updated < NEGLIGIBLE_DEMAND && (seen == null || seen.supply() == 0)) {
+            forecast.remove(cell);
+        } else {
+            forecast.put(cell, updated);
+        }
+    }
+
+    // Source -> surplus cells -> deficit cells within reach -> sink; costs are centre distances
+    private void buildFlow() {
+        List<Imbalance> surplus = new ArrayList<>();
+        List<Imbalance> deficit = new ArrayList<>();
+        for (long cell : roundCells) {
+            HeatmapCell seen = observed.get(cell);
+            int supply = seen == null ? 0 : seen.supply();
+            int need = (int) Math.round(forecast.getOrDefault(cell, 0.0)) - supply;
+            if (need > 0) {
+                deficit.add(new Imbalance(cell, need));
+            } else if (need < 0) {
+                surplus.add(new Imbalance(cell, -need));
+            }
+        }
+        surplus = largest(surplus);
+        deficit = largest(deficit);
+
+        int sink = surplus.size() + deficit.size() + 1;
+        flow = new MinCostFlow(sink + 1, 0, sink);
+        List<long[]> pairs = new ArrayList<>();
+        List<Integer> edges = new ArrayList<>();
+        for (int i = 0; i < surplus.size(); i++) {
+            flow.addEdge(0, 1 + i, surplus.get(i).drivers(), 0);
+            Location from = centre(surplus.get(i).cell());
+            for (int j = 0; j < deficit.size(); j++) {
+                Location to = centre(deficit.get(j).cell());
+                double distance = Math.hypot(to.x() - from.x(), to.y() - from.y());
+                if (distance <= properties.maxDistance()) {
+                    edges.add(flow.addEdge(1 + i, 1 + surplus.size() + j, surplus.get(i).drivers(), distance));
+                    pairs.add(new long[]{surplus.get(i).cell(), deficit.get(j).cell()});
+                }
+            }
+        }
+        for (int j = 0; j < deficit.size(); j++) {
+            flow.addEdge(1 + surplus.size() + j, sink, deficit.get(j).drivers(), 0);
+        }
+
+        pairFrom = pairs.stream().mapToLong(pair -> pair[0]).toArray();
+        pairTo = pairs.stream().mapToLong(pair -> pair[1]).toArray();
+        pairEdge = edges.stream().mapToInt(Integer::intValue).toArray();
+        phase = Phase.SOLVE;
+    }
+
+    private void assignStep() {
+        if (cursor == pairEdge.length) {
+            suggestions = Map.copyOf(building);
+            building = null;
+            observed = null;
+            flow = null;
+            phase = Phase.IDLE;
+            return;
+        }
+
+        int moved = flow.flow(pairEdge[cursor]);
+        if (moved > 0) {
+            Location target = centre(pairTo[cursor]);
+            List<Driver> idle = driverRepository.findByCellPrefix(pairFrom[cursor], heatmap.getLevel()).stream()
+                    .filter(driver -> driver.isAvailable() && !building.containsKey(driver.getId()))
+                    .sorted(Comparator.comparingDouble(driver -> distance(driver.getLocation(), target)))
+                    .limit(moved)
+                    .toList();
+            double demand = forecast.getOrDefault(pairTo[cursor], 0.0);
+            for (Driver driver : idle) {
+                building.put(driver.getId(), new RepositioningSuggestion(
+                        driver.getId(), target.x(), target.y(), distance(driver.getLocation(), target), demand));
+            }
+        }
+        cursor++;
+    }
+
+    private List<Imbalance> largest(List<Imbalance> imbalances) {
+        return imbalances.stream()
+                .sorted(Comparator.comparingInt(Imbalance::drivers).reversed())
+                .limit(properties.maxCells())
+                .toList();
+    }
+
+    private Location centre(long cell) {
+        HeatmapCell seen = observed.get(cell);
+        if (seen != null) {
+            return new Location(seen.x(), seen.y());
+        }
+        return new Location((CellId.gridX(cell) + 0.5) * cellSize - CellId.MAX_COORDINATE,
+                (CellId.gridY(cell) + 0.5) * cellSize - CellId.MAX_COORDINATE);
+    }
+
+    private static double distance(Location a, Location b) {
+        return Math.hypot(a.x() - b.x(), a.y() - b.y());
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repositioning");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        long tickNanos = properties.tick().toNanos();
+        scheduler.scheduleWithFixedDelay(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private record Imbalance(long cell, int drivers) {
+    }
+}
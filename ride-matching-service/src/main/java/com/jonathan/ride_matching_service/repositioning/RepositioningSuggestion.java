@@ -0,0 +1,13 @@
+package com.jonathan.ride_matching_service.repositioning;
+
+/**
+ * Suggested move of an idle driver towards a cell where demand is forecast to exceed supply.
+ *
+ * @param driverId       driver the suggestion is for
+ * @param toX            x of the target cell centre
+ * @param toY            y of the target cell centre
+ * @param distance       straight-line distance from the driver's position when suggested
+ * @param forecastDemand requests forecast for the target cell over the next round
+ */
+public record RepositioningSuggestion(String driverId, double toX, double toY, double distance, double forecastDemand) {
+}
@@ -0,0 +1,52 @@
+package com.jonathan.ride_matching_service.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns driver ids to dense int handles: 0, 1, 2, ... in order of first registration.
+ * An id keeps its handle for good, so a driver that registers again gets the same one and
+ * handles can index plain arrays and bit sets. Strings are only hashed here, at the API boundary.
+ */
+final class DriverIdRegistry {
+
+    private final ConcurrentHashMap<String, Integer> handles = new ConcurrentHashMap<>();
+    // Handle -> id; elements are written before the handle is published through the map
+    private volatile String[] ids = new String[64];
+    // Guarded by this
+    private int size;
+
+    /**
+     * @return the handle of {@code id}, assigning the next one on first sight
+     */
+    int intern(String id) {
+        Integer handle = handles.get(id);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (this) {
+            handle = handles.get(id);
+            if (handle != null) {
+                return handle;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            handles.put(id, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the handle of {@code id}, or -1 if it was never registered
+     */
+    int find(String id) {
+        Integer handle = handles.get(id);
+        return handle != null ? handle : -1;
+    }
+
+    String idOf(int handle) {
+        return ids[handle];
+    }
+}
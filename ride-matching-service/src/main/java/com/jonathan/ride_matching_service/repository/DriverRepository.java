@@ -1,26 +1,260 @@
 package com.jonathan.ride_matching_service.repository;
 
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.util.CellId;
+import com.jonathan.ride_matching_service.util.ConcurrentBitSet;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @Repository
-public class DriverRepository {
+public class DriverRepository implements DriverListener {
 
-    private final ConcurrentHashMap<String, Driver> drivers = new ConcurrentHashMap<>();
+    /**
+     * Granularity of the cell index (about 1/64 of a coordinate unit). Moves inside an index
+     * cell leave the index untouched; finer prefix queries filter on the driver's own cell id.
+     */
+    public static final int INDEX_LEVEL = 25;
+
+    // Ids are resolved to dense handles once, on save and lookup; everything inside is keyed on handles
+    private final DriverIdRegistry ids = new DriverIdRegistry();
+    // Handle -> driver; written and grown under this, read without locking
+    private volatile AtomicReferenceArray<Driver> drivers = new AtomicReferenceArray<>(64);
+    // Handles of available drivers, mirrored from each driver's state under the handle. A racing
+    // change can leave a bit stale for an instant in either direction, so readers re-check the driver.
+    private final ConcurrentBitSet available = new ConcurrentBitSet();
+    // Index cell -> drivers in that cell, sorted in Z-order so cell prefixes are key ranges.
+    // Buckets are copy-on-write arrays so readers never lock and empty cells can be dropped atomically.
+    private final ConcurrentSkipListMap<Long, Driver[]> cells = new ConcurrentSkipListMap<>();
+    // Listeners for every driver change, copy-on-write so the ping path reads them without locking or allocating
+    private volatile DriverListener[] listeners = new DriverListener[0];
 
     public void save(Driver driver) {
-        drivers.put(driver.getId(), driver);
+        int handle = ids.intern(driver.getId());
+        driver.setHandle(handle);
+        driver.setListener(this);
+        synchronized (this) {
+            if (handle >= drivers.length()) {
+                AtomicReferenceArray<Driver> grown = new AtomicReferenceArray<>(Math.max(handle + 1, drivers.length() * 2));
+                for (int i = 0; i < drivers.length(); i++) {
+                    grown.set(i, drivers.get(i));
+                }
+                drivers = grown;
+            }
+            drivers.set(handle, driver);
+        }
+        synchronized (driver) {
+            cells.compute(indexCell(driver.getCellId()), (cell, bucket) -> add(bucket, driver));
+        }
+        trackAvailability(handle);
+        for (DriverListener listener : listeners) {
+            listener.onSaved(driver);
+        }
+    }
+
+    /**
+     * Removes the driver from the repository and the cell index. The driver stops reporting
+     * cell changes, so a stale reference can no longer re-index it.
+     */
+    public void remove(Driver driver) {
+        int handle = driver.getHandle();
+        synchronized (this) {
+            if (handle < 0 || handle >= drivers.length() || drivers.get(handle) != driver) {
+                return;
+            }
+            drivers.set(handle, null);
+            available.clear(handle);
+        }
+        synchronized (driver) {
+            driver.setListener(DriverListener.NONE);
+            cells.computeIfPresent(indexCell(driver.getCellId()), (cell, bucket) -> remove(bucket, driver));
+        }
+        for (DriverListener listener : listeners) {
+            listener.onRemoved(driver);
+        }
     }
 
     public Driver findById(String id) {
-        return drivers.get(id);
+        return findByHandle(ids.find(id));
+    }
+
+    /**
+     * @return the driver currently registered under {@code handle}, or null
+     */
+    public Driver findByHandle(int handle) {
+        AtomicReferenceArray<Driver> table = drivers;
+        return handle >= 0 && handle < table.length() ? table.get(handle) : null;
+    }
+
+    /**
+     * @return the handle assigned to {@code id}, also after the driver was removed, or -1 if it
+     *         never registered
+     */
+    public int handleOf(String id) {
+        return ids.find(id);
+    }
+
+    /**
+     * @return the id that was assigned {@code handle}, also after the driver was removed
+     */
+    public String idOf(int handle) {
+        return ids.idOf(handle);
     }
 
     public List<Driver> findAll() {
-        return new ArrayList<>(drivers.values());
+        AtomicReferenceArray<Driver> table = drivers;
+        List<Driver> result = new ArrayList<>();
+        for (int handle = 0; handle < table.length(); handle++) {
+            Driver driver = table.get(handle);
+            if (driver != null) {
+                result.add(driver);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the available drivers from the availability bit set, without visiting busy ones.
+     */
+    public List<Driver> findAvailable() {
+        AtomicReferenceArray<Driver> table = drivers;
+        List<Driver> result = new ArrayList<>();
+        available.forEach(handle -> {
+            Driver driver = handle < table.length() ? table.get(handle) : null;
+            if (driver != null && driver.isAvailable()) {
+                result.add(driver);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the drivers whose current cell lies inside the cell {@code cellPrefix} at {@code level}.
+     * @see CellId#prefix(long, int)
+     */
+    public List<Driver> findByCellPrefix(long cellPrefix, int level) {
+        List<Driver> result = new ArrayList<>();
+
+        if (level <= INDEX_LEVEL) {
+            long first = indexCell(CellId.rangeStart(cellPrefix, level));
+            long last = indexCell(CellId.rangeEnd(cellPrefix, level));
+            for (Driver[] bucket : cells.subMap(first, last).values()) {
+                result.addAll(Arrays.asList(bucket));
+            }
+            return result;
+        }
+
+        Driver[] bucket = cells.get(indexCell(CellId.rangeStart(cellPrefix, level)));
+        if (bucket != null) {
+            for (Driver driver : bucket) {
+                if (CellId.prefix(driver.getCellId(), level) == cellPrefix) {
+                    result.add(driver);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Re-indexes a driver after it moved cells. Serialised per driver and always indexing the
+     * driver's current cell, so out-of-order callbacks from racing updates still converge.
+     */
+    @Override
+    public void onCellChanged(Driver driver, long oldCellId, long newCellId) {
+        long oldIndexCell = indexCell(oldCellId);
+        if (oldIndexCell != indexCell(newCellId)) {
+            synchronized (driver) {
+                cells.computeIfPresent(oldIndexCell, (cell, bucket) -> remove(bucket, driver));
+                cells.compute(indexCell(driver.getCellId()), (cell, bucket) -> add(bucket, driver));
+            }
+        }
+
+        for (DriverListener listener : listeners) {
+            listener.onCellChanged(driver, oldCellId, newCellId);
+        }
+    }
+
+    @Override
+    public void onLocationChanged(Driver driver) {
+        for (DriverListener listener : listeners) {
+            listener.onLocationChanged(driver);
+        }
+    }
+
+    @Override
+    public void onAvailabilityChanged(Driver driver, boolean available) {
+        trackAvailability(driver.getHandle());
+        for (DriverListener listener : listeners) {
+            listener.onAvailabilityChanged(driver, available);
+        }
+    }
+
+    /**
+     * Subscribes to saves, removals and state changes of every driver in the repository.
+     */
+    public synchronized void addListener(DriverListener listener) {
+        DriverListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(DriverListener listener) {
+        listeners = Arrays.stream(listeners)
+                .filter(existing -> existing != listener)
+                .toArray(DriverListener[]::new);
+    }
+
+    // Mirrors the availability of whichever driver holds the handle, never that of a removed driver
+    // whose handle was reused; re-checks owner and state after writing, so racing callbacks converge
+    private void trackAvailability(int handle) {
+        Driver owner;
+        boolean current;
+        do {
+            owner = findByHandle(handle);
+            current = owner != null && owner.isAvailable();
+            if (current) {
+                available.set(handle);
+            } else {
+                available.clear(handle);
+            }
+        } while (findByHandle(handle) != owner || current != (owner != null && owner.isAvailable()));
+    }
+
+    private static long indexCell(long cellId) {
+        return CellId.prefix(cellId, INDEX_LEVEL);
+    }
+
+    private static Driver[] add(Driver[] bucket, Driver driver) {
+        if (bucket == null) {
+            return new Driver[]{driver};
+        }
+        for (Driver existing : bucket) {
+            if (existing == driver) {
+                return bucket;
+            }
+        }
+        Driver[] updated = Arrays.copyOf(bucket, bucket.length + 1);
+        updated[bucket.length] = driver;
+        return updated;
+    }
+
+    private static Driver[] remove(Driver[] bucket, Driver driver) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == driver) {
+                if (bucket.length == 1) {
+                    return null;
+                }
+                Driver[] updated = new Driver[bucket.length - 1];
+                System.arraycopy(bucket, 0, updated, 0, i);
+                System.arraycopy(bucket, i + 1, updated, i, bucket.length - i - 1);
+                return updated;
+            }
+        }
+        return bucket;
     }
 }
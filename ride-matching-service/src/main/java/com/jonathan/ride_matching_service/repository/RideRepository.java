@@ -1,25 +1,68 @@
 package com.jonathan.ride_matching_service.repository;
 
 import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.RideListener;
+import com.jonathan.ride_matching_service.util.ConcurrentOpenHashMap;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
-public class RideRepository {
+public class RideRepository implements RideListener {
 
-    private final ConcurrentHashMap<String, Ride> rides = new ConcurrentHashMap<>();
+    // Keyed on each ride's own id, so the map holds no keys or entry nodes of its own
+    private final ConcurrentOpenHashMap<String, Ride> rides = new ConcurrentOpenHashMap<>(Ride::getId);
+    private final List<RideListener> listeners = new CopyOnWriteArrayList<>();
 
     public void save(Ride ride) {
-        rides.put(ride.getId(), ride);
+        ride.setListener(this);
+        rides.put(ride);
+        for (RideListener listener : listeners) {
+            listener.onSaved(ride);
+        }
     }
 
     public Ride findById(String id) {
         return rides.get(id);
     }
 
+    /**
+     * @return the removed ride, or null if there was none with this id
+     */
+    public Ride remove(String id) {
+        Ride removed = rides.remove(id);
+        if (removed != null) {
+            for (RideListener listener : listeners) {
+                listener.onRemoved(removed);
+            }
+        }
+        return removed;
+    }
+
     public Collection<Ride> findAll() {
-        return rides.values();
+        List<Ride> all = new ArrayList<>(rides.size());
+        rides.forEach(all::add);
+        return all;
+    }
+
+    @Override
+    public void onCompleted(Ride ride) {
+        for (RideListener listener : listeners) {
+            listener.onCompleted(ride);
+        }
+    }
+
+    /**
+     * Subscribes to saves, completions and removals of every ride in the repository.
+     */
+    public void addListener(RideListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RideListener listener) {
+        listeners.remove(listener);
     }
 }
@@ -0,0 +1,236 @@
+package com.jonathan.ride_matching_service.routing;
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point travel times with A*, landmarks and the triangle inequality (ALT).
+ * <p>
+ * At construction a few landmarks are picked by farthest-point selection and exact travel
+ * times from and to every node are precomputed with Dijkstra. Queries use them as a lower
+ * bound that steers A* towards the target, so typically only a small part of the graph is
+ * settled. Query scratch space is kept per thread and reset lazily with a generation stamp.
+ */
+public final class LandmarkRouter {
+
+    private final RoadGraph graph;
+    private final double[][] fromLandmark;
+    private final double[][] toLandmark;
+    private final ThreadLocal<Scratch> scratch;
+
+    public LandmarkRouter(RoadGraph graph, int landmarkCount) {
+        this.graph = graph;
+        int count = Math.min(landmarkCount, graph.nodeCount());
+        this.fromLandmark = new double[count][];
+        this.toLandmark = new double[count][];
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(graph.nodeCount()));
+        selectLandmarks();
+    }
+
+    /**
+     * @return the shortest travel time in seconds from {@code source} to {@code target},
+     * or {@link Double#POSITIVE_INFINITY} when the target is unreachable
+     */
+    public double travelSeconds(int source, int target) {
+        if (source == target) {
+            return 0;
+        }
+
+        Scratch s = scratch.get();
+        s.reset();
+        s.relax(source, 0, lowerBound(source, target));
+
+        int node;
+        while ((node = s.pollMin()) >= 0) {
+            if (node == target) {
+                return s.cost(node);
+            }
+
+            double cost = s.cost(node);
+            for (int arc = graph.firstArc(node), end = graph.firstArc(node + 1); arc < end; arc++) {
+                int head = graph.arcHead(arc);
+                double candidate = cost + graph.arcSeconds(arc);
+                if (candidate < s.cost(head)) {
+                    s.relax(head, candidate, candidate + lowerBound(head, target));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public int landmarkCount() {
+        return fromLandmark.length;
+    }
+
+    private double lowerBound(int node, int target) {
+        double bound = 0;
+        for (int l = 0; l < fromLandmark.length; l++) {
+            double[] from = fromLandmark[l];
+            double[] to = toLandmark[l];
+            // d(node, target) >= d(L, target) - d(L, node) and >= d(node, L) - d(target, L)
+            if (from[node] != Double.POSITIVE_INFINITY && from[target] != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, from[target] - from[node]);
+            }
+            if (to[node] != Double.POSITIVE_INFINITY && to[target] != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, to[node] - to[target]);
+            }
+        }
+        return bound;
+    }
+
+    private void selectLandmarks() {
+        if (fromLandmark.length == 0) {
+            return;
+        }
+
+        // Farthest-point selection: each new landmark is the node farthest from all previous ones
+        double[] nearestLandmark = new double[graph.nodeCount()];
+        Arrays.fill(nearestLandmark, Double.POSITIVE_INFINITY);
+        int landmark = 0;
+
+        for (int l = 0; l < fromLandmark.length; l++) {
+            fromLandmark[l] = dijkstra(landmark, false);
+            toLandmark[l] = dijkstra(landmark, true);
+
+            int farthest = landmark;
+            double farthestDistance = -1;
+            for (int v = 0; v < nearestLandmark.length; v++) {
+                if (fromLandmark[l][v] < nearestLandmark[v]) {
+                    nearestLandmark[v] = fromLandmark[l][v];
+                }
+                double distance = nearestLandmark[v];
+                if (distance != Double.POSITIVE_INFINITY && distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = v;
+                }
+            }
+            landmark = farthest;
+        }
+    }
+
+    private double[] dijkstra(int source, boolean reverse) {
+        Scratch s = new Scratch(graph.nodeCount());
+        s.reset();
+        s.relax(source, 0, 0);
+
+        int node;
+        while ((node = s.pollMin()) >= 0) {
+            double cost = s.cost(node);
+            int arc = reverse ? graph.firstReverseArc(node) : graph.firstArc(node);
+            int end = reverse ? graph.firstReverseArc(node + 1) : graph.firstArc(node + 1);
+            for (; arc < end; arc++) {
+                int next = reverse ? graph.reverseArcTail(arc) : graph.arcHead(arc);
+                double candidate = cost + (reverse ? graph.reverseArcSeconds(arc) : graph.arcSeconds(arc));
+                if (candidate < s.cost(next)) {
+                    s.relax(next, candidate, candidate);
+                }
+            }
+        }
+
+        double[] distances = new double[graph.nodeCount()];
+        for (int v = 0; v < distances.length; v++) {
+            distances[v] = s.cost(v);
+        }
+        return distances;
+    }
+
+    /**
+     * Per-query state: tentative costs and a binary min-heap with lazy deletion.
+     */
+    private static final class Scratch {
+        private final double[] cost;
+        private final int[] stamp;
+        private final int[] settled;
+        private int generation;
+
+        private int[] heapNodes = new int[64];
+        private double[] heapKeys = new double[64];
+        private int heapSize;
+
+        Scratch(int nodes) {
+            this.cost = new double[nodes];
+            this.stamp = new int[nodes];
+            this.settled = new int[nodes];
+        }
+
+        void reset() {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(settled, 0);
+                generation = 1;
+            }
+            heapSize = 0;
+        }
+
+        double cost(int node) {
+            return stamp[node] == generation ? cost[node] : Double.POSITIVE_INFINITY;
+        }
+
+        void relax(int node, double newCost, double key) {
+            stamp[node] = generation;
+            cost[node] = newCost;
+            push(node, key);
+        }
+
+        /**
+         * Removes and settles the unsettled node with the smallest key. Stale heap entries of nodes
+         * that were settled earlier are skipped; with a consistent heuristic the first pop is optimal.
+         * @return the settled node, or -1 when the heap holds only stale entries
+         */
+        int pollMin() {
+            while (heapSize > 0) {
+                int node = heapNodes[0];
+                heapSize--;
+                if (heapSize > 0) {
+                    heapNodes[0] = heapNodes[heapSize];
+                    heapKeys[0] = heapKeys[heapSize];
+                    siftDown();
+                }
+                if (settled[node] != generation) {
+                    settled[node] = generation;
+                    return node;
+                }
+            }
+            return -1;
+        }
+
+        private void push(int node, double key) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapKeys[i] = heapKeys[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+        }
+
+        private void siftDown() {
+            int node = heapNodes[0];
+            double key = heapKeys[0];
+            int i = 0;
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (key <= heapKeys[child]) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapKeys[i] = heapKeys[child];
+                i = child;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+        }
+    }
+}
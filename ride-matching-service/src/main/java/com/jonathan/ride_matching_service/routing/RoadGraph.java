@@ -0,0 +1,214 @@
+package com.jonathan.ride_matching_service.routing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable directed road graph in compressed sparse row form, with travel times in seconds.
+ * Outgoing arcs of node {@code v} are {@code [firstArc[v], firstArc[v + 1])}; the reverse graph
+ * is kept the same way so landmark distances can be computed in both directions.
+ * <p>
+ * Nodes are snapped to with a uniform grid sized for a handful of nodes per cell.
+ */
+public final class RoadGraph {
+
+    private final double[] nodeX;
+    private final double[] nodeY;
+    private final int[] firstArc;
+    private final int[] arcHead;
+    private final double[] arcSeconds;
+    private final int[] firstReverseArc;
+    private final int[] reverseArcTail;
+    private final double[] reverseArcSeconds;
+
+    private final double minX;
+    private final double minY;
+    private final double gridCellSize;
+    private final long gridCellsX;
+    private final long gridCellsY;
+    private final Map<Long, int[]> grid = new HashMap<>();
+
+    RoadGraph(double[] nodeX, double[] nodeY, int[] arcTails, int[] arcHeads, double[] arcTimes, int arcCount) {
+        this.nodeX = nodeX;
+        this.nodeY = nodeY;
+
+        int nodes = nodeX.length;
+        this.firstArc = new int[nodes + 1];
+        this.arcHead = new int[arcCount];
+        this.arcSeconds = new double[arcCount];
+        this.firstReverseArc = new int[nodes + 1];
+        this.reverseArcTail = new int[arcCount];
+        this.reverseArcSeconds = new double[arcCount];
+        buildRows(arcTails, arcHeads, arcTimes, arcCount, firstArc, arcHead, arcSeconds);
+        buildRows(arcHeads, arcTails, arcTimes, arcCount, firstReverseArc, reverseArcTail, reverseArcSeconds);
+
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < nodes; v++) {
+            lowX = Math.min(lowX, nodeX[v]);
+            lowY = Math.min(lowY, nodeY[v]);
+            highX = Math.max(highX, nodeX[v]);
+            highY = Math.max(highY, nodeY[v]);
+        }
+        this.minX = lowX;
+        this.minY = lowY;
+        double area = (highX - lowX) * (highY - lowY);
+        double extent = Math.max(highX - lowX, highY - lowY);
+        double size = area > 0
+                ? Math.sqrt(area * 4 / nodes)
+                : extent * 4 / Math.max(nodes, 1);
+        this.gridCellSize = size > 0 ? size : 1;
+        this.gridCellsX = gridIndex(highX, lowX);
+        this.gridCellsY = gridIndex(highY, lowY);
+        buildGrid();
+    }
+
+    public int nodeCount() {
+        return nodeX.length;
+    }
+
+    public double nodeX(int node) {
+        return nodeX[node];
+    }
+
+    public double nodeY(int node) {
+        return nodeY[node];
+    }
+
+    int firstArc(int node) {
+        return firstArc[node];
+    }
+
+    int arcHead(int arc) {
+        return arcHead[arc];
+    }
+
+    double arcSeconds(int arc) {
+        return arcSeconds[arc];
+    }
+
+    int firstReverseArc(int node) {
+        return firstReverseArc[node];
+    }
+
+    int reverseArcTail(int arc) {
+        return reverseArcTail[arc];
+    }
+
+    double reverseArcSeconds(int arc) {
+        return reverseArcSeconds[arc];
+    }
+
+    /**
+     * @return the node closest to {@code (x, y)} in coordinate space, or -1 for an empty graph
+     */
+    public int nearestNode(double x, double y) {
+        if (nodeX.length == 0) {
+            return -1;
+        }
+
+        long cellX = gridIndex(x, minX);
+        long cellY = gridIndex(y, minY);
+        if (cellX < -1 || cellY < -1 || cellX > gridCellsX || cellY > gridCellsY) {
+            return nearestNodeByScan(x, y);
+        }
+
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        long maxRing = Math.max(gridCellsX, gridCellsY) + 1;
+
+        // Visit rings of grid cells until no unvisited cell can hold a closer node
+        for (long ring = 0; ring <= maxRing; ring++) {
+            for (long d = -ring; d <= ring; d++) {
+                best = closestInCell(cellX + d, cellY - ring, x, y, best);
+                if (ring > 0) {
+                    best = closestInCell(cellX + d, cellY + ring, x, y, best);
+                }
+                if (d != -ring && d != ring) {
+                    best = closestInCell(cellX - ring, cellY + d, x, y, best);
+                    best = closestInCell(cellX + ring, cellY + d, x, y, best);
+                }
+            }
+            if (best >= 0) {
+                bestDistance = squaredDistance(best, x, y);
+                double covered = ring * gridCellSize;
+                if (covered * covered >= bestDistance) {
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int closestInCell(long gx, long gy, double x, double y, int best) {
+        int[] bucket = grid.get(gridKey(gx, gy));
+        if (bucket == null) {
+            return best;
+        }
+        double bestDistance = best < 0 ? Double.POSITIVE_INFINITY : squaredDistance(best, x, y);
+        for (int node : bucket) {
+            double distance = squaredDistance(node, x, y);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private int nearestNodeByScan(double x, double y) {
+        int best = 0;
+        for (int v = 1; v < nodeX.length; v++) {
+            if (squaredDistance(v, x, y) < squaredDistance(best, x, y)) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private double squaredDistance(int node, double x, double y) {
+        double dx = nodeX[node] - x;
+        double dy = nodeY[node] - y;
+        return dx * dx + dy * dy;
+    }
+
+    private void buildGrid() {
+        Map<Long, int[]> sizes = new HashMap<>();
+        for (int v = 0; v < nodeX.length; v++) {
+            sizes.computeIfAbsent(gridKey(gridIndex(nodeX[v], minX), gridIndex(nodeY[v], minY)), k -> new int[1])[0]++;
+        }
+        Map<Long, Integer> filled = new HashMap<>();
+        for (int v = 0; v < nodeX.length; v++) {
+            long key = gridKey(gridIndex(nodeX[v], minX), gridIndex(nodeY[v], minY));
+            int[] bucket = grid.computeIfAbsent(key, k -> new int[sizes.get(k)[0]]);
+            int position = filled.merge(key, 1, Integer::sum) - 1;
+            bucket[position] = v;
+        }
+    }
+
+    private long gridIndex(double value, double origin) {
+        return (long) Math.floor((value - origin) / gridCellSize);
+    }
+
+    private static long gridKey(long gx, long gy) {
+        return (gx << 32) ^ (gy & 0xFFFFFFFFL);
+    }
+
+    private static void buildRows(int[] tails, int[] heads, double[] times, int arcCount,
+                                  int[] first, int[] head, double[] seconds) {
+        for (int i = 0; i < arcCount; i++) {
+            first[tails[i] + 1]++;
+        }
+        for (int v = 0; v < first.length - 1; v++) {
+            first[v + 1] += first[v];
+        }
+        int[] next = first.clone();
+        for (int i = 0; i < arcCount; i++) {
+            int slot = next[tails[i]]++;
+            head[slot] = heads[i];
+            seconds[slot] = times[i];
+        }
+    }
+}
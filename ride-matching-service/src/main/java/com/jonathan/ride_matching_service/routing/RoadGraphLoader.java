@@ -0,0 +1,104 @@
+package com.jonathan.ride_matching_service.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a road graph from a line-based text file, typically produced offline from an OSM extract.
+ * <pre>
+ * # comment
+ * N &lt;nodeId&gt; &lt;x&gt; &lt;y&gt;          node; ids are arbitrary integers
+ * E &lt;from&gt; &lt;to&gt; &lt;seconds&gt;     two-way road
+ * A &lt;from&gt; &lt;to&gt; &lt;seconds&gt;     one-way road
+ * </pre>
+ * Nodes must be declared before the roads that use them.
+ */
+public final class RoadGraphLoader {
+
+    private RoadGraphLoader() {
+    }
+
+    public static RoadGraph load(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read road graph: " + file, e);
+        }
+    }
+
+    public static RoadGraph read(BufferedReader reader) throws IOException {
+        Map<Long, Integer> nodeIndex = new HashMap<>();
+        double[] xs = new double[1024];
+        double[] ys = new double[1024];
+        int nodes = 0;
+
+        int[] tails = new int[4096];
+        int[] heads = new int[4096];
+        double[] times = new double[4096];
+        int arcs = 0;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "N" -> {
+                        if (nodes == xs.length) {
+                            xs = Arrays.copyOf(xs, nodes * 2);
+                            ys = Arrays.copyOf(ys, nodes * 2);
+                        }
+                        nodeIndex.put(Long.parseLong(parts[1]), nodes);
+                        xs[nodes] = Double.parseDouble(parts[2]);
+                        ys[nodes] = Double.parseDouble(parts[3]);
+                        nodes++;
+                    }
+                    case "E", "A" -> {
+                        int from = resolve(nodeIndex, parts[1]);
+                        int to = resolve(nodeIndex, parts[2]);
+                        double seconds = Double.parseDouble(parts[3]);
+                        if (arcs + 2 > tails.length) {
+                            tails = Arrays.copyOf(tails, tails.length * 2);
+                            heads = Arrays.copyOf(heads, heads.length * 2);
+                            times = Arrays.copyOf(times, times.length * 2);
+                        }
+                        tails[arcs] = from;
+                        heads[arcs] = to;
+                        times[arcs++] = seconds;
+                        if (parts[0].equals("E")) {
+                            tails[arcs] = to;
+                            heads[arcs] = from;
+                            times[arcs++] = seconds;
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown record type: " + parts[0]);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid road graph line " + lineNumber + ": " + line, e);
+            }
+        }
+
+        return new RoadGraph(Arrays.copyOf(xs, nodes), Arrays.copyOf(ys, nodes), tails, heads, times, arcs);
+    }
+
+    private static int resolve(Map<Long, Integer> nodeIndex, String id) {
+        Integer node = nodeIndex.get(Long.parseLong(id));
+        if (node == null) {
+            throw new IllegalArgumentException("Unknown node: " + id);
+        }
+        return node;
+    }
+}
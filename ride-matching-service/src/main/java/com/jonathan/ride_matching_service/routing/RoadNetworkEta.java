@@ -0,0 +1,93 @@
+package com.jonathan.ride_matching_service.routing;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimates driving time between two locations over the road graph loaded from
+ * {@code matching.eta.graph-file}. Both ends are snapped to their nearest graph node; the legs
+ * to and from the network are priced at {@code access-speed}. Node-to-node travel times are
+ * kept in a striped LRU cache so repeated queries between the same spots skip the search.
+ */
+@Component
+@ConditionalOnProperty(prefix = "matching.eta", name = "enabled", havingValue = "true")
+public class RoadNetworkEta {
+
+    private static final int CACHE_STRIPES = 16;
+
+    private final RoadGraph graph;
+    private final LandmarkRouter router;
+    private final DistanceMetric distanceMetric;
+    private final double accessSpeed;
+    private final Map<Long, Double>[] cache;
+
+    public RoadNetworkEta(MatchingProperties matchingProperties) {
+        this(RoadGraphLoader.load(matchingProperties.eta().graphFile()), matchingProperties);
+    }
+
+    @SuppressWarnings("unchecked")
+    public RoadNetworkEta(RoadGraph graph, MatchingProperties matchingProperties) {
+        MatchingProperties.Eta eta = matchingProperties.eta();
+        this.graph = graph;
+        this.router = new LandmarkRouter(graph, eta.landmarks());
+        this.distanceMetric = matchingProperties.distanceMetric();
+        this.accessSpeed = eta.accessSpeed();
+        this.cache = new Map[CACHE_STRIPES];
+
+        int stripeCapacity = Math.max(1, eta.cacheSize() / CACHE_STRIPES);
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            cache[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                    return size() > stripeCapacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * @return estimated seconds to drive from {@code from} to {@code to},
+     * or {@link Double#POSITIVE_INFINITY} when no road connects them
+     */
+    public double etaSeconds(Location from, Location to) {
+        int source = graph.nearestNode(from.x(), from.y());
+        int target = graph.nearestNode(to.x(), to.y());
+        if (source < 0 || target < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double access = distanceMetric.distance(from, new Location(graph.nodeX(source), graph.nodeY(source)))
+                + distanceMetric.distance(new Location(graph.nodeX(target), graph.nodeY(target)), to);
+        return travelSeconds(source, target) + access / accessSpeed;
+    }
+
+    private double travelSeconds(int source, int target) {
+        long key = ((long) source << 32) | (target & 0xFFFFFFFFL);
+        Map<Long, Double> stripe = cache[(int) (mix(key) & (CACHE_STRIPES - 1))];
+
+        synchronized (stripe) {
+            Double cached = stripe.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        double seconds = router.travelSeconds(source, target);
+        synchronized (stripe) {
+            stripe.put(key, seconds);
+        }
+        return seconds;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        return key ^ (key >>> 33);
+    }
+}
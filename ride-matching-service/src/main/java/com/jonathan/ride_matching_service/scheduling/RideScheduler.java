@@ -0,0 +1,242 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import com.jonathan.ride_matching_service.config.SchedulingProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.exception.ConflictException;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rides booked ahead, dispatched from a hierarchical timing wheel keyed on time.
+ * <p>
+ * A booking first fires {@code lead-time} before its pickup time: a driver is matched with the
+ * regular {@link MatchingService} and held (claimed, but without a ride) until the pickup
+ * time, when the ride starts. While no driver is available the match is retried every
+ * {@code retry-interval} up to the pickup time. Finished bookings fire once more after
+ * {@code retention} to be forgotten. Booking, cancelling and every tick are O(1) per booking
+ * whatever the number of bookings, as the wheel never scans or sorts them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true")
+public class RideScheduler implements SmartLifecycle {
+
+    private final MatchingService matchingService;
+    private final RideService rideService;
+    private final Clock clock;
+    private final long tickMillis;
+    private final long leadMillis;
+    private final long retryMillis;
+    private final long retentionMillis;
+    private final Duration horizon;
+
+    private final ConcurrentHashMap<String, ScheduledRide> rides = new ConcurrentHashMap<>();
+    // Guarded by itself
+    private final TimingWheel<ScheduledRide> wheel;
+
+    private ScheduledExecutorService dispatcher;
+
+    @Autowired
+    public RideScheduler(SchedulingProperties properties, MatchingService matchingService, RideService rideService) {
+        this(properties, matchingService, rideService, Clock.systemUTC());
+    }
+
+    public RideScheduler(SchedulingProperties properties, MatchingService matchingService, RideService rideService, Clock clock) {
+        this.matchingService = matchingService;
+        this.rideService = rideService;
+        this.clock = clock;
+        this.tickMillis = Math.max(1, properties.tick().toMillis());
+        this.leadMillis = properties.leadTime().toMillis();
+        this.retryMillis = Math.max(tickMillis, properties.retryInterval().toMillis());
+        this.retentionMillis = properties.retention().toMillis();
+        this.horizon = properties.horizon();
+        this.wheel = new TimingWheel<>(properties.slotsPerLevel(), properties.levels(), Math.floorDiv(clock.millis(), tickMillis));
+        // Timers are armed up to the horizon or the retention ahead, rounded up to the next tick
+        long farthestTicks = -Math.floorDiv(-Math.max(horizon.toMillis(), retentionMillis), tickMillis) + 1;
+        if (farthestTicks >= wheel.getSpan()) {
+            throw new IllegalArgumentException("Scheduling horizon " + horizon + " and retention " + properties.retention()
+                    + " must lie within the timing wheel's span of " + wheel.getSpan() + " ticks of " + properties.tick());
+        }
+    }
+
+    /**
+     * Books a ride for {@code pickupTime}.
+     * @param vehicleType vehicle the rider asked for, or null for any
+     */
+    public ScheduledRide schedule(String riderId, Location pickupLocation, VehicleType vehicleType, Instant pickupTime) {
+        Instant now = clock.instant();
+        if (!pickupTime.isAfter(now)) {
+            throw new BadRequestException("Pickup time must be in the future");
+        }
+        if (pickupTime.isAfter(now.plus(horizon))) {
+            throw new BadRequestException("Rides can be booked at most " + horizon + " ahead");
+        }
+
+        ScheduledRide ride = new ScheduledRide(UUID.randomUUID().toString(), riderId, pickupLocation, vehicleType, pickupTime);
+        synchronized (ride) {
+            arm(ride, pickupTime.toEpochMilli() - leadMillis);
+        }
+        rides.put(ride.getId(), ride);
+        return ride;
+    }
+
+    public Optional<ScheduledRide> find(String id) {
+        return Optional.ofNullable(rides.get(id));
+    }
+
+    /**
+     * Cancels a booking that has not started yet, releasing its held driver.
+     */
+    public ScheduledRide cancel(String id) {
+        ScheduledRide ride = find(id).orElseThrow(() -> new NotFoundException("Scheduled ride not found"));
+        synchronized (ride) {
+            if (!ride.isPending()) {
+                throw new ConflictException("Scheduled ride is already " + ride.getStatus());
+            }
+            if (ride.getStatus() == ScheduledRide.Status.HELD) {
+                ride.getDriver().release();
+            }
+            ride.finish(ScheduledRide.Status.CANCELLED);
+            arm(ride, clock.millis() + retentionMillis);
+        }
+        return ride;
+    }
+
+    /**
+     * Fires every booking due by now. Runs on the dispatcher thread every tick.
+     */
+    public void advance() {
+        List<ScheduledRide> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advanceTo(Math.floorDiv(clock.millis(), tickMillis), due::add);
+        }
+        // Outside the wheel lock, so bookings and cancellations never wait for matching
+        for (ScheduledRide ride : due) {
+            try {
+                fire(ride);
+            } catch (RuntimeException e) {
+                // Escaping here would cancel the dispatcher's periodic run and strand every booking
+                log.warn("Failed to fire scheduled ride {}", ride.getId(), e);
+                abandon(ride);
+            }
+        }
+    }
+
+    /**
+     * @return bookings that have not started yet
+     */
+    public int getPending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ride-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return dispatcher != null;
+    }
+
+    private void fire(ScheduledRide ride) {
+        synchronized (ride) {
+            ride.timer = null;
+            switch (ride.getStatus()) {
+                case SCHEDULED -> match(ride);
+                case HELD -> dispatch(ride);
+                default -> rides.remove(ride.getId(), ride);
+            }
+        }
+    }
+
+    private void match(ScheduledRide ride) {
+        long now = clock.millis();
+        long pickupAt = ride.getPickupTime().toEpochMilli();
+        try {
+            Driver driver = matchingService.findNearestAvailableDriver(ride.getPickupLocation(), ride.getVehicleType());
+            ride.hold(driver);
+            arm(ride, pickupAt);
+        } catch (NotFoundException e) {
+            if (now >= pickupAt) {
+                ride.finish(ScheduledRide.Status.UNMATCHED);
+                arm(ride, now + retentionMillis);
+            } else {
+                arm(ride, Math.min(now + retryMillis, pickupAt));
+            }
+        }
+    }
+
+    private void dispatch(ScheduledRide ride) {
+        try {
+            RideResponse started = rideService.assignRide(ride.getRiderId(), ride.getPickupLocation(), ride.getDriver());
+            ride.dispatch(started.rideId());
+        } catch (RuntimeException e) {
+            // The ride service has released the driver
+            ride.finish(ScheduledRide.Status.UNMATCHED);
+        }
+        arm(ride, clock.millis() + retentionMillis);
+    }
+
+    private void abandon(ScheduledRide ride) {
+        synchronized (ride) {
+            if (ride.isPending()) {
+                if (ride.getStatus() == ScheduledRide.Status.HELD) {
+                    ride.getDriver().release();
+                }
+                ride.finish(ScheduledRide.Status.UNMATCHED);
+            }
+            if (ride.timer == null) {
+                arm(ride, clock.millis() + retentionMillis);
+            }
+        }
+    }
+
+    // Called holding the ride's monitor; replaces any pending timer of the ride
+    private void arm(ScheduledRide ride, long atMillis) {
+        synchronized (wheel) {
+            if (ride.timer != null) {
+                wheel.cancel(ride.timer);
+            }
+            // Rounded up, so a booking never fires before its time
+            ride.timer = wheel.add(-Math.floorDiv(-atMillis, tickMillis), ride);
+        }
+    }
+}
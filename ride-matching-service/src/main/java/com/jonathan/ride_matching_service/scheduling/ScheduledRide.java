@@ -0,0 +1,72 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * A ride booked ahead. Guarded by its own monitor.
+ */
+public class ScheduledRide {
+
+    public enum Status {
+        // Waiting for the pre-match window
+        SCHEDULED,
+        // A driver is held for the pickup time
+        HELD,
+        // The ride has started with the held driver
+        DISPATCHED,
+        // No driver was found by the pickup time
+        UNMATCHED,
+        CANCELLED
+    }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final String riderId;
+    @Getter
+    private final Location pickupLocation;
+    @Getter
+    private final VehicleType vehicleType;
+    @Getter
+    private final Instant pickupTime;
+    @Getter
+    private Status status = Status.SCHEDULED;
+    @Getter
+    private Driver driver;
+    @Getter
+    private String rideId;
+
+    // Pending wheel entry; guarded by this and changed under the scheduler's wheel lock
+    TimingWheel.Timer<ScheduledRide> timer;
+
+    public ScheduledRide(String id, String riderId, Location pickupLocation, VehicleType vehicleType, Instant pickupTime) {
+        this.id = id;
+        this.riderId = riderId;
+        this.pickupLocation = pickupLocation;
+        this.vehicleType = vehicleType;
+        this.pickupTime = pickupTime;
+    }
+
+    void hold(Driver driver) {
+        this.driver = driver;
+        this.status = Status.HELD;
+    }
+
+    void dispatch(String rideId) {
+        this.rideId = rideId;
+        this.status = Status.DISPATCHED;
+    }
+
+    void finish(Status status) {
+        this.status = status;
+    }
+
+    boolean isPending() {
+        return status == Status.SCHEDULED || status == Status.HELD;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import com.jonathan.ride_matching_service.dto.ScheduledRideRequest;
+import com.jonathan.ride_matching_service.dto.ScheduledRideResponse;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.model.Location;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/rides/scheduled")
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true")
+public class ScheduledRideController {
+
+    private final RideScheduler rideScheduler;
+
+    public ScheduledRideController(RideScheduler rideScheduler) {
+        this.rideScheduler = rideScheduler;
+    }
+
+    @PostMapping
+    public ScheduledRideResponse scheduleRide(@RequestBody @Valid ScheduledRideRequest request) {
+        return toResponse(rideScheduler.schedule(
+                request.riderId(),
+                new Location(request.x(), request.y()),
+                request.vehicleType(),
+                request.pickupTime()
+        ));
+    }
+
+    @GetMapping("/{id}")
+    public ScheduledRideResponse getScheduledRide(@PathVariable String id) {
+        return toResponse(rideScheduler.find(id)
+                .orElseThrow(() -> new NotFoundException("Scheduled ride not found")));
+    }
+
+    @DeleteMapping("/{id}")
+    public ScheduledRideResponse cancelScheduledRide(@PathVariable String id) {
+        return toResponse(rideScheduler.cancel(id));
+    }
+
+    private static ScheduledRideResponse toResponse(ScheduledRide ride) {
+        synchronized (ride) {
+            return new ScheduledRideResponse(
+                    ride.getId(),
+                    ride.getRiderId(),
+                    ride.getPickupLocation().x(),
+                    ride.getPickupLocation().y(),
+                    ride.getVehicleType(),
+                    ride.getPickupTime(),
+                    ride.getStatus().name(),
+                    ride.getDriver() != null ? ride.getDriver().getId() : null,
+                    ride.getRideId()
+            );
+        }
+    }
+}
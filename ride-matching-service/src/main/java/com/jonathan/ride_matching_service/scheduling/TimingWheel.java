@@ -0,0 +1,170 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over integer ticks, as in the classic Unix kernel timer.
+ * <p>
+ * Level 0 has one slot per tick; every level above has slots {@code slots} times as wide.
+ * A timer goes into the lowest level whose span covers its distance from the current tick,
+ * in the slot given by its own deadline bits, so inserting and cancelling are O(1). Each tick
+ * expires one level-0 slot; when level 0 wraps, the next slot of level 1 is cascaded into
+ * level 0, and so on up, so every timer is moved at most once per level.
+ * <p>
+ * Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final long span;
+    // Sentinel of each slot's circular list, by level then slot
+    private final Timer<T>[][] wheel;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int slotsPerLevel, int levels, long startTick) {
+        if (Integer.bitCount(slotsPerLevel) != 1 || slotsPerLevel < 2) {
+            throw new IllegalArgumentException("Slots per level must be a power of two");
+        }
+        this.bits = Integer.numberOfTrailingZeros(slotsPerLevel);
+        this.mask = slotsPerLevel - 1;
+        this.levels = levels;
+        this.span = 1L << Math.min(62, bits * levels);
+        this.wheel = new Timer[levels][slotsPerLevel];
+        for (Timer<T>[] level : wheel) {
+            for (int slot = 0; slot < level.length; slot++) {
+                level[slot] = new Timer<>(0, null);
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules {@code value} to expire at {@code deadline}; deadlines already passed expire on
+     * the next tick.
+     * @throws IllegalArgumentException if the deadline lies beyond the wheel's span
+     */
+    Timer<T> add(long deadline, T value) {
+        if (deadline - currentTick >= span) {
+            throw new IllegalArgumentException("Deadline beyond the timing wheel's span");
+        }
+        Timer<T> timer = new Timer<>(deadline, value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return false if the timer has already expired or been cancelled
+     */
+    boolean cancel(Timer<T> timer) {
+        if (timer.next == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Runs every tick up to and including {@code tick}, handing expired values to {@code expired}.
+     */
+    void advanceTo(long tick, Consumer<T> expired) {
+        while (currentTick <= tick) {
+            int index = (int) (currentTick & mask);
+            // Cascade each level whose lower level just wrapped
+            for (int level = 1; level < levels && index == 0; level++) {
+                index = (int) ((currentTick >>> (bits * level)) & mask);
+                Timer<T> sentinel = wheel[level][index];
+                while (sentinel.next != sentinel) {
+                    Timer<T> timer = sentinel.next;
+                    timer.unlink();
+                    place(timer);
+                }
+            }
+
+            Timer<T> sentinel = wheel[0][(int) (currentTick & mask)];
+            currentTick++;
+            while (sentinel.next != sentinel) {
+                Timer<T> timer = sentinel.next;
+                timer.unlink();
+                size--;
+                expired.accept(timer.value);
+            }
+        }
+    }
+
+    /**
+     * @return the next tick to be run
+     */
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return how many ticks ahead of the current tick a deadline can lie
+     */
+    long getSpan() {
+        return span;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadline - currentTick;
+        if (delta < 0) {
+            // Overdue: the slot run by the next tick
+            wheel[0][(int) (currentTick & mask)].append(timer);
+            return;
+        }
+        int level = 0;
+        while (level < levels - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        wheel[level][(int) ((timer.deadline >>> (bits * level)) & mask)].append(timer);
+    }
+
+    /**
+     * A scheduled value; a node of its slot's doubly-linked list.
+     */
+    static final class Timer<T> {
+
+        private final long deadline;
+        private final T value;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadline, T value) {
+            this.deadline = deadline;
+            this.value = value;
+            if (value == null) {
+                // Sentinel
+                prev = this;
+                next = this;
+            }
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
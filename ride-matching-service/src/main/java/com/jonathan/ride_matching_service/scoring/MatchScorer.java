@@ -0,0 +1,216 @@
+package com.jonathan.ride_matching_service.scoring;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Picks the driver for a ride by a weighted score over distance, heading, idle time and rating.
+ * <p>
+ * Criteria run from cheapest to most expensive: the vehicle type is checked on every driver,
+ * the straight-line ranking key keeps only the nearest {@code candidates} in a bounded heap,
+ * and only those are given an exact distance (or travel time) and the weighted criteria.
+ * Criteria with weight 0 are never computed. All of it runs in per-thread primitive arrays,
+ * so a match does not allocate.
+ */
+@Component
+@ConditionalOnProperty(name = "matching.scoring.enabled", havingValue = "true")
+public class MatchScorer {
+
+    private static final double MAX_RATING = 5;
+    private static final double MIN_RATING = 1;
+    // Score of a heading that cannot be determined: neither towards nor away from the pickup
+    private static final double UNKNOWN_HEADING = 0.5;
+
+    private final int candidates;
+    private final double distanceWeight;
+    private final double headingWeight;
+    private final double idleWeight;
+    private final double ratingWeight;
+    private final ThreadLocal<Scratch> scratch;
+
+    public MatchScorer(MatchingProperties matchingProperties) {
+        MatchingProperties.Scoring scoring = matchingProperties.scoring();
+        this.candidates = Math.max(1, scoring.candidates());
+        this.distanceWeight = scoring.distanceWeight();
+        this.headingWeight = scoring.headingWeight();
+        this.idleWeight = scoring.idleWeight();
+        this.ratingWeight = scoring.ratingWeight();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(candidates));
+    }
+
+    /**
+     * Scores the nearest qualifying drivers and claims the best one still available. If all of
+     * them are claimed concurrently, the next nearest are scored.
+     * @param vehicleType required vehicle type, or null for any
+     * @param distance    exact distance or travel time from a driver to the pickup
+     * @return the claimed driver, or null if no driver qualifies
+     */
+    public Driver claimBest(List<Driver> drivers,
+                            Location pickupLocation,
+                            VehicleType vehicleType,
+                            DistanceMetric.Ranker ranker,
+                            ToDoubleFunction<Driver> distance) {
+        Scratch s = scratch.get();
+        try {
+            while (true) {
+                int count = prefilter(s, drivers, vehicleType, ranker);
+                if (count == 0) {
+                    return null;
+                }
+                score(s, count, pickupLocation, distance);
+                for (int i = 0; i < count; i++) {
+                    Driver driver = s.drivers[s.order[i]];
+                    if (driver.tryMarkUnavailable()) {
+                        return driver;
+                    }
+                }
+                // Claimed drivers rank as unavailable now, so the next round makes progress
+            }
+        } finally {
+            Arrays.fill(s.drivers, null);
+        }
+    }
+
+    // Keeps the nearest qualifying drivers in a max-heap on the ranking key
+    private int prefilter(Scratch s, List<Driver> drivers, VehicleType vehicleType, DistanceMetric.Ranker ranker) {
+        int size = 0;
+        for (Driver driver : drivers) {
+            if (vehicleType != null && driver.getProfile().vehicleType() != vehicleType) {
+                continue;
+            }
+            double rank = driver.rankIfAvailable(ranker);
+            if (Double.isNaN(rank)) {
+                continue;
+            }
+            if (size < candidates) {
+                s.drivers[size] = driver;
+                s.ranks[size] = rank;
+                siftUp(s, size++);
+            } else if (rank < s.ranks[0]) {
+                s.drivers[0] = driver;
+                s.ranks[0] = rank;
+                siftDown(s, size);
+            }
+        }
+        return size;
+    }
+
+    // Scores the first count candidates (lower is better) and orders s.order by score
+    private void score(Scratch s, int count, Location pickupLocation, ToDoubleFunction<Driver> distance) {
+        double maxDistance = 0;
+        long maxIdle = 0;
+        long now = idleWeight != 0 ? System.currentTimeMillis() : 0;
+        for (int i = 0; i < count; i++) {
+            if (distanceWeight != 0) {
+                s.distances[i] = distance.applyAsDouble(s.drivers[i]);
+                maxDistance = Math.max(maxDistance, s.distances[i]);
+            }
+            if (idleWeight != 0) {
+                s.idle[i] = s.drivers[i].getIdleMillis(now);
+                maxIdle = Math.max(maxIdle, s.idle[i]);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            Driver driver = s.drivers[i];
+            double score = 0;
+            if (distanceWeight != 0 && maxDistance > 0) {
+                score += distanceWeight * s.distances[i] / maxDistance;
+            }
+            if (headingWeight != 0) {
+                double cosine = driver.headingAlignment(pickupLocation.x(), pickupLocation.y());
+                score += headingWeight * (Double.isNaN(cosine) ? UNKNOWN_HEADING : (1 - cosine) / 2);
+            }
+            if (idleWeight != 0 && maxIdle > 0) {
+                score += idleWeight * (1 - (double) s.idle[i] / maxIdle);
+            }
+            if (ratingWeight != 0) {
+                double rating = Math.max(MIN_RATING, Math.min(MAX_RATING, driver.getProfile().rating()));
+                score += ratingWeight * (MAX_RATING - rating) / (MAX_RATING - MIN_RATING);
+            }
+            s.scores[i] = score;
+        }
+
+        // Insertion sort: candidates are few and the arrays stay in place
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            int j = i - 1;
+            while (j >= 0 && s.scores[s.order[j]] > s.scores[index]) {
+                s.order[j + 1] = s.order[j];
+                j--;
+            }
+            s.order[j + 1] = index;
+        }
+    }
+
+    private static void siftUp(Scratch s, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (s.ranks[parent] >= s.ranks[index]) {
+                return;
+            }
+            s.swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(Scratch s, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && s.ranks[left] > s.ranks[largest]) {
+                largest = left;
+            }
+            if (right < size && s.ranks[right] > s.ranks[largest]) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            s.swap(index, largest);
+            index = largest;
+        }
+    }
+
+    /**
+     * Per-thread candidate arrays, indexed by heap position.
+     */
+    private static final class Scratch {
+
+        final Driver[] drivers;
+        final double[] ranks;
+        final double[] distances;
+        final long[] idle;
+        final double[] scores;
+        final int[] order;
+
+        Scratch(int capacity) {
+            drivers = new Driver[capacity];
+            ranks = new double[capacity];
+            distances = new double[capacity];
+            idle = new long[capacity];
+            scores = new double[capacity];
+            order = new int[capacity];
+        }
+
+        void swap(int i, int j) {
+            Driver driver = drivers[i];
+            drivers[i] = drivers[j];
+            drivers[j] = driver;
+            double rank = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = rank;
+        }
+    }
+}
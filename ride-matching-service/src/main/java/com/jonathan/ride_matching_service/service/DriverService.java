@@ -1,7 +1,9 @@
 package com.jonathan.ride_matching_service.service;
 
+import com.jonathan.ride_matching_service.dto.DriverHandoff;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
 import com.jonathan.ride_matching_service.model.Location;
 
 import java.util.List;
@@ -10,7 +12,42 @@ public interface DriverService {
 
     void registerDriver(String driverId, Location location);
 
+    void registerDriver(String driverId, Location location, DriverProfile profile);
+
     List<Driver> getAvailableDrivers();
 
+    /**
+     * Moves the driver and sets its availability. A driver on a ride stays unavailable until the
+     * ride completes; the response reports the availability actually in effect.
+     */
     DriverResponse updateDriver(String driverId, Location location, boolean available);
+
+    /**
+     * Allocation-free location ping: writes the coordinates into the driver's
+     * position storage and leaves availability untouched.
+     */
+    void updateDriverLocation(String driverId, double x, double y);
+
+    DriverResponse getDriver(String driverId);
+
+    /**
+     * Removes a driver that is not on a ride so another cluster node can take ownership of it.
+     * The handoff is kept until {@link #acknowledgeHandoff} and handed out again if the same node
+     * asks for it once more, so a taker whose first response was lost can retry.
+     * @param nodeId the node taking the driver over
+     * @return what the new owner re-creates the driver from
+     * @throws com.jonathan.ride_matching_service.exception.ConflictException if the driver is on a ride
+     */
+    DriverHandoff handOffDriver(String driverId, String nodeId);
+
+    /**
+     * Forgets a handoff once the node that took the driver has registered it.
+     */
+    void acknowledgeHandoff(String driverId, String nodeId);
+
+    /**
+     * Registers a driver handed off by another node, offline if it was offline there.
+     * @throws com.jonathan.ride_matching_service.exception.RepositorySaveException if the driver already exists
+     */
+    void takeOverDriver(DriverHandoff handoff);
 }
@@ -3,11 +3,17 @@ package com.jonathan.ride_matching_service.service;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.model.Driver;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
 import java.util.List;
 
 public interface MatchingService {
 
     Driver findNearestAvailableDriver(Location pickupLocation);
 
+    /**
+     * @param vehicleType vehicle the rider asked for, or null for any
+     */
+    Driver findNearestAvailableDriver(Location pickupLocation, VehicleType vehicleType);
+
     List<DriverResponse> findNearestAvailableDrivers(Location pickupLocation, int limit);
 }
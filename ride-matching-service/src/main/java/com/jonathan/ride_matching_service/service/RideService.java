@@ -1,11 +1,36 @@
 package com.jonathan.ride_matching_service.service;
 
 import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.model.Driver;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
 
 public interface RideService {
 
     RideResponse requestRide(String riderId, Location pickupLocation);
 
+    /**
+     * @param vehicleType vehicle the rider asked for, or null for any
+     */
+    RideResponse requestRide(String riderId, Location pickupLocation, VehicleType vehicleType);
+
+    /**
+     * Books a seat on a driver's shared trip that passes close enough, or else matches an idle
+     * driver and opens a shared trip on it. Without pooling this is a plain ride request.
+     * @param vehicleType vehicle the rider asked for, or null for any
+     */
+    RideResponse requestSharedRide(String riderId, Location pickupLocation, Location dropoffLocation, VehicleType vehicleType);
+
+    /**
+     * Starts a ride with a driver the caller has already claimed, such as one held for a ride booked ahead.
+     */
+    RideResponse assignRide(String riderId, Location pickupLocation, Driver driver);
+
     void completeRide(String rideId);
+
+    /**
+     * Drops a ride nobody will take, such as one matched for a request that was abandoned, and
+     * frees its driver. Unlike completion, the ride leaves no trace of having happened.
+     */
+    void cancelRide(String rideId);
 }
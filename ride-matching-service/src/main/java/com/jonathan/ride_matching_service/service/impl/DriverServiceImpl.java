@@ -1,66 +1,168 @@
 package com.jonathan.ride_matching_service.service.impl;
 
+import com.jonathan.ride_matching_service.coalescing.LocationCoalescer;
+import com.jonathan.ride_matching_service.dto.DriverHandoff;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.exception.ConflictException;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.exception.RepositorySaveException;
 import com.jonathan.ride_matching_service.mapper.DriverMapper;
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.DriverState;
 import com.jonathan.ride_matching_service.model.Location;
 import com.jonathan.ride_matching_service.repository.DriverRepository;
 import com.jonathan.ride_matching_service.service.DriverService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class DriverServiceImpl implements DriverService {
 
+    // Unacknowledged handoffs are dropped after this, for a taker that went away before acknowledging
+    private static final long HANDOFF_RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final DriverRepository driverRepository;
     private final DriverMapper driverMapper;
+    private final LocationCoalescer locationCoalescer;
+    // Drivers handed off to another node, by driver id, until that node acknowledges them
+    private final Map<String, PendingHandoff> handoffs = new ConcurrentHashMap<>();
+
+    private record PendingHandoff(String nodeId, DriverHandoff handoff, long expiresAt) {
+    }
 
     public DriverServiceImpl(DriverRepository driverRepository, DriverMapper driverMapper) {
+        this(driverRepository, driverMapper, Optional.empty());
+    }
+
+    @Autowired
+    public DriverServiceImpl(DriverRepository driverRepository,
+                             DriverMapper driverMapper,
+                             Optional<LocationCoalescer> locationCoalescer) {
         this.driverRepository = driverRepository;
         this.driverMapper = driverMapper;
+        this.locationCoalescer = locationCoalescer.orElse(null);
     }
 
     @Override
     public void registerDriver(String driverId, Location location) {
-        try {
-            if (driverRepository.findById(driverId) != null) {
-                throw new IllegalArgumentException("Driver already exists");
-            }
+        registerDriver(driverId, location, DriverProfile.DEFAULT);
+    }
 
-            Driver driver = new Driver(driverId, location);
-            driverRepository.save(driver);
-        } catch (Exception e) {
-            throw new RepositorySaveException("Failed to register driver: " + driverId);
-        }
+    @Override
+    public void registerDriver(String driverId, Location location, DriverProfile profile) {
+        register(new Driver(driverId, location, profile));
     }
 
     @Override
     public List<Driver> getAvailableDrivers() {
-        return driverRepository.findAll()
-                .stream()
-                .filter(Driver::isAvailable)
-                .toList();
+        return driverRepository.findAvailable();
     }
 
     @Override
     public DriverResponse updateDriver(String driverId, Location location, boolean available) {
+        Driver driver = findDriver(driverId);
+
+        // Availability is reported from the write itself: read back, it could already reflect a ride claimed or completed since
+        if (locationCoalescer == null) {
+            boolean applied = driver.updateState(location.x(), location.y(), available);
+            DriverResponse response = driverMapper.toDriverResponse(driver);
+            return new DriverResponse(response.id(), response.x(), response.y(), available && applied);
+        }
+
+        // A coalesced position is published later; availability applies at once and the accepted position is reported
+        locationCoalescer.submit(driver, location.x(), location.y());
+        boolean applied = driver.setAvailable(available);
+        return new DriverResponse(driverId, location.x(), location.y(), available && applied);
+    }
+
+    @Override
+    public void updateDriverLocation(String driverId, double x, double y) {
+        updateLocation(findDriver(driverId), x, y);
+    }
+
+    @Override
+    public DriverResponse getDriver(String driverId) {
+        return driverMapper.toDriverResponse(findDriver(driverId));
+    }
+
+    @Override
+    public DriverHandoff handOffDriver(String driverId, String nodeId) {
         Driver driver = driverRepository.findById(driverId);
 
         if (driver == null) {
+            // A retry from the node the driver went to, whose first response was lost
+            PendingHandoff pending = handoffs.get(driverId);
+            if (pending != null && pending.nodeId().equals(nodeId) && pending.expiresAt() > System.currentTimeMillis()) {
+                return pending.handoff();
+            }
             throw new NotFoundException("Driver not found with id: " + driverId);
         }
 
-        driver.updateLocation(location);
+        // Claiming the driver, offline or not, keeps matching from assigning it while it is removed
+        DriverState state = driver.tryClaim();
+        if (state == null) {
+            throw new ConflictException("Driver is on a ride: " + driverId);
+        }
+
+        DriverProfile profile = driver.getProfile();
+        DriverHandoff handoff = new DriverHandoff(driverId, state.x(), state.y(), profile.vehicleType(), profile.rating(), state.available());
+        long now = System.currentTimeMillis();
+        handoffs.values().removeIf(pending -> pending.expiresAt() <= now);
+        handoffs.put(driverId, new PendingHandoff(nodeId, handoff, now + HANDOFF_RETENTION_MILLIS));
+        driverRepository.remove(driver);
+        return handoff;
+    }
+
+    @Override
+    public void acknowledgeHandoff(String driverId, String nodeId) {
+        handoffs.computeIfPresent(driverId, (id, pending) -> pending.nodeId().equals(nodeId) ? null : pending);
+    }
+
+    @Override
+    public void takeOverDriver(DriverHandoff handoff) {
+        Driver driver = new Driver(handoff.driverId(), new Location(handoff.x(), handoff.y()),
+                new DriverProfile(handoff.vehicleType(), handoff.rating()));
+        // Before the driver is visible, so matching never sees an offline driver as available
+        driver.setAvailable(handoff.available());
+        register(driver);
+    }
+
+    private void register(Driver driver) {
+        try {
+            if (driverRepository.findById(driver.getId()) != null) {
+                throw new IllegalArgumentException("Driver already exists");
+            }
 
-        if (available) {
-            driver.release();
+            driverRepository.save(driver);
+        } catch (Exception e) {
+            throw new RepositorySaveException("Failed to register driver: " + driver.getId());
+        }
+        // The driver is back on this node, so an older handoff of it no longer applies
+        handoffs.remove(driver.getId());
+    }
+
+    private void updateLocation(Driver driver, double x, double y) {
+        if (locationCoalescer != null) {
+            locationCoalescer.submit(driver, x, y);
         } else {
-            driver.tryMarkUnavailable();
+            driver.updateLocation(x, y);
+        }
+    }
+
+    private Driver findDriver(String driverId) {
+        Driver driver = driverRepository.findById(driverId);
+
+        if (driver == null) {
+            throw new NotFoundException("Driver not found with id: " + driverId);
         }
 
-        return driverMapper.toDriverResponse(driver);
+        return driver;
     }
 }
@@ -1,37 +1,94 @@
 package com.jonathan.ride_matching_service.service.impl;
 
+import com.jonathan.ride_matching_service.cache.NearestDriverCache;
+import com.jonathan.ride_matching_service.config.MatchingProperties;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.mapper.DriverMapper;
 import com.jonathan.ride_matching_service.model.Driver;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.routing.RoadNetworkEta;
+import com.jonathan.ride_matching_service.scoring.MatchScorer;
 import com.jonathan.ride_matching_service.service.DriverService;
 import com.jonathan.ride_matching_service.service.MatchingService;
-import com.jonathan.ride_matching_service.util.DistanceCalculator;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class MatchingServiceImpl implements MatchingService {
 
     private final DriverService driverService;
     private final DriverMapper driverMapper;
+    private final DistanceMetric distanceMetric;
+    private final RoadNetworkEta roadNetworkEta;
+    private final int etaCandidates;
+    // Only consulted for planar straight-line queries
+    private final NearestDriverCache nearestDriverCache;
+    private final MatchScorer matchScorer;
 
     public MatchingServiceImpl(DriverService driverService, DriverMapper driverMapper) {
+        this(driverService, driverMapper, MatchingProperties.defaults(), Optional.empty());
+    }
+
+    public MatchingServiceImpl(DriverService driverService,
+                               DriverMapper driverMapper,
+                               MatchingProperties matchingProperties,
+                               Optional<RoadNetworkEta> roadNetworkEta) {
+        this(driverService, driverMapper, matchingProperties, roadNetworkEta, Optional.empty());
+    }
+
+    public MatchingServiceImpl(DriverService driverService,
+                               DriverMapper driverMapper,
+                               MatchingProperties matchingProperties,
+                               Optional<RoadNetworkEta> roadNetworkEta,
+                               Optional<NearestDriverCache> nearestDriverCache) {
+        this(driverService, driverMapper, matchingProperties, roadNetworkEta, nearestDriverCache, Optional.empty());
+    }
+
+    @Autowired
+    public MatchingServiceImpl(DriverService driverService,
+                               DriverMapper driverMapper,
+                               MatchingProperties matchingProperties,
+                               Optional<RoadNetworkEta> roadNetworkEta,
+                               Optional<NearestDriverCache> nearestDriverCache,
+                               Optional<MatchScorer> matchScorer) {
         this.driverService = driverService;
         this.driverMapper = driverMapper;
+        this.distanceMetric = matchingProperties.distanceMetric();
+        this.roadNetworkEta = roadNetworkEta.orElse(null);
+        this.etaCandidates = matchingProperties.eta().candidates();
+        this.nearestDriverCache = distanceMetric == DistanceMetric.PLANAR && this.roadNetworkEta == null
+                ? nearestDriverCache.orElse(null)
+                : null;
+        this.matchScorer = matchScorer.orElse(null);
     }
 
     @Override
     public Driver findNearestAvailableDriver(Location pickupLocation) {
-        List<Driver> drivers = driverService.getAvailableDrivers();
+        return findNearestAvailableDriver(pickupLocation, null);
+    }
+
+    @Override
+    public Driver findNearestAvailableDriver(Location pickupLocation, VehicleType vehicleType) {
+        if (matchScorer != null) {
+            Driver driver = matchScorer.claimBest(driverService.getAvailableDrivers(), pickupLocation, vehicleType,
+                    distanceMetric.ranker(pickupLocation), candidate -> roadNetworkEta != null
+                            ? roadNetworkEta.etaSeconds(candidate.getLocation(), pickupLocation)
+                            : distanceMetric.distance(candidate.getLocation(), pickupLocation));
+            if (driver == null) {
+                throw new NotFoundException("No available drivers found");
+            }
+            return driver;
+        }
 
-        return drivers.stream()
-                .sorted(Comparator.comparingDouble(
-                        d -> DistanceCalculator.distance(d.getLocation(), pickupLocation)
-                ))
+        return rankedCandidates(pickupLocation, vehicleType, etaCandidates)
                 .filter(Driver::tryMarkUnavailable)
                 .findFirst()
                 .orElseThrow(() -> new NotFoundException("No available drivers found"));
@@ -39,14 +96,59 @@ public class MatchingServiceImpl implements MatchingService {
 
     @Override
     public List<DriverResponse> findNearestAvailableDrivers(Location pickupLocation, int limit) {
-        List<Driver> drivers = driverService.getAvailableDrivers();
+        if (nearestDriverCache != null) {
+            return nearestDriverCache.findNearest(pickupLocation, limit, driverService::getAvailableDrivers).stream()
+                    .map(driverMapper::toDriverResponse)
+                    .toList();
+        }
+
+        Stream<Driver> nearest = rankedCandidates(pickupLocation, null, Math.max(limit, etaCandidates)).limit(limit);
+
+        // Without ETA, rank everyone with the cheap key and order only the returned drivers by exact distance
+        if (roadNetworkEta == null) {
+            nearest = nearest.sorted(Comparator.comparingDouble(d -> distanceMetric.distance(d.getLocation(), pickupLocation)));
+        }
 
-        return drivers.stream()
-                .sorted(Comparator.comparingDouble(
-                        d -> DistanceCalculator.distance(d.getLocation(), pickupLocation)
-                ))
-                .limit(limit)
+        return nearest
                 .map(driverMapper::toDriverResponse)
                 .toList();
     }
+
+    /**
+     * Available drivers ordered by straight-line ranking key. In ETA mode the first
+     * {@code etaWindow} of them are re-ordered by road travel time to the pickup.
+     * @param vehicleType required vehicle type, or null for any
+     */
+    private Stream<Driver> rankedCandidates(Location pickupLocation, VehicleType vehicleType, int etaWindow) {
+        List<Driver> drivers = driverService.getAvailableDrivers();
+        DistanceMetric.Ranker ranker = distanceMetric.ranker(pickupLocation);
+
+        // One consistent read per driver; drivers claimed since the list was taken drop out here
+        List<Driver> byDistance = drivers.stream()
+                .filter(driver -> vehicleType == null || driver.getProfile().vehicleType() == vehicleType)
+                .map(driver -> new RankedCandidate(driver, driver.rankIfAvailable(ranker)))
+                .filter(candidate -> !Double.isNaN(candidate.rank()))
+                .sorted(Comparator.comparingDouble(RankedCandidate::rank))
+                .map(RankedCandidate::driver)
+                .toList();
+
+        if (roadNetworkEta == null || byDistance.size() < 2) {
+            return byDistance.stream();
+        }
+
+        int window = Math.min(etaWindow, byDistance.size());
+        List<Driver> byEta = byDistance.subList(0, window).stream()
+                .map(driver -> new EtaCandidate(driver, roadNetworkEta.etaSeconds(driver.getLocation(), pickupLocation)))
+                .sorted(Comparator.comparingDouble(EtaCandidate::seconds))
+                .map(EtaCandidate::driver)
+                .toList();
+
+        return Stream.concat(byEta.stream(), byDistance.subList(window, byDistance.size()).stream());
+    }
+
+    private record RankedCandidate(Driver driver, double rank) {
+    }
+
+    private record EtaCandidate(Driver driver, double seconds) {
+    }
 }
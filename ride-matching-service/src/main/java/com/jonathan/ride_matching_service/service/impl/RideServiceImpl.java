@@ -1,18 +1,26 @@
 package com.jonathan.ride_matching_service.service.impl;
 
 import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.ConflictException;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.exception.RepositorySaveException;
+import com.jonathan.ride_matching_service.heatmap.HeatmapAggregator;
+import com.jonathan.ride_matching_service.ids.RideIdGenerator;
+import com.jonathan.ride_matching_service.ids.UuidRideIdGenerator;
 import com.jonathan.ride_matching_service.mapper.RideMapper;
 import com.jonathan.ride_matching_service.model.Driver;
 import com.jonathan.ride_matching_service.model.Location;
 import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.pooling.RidePooling;
 import com.jonathan.ride_matching_service.repository.RideRepository;
 import com.jonathan.ride_matching_service.service.MatchingService;
 import com.jonathan.ride_matching_service.service.RideService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.time.Clock;
 
 @Service
 public class RideServiceImpl implements RideService {
@@ -20,35 +28,114 @@ public class RideServiceImpl implements RideService {
     private final MatchingService matchingService;
     private final RideRepository rideRepository;
     private final RideMapper rideMapper;
+    private final RideIdGenerator rideIds;
+    // Present only when the supply/demand heatmap is enabled
+    private final HeatmapAggregator heatmap;
+    // Present only when shared rides are enabled
+    private final RidePooling pooling;
+    // Stamps each ride's request time
+    private final Clock clock;
 
+    /**
+     * Without a heatmap or pooling, with random ride ids and the system clock; see {@link #builder}
+     * for the rest.
+     */
     public RideServiceImpl(MatchingService matchingService,
                            RideRepository rideRepository,
                            RideMapper rideMapper) {
-        this.matchingService = matchingService;
-        this.rideRepository = rideRepository;
-        this.rideMapper = rideMapper;
+        this(builder(matchingService, rideRepository, rideMapper));
+    }
+
+    @Autowired
+    public RideServiceImpl(MatchingService matchingService,
+                           RideRepository rideRepository,
+                           RideMapper rideMapper,
+                           RideIdGenerator rideIds,
+                           ObjectProvider<HeatmapAggregator> heatmap,
+                           ObjectProvider<RidePooling> pooling,
+                           ObjectProvider<Clock> clock) {
+        this(builder(matchingService, rideRepository, rideMapper)
+                .rideIds(rideIds)
+                .heatmap(heatmap.getIfAvailable())
+                .pooling(pooling.getIfAvailable())
+                .clock(clock.getIfAvailable(Clock::systemUTC)));
+    }
+
+    private RideServiceImpl(Builder builder) {
+        this.matchingService = builder.matchingService;
+        this.rideRepository = builder.rideRepository;
+        this.rideMapper = builder.rideMapper;
+        this.rideIds = builder.rideIds;
+        this.heatmap = builder.heatmap;
+        this.pooling = builder.pooling;
+        this.clock = builder.clock;
+    }
+
+    /**
+     * Wires a ride service outside the application context, as tests and the warm-up do.
+     */
+    public static Builder builder(MatchingService matchingService, RideRepository rideRepository, RideMapper rideMapper) {
+        return new Builder(matchingService, rideRepository, rideMapper);
     }
 
     @Override
     public RideResponse requestRide(String riderId, Location pickupLocation) {
-        Driver driver = matchingService.findNearestAvailableDriver(pickupLocation);
+        return requestRide(riderId, pickupLocation, null);
+    }
 
-        String rideId = UUID.randomUUID().toString();
+    @Override
+    public RideResponse requestRide(String riderId, Location pickupLocation, VehicleType vehicleType) {
+        Driver driver = match(pickupLocation, vehicleType);
 
-        Ride ride = new Ride(
+        String rideId = rideIds.nextId();
+
+        return save(new Ride(
                 rideId,
                 riderId,
                 driver,
-                pickupLocation
-        );
+                pickupLocation,
+                clock.millis()
+        ));
+    }
 
-        try {
-            rideRepository.save(ride);
-            return rideMapper.toRideResponse(ride);
-        } catch (Exception e) {
-            driver.release();
-            throw new RepositorySaveException("Failed to save ride: " + e.getMessage());
+    @Override
+    public RideResponse requestSharedRide(String riderId, Location pickupLocation, Location dropoffLocation, VehicleType vehicleType) {
+        if (pooling == null) {
+            return requestRide(riderId, pickupLocation, vehicleType);
+        }
+
+        String rideId = rideIds.nextId();
+
+        Driver driver = pooling.join(rideId, pickupLocation, dropoffLocation, vehicleType);
+        if (driver != null) {
+            if (heatmap != null) {
+                heatmap.recordRequest(pickupLocation, true);
+            }
+        } else {
+            driver = match(pickupLocation, vehicleType);
+            pooling.open(driver, rideId, pickupLocation, dropoffLocation);
         }
+
+        return save(new Ride(
+                rideId,
+                riderId,
+                driver,
+                pickupLocation,
+                clock.millis()
+        ));
+    }
+
+    @Override
+    public RideResponse assignRide(String riderId, Location pickupLocation, Driver driver) {
+        String rideId = rideIds.nextId();
+
+        return save(new Ride(
+                rideId,
+                riderId,
+                driver,
+                pickupLocation,
+                clock.millis()
+        ));
     }
 
     @Override
@@ -64,6 +151,105 @@ public class RideServiceImpl implements RideService {
         }
 
         ride.complete();
-        ride.getDriver().release();
+        releaseIfFree(ride);
+    }
+
+    @Override
+    public void cancelRide(String rideId) {
+        Ride ride = rideRepository.findById(rideId);
+
+        if (ride == null) {
+            throw new NotFoundException("Ride not found");
+        }
+
+        if (ride.isCompleted()) {
+            throw new ConflictException("Ride already completed");
+        }
+
+        rideRepository.remove(rideId);
+        releaseIfFree(ride);
+    }
+
+    // Claims an idle driver and records the request in the heatmap
+    private Driver match(Location pickupLocation, VehicleType vehicleType) {
+        Driver driver;
+        try {
+            driver = vehicleType == null
+                    ? matchingService.findNearestAvailableDriver(pickupLocation)
+                    : matchingService.findNearestAvailableDriver(pickupLocation, vehicleType);
+        } catch (NotFoundException e) {
+            if (heatmap != null) {
+                heatmap.recordRequest(pickupLocation, false);
+            }
+            throw e;
+        }
+        if (heatmap != null) {
+            heatmap.recordRequest(pickupLocation, true);
+        }
+        return driver;
+    }
+
+    private RideResponse save(Ride ride) {
+        try {
+            rideRepository.save(ride);
+            return rideMapper.toRideResponse(ride);
+        } catch (Exception e) {
+            releaseIfFree(ride);
+            throw new RepositorySaveException("Failed to save ride: " + e.getMessage());
+        }
+    }
+
+    // A driver on a shared trip stays busy until its last rider is dropped off
+    private void releaseIfFree(Ride ride) {
+        if (pooling == null || pooling.complete(ride.getId())) {
+            ride.getDriver().release();
+        }
+    }
+
+    public static final class Builder {
+
+        private final MatchingService matchingService;
+        private final RideRepository rideRepository;
+        private final RideMapper rideMapper;
+        private RideIdGenerator rideIds = new UuidRideIdGenerator();
+        private HeatmapAggregator heatmap;
+        private RidePooling pooling;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(MatchingService matchingService, RideRepository rideRepository, RideMapper rideMapper) {
+            this.matchingService = matchingService;
+            this.rideRepository = rideRepository;
+            this.rideMapper = rideMapper;
+        }
+
+        public Builder rideIds(RideIdGenerator rideIds) {
+            this.rideIds = rideIds;
+            return this;
+        }
+
+        /**
+         * @param heatmap records every request, or null for none
+         */
+        public Builder heatmap(HeatmapAggregator heatmap) {
+            this.heatmap = heatmap;
+            return this;
+        }
+
+        /**
+         * @param pooling lets shared rides join in-progress trips, or null to match them alone
+         */
+        public Builder pooling(RidePooling pooling) {
+            this.pooling = pooling;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public RideServiceImpl build() {
+            return new RideServiceImpl(this);
+        }
     }
 }
@@ -0,0 +1,39 @@
+package com.jonathan.ride_matching_service.startup;
+
+import com.jonathan.ride_matching_service.controller.DriverController;
+import com.jonathan.ride_matching_service.controller.RideController;
+import com.jonathan.ride_matching_service.ids.RideIdGenerator;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the beans on the ride-matching path eager when {@code spring.main.lazy-initialization}
+ * is on, as in the {@code fast-start} profile. Everything else is created on first use; these
+ * would otherwise be created by the first ride request.
+ */
+@Component
+public class MatchingPathEagerFilter implements LazyInitializationExcludeFilter {
+
+    private static final List<Class<?>> EAGER = List.of(
+            DriverRepository.class,
+            RideRepository.class,
+            RideIdGenerator.class,
+            DriverService.class,
+            MatchingService.class,
+            RideService.class,
+            DriverController.class,
+            RideController.class);
+
+    @Override
+    public boolean isExcluded(String beanName, BeanDefinition beanDefinition, Class<?> beanType) {
+        return beanType != null && EAGER.stream().anyMatch(type -> type.isAssignableFrom(beanType));
+    }
+}
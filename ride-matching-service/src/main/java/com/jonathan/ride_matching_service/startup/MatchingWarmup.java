@@ -0,0 +1,151 @@
+package com.jonathan.ride_matching_service.startup;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.config.StartupProperties;
+import com.jonathan.ride_matching_service.dto.DriverRegistrationRequest;
+import com.jonathan.ride_matching_service.dto.RideRequest;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.dto.UpdateDriverRequest;
+import com.jonathan.ride_matching_service.ids.RideIdGenerator;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic pre-touch of the matching path, run before the web server accepts requests so the
+ * first real ride is not matched by cold, interpreted code.
+ * <p>
+ * Drivers are registered in a private repository and rides requested, completed and pinged
+ * through the same service classes and matching settings as production, which loads their
+ * classes and gets the hot methods JIT-compiled; request and response bodies are then
+ * round-tripped through the application's JSON mapper and validator. The synthetic drivers
+ * never reach the production repositories, listeners or replicas.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "startup.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchingWarmup implements SmartLifecycle {
+
+    // The web server starts accepting requests in phase DEFAULT_PHASE - 1024
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+    private static final long SEED = 1;
+    private static final double CITY_SIZE = 100;
+
+    private final StartupProperties.Warmup properties;
+    private final MatchingProperties matchingProperties;
+    private final DriverMapper driverMapper;
+    private final RideMapper rideMapper;
+    private final RideIdGenerator rideIds;
+    // Absent in tests that build the warm-up without a context
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+
+    private volatile boolean running;
+
+    public MatchingWarmup(StartupProperties properties,
+                          MatchingProperties matchingProperties,
+                          DriverMapper driverMapper,
+                          RideMapper rideMapper,
+                          RideIdGenerator rideIds,
+                          Optional<JsonMapper> jsonMapper,
+                          Optional<Validator> validator) {
+        this.properties = properties.warmup();
+        this.matchingProperties = matchingProperties;
+        this.driverMapper = driverMapper;
+        this.rideMapper = rideMapper;
+        this.rideIds = rideIds;
+        this.jsonMapper = jsonMapper.orElse(null);
+        this.validator = validator.orElse(null);
+    }
+
+    /**
+     * Runs the synthetic workload once: at least one ride, then more until either the ride count
+     * or the time budget is reached.
+     * @return the number of rides matched
+     */
+    public int warmUp() {
+        if (properties.drivers() <= 0) {
+            return 0;
+        }
+        DriverService drivers = new DriverServiceImpl(new DriverRepository(), driverMapper);
+        RideService rides = RideServiceImpl.builder(
+                        new MatchingServiceImpl(drivers, driverMapper, matchingProperties, Optional.empty()),
+                        new RideRepository(), rideMapper)
+                .rideIds(rideIds)
+                .build();
+        SplittableRandom random = new SplittableRandom(SEED);
+        long deadline = System.nanoTime() + properties.budget().toNanos();
+
+        for (int i = 0; i < properties.drivers(); i++) {
+            drivers.registerDriver("warmup-driver-" + i, new Location(random.nextDouble(CITY_SIZE), random.nextDouble(CITY_SIZE)));
+        }
+        // Every ride is completed at once, so a driver is always free
+        int matched = 0;
+        RideResponse ride = null;
+        for (int i = 0; i < properties.rides() && (i == 0 || System.nanoTime() - deadline < 0); i++) {
+            drivers.updateDriverLocation("warmup-driver-" + random.nextInt(properties.drivers()),
+                    random.nextDouble(CITY_SIZE), random.nextDouble(CITY_SIZE));
+            ride = rides.requestRide("warmup-rider-" + i, new Location(random.nextDouble(CITY_SIZE), random.nextDouble(CITY_SIZE)));
+            rides.completeRide(ride.rideId());
+            matched++;
+        }
+
+        // The bodies of the endpoints on the matching path, read and written as the controllers do
+        DriverRegistrationRequest registration = new DriverRegistrationRequest("warmup-driver", 0, 0);
+        if (jsonMapper != null && ride != null) {
+            jsonMapper.readValue(jsonMapper.writeValueAsString(registration), DriverRegistrationRequest.class);
+            jsonMapper.readValue(jsonMapper.writeValueAsString(new UpdateDriverRequest(0, 0, true)), UpdateDriverRequest.class);
+            jsonMapper.readValue(jsonMapper.writeValueAsString(new RideRequest(ride.riderId(), ride.pickupX(), ride.pickupY())), RideRequest.class);
+            jsonMapper.writeValueAsString(ride);
+            jsonMapper.writeValueAsString(drivers.getDriver(ride.driverId()));
+        }
+        if (validator != null) {
+            validator.validate(registration);
+        }
+        return matched;
+    }
+
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        try {
+            int matched = warmUp();
+            log.info("Warmed up the matching path with {} rides in {} ms", matched, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Only first-request latency depends on the warm-up, so it never fails startup
+            log.warn("Matching warm-up failed", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,108 @@
+package com.jonathan.ride_matching_service.util;
+
+/**
+ * Hierarchical Z-order (Morton) cell ids.
+ * <p>
+ * Coordinates are quantised to a grid of {@link #FINEST_CELL_SIZE} and the two 31-bit grid
+ * indexes are bit-interleaved into a non-negative {@code long}. Cells at a coarser
+ * {@code level} are prefixes of the finest id, so all drivers of a cell form one contiguous
+ * range of ids and a Z-order sorted structure can answer "drivers in cell" with a range scan.
+ * <p>
+ * Level {@link #MAX_LEVEL} is the finest cell; every level above 0 halves the cell side.
+ * Coordinates outside {@code ±}{@link #MAX_COORDINATE} are clamped to the border cells.
+ */
+public final class CellId {
+
+    public static final int MAX_LEVEL = 31;
+    public static final double FINEST_CELL_SIZE = 1.0 / 4096;
+    public static final double MAX_COORDINATE = (1L << (MAX_LEVEL - 1)) * FINEST_CELL_SIZE;
+
+    private static final long GRID_OFFSET = 1L << (MAX_LEVEL - 1);
+    private static final long GRID_MAX = (1L << MAX_LEVEL) - 1;
+
+    private CellId() {
+    }
+
+    public static long of(double x, double y) {
+        return interleave(quantise(x)) | (interleave(quantise(y)) << 1);
+    }
+
+    /**
+     * @return the id of the {@code level} cell containing {@code cellId}, i.e. its Z-order prefix
+     */
+    public static long prefix(long cellId, int level) {
+        return cellId >>> shift(level);
+    }
+
+    public static long prefixOf(double x, double y, int level) {
+        return prefix(of(x, y), level);
+    }
+
+    /**
+     * @return the first finest-level id inside the cell {@code prefix} at {@code level}
+     */
+    public static long rangeStart(long prefix, int level) {
+        return prefix << shift(level);
+    }
+
+    /**
+     * @return the first finest-level id after the cell {@code prefix} at {@code level}
+     */
+    public static long rangeEnd(long prefix, int level) {
+        return (prefix + 1) << shift(level);
+    }
+
+    /**
+     * @return the side length of a cell at {@code level}, in coordinate units
+     */
+    public static double cellSize(int level) {
+        return FINEST_CELL_SIZE * (1L << (MAX_LEVEL - level));
+    }
+
+    public static long gridX(long cellId) {
+        return compact(cellId);
+    }
+
+    public static long gridY(long cellId) {
+        return compact(cellId >>> 1);
+    }
+
+    /**
+     * @return the finest-level id for grid indexes; the inverse of {@link #gridX}/{@link #gridY}
+     */
+    public static long fromGrid(long gridX, long gridY) {
+        return interleave(gridX) | (interleave(gridY) << 1);
+    }
+
+    private static int shift(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Cell level must be between 0 and " + MAX_LEVEL + ": " + level);
+        }
+        return 2 * (MAX_LEVEL - level);
+    }
+
+    private static long quantise(double value) {
+        long index = (long) Math.floor(value / FINEST_CELL_SIZE) + GRID_OFFSET;
+        return Math.max(0, Math.min(GRID_MAX, index));
+    }
+
+    private static long interleave(long value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    private static long compact(long value) {
+        long v = value & 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return v;
+    }
+}
@@ -0,0 +1,111 @@
+package com.jonathan.ride_matching_service.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Lock-free growable bit set over non-negative ints, for sets keyed on dense handles.
+ * <p>
+ * Bits live in fixed-size chunks of atomic words. Growing only copies the chunk table, never a
+ * chunk, so a bit set concurrently with growth is never lost. Iteration is weakly consistent:
+ * bits changed during a pass may or may not be seen.
+ */
+public final class ConcurrentBitSet {
+
+    private static final int WORDS_PER_CHUNK = 1024;
+    private static final int BITS_PER_CHUNK = WORDS_PER_CHUNK * Long.SIZE;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    public void set(int bit) {
+        AtomicLongArray chunk = chunkFor(bit);
+        int word = wordIndex(bit);
+        long mask = 1L << bit;
+        long current;
+        while (((current = chunk.get(word)) & mask) == 0 && !chunk.compareAndSet(word, current, current | mask)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public void clear(int bit) {
+        AtomicLongArray[] table = chunks;
+        int chunkIndex = bit / BITS_PER_CHUNK;
+        if (chunkIndex >= table.length) {
+            return;
+        }
+        AtomicLongArray chunk = table[chunkIndex];
+        int word = wordIndex(bit);
+        long mask = 1L << bit;
+        long current;
+        while (((current = chunk.get(word)) & mask) != 0 && !chunk.compareAndSet(word, current, current & ~mask)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public boolean get(int bit) {
+        AtomicLongArray[] table = chunks;
+        int chunkIndex = bit / BITS_PER_CHUNK;
+        return chunkIndex < table.length && (table[chunkIndex].get(wordIndex(bit)) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Visits every set bit in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        visit(action, false);
+    }
+
+    /**
+     * Visits every set bit in ascending order, clearing each word atomically before its bits are
+     * visited, so a bit set again during the visit is kept for the next pass.
+     */
+    public void drain(IntConsumer action) {
+        visit(action, true);
+    }
+
+    private void visit(IntConsumer action, boolean clear) {
+        AtomicLongArray[] table = chunks;
+        for (int chunkIndex = 0; chunkIndex < table.length; chunkIndex++) {
+            AtomicLongArray chunk = table[chunkIndex];
+            for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+                long bits = chunk.get(word);
+                if (bits == 0) {
+                    continue;
+                }
+                if (clear) {
+                    bits = chunk.getAndSet(word, 0);
+                }
+                int base = chunkIndex * BITS_PER_CHUNK + word * Long.SIZE;
+                while (bits != 0) {
+                    action.accept(base + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    private AtomicLongArray chunkFor(int bit) {
+        int chunkIndex = bit / BITS_PER_CHUNK;
+        AtomicLongArray[] table = chunks;
+        if (chunkIndex < table.length) {
+            return table[chunkIndex];
+        }
+        synchronized (this) {
+            table = chunks;
+            if (chunkIndex >= table.length) {
+                AtomicLongArray[] grown = Arrays.copyOf(table, chunkIndex + 1);
+                for (int i = table.length; i < grown.length; i++) {
+                    grown[i] = new AtomicLongArray(WORDS_PER_CHUNK);
+                }
+                chunks = grown;
+                table = grown;
+            }
+            return table[chunkIndex];
+        }
+    }
+
+    private static int wordIndex(int bit) {
+        return (bit % BITS_PER_CHUNK) >>> 6;
+    }
+}
@@ -0,0 +1,186 @@
+package com.jonathan.ride_matching_service.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Concurrent hash map for values that carry their own key, with open addressing over flat
+ * arrays instead of one node object per entry.
+ * <p>
+ * Keys are not stored: a slot is the value plus the key's spread hash in a primitive array, so
+ * an entry costs 8 bytes per slot against a {@code ConcurrentHashMap} node of 32. Probing
+ * compares the hashes first and only calls {@code equals} on the key of a value whose hash
+ * matches.
+ * <p>
+ * The map is split into segments by the high bits of the hash. Each segment is a linear-probing
+ * table; writers lock their segment, readers take no lock at all. A slot's hash is written once,
+ * before its value is published with a release store, and never changes afterwards. Removal
+ * leaves a tombstone that the next resize of the segment drops. A value's key must not change
+ * while it is in the map.
+ */
+public final class ConcurrentOpenHashMap<K, V> {
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final Object TOMBSTONE = new Object();
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Function<? super V, ? extends K> keyOf;
+    private final Segment[] segments;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentOpenHashMap(Function<? super V, ? extends K> keyOf) {
+        this.keyOf = keyOf;
+        this.segments = (Segment[]) new ConcurrentOpenHashMap.Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int hash = spread(key.hashCode());
+        Table table = segments[hash >>> (32 - SEGMENT_BITS)].table;
+        int mask = table.values.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Object value = VALUES.getAcquire(table.values, slot);
+            if (value == null) {
+                return null;
+            }
+            if (table.hashes[slot] == hash && value != TOMBSTONE && key.equals(keyOf.apply((V) value))) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * Maps the value's key to it.
+     * @return the value it replaced, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(V value) {
+        K key = keyOf.apply(value);
+        int hash = spread(key.hashCode());
+        return (V) segments[hash >>> (32 - SEGMENT_BITS)].put(hash, key, value);
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int hash = spread(key.hashCode());
+        return (V) segments[hash >>> (32 - SEGMENT_BITS)].put(hash, key, TOMBSTONE);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Visits every value; weakly consistent with concurrent writes.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (Segment segment : segments) {
+            Object[] values = segment.table.values;
+            for (int slot = 0; slot < values.length; slot++) {
+                Object value = VALUES.getAcquire(values, slot);
+                if (value != null && value != TOMBSTONE) {
+                    action.accept((V) value);
+                }
+            }
+        }
+    }
+
+    // Murmur3 finalizer, so segments (high bits) and slots (low bits) both see every input bit
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static final class Table {
+
+        final int[] hashes;
+        // null = never used, TOMBSTONE = removed
+        final Object[] values;
+
+        Table(int capacity) {
+            hashes = new int[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    private final class Segment {
+
+        volatile Table table = new Table(INITIAL_CAPACITY);
+        // Written only under the lock, read racily by size()
+        volatile int size;
+        // Slots ever used, live or tombstoned; guarded by this
+        int used;
+
+        @SuppressWarnings("unchecked")
+        synchronized Object put(int hash, K key, Object value) {
+            Table current = table;
+            int mask = current.values.length - 1;
+            int slot = hash & mask;
+            for (Object existing; (existing = current.values[slot]) != null; slot = (slot + 1) & mask) {
+                if (existing != TOMBSTONE && current.hashes[slot] == hash && key.equals(keyOf.apply((V) existing))) {
+                    if (existing != value) {
+                        VALUES.setRelease(current.values, slot, value);
+                        if (value == TOMBSTONE) {
+                            size--;
+                        }
+                    }
+                    return existing;
+                }
+            }
+            if (value == TOMBSTONE) {
+                return null;
+            }
+            current.hashes[slot] = hash;
+            VALUES.setRelease(current.values, slot, value);
+            size++;
+            // Keep the load, tombstones included, at most 3/4 so probe chains stay short
+            if (++used > (current.values.length >>> 2) * 3) {
+                resize(current);
+            }
+            return null;
+        }
+
+        // Readers keep probing the old table, which is never written again
+        private void resize(Table old) {
+            int capacity = old.values.length;
+            while (size > capacity >>> 1) {
+                capacity <<= 1;
+            }
+            Table grown = new Table(capacity);
+            int mask = capacity - 1;
+            for (int from = 0; from < old.values.length; from++) {
+                Object value = old.values[from];
+                if (value == null || value == TOMBSTONE) {
+                    continue;
+                }
+                int slot = old.hashes[from] & mask;
+                while (grown.values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.hashes[slot] = old.hashes[from];
+                grown.values[slot] = value;
+            }
+            used = size;
+            // Volatile write publishes the filled table
+            table = grown;
+        }
+    }
+}
@@ -4,9 +4,51 @@ import com.jonathan.ride_matching_service.model.Location;
 
 public class DistanceCalculator {
 
+    /**
+     * Mean Earth radius in metres.
+     */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
     public static double distance(Location a, Location b) {
         double dx = a.x() - b.x();
         double dy = a.y() - b.y();
         return Math.sqrt(dx * dx + dy * dy);
     }
+
+    /**
+     * Great-circle distance in metres, reading {@code x} as latitude and {@code y} as longitude in degrees.
+     */
+    public static double haversine(Location a, Location b) {
+        double lat1 = Math.toRadians(a.x());
+        double lat2 = Math.toRadians(b.x());
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(longitudeDelta(a.y(), b.y())) / 2);
+        double h = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * Equirectangular approximation of the great-circle distance in metres. Accurate to well
+     * under 1% at city scale and several times cheaper than {@link #haversine}.
+     */
+    public static double equirectangular(Location a, Location b) {
+        double cosLat = Math.cos(Math.toRadians((a.x() + b.x()) / 2));
+        double dLat = Math.toRadians(b.x() - a.x());
+        double dLon = Math.toRadians(longitudeDelta(a.y(), b.y())) * cosLat;
+        return EARTH_RADIUS_METERS * Math.sqrt(dLat * dLat + dLon * dLon);
+    }
+
+    /**
+     * Longitude difference in degrees, wrapped into [-180, 180] across the antimeridian.
+     */
+    static double longitudeDelta(double fromLon, double toLon) {
+        double delta = toLon - fromLon;
+        if (delta > 180) {
+            return delta - 360;
+        }
+        if (delta < -180) {
+            return delta + 360;
+        }
+        return delta;
+    }
 }
@@ -0,0 +1,97 @@
+package com.jonathan.ride_matching_service.util;
+
+import com.jonathan.ride_matching_service.model.Location;
+
+/**
+ * Pluggable distance metric used by matching.
+ * <p>
+ * {@link #ranker(Location)} returns a cheap key that orders candidates like the real distance
+ * (or approximately so) and is meant for sorting many drivers; {@link #distance(Location, Location)}
+ * is the exact value and should only be computed for the few results that are returned.
+ * The geodesic metrics read {@code x} as latitude and {@code y} as longitude in degrees.
+ */
+public enum DistanceMetric {
+
+    /**
+     * Euclidean distance in coordinate units; ranks by squared distance.
+     */
+    PLANAR {
+        @Override
+        public double distance(Location a, Location b) {
+            return DistanceCalculator.distance(a, b);
+        }
+
+        @Override
+        public Ranker ranker(Location origin) {
+            double originX = origin.x();
+            double originY = origin.y();
+            return (x, y) -> {
+                double dx = x - originX;
+                double dy = y - originY;
+                return dx * dx + dy * dy;
+            };
+        }
+    },
+
+    /**
+     * Great-circle distance in metres; ranks with the equirectangular approximation.
+     */
+    HAVERSINE {
+        @Override
+        public double distance(Location a, Location b) {
+            return DistanceCalculator.haversine(a, b);
+        }
+
+        @Override
+        public Ranker ranker(Location origin) {
+            return equirectangularRanker(origin);
+        }
+    },
+
+    /**
+     * Equirectangular approximation in metres, for both ranking and reported distances.
+     */
+    EQUIRECTANGULAR {
+        @Override
+        public double distance(Location a, Location b) {
+            return DistanceCalculator.equirectangular(a, b);
+        }
+
+        @Override
+        public Ranker ranker(Location origin) {
+            return equirectangularRanker(origin);
+        }
+    };
+
+    public abstract double distance(Location a, Location b);
+
+    /**
+     * Returns a ranking function for one query. Any per-query trigonometry is done here, once.
+     */
+    public abstract Ranker ranker(Location origin);
+
+    @FunctionalInterface
+    public interface Ranker {
+
+        /**
+         * @return a key that increases with the distance from the query origin to {@code (x, y)}
+         */
+        double rank(double x, double y);
+
+        default double rank(Location location) {
+            return rank(location.x(), location.y());
+        }
+    }
+
+    // Squared planar distance in degrees with longitude scaled by the cosine of the query latitude
+    private static Ranker equirectangularRanker(Location origin) {
+        double originLat = origin.x();
+        double originLon = origin.y();
+        double cosLat = Math.cos(Math.toRadians(originLat));
+        return (lat, lon) -> {
+            double dLat = lat - originLat;
+            double dLon = DistanceCalculator.longitudeDelta(originLon, lon) * cosLat;
+            return dLat * dLat + dLon * dLon;
+        };
+    }
+}
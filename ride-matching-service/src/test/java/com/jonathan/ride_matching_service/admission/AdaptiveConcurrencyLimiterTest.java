@@ -0,0 +1,178 @@
+package com.jonathan.ride_matching_service.admission;
+
+import com.jonathan.ride_matching_service.config.AdmissionProperties;
+import com.jonathan.ride_matching_service.exception.OverloadedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Nested
+    @DisplayName("Admission Tests")
+    class AdmissionTests {
+
+        @Test
+        @DisplayName("Should admit up to the limit and reject the rest without a queue deadline")
+        void testRejectsOverLimit() {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(4, Duration.ZERO);
+
+            // When
+            for (int i = 0; i < 4; i++) {
+                assertThat(limiter.tryAcquire()).isTrue();
+            }
+
+            // Then
+            assertThat(limiter.tryAcquire()).isFalse();
+            assertThat(limiter.getInflight()).isEqualTo(4);
+            assertThat(limiter.getRejected()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("A queued request should be admitted when a permit is released before its deadline")
+        void testQueuedRequestAdmitted() throws Exception {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(4, Duration.ofSeconds(5));
+            for (int i = 0; i < 4; i++) {
+                limiter.tryAcquire();
+            }
+
+            // When
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(limiter::tryAcquire);
+            while (limiter.getQueued() == 0) {
+                Thread.onSpinWait();
+            }
+            limiter.release(MILLIS);
+
+            // Then
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(limiter.getInflight()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should reject at once when the queue cannot drain before the deadline")
+        void testFailsFastOnExpectedMiss() {
+            // Given: requests take a second, so a full limit of 4 frees a permit every 250 ms
+            AdaptiveConcurrencyLimiter limiter = limiter(4, Duration.ofMillis(100));
+            for (int i = 0; i < 4; i++) {
+                limiter.tryAcquire();
+            }
+            limiter.release(1_000 * MILLIS);
+            limiter.tryAcquire();
+
+            // When
+            long start = System.nanoTime();
+            boolean admitted = limiter.tryAcquire();
+
+            // Then: rejected without waiting out the deadline
+            assertThat(admitted).isFalse();
+            assertThat(System.nanoTime() - start).isLessThan(100 * MILLIS);
+        }
+    }
+
+    @Nested
+    @DisplayName("Limit Adaptation Tests")
+    class AdaptationTests {
+
+        @Test
+        @DisplayName("Should shrink the limit when latency rises and grow it back under load")
+        void testGradient() {
+            // Given: a busy service at a steady 1 ms
+            AdaptiveConcurrencyLimiter limiter = limiter(32, Duration.ZERO);
+            runAtFullLoad(limiter, MILLIS, 200);
+            double steady = limiter.getLimit();
+
+            // When: latency jumps tenfold
+            runAtFullLoad(limiter, 10 * MILLIS, 50);
+            double slowed = limiter.getLimit();
+
+            // Then
+            assertThat(slowed).isLessThan(steady / 2);
+
+            // When: latency recovers
+            runAtFullLoad(limiter, MILLIS, 200);
+
+            // Then
+            assertThat(limiter.getLimit()).isGreaterThan(slowed * 2);
+        }
+
+        @Test
+        @DisplayName("Should not grow the limit while most of it is unused")
+        void testNoGrowthWhenIdle() {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(32, Duration.ZERO);
+
+            // When: one request at a time
+            for (int i = 0; i < 200; i++) {
+                limiter.tryAcquire();
+                limiter.release(MILLIS);
+            }
+
+            // Then
+            assertThat(limiter.getLimit()).isEqualTo(32);
+        }
+    }
+
+    @Nested
+    @DisplayName("Interceptor Tests")
+    class InterceptorTests {
+
+        @Test
+        @DisplayName("Should shed requests of the guarded method and report latency on completion")
+        void testInterceptor() {
+            // Given
+            AdaptiveConcurrencyLimiter limiter = limiter(4, Duration.ZERO);
+            AdmissionControlInterceptor interceptor =
+                    new AdmissionControlInterceptor(limiter, HttpMethod.POST, Duration.ofSeconds(2));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockHttpServletRequest[] admitted = new MockHttpServletRequest[4];
+            for (int i = 0; i < 4; i++) {
+                admitted[i] = new MockHttpServletRequest("POST", "/rides");
+                interceptor.preHandle(admitted[i], response, null);
+            }
+
+            // When / Then
+            assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/rides"), response, null)).isTrue();
+            assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest("POST", "/rides"), response, null))
+                    .isInstanceOfSatisfying(OverloadedException.class,
+                            e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+
+            // When
+            interceptor.afterCompletion(admitted[0], response, null, null);
+
+            // Then
+            assertThat(limiter.getInflight()).isEqualTo(3);
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration queueDeadline) {
+        return new AdaptiveConcurrencyLimiter(
+                new AdmissionProperties(true, initialLimit, 4, 512, 1.5, 0.2, queueDeadline, Duration.ofSeconds(1)));
+    }
+
+    // Keeps every permit taken and completes requests one at a time with the given latency
+    private static void runAtFullLoad(AdaptiveConcurrencyLimiter limiter, long rttNanos, int requests) {
+        while (limiter.tryAcquire()) {
+            // fill the limit
+        }
+        for (int i = 0; i < requests; i++) {
+            limiter.release(rttNanos);
+            while (limiter.tryAcquire()) {
+                // refill after the limit moved
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.jonathan.ride_matching_service.archive;
+
+import com.jonathan.ride_matching_service.config.ArchiveProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.RideListener;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import com.jonathan.ride_matching_service.testing.ManualClock;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("RideArchive Tests")
+class RideArchiveTest {
+
+    private static final Instant START = ManualClock.START;
+
+    @TempDir
+    Path directory;
+
+    private RideRepository rideRepository;
+    private ManualClock clock;
+    private RideArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository = new RideRepository();
+        clock = new ManualClock();
+        archive = newArchive();
+    }
+
+    private RideArchive newArchive() {
+        return new RideArchive(rideRepository,
+                new ArchiveProperties(true, directory.toString(), Duration.ofSeconds(30), 100, true, 4), clock);
+    }
+
+    // Requested at START + offset, completed a minute later
+    private Ride complete(String id, String driverId, double x, double y, Duration offset) {
+        Ride ride = new Ride(id, "rider-" + id, new Driver(driverId, new Location(x, y)), new Location(x, y),
+                START.plus(offset).toEpochMilli());
+        rideRepository.save(ride);
+        clock.set(START.plus(offset).plusSeconds(60));
+        ride.complete();
+        return ride;
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should write completed rides to segments and evict them from the repository")
+        void testFlush() throws Exception {
+            // Given
+            for (int i = 0; i < 250; i++) {
+                complete("ride-" + i, "driver-" + (i % 7), i, -i, Duration.ofSeconds(i));
+            }
+            Ride active = new Ride("ride-active", "rider-active", new Driver("driver-9", new Location(0, 0)), new Location(0, 0));
+            rideRepository.save(active);
+
+            // When
+            int archived = archive.flush();
+
+            // Then
+            assertThat(archived).isEqualTo(250);
+            assertThat(archive.size()).isEqualTo(250);
+            try (var files = Files.list(directory)) {
+                assertThat(files.map(file -> file.getFileName().toString()))
+                        .containsExactlyInAnyOrder("rides-000000000000.seg", "rides-000000000001.seg", "rides-000000000002.seg");
+            }
+            assertThat(rideRepository.findAll()).containsExactly(active);
+            assertThat(archive.flush()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should tell repository listeners about evicted rides and keep uncompleted ones")
+        void testEvictionNotifiesListeners() {
+            // Given
+            List<String> removed = new ArrayList<>();
+            rideRepository.addListener(new RideListener() {
+                @Override
+                public void onRemoved(Ride ride) {
+                    removed.add(ride.getId());
+                }
+            });
+            complete("ride-1", "driver-1", 0, 0, Duration.ZERO);
+            Ride active = new Ride("ride-1", "rider-2", new Driver("driver-2", new Location(0, 0)), new Location(0, 0));
+            rideRepository.save(active);
+
+            // When
+            archive.flush();
+
+            // Then: the archived ride's id now belongs to a ride still in progress
+            assertThat(removed).isEmpty();
+            assertThat(rideRepository.findById("ride-1")).isSameAs(active);
+
+            // When
+            complete("ride-2", "driver-1", 0, 0, Duration.ofMinutes(1));
+            archive.flush();
+
+            // Then
+            assertThat(removed).containsExactly("ride-2");
+            assertThat(rideRepository.findAll()).containsExactly(active);
+        }
+
+        @Test
+        @DisplayName("Should read every column back, also after a restart")
+        void testRoundTrip() {
+            // Given
+            complete("ride-2", "driver-1", 3.25, -1.5, Duration.ofMinutes(5));
+            complete("ride-1", "driver-1", 1.0, 2.0, Duration.ofMinutes(1));
+            complete("ride-3", "driver-2", -4.0, 0.125, Duration.ofMinutes(9));
+            archive.flush();
+
+            // When
+            RideArchive reopened = newArchive();
+            List<ArchivedRide> rides = reopened.scan(START, START.plus(Duration.ofHours(1)), Collectors.toList());
+
+            // Then
+            assertThat(rides).containsExactly(
+                    new ArchivedRide("ride-1", "rider-ride-1", "driver-1", 1.0, 2.0,
+                            START.plusSeconds(60), START.plusSeconds(120)),
+                    new ArchivedRide("ride-2", "rider-ride-2", "driver-1", 3.25, -1.5,
+                            START.plusSeconds(300), START.plusSeconds(360)),
+                    new ArchivedRide("ride-3", "rider-ride-3", "driver-2", -4.0, 0.125,
+                            START.plusSeconds(540), START.plusSeconds(600)));
+            // New segments continue the numbering of the reopened ones
+            complete("ride-4", "driver-3", 0, 0, Duration.ofMinutes(20));
+            assertThat(reopened.flush()).isEqualTo(1);
+            assertThat(directory.resolve("rides-000000000001.seg")).exists();
+            assertThat(newArchive().size()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should archive the request time stamped by the ride service's clock")
+        void testRequestedAtFromServiceClock() {
+            // Given
+            RideService rideService = RideServiceImpl.builder(mock(MatchingService.class), rideRepository, new RideMapper())
+                    .clock(clock)
+                    .build();
+            clock.advance(Duration.ofMinutes(3));
+            RideResponse ride = rideService.assignRide("rider-1", new Location(1, 1), new Driver("driver-1", new Location(1, 1)));
+            clock.advance(Duration.ofMinutes(1));
+            rideService.completeRide(ride.rideId());
+
+            // When
+            archive.flush();
+
+            // Then
+            assertThat(archive.scan(START, START.plus(Duration.ofHours(1)), Collectors.toList()))
+                    .extracting(ArchivedRide::requestedAt, ArchivedRide::completedAt)
+                    .containsExactly(tuple(START.plusSeconds(180), START.plusSeconds(240)));
+        }
+
+        @Test
+        @DisplayName("Should flush on stop and scan again after a restart")
+        void testStopAndStart() {
+            // Given
+            archive.start();
+            complete("ride-1", "driver-1", 1.0, 2.0, Duration.ofMinutes(1));
+
+            // When
+            archive.stop();
+            archive.start();
+
+            // Then
+            assertThat(archive.scan(START, START.plus(Duration.ofHours(1)), Collectors.counting())).isEqualTo(1);
+            archive.stop();
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Tests")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Should count rides per cell and hour within the range only")
+        void testRidesPerCellPerHour() {
+            // Given: 3 hours of rides at two pickups, over several segments
+            for (int i = 0; i < 360; i++) {
+                double x = i % 3 == 0 ? 10.0 : -10.0;
+                complete("ride-" + i, "driver-" + (i % 11), x, 5.0, Duration.ofSeconds(i * 30L));
+            }
+            archive.flush();
+
+            // When
+            List<CellHourCount> counts = archive.ridesPerCellPerHour(START.plusSeconds(1800), START.plusSeconds(7200), 17);
+
+            // Then
+            long east = CellId.prefixOf(10.0, 5.0, 17);
+            long west = CellId.prefixOf(-10.0, 5.0, 17);
+            assertThat(counts).extracting(CellHourCount::hour, CellHourCount::cellId, CellHourCount::rides)
+                    .containsExactlyInAnyOrder(
+                            tuple(START, east, 20L), tuple(START, west, 40L),
+                            tuple(START.plusSeconds(3600), east, 40L), tuple(START.plusSeconds(3600), west, 80L));
+            assertThat(counts).extracting(CellHourCount::hour).isSorted();
+            assertThat(counts).filteredOn(count -> count.cellId() == east)
+                    .allSatisfy(count -> assertThat(count.x()).isCloseTo(10.0, within(CellId.cellSize(17) / 2)));
+        }
+
+        @Test
+        @DisplayName("Should reject inverted ranges and invalid levels")
+        void testInvalidQuery() {
+            assertThatThrownBy(() -> archive.ridesPerCellPerHour(START.plusSeconds(1), START, 17))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> archive.ridesPerCellPerHour(START, START.plusSeconds(1), 40))
+                    .isInstanceOf(BadRequestException.class);
+            assertThat(archive.scan(START, START.plusSeconds(1), Collectors.counting())).isZero();
+        }
+    }
+}
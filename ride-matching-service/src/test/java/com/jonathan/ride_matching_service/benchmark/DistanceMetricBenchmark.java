@@ -0,0 +1,70 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per driver of the exact distance and of the per-query ranking key for each metric.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceMetricBenchmark {
+
+    private static final int DRIVERS = 1024;
+
+    @Param({"PLANAR", "HAVERSINE", "EQUIRECTANGULAR"})
+    private DistanceMetric metric;
+
+    private Location origin;
+    private Location[] drivers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        origin = new Location(40.75, -73.98);
+        drivers = new Location[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            drivers[i] = new Location(40.6 + random.nextDouble() * 0.3, -74.1 + random.nextDouble() * 0.3);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DRIVERS)
+    public double distance() {
+        double sum = 0;
+        for (Location driver : drivers) {
+            sum += metric.distance(origin, driver);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DRIVERS)
+    public double rank() {
+        DistanceMetric.Ranker ranker = metric.ranker(origin);
+        double sum = 0;
+        for (Location driver : drivers) {
+            sum += ranker.rank(driver);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,79 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.config.HistoryProperties;
+import com.jonathan.ride_matching_service.history.PositionHistory;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the full driver update with the location ping. Run with {@code -prof gc}
+ * to see {@code gc.alloc.rate.norm}; the ping path should report ~0 B/op. With {@code history}
+ * every ping is also recorded in the position history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriverUpdateBenchmark {
+
+    private static final int DRIVERS = 10_000;
+
+    @Param({"false", "true"})
+    public boolean history;
+
+    private DriverService driverService;
+    private String[] driverIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        DriverRepository driverRepository = new DriverRepository();
+        if (history) {
+            new PositionHistory(driverRepository,
+                    new HistoryProperties(true, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1.0E-6));
+        }
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        driverIds = new String[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = "driver-" + i;
+            driverService.registerDriver(driverIds[i], new Location(i, i));
+        }
+    }
+
+    @Benchmark
+    public Object updateDriver() {
+        int i = nextIndex();
+        return driverService.updateDriver(driverIds[i], new Location(i + 0.5, i + 0.5), true);
+    }
+
+    @Benchmark
+    public void updateDriverLocation() {
+        int i = nextIndex();
+        driverService.updateDriverLocation(driverIds[i], i + 0.5, i + 0.5);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == DRIVERS ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.coalescing.LocationCoalescer;
+import com.jonathan.ride_matching_service.config.CoalescingProperties;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location pings from several threads for a fleet of drivers that keep crossing cell-index
+ * boundaries, applied directly or through the {@link LocationCoalescer}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LocationCoalescingBenchmark {
+
+    private static final int DRIVERS = 1_000;
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private DriverService driverService;
+    private LocationCoalescer locationCoalescer;
+    private String[] driverIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverRepository driverRepository = new DriverRepository();
+        if (coalescing) {
+            locationCoalescer = new LocationCoalescer(new CoalescingProperties(true, Duration.ofMillis(250), 1.0, 16));
+            locationCoalescer.start();
+        }
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper(), Optional.ofNullable(locationCoalescer));
+
+        driverIds = new String[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = "driver-" + i;
+            driverService.registerDriver(driverIds[i], new Location(0, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (locationCoalescer != null) {
+            locationCoalescer.stop();
+        }
+    }
+
+    // Moves of up to 0.1 units cross the 1/64-unit index cells on most pings
+    @Benchmark
+    public void ping() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        driverService.updateDriverLocation(driverIds[random.nextInt(DRIVERS)], random.nextDouble(0.1), random.nextDouble(0.1));
+    }
+}
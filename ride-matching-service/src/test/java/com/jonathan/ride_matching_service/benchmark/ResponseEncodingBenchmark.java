@@ -0,0 +1,90 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.codec.BinaryCodec;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link BinaryCodec} layout with Jackson for the responses of
+ * {@code GET /rides/available-drivers} and {@code POST /rides}.
+ * Bytes on the wire for each encoding are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseEncodingBenchmark {
+
+    @Param({"5", "50"})
+    private int limit;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private final DataOutputStream dataOut = new DataOutputStream(buffer);
+
+    private List<DriverResponse> drivers;
+    private RideResponse ride;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        drivers = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            drivers.add(new DriverResponse("driver-" + i, random.nextDouble() * 100, random.nextDouble() * 100, true));
+        }
+        ride = new RideResponse("8f14e45f-ceea-467a-9b1c-6f3e1b2c9d41", "driver-1", "rider-1", 40.7128, -74.0060);
+
+        System.out.printf("%nbytes (limit=%d): drivers json=%d binary=%d, ride json=%d binary=%d%n",
+                limit, jsonDrivers(), binaryDrivers(), jsonRide(), binaryRide());
+    }
+
+    @Benchmark
+    public int jsonDrivers() {
+        buffer.reset();
+        jsonMapper.writeValue(buffer, drivers);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int binaryDrivers() throws IOException {
+        buffer.reset();
+        BinaryCodec.writeDrivers(dataOut, drivers);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int jsonRide() {
+        buffer.reset();
+        jsonMapper.writeValue(buffer, ride);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int binaryRide() throws IOException {
+        buffer.reset();
+        BinaryCodec.writeRide(dataOut, ride);
+        return buffer.size();
+    }
+}
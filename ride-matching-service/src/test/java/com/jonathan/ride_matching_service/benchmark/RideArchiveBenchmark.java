@@ -0,0 +1,131 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.archive.CellHourCount;
+import com.jonathan.ride_matching_service.archive.RideArchive;
+import com.jonathan.ride_matching_service.config.ArchiveProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Analytical scans of a day of archived rides.
+ * <ul>
+ *   <li>{@code ridesPerCellPerHour} – the archive's query, reading the time and pickup columns</li>
+ *   <li>{@code heapRidesPerCellPerHour} – the same counts over the {@code Ride} objects in the heap</li>
+ *   <li>{@code scanAll} – decodes every column of every ride</li>
+ * </ul>
+ * The segment bytes per ride are printed on setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RideArchiveBenchmark {
+
+    private static final Instant DAY = Instant.parse("2026-01-01T00:00:00Z");
+    // Cells of 32 units, about a thousand over the pickup area
+    private static final int LEVEL = 14;
+
+    @Param({"1000000"})
+    public int rides;
+
+    private Path directory;
+    private RideArchive archive;
+    private List<Ride> heap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ride-archive-benchmark");
+        RideRepository repository = new RideRepository();
+        archive = new RideArchive(repository,
+                new ArchiveProperties(true, directory.toString(), Duration.ofSeconds(30), 65536, true, 0));
+
+        SplittableRandom random = new SplittableRandom(42);
+        Driver[] drivers = new Driver[5000];
+        for (int i = 0; i < drivers.length; i++) {
+            drivers[i] = new Driver("driver-" + i, new Location(0, 0));
+        }
+        heap = new ArrayList<>(rides);
+        for (int i = 0; i < rides; i++) {
+            long requestedAt = DAY.toEpochMilli() + (long) i * 86_400_000L / rides;
+            Location pickup = new Location(random.nextDouble(-500, 500), random.nextDouble(-500, 500));
+            Ride ride = new Ride("ride-" + i, "rider-" + random.nextInt(200_000), drivers[random.nextInt(drivers.length)],
+                    pickup, requestedAt);
+            repository.save(ride);
+            ride.complete();
+            heap.add(ride);
+        }
+        archive.flush();
+
+        long bytes;
+        try (Stream<Path> files = Files.list(directory)) {
+            bytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        System.out.printf("%n%d rides archived in %d bytes, %.1f bytes per ride%n", rides, bytes, (double) bytes / rides);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<CellHourCount> ridesPerCellPerHour() {
+        return archive.ridesPerCellPerHour(DAY, DAY.plus(Duration.ofDays(1)), LEVEL);
+    }
+
+    @Benchmark
+    public Map<Long, Map<Long, Long>> heapRidesPerCellPerHour() {
+        long from = DAY.toEpochMilli();
+        long to = from + 86_400_000L;
+        Map<Long, Map<Long, Long>> counts = new HashMap<>();
+        for (Ride ride : heap) {
+            if (ride.getRequestedAt() >= from && ride.getRequestedAt() < to) {
+                long cell = CellId.prefixOf(ride.getPickupLocation().x(), ride.getPickupLocation().y(), LEVEL);
+                counts.computeIfAbsent(ride.getRequestedAt() / 3_600_000L, hour -> new HashMap<>()).merge(cell, 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public long scanAll() {
+        return archive.scan(DAY, DAY.plus(Duration.ofDays(1)), Collectors.counting());
+    }
+}
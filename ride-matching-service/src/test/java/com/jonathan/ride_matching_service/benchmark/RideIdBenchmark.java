@@ -0,0 +1,51 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.config.RideIdProperties;
+import com.jonathan.ride_matching_service.ids.RideIdGenerator;
+import com.jonathan.ride_matching_service.ids.SnowflakeRideIdGenerator;
+import com.jonathan.ride_matching_service.ids.UuidRideIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ride id generation from 8 threads, random UUIDs against snowflake ids.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RideIdBenchmark {
+
+    @Param({"uuid", "snowflake"})
+    public String mode;
+
+    private RideIdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = "uuid".equals(mode)
+                ? new UuidRideIdGenerator()
+                : new SnowflakeRideIdGenerator(new RideIdProperties(mode, 0, Instant.parse("2025-01-01T00:00:00Z")));
+    }
+
+    @Benchmark
+    public String nextId() {
+        return generator.nextId();
+    }
+}
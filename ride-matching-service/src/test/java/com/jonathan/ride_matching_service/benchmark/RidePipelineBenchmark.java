@@ -0,0 +1,94 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.config.PipelineProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.pipeline.RidePipeline;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of booking and completing a ride with many more request threads than
+ * cores, matched on the request thread or through the {@link RidePipeline}. Riders in the same
+ * area compete for the same drivers, the case where direct matching retries its claims.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class RidePipelineBenchmark {
+
+    private static final int DRIVERS = 2_000;
+    private static final double AREA = 40;
+
+    @Param({"false", "true"})
+    private boolean pipelined;
+
+    private RideService rideService;
+    private RidePipeline ridePipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverMapper driverMapper = new DriverMapper();
+        DriverService driverService = new DriverServiceImpl(new DriverRepository(), driverMapper);
+        rideService = new RideServiceImpl(
+                new MatchingServiceImpl(driverService, driverMapper), new RideRepository(), new RideMapper());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < DRIVERS; i++) {
+            driverService.registerDriver("driver-" + i, new Location(random.nextDouble(AREA), random.nextDouble(AREA)));
+        }
+
+        if (pipelined) {
+            ridePipeline = new RidePipeline(rideService, new PipelineProperties(true, 4, 1024, 64, 15, Duration.ofSeconds(5)));
+            ridePipeline.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (ridePipeline != null) {
+            ridePipeline.stop();
+        }
+    }
+
+    @Benchmark
+    public RideResponse requestAndComplete() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Location pickup = new Location(random.nextDouble(AREA), random.nextDouble(AREA));
+
+        RideResponse ride = pipelined
+                ? ridePipeline.requestRide("rider", pickup)
+                : rideService.requestRide("rider", pickup);
+        rideService.completeRide(ride.rideId());
+        return ride;
+    }
+}
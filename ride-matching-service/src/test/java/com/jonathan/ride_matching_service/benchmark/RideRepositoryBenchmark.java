@@ -0,0 +1,91 @@
+package com.jonathan.ride_matching_service.benchmark;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ride repository's open-addressing map with the {@code ConcurrentHashMap} it
+ * replaced, on the same rides.
+ * <ul>
+ *   <li>{@code findById} – lookups of existing rides from 4 threads</li>
+ *   <li>{@code fill} – inserts every ride into an empty map; run with {@code -prof gc} and read
+ *       {@code gc.alloc.rate.norm} divided by {@code rides} as an upper bound of the map's bytes
+ *       per entry, tables discarded while growing included (rides are allocated up front)</li>
+ * </ul>
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RideRepositoryBenchmark {
+
+    @Param({"repository", "concurrentHashMap"})
+    public String map;
+
+    @Param({"100000"})
+    public int rides;
+
+    private Ride[] saved;
+    private String[] ids;
+    private RideRepository repository;
+    private ConcurrentHashMap<String, Ride> concurrentHashMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Driver driver = new Driver("driver-1", new Location(0, 0));
+        saved = new Ride[rides];
+        ids = new String[rides];
+        for (int i = 0; i < rides; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            saved[i] = new Ride(ids[i], "rider-" + i, driver, new Location(i, i));
+        }
+        fill();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(4)
+    public Ride findById() {
+        String id = ids[ThreadLocalRandom.current().nextInt(rides)];
+        return "repository".equals(map) ? repository.findById(id) : concurrentHashMap.get(id);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object fill() {
+        if ("repository".equals(map)) {
+            repository = new RideRepository();
+            for (Ride ride : saved) {
+                repository.save(ride);
+            }
+            return repository;
+        }
+        concurrentHashMap = new ConcurrentHashMap<>();
+        for (Ride ride : saved) {
+            concurrentHashMap.put(ride.getId(), ride);
+        }
+        return concurrentHashMap;
+    }
+}
@@ -0,0 +1,152 @@
+package com.jonathan.ride_matching_service.cache;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("NearestDriverCache Tests")
+class NearestDriverCacheTest {
+
+    private DriverRepository driverRepository;
+    private DriverService driverService;
+    private SimpleMeterRegistry meterRegistry;
+    private MatchingService uncached;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = new DriverRepository();
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        meterRegistry = new SimpleMeterRegistry();
+        uncached = new MatchingServiceImpl(driverService, new DriverMapper());
+    }
+
+    @Nested
+    @DisplayName("Hit Tests")
+    class HitTests {
+
+        @Test
+        @DisplayName("Queries from the same cell should hit and return the same drivers as a full scan")
+        void testHitsMatchFullScan() {
+            // Given
+            Random random = new Random(42);
+            for (int i = 0; i < 500; i++) {
+                driverService.registerDriver("driver-" + i, new Location(random.nextDouble(20), random.nextDouble(20)));
+            }
+            MatchingService cached = cached(Duration.ofMinutes(1));
+
+            // When / Then: riders spread over one 1/16-unit key cell
+            for (int i = 0; i < 50; i++) {
+                Location pickup = new Location(10 + random.nextDouble(0.0625), 10 + random.nextDouble(0.0625));
+                assertThat(ids(cached.findNearestAvailableDrivers(pickup, 5)))
+                        .containsExactlyElementsOf(ids(uncached.findNearestAvailableDrivers(pickup, 5)));
+            }
+            assertThat(meterRegistry.counter("matching.cache.misses").count()).isEqualTo(1);
+            assertThat(meterRegistry.counter("matching.cache.hits").count()).isEqualTo(49);
+        }
+
+        @Test
+        @DisplayName("A move far from the cached drivers should not invalidate the entry")
+        void testDistantMoveKeepsEntry() {
+            // Given
+            driverService.registerDriver("near-1", new Location(1, 1));
+            driverService.registerDriver("near-2", new Location(2, 2));
+            driverService.registerDriver("far", new Location(100, 100));
+            MatchingService cached = cached(Duration.ofMinutes(1));
+            cached.findNearestAvailableDrivers(new Location(0, 0), 2);
+
+            // When
+            driverService.updateDriverLocation("far", 120, 120);
+            List<DriverResponse> nearest = cached.findNearestAvailableDrivers(new Location(0, 0), 2);
+
+            // Then
+            assertThat(ids(nearest)).containsExactly("near-1", "near-2");
+            assertThat(meterRegistry.counter("matching.cache.hits").count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation Tests")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Should never serve a driver claimed after the entry was cached")
+        void testClaimedDriverNotServed() {
+            // Given
+            driverService.registerDriver("driver-1", new Location(1, 1));
+            driverService.registerDriver("driver-2", new Location(2, 2));
+            driverService.registerDriver("driver-3", new Location(3, 3));
+            MatchingService cached = cached(Duration.ofMinutes(1));
+            cached.findNearestAvailableDrivers(new Location(0, 0), 2);
+
+            // When
+            driverRepository.findById("driver-1").tryMarkUnavailable();
+            List<DriverResponse> nearest = cached.findNearestAvailableDrivers(new Location(0, 0), 2);
+
+            // Then
+            assertThat(ids(nearest)).containsExactly("driver-2", "driver-3");
+        }
+
+        @Test
+        @DisplayName("A driver moving close to the pickup should invalidate the entry")
+        void testMoveIntoCoveredCells() {
+            // Given
+            driverService.registerDriver("driver-1", new Location(5, 5));
+            driverService.registerDriver("driver-2", new Location(50, 50));
+            MatchingService cached = cached(Duration.ofMinutes(1));
+            cached.findNearestAvailableDrivers(new Location(0, 0), 1);
+
+            // When
+            driverService.updateDriverLocation("driver-2", 0.5, 0.5);
+            List<DriverResponse> nearest = cached.findNearestAvailableDrivers(new Location(0, 0), 1);
+
+            // Then
+            assertThat(ids(nearest)).containsExactly("driver-2");
+            assertThat(meterRegistry.counter("matching.cache.misses").count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should rescan once the TTL has passed")
+        void testTtl() {
+            // Given
+            driverService.registerDriver("driver-1", new Location(1, 1));
+            MatchingService cached = cached(Duration.ZERO);
+
+            // When
+            cached.findNearestAvailableDrivers(new Location(0, 0), 1);
+            cached.findNearestAvailableDrivers(new Location(0, 0), 1);
+
+            // Then
+            assertThat(meterRegistry.counter("matching.cache.misses").count()).isEqualTo(2);
+        }
+    }
+
+    private MatchingService cached(Duration ttl) {
+        MatchingProperties properties = new MatchingProperties(DistanceMetric.PLANAR, MatchingProperties.Eta.disabled(),
+                new MatchingProperties.Cache(true, 23, 19, ttl, 64, 1_000), MatchingProperties.Scoring.disabled());
+        NearestDriverCache cache = new NearestDriverCache(driverRepository, properties, meterRegistry);
+        return new MatchingServiceImpl(driverService, new DriverMapper(), properties, Optional.empty(), Optional.of(cache));
+    }
+
+    private static List<String> ids(List<DriverResponse> drivers) {
+        return drivers.stream().map(DriverResponse::id).toList();
+    }
+}
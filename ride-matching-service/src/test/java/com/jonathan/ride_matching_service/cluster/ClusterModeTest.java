@@ -0,0 +1,350 @@
+package com.jonathan.ride_matching_service.cluster;
+
+import com.jonathan.ride_matching_service.RideMatchingServiceApplication;
+import com.jonathan.ride_matching_service.dto.DriverRegistrationRequest;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideRequest;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.dto.UpdateDriverRequest;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Cluster Mode Tests")
+class ClusterModeTest {
+
+    private static final int PARTITION_LEVEL = 17;
+    private static final double PARTITION_SIZE = CellId.cellSize(PARTITION_LEVEL);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static RestClient clientA;
+    private static RestClient clientB;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+
+        nodeA = startNode("a", portA, portB);
+        nodeB = startNode("b", portA, portB);
+        clientA = RestClient.create("http://localhost:" + portA);
+        clientB = RestClient.create("http://localhost:" + portB);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Nested
+    @DisplayName("Consistent Hash Ring Tests")
+    class ConsistentHashRingTests {
+
+        @Test
+        @DisplayName("Adding a node should only move part of the keys")
+        void testAddingNodeMovesFewKeys() {
+            // Given
+            ConsistentHashRing three = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+            ConsistentHashRing four = new ConsistentHashRing(List.of("a", "b", "c", "d"), 64);
+
+            // When
+            long moved = IntStream.range(0, 10_000)
+                    .filter(key -> !three.ownerOf(key).equals(four.ownerOf(key)))
+                    .count();
+
+            // Then: ideally a quarter of the keys move, all of them to the new node
+            assertThat(moved).isBetween(1_000L, 4_000L);
+            assertThat(IntStream.range(0, 10_000)
+                    .filter(key -> !three.ownerOf(key).equals(four.ownerOf(key)))
+                    .mapToObj(four::ownerOf))
+                    .containsOnly("d");
+        }
+
+        @Test
+        @DisplayName("Every node should own some partitions")
+        void testBalance() {
+            // Given
+            ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+            Map<String, Integer> owned = new HashMap<>();
+
+            // When
+            for (long key = 0; key < 3_000; key++) {
+                owned.merge(ring.ownerOf(key), 1, Integer::sum);
+            }
+
+            // Then
+            assertThat(owned).containsOnlyKeys("a", "b", "c");
+            assertThat(owned.values()).allSatisfy(count -> assertThat(count).isGreaterThan(500));
+        }
+    }
+
+    @Nested
+    @DisplayName("Two Node Tests")
+    class TwoNodeTests {
+
+        @Test
+        @DisplayName("Should forward registration, rides and completion to the owning node")
+        void testForwarding() {
+            // Given: a driver in the middle of one of B's partitions, registered through A
+            double y = row(0);
+            double insideB = border(y) + PARTITION_SIZE / 2;
+            register(clientA, "forward-driver", insideB, y);
+
+            // When
+            RideResponse ride = clientA.post().uri("/rides")
+                    .body(new RideRequest("rider-1", insideB + 0.5, y))
+                    .retrieve()
+                    .body(RideResponse.class);
+
+            // Then
+            assertThat(repository(nodeB).findById("forward-driver")).isNotNull();
+            assertThat(repository(nodeA).findById("forward-driver")).isNull();
+            assertThat(ride.driverId()).isEqualTo("forward-driver");
+            assertThat(repository(nodeB).findById("forward-driver").isAvailable()).isFalse();
+
+            // When: the ride lives on B but is completed through A
+            clientA.post().uri("/rides/{rideId}/complete", ride.rideId()).retrieve().toBodilessEntity();
+
+            // Then
+            assertThat(repository(nodeB).findById("forward-driver").isAvailable()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should hand off an idle driver that moves into another node's partition")
+        void testHandoff() {
+            // Given
+            double y = row(1);
+            double border = border(y);
+            register(clientA, "moving-driver", border + PARTITION_SIZE / 2, y);
+
+            // When: the driver drives into A's partition; the update arrives at B
+            DriverResponse moved = clientB.put().uri("/drivers/{driverId}", "moving-driver")
+                    .body(new UpdateDriverRequest(border - PARTITION_SIZE / 2, y, true))
+                    .retrieve()
+                    .body(DriverResponse.class);
+
+            // Then
+            assertThat(moved.x()).isEqualTo(border - PARTITION_SIZE / 2);
+            assertThat(repository(nodeA).findById("moving-driver")).isNotNull();
+            assertThat(repository(nodeB).findById("moving-driver")).isNull();
+            assertThat(availableDrivers(clientB, border - PARTITION_SIZE / 2, y))
+                    .extracting(DriverResponse::id)
+                    .containsExactly("moving-driver");
+        }
+
+        @Test
+        @DisplayName("Should take a driver over once when two first pings arrive together")
+        void testConcurrentHandoff() throws Exception {
+            // Given: a driver in B's partition
+            double y = row(4);
+            double border = border(y);
+            register(clientA, "racing-driver", border + PARTITION_SIZE / 2, y);
+            CyclicBarrier start = new CyclicBarrier(2);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+
+            // When: two pings from inside A's partition reach A at the same time
+            List<Future<HttpStatusCode>> pings = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                double x = border - PARTITION_SIZE / 2 - i * 0.1;
+                pings.add(executor.submit(() -> {
+                    start.await();
+                    return clientA.put().uri("/drivers/{driverId}/location?x={x}&y={y}", "racing-driver", x, y)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .getStatusCode();
+                }));
+            }
+
+            // Then
+            for (Future<HttpStatusCode> ping : pings) {
+                assertThat(ping.get(10, TimeUnit.SECONDS).is2xxSuccessful()).isTrue();
+            }
+            executor.shutdown();
+            assertThat(repository(nodeA).findById("racing-driver")).isNotNull();
+            assertThat(repository(nodeB).findById("racing-driver")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should hand off an offline driver and keep it offline")
+        void testOfflineHandoff() {
+            // Given: an offline driver in B's partition
+            double y = row(5);
+            double border = border(y);
+            register(clientA, "offline-driver", border + PARTITION_SIZE / 2, y);
+            clientB.put().uri("/drivers/{driverId}", "offline-driver")
+                    .body(new UpdateDriverRequest(border + PARTITION_SIZE / 2, y, false))
+                    .retrieve()
+                    .toBodilessEntity();
+
+            // When: it drives into A's partition without coming online
+            clientA.put().uri("/drivers/{driverId}/location?x={x}&y={y}", "offline-driver", border - PARTITION_SIZE / 2, y)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            // Then
+            assertThat(repository(nodeB).findById("offline-driver")).isNull();
+            Driver driver = repository(nodeA).findById("offline-driver");
+            assertThat(driver.getLocation()).isEqualTo(new Location(border - PARTITION_SIZE / 2, y));
+            assertThat(driver.isAvailable()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should let the taking node retry a handoff whose response was lost")
+        void testHandoffRetry() {
+            // Given: B handed the driver off to A, but A never got the response
+            double y = row(6);
+            double border = border(y);
+            register(clientA, "lost-driver", border + PARTITION_SIZE / 2, y);
+            clientB.post().uri("/internal/cluster/drivers/{driverId}/handoff?node=a", "lost-driver")
+                    .retrieve()
+                    .toBodilessEntity();
+            assertThat(repository(nodeB).findById("lost-driver")).isNull();
+
+            // When: the driver's next ping reaches A
+            clientA.put().uri("/drivers/{driverId}/location?x={x}&y={y}", "lost-driver", border - PARTITION_SIZE / 2, y)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            // Then
+            Driver driver = repository(nodeA).findById("lost-driver");
+            assertThat(driver.getLocation()).isEqualTo(new Location(border - PARTITION_SIZE / 2, y));
+            assertThat(driver.isAvailable()).isTrue();
+            assertThatThrownBy(() -> clientB.post().uri("/internal/cluster/drivers/{driverId}/handoff?node=a", "lost-driver")
+                    .retrieve()
+                    .toBodilessEntity())
+                    .isInstanceOfSatisfying(HttpClientErrorException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+
+        @Test
+        @DisplayName("Should keep a driver on a ride with the node that booked it")
+        void testBusyDriverStays() {
+            // Given: a driver on a ride in B's partition
+            double y = row(2);
+            double border = border(y);
+            register(clientB, "busy-driver", border + PARTITION_SIZE / 2, y);
+            RideResponse ride = clientB.post().uri("/rides")
+                    .body(new RideRequest("rider-2", border + PARTITION_SIZE / 2, y))
+                    .retrieve()
+                    .body(RideResponse.class);
+
+            // When: the driver enters A's partition with the rider on board
+            clientA.put().uri("/drivers/{driverId}/location?x={x}&y={y}", "busy-driver", border - PARTITION_SIZE / 2, y)
+                    .retrieve()
+                    .toBodilessEntity();
+
+            // Then
+            assertThat(ride.driverId()).isEqualTo("busy-driver");
+            assertThat(repository(nodeA).findById("busy-driver")).isNull();
+            assertThat(repository(nodeB).findById("busy-driver").getLocation())
+                    .isEqualTo(new Location(border - PARTITION_SIZE / 2, y));
+        }
+
+        @Test
+        @DisplayName("Should match a closer driver across the partition border")
+        void testBorderFanOut() {
+            // Given: the pickup is in A's partition, A's only driver is far away and B's is just across the border
+            double y = row(3);
+            double border = border(y);
+            register(clientA, "far-driver", border - PARTITION_SIZE + 0.25, y);
+            register(clientA, "border-driver", border + 0.2, y);
+
+            // When
+            RideResponse ride = clientA.post().uri("/rides")
+                    .body(new RideRequest("rider-3", border - 0.1, y))
+                    .retrieve()
+                    .body(RideResponse.class);
+
+            // Then
+            assertThat(repository(nodeA).findById("far-driver")).isNotNull();
+            assertThat(repository(nodeB).findById("border-driver")).isNotNull();
+            assertThat(ride.driverId()).isEqualTo("border-driver");
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, int portA, int portB) {
+        // Command line arguments, so they override application.yaml
+        return new SpringApplicationBuilder(RideMatchingServiceApplication.class).run(
+                "--server.port=" + ("a".equals(nodeId) ? portA : portB),
+                "--cluster.enabled=true",
+                "--cluster.node-id=" + nodeId,
+                "--cluster.partition-level=" + PARTITION_LEVEL,
+                "--cluster.nodes[0].id=a",
+                "--cluster.nodes[0].url=http://localhost:" + portA,
+                "--cluster.nodes[1].id=b",
+                "--cluster.nodes[1].url=http://localhost:" + portB
+        );
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Centre line of a row of partitions, so each test works on its own drivers
+    private static double row(int index) {
+        return (index * 4 + 0.5) * PARTITION_SIZE;
+    }
+
+    // Finds x where a partition owned by A is followed by one owned by B
+    private static double border(double y) {
+        ClusterRouter router = nodeA.getBean(ClusterRouter.class);
+        for (int px = 0; px < 1_000; px++) {
+            String left = router.ownerOf(new Location((px + 0.5) * PARTITION_SIZE, y));
+            String right = router.ownerOf(new Location((px + 1.5) * PARTITION_SIZE, y));
+            if ("a".equals(left) && "b".equals(right)) {
+                return (px + 1) * PARTITION_SIZE;
+            }
+        }
+        throw new IllegalStateException("No A/B border in row " + y);
+    }
+
+    private static void register(RestClient client, String driverId, double x, double y) {
+        client.post().uri("/drivers")
+                .body(new DriverRegistrationRequest(driverId, x, y))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private static List<DriverResponse> availableDrivers(RestClient client, double x, double y) {
+        return client.get().uri("/rides/available-drivers?x={x}&y={y}&limit=1", x, y)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>() {
+                });
+    }
+
+    private static DriverRepository repository(ConfigurableApplicationContext node) {
+        return node.getBean(DriverRepository.class);
+    }
+}
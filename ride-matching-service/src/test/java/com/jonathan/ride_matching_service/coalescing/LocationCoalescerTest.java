@@ -0,0 +1,128 @@
+package com.jonathan.ride_matching_service.coalescing;
+
+import com.jonathan.ride_matching_service.config.CoalescingProperties;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverListener;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LocationCoalescer Tests")
+class LocationCoalescerTest {
+
+    private DriverRepository driverRepository;
+    private LocationCoalescer locationCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = new DriverRepository();
+        locationCoalescer = new LocationCoalescer(new CoalescingProperties(true, Duration.ofMillis(250), 1.0, 4));
+    }
+
+    @Nested
+    @DisplayName("Coalescing Tests")
+    class CoalescingTests {
+
+        @Test
+        @DisplayName("Should publish only the latest of several small moves, at flush time")
+        void testCoalescesSmallMoves() {
+            // Given
+            Driver driver = new Driver("driver-1", new Location(0, 0));
+            driverRepository.save(driver);
+            AtomicInteger published = new AtomicInteger();
+            driverRepository.addListener(new DriverListener() {
+                @Override
+                public void onLocationChanged(Driver changed) {
+                    published.incrementAndGet();
+                }
+            });
+
+            // When
+            locationCoalescer.submit(driver, 0.1, 0.1);
+            locationCoalescer.submit(driver, 0.2, 0.2);
+            locationCoalescer.submit(driver, 0.3, 0.3);
+
+            // Then
+            assertThat(driver.getLocation()).isEqualTo(new Location(0, 0));
+            assertThat(locationCoalescer.flush()).isEqualTo(1);
+            assertThat(driver.getLocation()).isEqualTo(new Location(0.3, 0.3));
+            assertThat(published).hasValue(1);
+            assertThat(locationCoalescer.flush()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should publish a move beyond the immediate distance at once")
+        void testPublishesLargeMoveImmediately() {
+            // Given
+            Driver driver = new Driver("driver-1", new Location(0, 0));
+
+            // When
+            boolean immediate = locationCoalescer.submit(driver, 5, 5);
+
+            // Then
+            assertThat(immediate).isTrue();
+            assertThat(driver.getLocation()).isEqualTo(new Location(5, 5));
+        }
+
+        @Test
+        @DisplayName("Should keep every driver's own latest position across table growth")
+        void testManyDrivers() {
+            // Given
+            Driver[] drivers = new Driver[1_000];
+            for (int i = 0; i < drivers.length; i++) {
+                drivers[i] = new Driver("driver-" + i, new Location(i, 0));
+            }
+
+            // When
+            for (int round = 1; round <= 3; round++) {
+                for (int i = 0; i < drivers.length; i++) {
+                    locationCoalescer.submit(drivers[i], i, round * 0.1);
+                }
+            }
+            int flushed = locationCoalescer.flush();
+
+            // Then
+            assertThat(flushed).isEqualTo(drivers.length);
+            for (int i = 0; i < drivers.length; i++) {
+                assertThat(drivers[i].getLocation()).isEqualTo(new Location(i, 3 * 0.1));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Driver Service Tests")
+    class DriverServiceTests {
+
+        @Test
+        @DisplayName("Should apply availability at once and the position at the next flush")
+        void testUpdateDriverWithCoalescing() {
+            // Given
+            DriverService driverService = new DriverServiceImpl(driverRepository, new DriverMapper(), Optional.of(locationCoalescer));
+            driverService.registerDriver("driver-1", new Location(0, 0));
+
+            // When
+            DriverResponse response = driverService.updateDriver("driver-1", new Location(0.5, 0.5), false);
+
+            // Then
+            assertThat(response).isEqualTo(new DriverResponse("driver-1", 0.5, 0.5, false));
+            assertThat(driverRepository.findById("driver-1").isAvailable()).isFalse();
+            assertThat(driverRepository.findById("driver-1").getLocation()).isEqualTo(new Location(0, 0));
+
+            locationCoalescer.flush();
+            assertThat(driverRepository.findById("driver-1").getLocation()).isEqualTo(new Location(0.5, 0.5));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.jonathan.ride_matching_service.codec;
+
+import com.jonathan.ride_matching_service.controller.RideController;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RideController.class)
+@DisplayName("Binary Content Negotiation Tests")
+class BinaryHttpMessageConverterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RideService rideService;
+
+    @MockitoBean
+    private MatchingService matchingService;
+
+    @Test
+    @DisplayName("Should encode available drivers in binary when requested")
+    void testAvailableDriversBinary() throws Exception {
+        // Given
+        List<DriverResponse> drivers = List.of(
+                new DriverResponse("driver-1", 1.5, -2.25, true),
+                new DriverResponse("driver-2", 3, 4, true)
+        );
+        when(matchingService.findNearestAvailableDrivers(any(Location.class), anyInt())).thenReturn(drivers);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/rides/available-drivers")
+                        .param("x", "0")
+                        .param("y", "0")
+                        .accept(BinaryHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryHttpMessageConverter.MEDIA_TYPE))
+                .andReturn();
+
+        // Then
+        byte[] body = result.getResponse().getContentAsByteArray();
+        List<DriverResponse> decoded = BinaryCodec.readDrivers(new DataInputStream(new ByteArrayInputStream(body)));
+        assertThat(decoded).isEqualTo(drivers);
+    }
+
+    @Test
+    @DisplayName("Should encode ride response in binary when requested")
+    void testRideResponseBinary() throws Exception {
+        // Given
+        RideResponse ride = new RideResponse("ride-1", "driver-1", "rider-1", 12, 22);
+        when(rideService.requestRide(anyString(), any(Location.class), isNull())).thenReturn(ride);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/rides")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"riderId\":\"rider-1\",\"x\":12,\"y\":22}")
+                        .accept(BinaryHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(BinaryCodec.readRide(new DataInputStream(new ByteArrayInputStream(body)))).isEqualTo(ride);
+    }
+
+    @Test
+    @DisplayName("Should keep JSON as the default response format")
+    void testJsonRemainsDefault() throws Exception {
+        // Given
+        when(matchingService.findNearestAvailableDrivers(any(Location.class), anyInt()))
+                .thenReturn(List.of(new DriverResponse("driver-1", 1, 2, true)));
+
+        // When & Then
+        mockMvc.perform(get("/rides/available-drivers")
+                        .param("x", "0")
+                        .param("y", "0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
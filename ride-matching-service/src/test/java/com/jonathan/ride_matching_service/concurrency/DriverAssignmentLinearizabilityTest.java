@@ -0,0 +1,236 @@
+package com.jonathan.ride_matching_service.concurrency;
+
+import com.jonathan.ride_matching_service.coalescing.LocationCoalescer;
+import com.jonathan.ride_matching_service.config.CoalescingProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Records histories of concurrent requests, completions and driver updates against the real
+ * services and checks each driver's sub-history against a sequential model of one driver: a
+ * driver is assigned only while idle and available, freed only by completing its own ride, and
+ * cannot make itself available while on a ride. A double assignment has no linearization.
+ * <p>
+ * Requests that found no driver are left out: whether one should have is a property of all
+ * drivers at once, not of a single driver's history.
+ */
+@DisplayName("Driver Assignment Linearizability Tests")
+class DriverAssignmentLinearizabilityTest {
+
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 3000;
+    private static final int DRIVERS = 6;
+    private static final long SEED = 42;
+
+    private enum Kind { ASSIGN, COMPLETE, SET_AVAILABLE, NO_DRIVER }
+
+    // For SET_AVAILABLE, requested is the availability asked for and result the one reported
+    private record Operation(Kind kind, String driverId, String rideId, boolean requested, boolean result,
+                             long invoked, long returned) implements LinearizabilityChecker.Timed {
+    }
+
+    // A driver as the sequential model sees it; rideId is null while idle
+    private record DriverModel(boolean available, String rideId) {
+
+        static final DriverModel INITIAL = new DriverModel(true, null);
+    }
+
+    private static DriverModel step(DriverModel state, Operation operation) {
+        return switch (operation.kind()) {
+            case ASSIGN -> state.available() && state.rideId() == null ? new DriverModel(false, operation.rideId()) : null;
+            case COMPLETE -> operation.rideId().equals(state.rideId()) ? new DriverModel(true, null) : null;
+            case SET_AVAILABLE -> {
+                if (!operation.requested()) {
+                    yield operation.result() ? null : new DriverModel(false, state.rideId());
+                }
+                if (state.rideId() != null) {
+                    yield operation.result() ? null : state;
+                }
+                yield operation.result() ? new DriverModel(true, null) : null;
+            }
+            case NO_DRIVER -> throw new IllegalArgumentException("Not an operation on one driver");
+        };
+    }
+
+    private static Optional<Operation> check(List<Operation> history) {
+        Map<String, List<Operation>> byDriver = history.stream()
+                .filter(operation -> operation.kind() != Kind.NO_DRIVER)
+                .collect(Collectors.groupingBy(Operation::driverId));
+        for (List<Operation> driverHistory : byDriver.values()) {
+            Optional<Operation> failure = LinearizabilityChecker.check(driverHistory, DriverModel.INITIAL,
+                    DriverAssignmentLinearizabilityTest::step);
+            if (failure.isPresent()) {
+                return failure;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Nested
+    @DisplayName("Checker Tests")
+    class CheckerTests {
+
+        @Test
+        @DisplayName("Should accept overlapping operations that some order explains")
+        void testAcceptsConcurrentHistory() {
+            // Given - the completion overlaps the second assignment, so it may take effect first
+            List<Operation> history = List.of(
+                    new Operation(Kind.ASSIGN, "driver-1", "ride-1", false, false, 1, 2),
+                    new Operation(Kind.ASSIGN, "driver-1", "ride-2", false, false, 3, 6),
+                    new Operation(Kind.COMPLETE, "driver-1", "ride-1", false, false, 4, 5));
+
+            // Then
+            assertThat(check(history)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should reject a driver assigned to a second ride before the first completed")
+        void testRejectsDoubleAssignment() {
+            // Given
+            List<Operation> history = List.of(
+                    new Operation(Kind.ASSIGN, "driver-1", "ride-1", false, false, 1, 2),
+                    new Operation(Kind.ASSIGN, "driver-1", "ride-2", false, false, 3, 4),
+                    new Operation(Kind.COMPLETE, "driver-1", "ride-1", false, false, 5, 6));
+
+            // Then
+            assertThat(check(history)).isPresent();
+        }
+
+        @Test
+        @DisplayName("Should reject a driver that made itself available during a ride")
+        void testRejectsAvailableDuringRide() {
+            // Given
+            List<Operation> history = List.of(
+                    new Operation(Kind.ASSIGN, "driver-1", "ride-1", false, false, 1, 2),
+                    new Operation(Kind.SET_AVAILABLE, "driver-1", null, true, true, 3, 4));
+
+            // Then
+            assertThat(check(history)).isPresent();
+        }
+    }
+
+    @Nested
+    @DisplayName("Service Tests")
+    class ServiceTests {
+
+        @Test
+        @DisplayName("Concurrent requests, completions and driver updates should be linearizable per driver")
+        void testServicesAreLinearizable() throws Exception {
+            // Given
+            DriverService driverService = new DriverServiceImpl(new DriverRepository(), new DriverMapper());
+
+            // Then
+            runAndCheck(driverService);
+        }
+
+        @Test
+        @DisplayName("Should stay linearizable with coalesced driver updates")
+        void testCoalescedServicesAreLinearizable() throws Exception {
+            // Given
+            LocationCoalescer locationCoalescer = new LocationCoalescer(new CoalescingProperties(true, Duration.ofMillis(250), 1.0, 16));
+            DriverService driverService = new DriverServiceImpl(new DriverRepository(), new DriverMapper(), Optional.of(locationCoalescer));
+
+            // Then
+            runAndCheck(driverService);
+        }
+    }
+
+    private static void runAndCheck(DriverService driverService) throws Exception {
+        // Given
+        RideService rideService = new RideServiceImpl(new MatchingServiceImpl(driverService, new DriverMapper()),
+                new RideRepository(), new RideMapper());
+        for (int i = 0; i < DRIVERS; i++) {
+            driverService.registerDriver("driver-" + i, new Location(i, i));
+        }
+        AtomicLong clock = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startLatch = new CountDownLatch(THREADS);
+
+        // When
+        List<Future<List<Operation>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                startLatch.countDown();
+                startLatch.await();
+                return run(thread, driverService, rideService, clock);
+            }));
+        }
+        List<Operation> history = new ArrayList<>();
+        for (Future<List<Operation>> future : futures) {
+            history.addAll(future.get());
+        }
+        executor.shutdown();
+
+        // Then - the run raced assignments with refused availability updates
+        assertThat(history).filteredOn(operation -> operation.kind() == Kind.ASSIGN).isNotEmpty();
+        assertThat(history).filteredOn(operation -> operation.kind() == Kind.SET_AVAILABLE
+                && operation.requested() && !operation.result()).isNotEmpty();
+        assertThat(check(history)).as("operation without a linearization").isEmpty();
+    }
+
+    // One thread's operations; each completes only rides this thread requested
+    private static List<Operation> run(int thread, DriverService driverService, RideService rideService, AtomicLong clock) {
+        SplittableRandom random = new SplittableRandom(SEED + thread);
+        List<Operation> history = new ArrayList<>();
+        List<RideResponse> rides = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 40 || (roll < 65 && rides.isEmpty())) {
+                Location pickup = new Location(random.nextDouble(DRIVERS), random.nextDouble(DRIVERS));
+                long invoked = clock.incrementAndGet();
+                try {
+                    RideResponse ride = rideService.requestRide("rider-" + thread + "-" + i, pickup);
+                    history.add(new Operation(Kind.ASSIGN, ride.driverId(), ride.rideId(), false, false, invoked, clock.incrementAndGet()));
+                    rides.add(ride);
+                } catch (NotFoundException e) {
+                    history.add(new Operation(Kind.NO_DRIVER, null, null, false, false, invoked, clock.incrementAndGet()));
+                }
+            } else if (roll < 65) {
+                RideResponse ride = rides.remove(random.nextInt(rides.size()));
+                long invoked = clock.incrementAndGet();
+                rideService.completeRide(ride.rideId());
+                history.add(new Operation(Kind.COMPLETE, ride.driverId(), ride.rideId(), false, false, invoked, clock.incrementAndGet()));
+            } else if (roll < 80) {
+                String driverId = "driver-" + random.nextInt(DRIVERS);
+                boolean available = random.nextInt(4) != 0;
+                Location location = new Location(random.nextDouble(DRIVERS), random.nextDouble(DRIVERS));
+                long invoked = clock.incrementAndGet();
+                boolean result = driverService.updateDriver(driverId, location, available).available();
+                history.add(new Operation(Kind.SET_AVAILABLE, driverId, null, available, result, invoked, clock.incrementAndGet()));
+            } else {
+                // Pings leave availability alone, so they are not part of the history
+                driverService.updateDriverLocation("driver-" + random.nextInt(DRIVERS), random.nextDouble(DRIVERS), random.nextDouble(DRIVERS));
+            }
+        }
+        return history;
+    }
+}
@@ -0,0 +1,107 @@
+package com.jonathan.ride_matching_service.concurrency;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverState;
+import com.jonathan.ride_matching_service.model.Location;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Driver State Concurrency Tests")
+class DriverStateConcurrencyTest {
+
+    private static final int WRITES = 500_000;
+
+    @Test
+    @DisplayName("Readers should never see a position with the availability of another version")
+    void testSnapshotsAreConsistent() throws Exception {
+        // Given - even positions are published as available, odd ones as unavailable
+        Driver driver = new Driver("driver-1", new Location(0, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch startLatch = new CountDownLatch(3);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger torn = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+
+        // When
+        Future<?> writer = executor.submit(() -> {
+            startLatch.countDown();
+            awaitStart(startLatch);
+            for (int i = 1; i <= WRITES; i++) {
+                driver.updateState(i, i, i % 2 == 0);
+            }
+            writing.set(false);
+        });
+        Runnable reader = () -> {
+            startLatch.countDown();
+            awaitStart(startLatch);
+            while (writing.get()) {
+                DriverState state = driver.getState();
+                if (state.x() != state.y() || state.available() != (state.x() % 2 == 0)) {
+                    torn.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        };
+        Future<?> reader1 = executor.submit(reader);
+        Future<?> reader2 = executor.submit(reader);
+
+        writer.get();
+        reader1.get();
+        reader2.get();
+        executor.shutdown();
+
+        // Then
+        assertThat(reads.get()).isPositive();
+        assertThat(torn).hasValue(0);
+        assertThat(driver.getState()).isEqualTo(new DriverState(WRITES, WRITES, true));
+    }
+
+    @Test
+    @DisplayName("Claims racing with position writes should neither be lost nor duplicated")
+    void testClaimsDuringPings() throws Exception {
+        // Given
+        Driver driver = new Driver("driver-1", new Location(0, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean pinging = new AtomicBoolean(true);
+        AtomicInteger claims = new AtomicInteger();
+
+        // When - the driver is claimed and released while its position keeps changing
+        Future<?> pinger = executor.submit(() -> {
+            for (int i = 0; pinging.get(); i++) {
+                driver.updateLocation(i & 1023, i & 511);
+            }
+        });
+        for (int i = 0; i < 100_000; i++) {
+            if (driver.tryMarkUnavailable()) {
+                claims.incrementAndGet();
+                assertThat(driver.isAvailable()).isFalse();
+                assertThat(driver.tryMarkUnavailable()).isFalse();
+                driver.release();
+            }
+        }
+        pinging.set(false);
+        pinger.get();
+        executor.shutdown();
+
+        // Then
+        assertThat(claims).hasValue(100_000);
+        assertThat(driver.isAvailable()).isTrue();
+    }
+
+    private static void awaitStart(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
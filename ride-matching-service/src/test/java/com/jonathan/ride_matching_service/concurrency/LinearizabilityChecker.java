@@ -0,0 +1,122 @@
+package com.jonathan.ride_matching_service.concurrency;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Decides whether a concurrent history is linearizable against a sequential model, with the
+ * Wing &amp; Gong search and Lowe's memoisation of (linearized set, state) pairs.
+ * <p>
+ * Operations are linearized one at a time, earliest call first; an operation whose return is
+ * reached before it was linearized backtracks the last choice. Checking each object's
+ * sub-history on its own is equivalent and much cheaper, so callers partition by object.
+ */
+final class LinearizabilityChecker {
+
+    /**
+     * An operation of the history, stamped from one global counter when it was invoked and when
+     * it returned.
+     */
+    interface Timed {
+
+        long invoked();
+
+        long returned();
+    }
+
+    private LinearizabilityChecker() {
+    }
+
+    private record Frame<S>(int call, S state) {
+    }
+
+    private record Visited<S>(BitSet linearized, S state) {
+    }
+
+    /**
+     * @param step the model: the state after applying the operation with its recorded result, or
+     *             null if the model could not have produced that result
+     * @return an operation that no linearization can place, or empty if the history is linearizable
+     */
+    static <O extends Timed, S> Optional<O> check(List<O> history, S initial, BiFunction<S, O, S> step) {
+        int n = history.size();
+        // Events 2i and 2i + 1 are the call and return of operation i; head and tail are sentinels
+        int head = 2 * n;
+        int tail = 2 * n + 1;
+        int[] next = new int[2 * n + 2];
+        int[] prev = new int[2 * n + 2];
+        int[] events = IntStream.range(0, 2 * n).boxed()
+                .sorted(Comparator.comparingLong(e -> e % 2 == 0 ? history.get(e / 2).invoked() : history.get(e / 2).returned()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int last = head;
+        for (int event : events) {
+            next[last] = event;
+            prev[event] = last;
+            last = event;
+        }
+        next[last] = tail;
+        prev[tail] = last;
+
+        S state = initial;
+        BitSet linearized = new BitSet(n);
+        Set<Visited<S>> visited = new HashSet<>();
+        Deque<Frame<S>> stack = new ArrayDeque<>();
+        int event = next[head];
+        while (next[head] != tail) {
+            int op = event / 2;
+            if (event % 2 == 0) {
+                S after = step.apply(state, history.get(op));
+                if (after != null) {
+                    BitSet with = (BitSet) linearized.clone();
+                    with.set(op);
+                    if (visited.add(new Visited<>(with, after))) {
+                        stack.push(new Frame<>(event, state));
+                        state = after;
+                        linearized.set(op);
+                        lift(event, next, prev);
+                        event = next[head];
+                        continue;
+                    }
+                }
+                event = next[event];
+            } else {
+                // The operation returned before any order could place it: undo the last choice
+                if (stack.isEmpty()) {
+                    return Optional.of(history.get(op));
+                }
+                Frame<S> frame = stack.pop();
+                state = frame.state();
+                linearized.clear(frame.call() / 2);
+                unlift(frame.call(), next, prev);
+                event = next[frame.call()];
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Unlinks a call and its return; their own links are kept to put them back
+    private static void lift(int call, int[] next, int[] prev) {
+        next[prev[call]] = next[call];
+        prev[next[call]] = prev[call];
+        int ret = call + 1;
+        next[prev[ret]] = next[ret];
+        prev[next[ret]] = prev[ret];
+    }
+
+    private static void unlift(int call, int[] next, int[] prev) {
+        int ret = call + 1;
+        prev[next[ret]] = ret;
+        next[prev[ret]] = ret;
+        prev[next[call]] = call;
+        next[prev[call]] = call;
+    }
+}
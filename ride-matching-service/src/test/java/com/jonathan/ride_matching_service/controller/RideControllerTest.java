@@ -0,0 +1,88 @@
+package com.jonathan.ride_matching_service.controller;
+
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.RideService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RideController.class)
+@DisplayName("RideController Tests")
+class RideControllerTest {
+
+    private static final RideResponse RIDE = new RideResponse("ride-1", "driver-1", "rider-1", 1, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RideService rideService;
+
+    @MockitoBean
+    private MatchingService matchingService;
+
+    @Nested
+    @DisplayName("Shared Ride Tests")
+    class SharedRideTests {
+
+        @Test
+        @DisplayName("Should request a shared ride when the rider asks for one and gives a drop-off")
+        void testSharedRide() throws Exception {
+            // Given
+            when(rideService.requestSharedRide("rider-1", new Location(1, 0), new Location(10, 0), null)).thenReturn(RIDE);
+
+            // When & Then
+            mockMvc.perform(post("/rides")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"riderId\":\"rider-1\",\"x\":1,\"y\":0,\"dropoffX\":10,\"dropoffY\":0,\"shared\":true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rideId").value("ride-1"));
+            verify(rideService, never()).requestRide(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should request a solo ride when the shared flag comes without a drop-off")
+        void testSharedWithoutDropoff() throws Exception {
+            // Given
+            when(rideService.requestRide("rider-1", new Location(1, 0), null)).thenReturn(RIDE);
+
+            // When & Then
+            mockMvc.perform(post("/rides")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"riderId\":\"rider-1\",\"x\":1,\"y\":0,\"shared\":true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rideId").value("ride-1"));
+            verify(rideService, never()).requestSharedRide(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should request a solo ride when the drop-off comes without the shared flag")
+        void testDropoffWithoutShared() throws Exception {
+            // Given
+            when(rideService.requestRide(any(), any(Location.class), isNull())).thenReturn(RIDE);
+
+            // When & Then
+            mockMvc.perform(post("/rides")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"riderId\":\"rider-1\",\"x\":1,\"y\":0,\"dropoffX\":10,\"dropoffY\":0,\"shared\":false}"))
+                    .andExpect(status().isOk());
+            verify(rideService, never()).requestSharedRide(any(), any(), any(), any());
+        }
+    }
+}
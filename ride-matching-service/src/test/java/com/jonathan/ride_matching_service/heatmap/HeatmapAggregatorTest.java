@@ -0,0 +1,190 @@
+package com.jonathan.ride_matching_service.heatmap;
+
+import com.jonathan.ride_matching_service.config.HeatmapProperties;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import com.jonathan.ride_matching_service.testing.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("HeatmapAggregator Tests")
+class HeatmapAggregatorTest {
+
+    private ManualClock clock;
+    private DriverRepository driverRepository;
+    private DriverService driverService;
+    private HeatmapAggregator heatmap;
+    private RideService rideService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        driverRepository = new DriverRepository();
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        heatmap = new HeatmapAggregator(driverRepository,
+                new HeatmapProperties(true, 17, Duration.ofSeconds(10), Duration.ofMinutes(1)), clock);
+        rideService = RideServiceImpl.builder(new MatchingServiceImpl(driverService, new DriverMapper()),
+                new RideRepository(), new RideMapper()).heatmap(heatmap).build();
+    }
+
+    @Nested
+    @DisplayName("Supply Tests")
+    class SupplyTests {
+
+        @Test
+        @DisplayName("Supply should follow registration, claims, releases, cell changes and removal")
+        void testSupplyTransitions() {
+            // Given
+            driverService.registerDriver("driver-1", new Location(1, 1));
+            driverService.registerDriver("driver-2", new Location(2, 2));
+            Driver driver = driverRepository.findById("driver-1");
+
+            // Then
+            assertThat(supply(1, 1)).isEqualTo(2);
+
+            // When
+            driver.tryMarkUnavailable();
+
+            // Then
+            assertThat(supply(1, 1)).isEqualTo(1);
+
+            // When: a busy driver crossing cells does not count anywhere
+            driverService.updateDriverLocation("driver-1", 10, 1);
+            driver.release();
+
+            // Then
+            assertThat(supply(1, 1)).isEqualTo(1);
+            assertThat(supply(10, 1)).isEqualTo(1);
+
+            // When
+            driverRepository.remove(driver);
+
+            // Then
+            assertThat(supply(10, 1)).isZero();
+        }
+
+        @Test
+        @DisplayName("Supply should follow the driver re-registered under a removed driver's handle")
+        void testHandleReuse() {
+            // Given: enough drivers to grow the per-handle table
+            for (int i = 0; i < 100; i++) {
+                driverService.registerDriver("driver-" + i, new Location(1, 1));
+            }
+            Driver removed = driverRepository.findById("driver-7");
+            driverRepository.remove(removed);
+            driverService.registerDriver("driver-7", new Location(10, 1));
+
+            // When: the removed driver is claimed and its callback arrives late
+            removed.tryMarkUnavailable();
+            heatmap.onAvailabilityChanged(removed, false);
+
+            // Then
+            assertThat(supply(1, 1)).isEqualTo(99);
+            assertThat(supply(10, 1)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Supply should match the available drivers after concurrent updates")
+        void testConcurrentTransitions() throws InterruptedException {
+            // Given
+            for (int i = 0; i < 20; i++) {
+                driverService.registerDriver("driver-" + i, new Location(0, 0));
+            }
+
+            // When: threads move drivers between cells and claim and release them
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        Driver driver = driverRepository.findById("driver-" + random.nextInt(20));
+                        switch (random.nextInt(3)) {
+                            case 0 -> driver.updateLocation(random.nextInt(3) * 4, 0);
+                            case 1 -> driver.tryMarkUnavailable();
+                            default -> driver.release();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Then
+            long available = driverRepository.findAll().stream().filter(Driver::isAvailable).count();
+            int counted = heatmap.snapshot(Duration.ofMinutes(1)).cells().stream().mapToInt(HeatmapCell::supply).sum();
+            assertThat(counted).isEqualTo(available);
+        }
+    }
+
+    @Nested
+    @DisplayName("Demand Tests")
+    class DemandTests {
+
+        @Test
+        @DisplayName("Should count matched and unmatched requests over sliding windows")
+        void testDemandWindows() {
+            // Given
+            driverService.registerDriver("driver-1", new Location(1, 1));
+            rideService.requestRide("rider-1", new Location(1, 1));
+            assertThatThrownBy(() -> rideService.requestRide("rider-2", new Location(1, 1)));
+
+            // When
+            clock.advance(Duration.ofSeconds(30));
+            assertThatThrownBy(() -> rideService.requestRide("rider-3", new Location(2, 2)));
+
+            // Then
+            HeatmapCell lastTenSeconds = cell(heatmap.snapshot(Duration.ofSeconds(10)), 1, 1);
+            HeatmapCell lastMinute = cell(heatmap.snapshot(Duration.ofMinutes(1)), 1, 1);
+            assertThat(lastTenSeconds.requests()).isEqualTo(1);
+            assertThat(lastTenSeconds.unmatched()).isEqualTo(1);
+            assertThat(lastMinute.requests()).isEqualTo(3);
+            assertThat(lastMinute.unmatched()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Cells without supply should drop out once their demand leaves the retention")
+        void testRetention() {
+            // Given
+            assertThatThrownBy(() -> rideService.requestRide("rider-1", new Location(1, 1)));
+
+            // When
+            clock.advance(Duration.ofMinutes(2));
+
+            // Then
+            assertThat(heatmap.snapshot(Duration.ofMinutes(1)).cells()).isEmpty();
+        }
+    }
+
+    private int supply(double x, double y) {
+        HeatmapCell cell = cell(heatmap.snapshot(Duration.ofMinutes(1)), x, y);
+        return cell == null ? 0 : cell.supply();
+    }
+
+    private static HeatmapCell cell(Heatmap snapshot, double x, double y) {
+        return snapshot.cells().stream()
+                .filter(cell -> Math.abs(cell.x() - x) < snapshot.cellSize() / 2 && Math.abs(cell.y() - y) < snapshot.cellSize() / 2)
+                .findFirst()
+                .orElse(null);
+    }
+}
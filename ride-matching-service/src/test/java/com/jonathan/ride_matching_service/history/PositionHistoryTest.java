@@ -0,0 +1,130 @@
+package com.jonathan.ride_matching_service.history;
+
+import com.jonathan.ride_matching_service.config.HistoryProperties;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.testing.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PositionHistory Tests")
+class PositionHistoryTest {
+
+    private DriverRepository driverRepository;
+    private ManualClock clock;
+    private PositionHistory history;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = new DriverRepository();
+        clock = new ManualClock();
+        history = new PositionHistory(driverRepository,
+                new HistoryProperties(true, Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofSeconds(1), 1.0E-6),
+                clock);
+    }
+
+    @Nested
+    @DisplayName("Fleet Tests")
+    class FleetTests {
+
+        @Test
+        @DisplayName("Should reconstruct every driver's position at a past instant")
+        void testFleetAt() {
+            // Given
+            Driver moving = new Driver("driver-1", new Location(0, 0));
+            Driver parked = new Driver("driver-2", new Location(5.25, -3.5));
+            driverRepository.save(moving);
+            driverRepository.save(parked);
+            Instant start = clock.instant();
+            history.sample();
+            for (int i = 1; i <= 300; i++) {
+                clock.advance(Duration.ofSeconds(1));
+                moving.updateLocation(i * 0.001, 0);
+                history.sample();
+            }
+
+            // When
+            List<PositionSample> atStart = history.fleetAt(start);
+            List<PositionSample> later = history.fleetAt(start.plusSeconds(150).plusMillis(500));
+
+            // Then
+            assertThat(atStart).containsExactlyInAnyOrder(
+                    new PositionSample("driver-1", 0, 0, start),
+                    new PositionSample("driver-2", 5.25, -3.5, start));
+            // Parked since the first segment, yet found from 2 segments later
+            assertThat(later).containsExactlyInAnyOrder(
+                    new PositionSample("driver-1", 0.15, 0, start.plusSeconds(150)),
+                    new PositionSample("driver-2", 5.25, -3.5, start));
+            assertThat(history.fleetAt(start.minusSeconds(1))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should forget positions older than the retention")
+        void testRetention() {
+            // Given
+            driverRepository.save(new Driver("driver-1", new Location(1, 1)));
+            Instant recorded = clock.instant();
+            history.sample();
+
+            // When
+            clock.advance(Duration.ofMinutes(11));
+
+            // Then
+            assertThatThrownBy(() -> history.fleetAt(recorded)).isInstanceOf(BadRequestException.class);
+            assertThat(history.fleetAt(clock.instant())).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Trajectory Tests")
+    class TrajectoryTests {
+
+        @Test
+        @DisplayName("Should replay a driver's positions in order, one per pass it moved in")
+        void testTrajectory() {
+            // Given
+            Driver driver = new Driver("driver-1", new Location(0, 0));
+            driverRepository.save(driver);
+            Instant start = clock.instant();
+            history.sample();
+            for (int i = 1; i <= 10; i++) {
+                clock.advance(Duration.ofMillis(250));
+                driver.updateLocation(i, -i);
+                if (i % 4 == 0 || i == 10) {
+                    history.sample();
+                }
+            }
+            clock.advance(Duration.ofSeconds(1));
+            history.sample();
+
+            // When
+            List<PositionSample> trajectory = history.trajectory("driver-1", start, clock.instant());
+
+            // Then
+            assertThat(trajectory).extracting(PositionSample::x).containsExactly(0.0, 4.0, 8.0, 10.0);
+            assertThat(trajectory).extracting(PositionSample::timestamp).isSorted();
+            assertThat(history.trajectory("driver-1", start.plusMillis(900), start.plusMillis(2100)))
+                    .extracting(PositionSample::x).containsExactly(4.0, 8.0);
+            // Without an end, up to the history's own clock
+            assertThat(history.trajectory("driver-1", start.plusMillis(900))).isEqualTo(trajectory.subList(1, 4));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown drivers")
+        void testUnknownDriver() {
+            assertThatThrownBy(() -> history.trajectory("driver-9", clock.instant(), clock.instant()))
+                    .isInstanceOf(NotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.jonathan.ride_matching_service.ids;
+
+import com.jonathan.ride_matching_service.config.RideIdProperties;
+import com.jonathan.ride_matching_service.testing.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SnowflakeRideIdGenerator Tests")
+class SnowflakeRideIdGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private ManualClock clock;
+    private SnowflakeRideIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        generator = new SnowflakeRideIdGenerator(new RideIdProperties("snowflake", 7, EPOCH), clock);
+    }
+
+    @Nested
+    @DisplayName("Ordering Tests")
+    class OrderingTests {
+
+        @Test
+        @DisplayName("Ids should be 16 hex digits that sort by creation time")
+        void testSortableIds() {
+            // Given
+            String first = generator.nextId();
+            clock.advance(Duration.ofMillis(1));
+            String second = generator.nextId();
+            clock.advance(Duration.ofHours(1));
+            String third = generator.nextId();
+
+            // Then
+            assertThat(first).hasSize(16).matches("[0-9a-f]{16}");
+            assertThat(first).isLessThan(second);
+            assertThat(second).isLessThan(third);
+            assertThat(generator.createdAt(third)).isEqualTo(clock.instant());
+            assertThat(generator.firstIdAt(clock.instant()))
+                    .isGreaterThan(second)
+                    .isLessThanOrEqualTo(third);
+        }
+
+        @Test
+        @DisplayName("Should stay unique and increasing when a millisecond's sequence runs out or the clock goes back")
+        void testSequenceOverflowAndClockRollback() {
+            // Given
+            Instant start = clock.instant();
+            List<String> ids = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < 5_000; i++) {
+                ids.add(generator.nextId());
+            }
+            clock.advance(Duration.ofMillis(-10));
+            for (int i = 0; i < 100; i++) {
+                ids.add(generator.nextId());
+            }
+
+            // Then
+            assertThat(ids).doesNotHaveDuplicates().isSorted();
+            assertThat(generator.createdAt(ids.get(4_999))).isAfter(start);
+        }
+
+        @Test
+        @DisplayName("Should reject node ids beyond 8 bits")
+        void testInvalidNodeId() {
+            assertThatThrownBy(() -> new SnowflakeRideIdGenerator(new RideIdProperties("snowflake", 256, EPOCH), clock))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Threads should never get the same id")
+        void testUniqueAcrossThreads() throws Exception {
+            // Given
+            SnowflakeRideIdGenerator live = new SnowflakeRideIdGenerator(new RideIdProperties("snowflake", 7, EPOCH));
+            int threads = 32;
+            int perThread = 5_000;
+            Set<String> ids = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+
+            // When
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(live.nextId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Then
+            assertThat(ids).hasSize(threads * perThread);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * A simulated city, generated lazily from a seed: the same seed and settings give the same events.
+ * <p>
+ * Every driver registers at a uniformly random position at the start, then pings every
+ * {@code pingInterval} (first ping at a random offset) after a Gaussian step of {@code step} per
+ * axis, reflected at the city border. Riders arrive as a Poisson process of {@code rate} per
+ * second with a uniformly random pickup, and complete their ride after an exponentially
+ * distributed trip of mean {@code trip}. Nothing is generated past {@code duration}, except that
+ * rides still open then are completed at that instant.
+ */
+public class CityWorkload implements Workload {
+
+    /**
+     * @param seed         seed of every random choice
+     * @param drivers      number of drivers
+     * @param citySize     positions and pickups lie in [0, citySize) on both axes
+     * @param step         standard deviation of a driver's move between pings, per axis
+     * @param pingInterval time between two pings of a driver
+     * @param rate         ride requests per second
+     * @param trip         mean time from a request to its completion
+     * @param duration     length of the run
+     * @param prefix       prefix of driver and rider ids, to keep runs against one instance apart
+     */
+    public record Settings(long seed, int drivers, double citySize, double step, Duration pingInterval,
+                           double rate, Duration trip, Duration duration, String prefix) {
+    }
+
+    private enum Type { PING, ARRIVAL, COMPLETION }
+
+    // Ties are broken by scheduling order, so the stream does not depend on the queue's internals
+    private record Scheduled(long at, long sequence, Type type, int driver, String rider) {
+    }
+
+    private final Settings settings;
+    private final SplittableRandom random;
+    private final double[] xs;
+    private final double[] ys;
+    private final long pingMillis;
+    private final long durationMillis;
+    private final PriorityQueue<Scheduled> queue = new PriorityQueue<>(
+            Comparator.comparingLong(Scheduled::at).thenComparingLong(Scheduled::sequence));
+
+    private long sequence;
+    private int registered;
+    private int riders;
+
+    public CityWorkload(Settings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed());
+        this.xs = new double[settings.drivers()];
+        this.ys = new double[settings.drivers()];
+        this.pingMillis = Math.max(1, settings.pingInterval().toMillis());
+        this.durationMillis = settings.duration().toMillis();
+
+        for (int driver = 0; driver < settings.drivers(); driver++) {
+            xs[driver] = random.nextDouble(settings.citySize());
+            ys[driver] = random.nextDouble(settings.citySize());
+            schedule(1 + random.nextLong(pingMillis), Type.PING, driver, null);
+        }
+        if (settings.rate() > 0) {
+            schedule(exponential(1000 / settings.rate()), Type.ARRIVAL, -1, null);
+        }
+    }
+
+    @Override
+    public LoadEvent next() {
+        if (registered < settings.drivers()) {
+            int driver = registered++;
+            return new LoadEvent(0, LoadEvent.Kind.REGISTER, driverId(driver), xs[driver], ys[driver]);
+        }
+        Scheduled next = queue.poll();
+        while (next != null && next.at() > durationMillis) {
+            // Rides still open at the end complete then, so drivers are not left busy on the instance
+            if (next.type() == Type.COMPLETION) {
+                return new LoadEvent(durationMillis, LoadEvent.Kind.COMPLETE, next.rider(), 0, 0);
+            }
+            next = queue.poll();
+        }
+        if (next == null) {
+            return null;
+        }
+        return switch (next.type()) {
+            case PING -> {
+                int driver = next.driver();
+                xs[driver] = walk(xs[driver]);
+                ys[driver] = walk(ys[driver]);
+                schedule(next.at() + pingMillis, Type.PING, driver, null);
+                yield new LoadEvent(next.at(), LoadEvent.Kind.PING, driverId(driver), xs[driver], ys[driver]);
+            }
+            case ARRIVAL -> {
+                String rider = settings.prefix() + "rider-" + riders++;
+                double x = random.nextDouble(settings.citySize());
+                double y = random.nextDouble(settings.citySize());
+                schedule(next.at() + Math.max(1, exponential(settings.trip().toMillis())), Type.COMPLETION, -1, rider);
+                schedule(next.at() + Math.max(1, exponential(1000 / settings.rate())), Type.ARRIVAL, -1, null);
+                yield new LoadEvent(next.at(), LoadEvent.Kind.REQUEST, rider, x, y);
+            }
+            case COMPLETION -> new LoadEvent(next.at(), LoadEvent.Kind.COMPLETE, next.rider(), 0, 0);
+        };
+    }
+
+    private String driverId(int driver) {
+        return settings.prefix() + "driver-" + driver;
+    }
+
+    private void schedule(long at, Type type, int driver, String rider) {
+        queue.add(new Scheduled(at, sequence++, type, driver, rider));
+    }
+
+    // A Gaussian step, reflected back into the city
+    private double walk(double coordinate) {
+        double size = settings.citySize();
+        double moved = Math.abs(coordinate + random.nextGaussian() * settings.step());
+        moved %= 2 * size;
+        return moved > size ? 2 * size - moved : moved;
+    }
+
+    private long exponential(double mean) {
+        return Math.round(-Math.log(1 - random.nextDouble()) * mean);
+    }
+}
@@ -0,0 +1,117 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CityWorkload Tests")
+class CityWorkloadTest {
+
+    private static CityWorkload.Settings settings(long seed) {
+        return new CityWorkload.Settings(seed, 50, 10, 0.5, Duration.ofSeconds(1), 20,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), "test-");
+    }
+
+    private static List<LoadEvent> drain(Workload workload) throws IOException {
+        List<LoadEvent> events = new ArrayList<>();
+        LoadEvent event;
+        while ((event = workload.next()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    @Nested
+    @DisplayName("Generation Tests")
+    class GenerationTests {
+
+        @Test
+        @DisplayName("Should generate the same events from the same seed, and others from another")
+        void testDeterministic() throws IOException {
+            // When
+            List<LoadEvent> first = drain(new CityWorkload(settings(7)));
+            List<LoadEvent> second = drain(new CityWorkload(settings(7)));
+            List<LoadEvent> other = drain(new CityWorkload(settings(8)));
+
+            // Then
+            assertThat(first).isEqualTo(second);
+            assertThat(first).isNotEqualTo(other);
+        }
+
+        @Test
+        @DisplayName("Should register, walk drivers inside the city and complete every requested ride")
+        void testCity() throws IOException {
+            // When
+            List<LoadEvent> events = drain(new CityWorkload(settings(1)));
+
+            // Then
+            assertThat(events).extracting(LoadEvent::at).isSorted();
+            assertThat(events).filteredOn(e -> e.kind() == LoadEvent.Kind.REGISTER).hasSize(50);
+            // One ping per driver per second
+            assertThat(events).filteredOn(e -> e.kind() == LoadEvent.Kind.PING).hasSize(50 * 30);
+            assertThat(events).filteredOn(e -> e.kind() != LoadEvent.Kind.COMPLETE)
+                    .allSatisfy(e -> assertThat(e.x()).isBetween(0.0, 10.0));
+            // Poisson arrivals at 20/s over 30 s
+            List<String> riders = events.stream().filter(e -> e.kind() == LoadEvent.Kind.REQUEST).map(LoadEvent::key).toList();
+            assertThat(riders).hasSizeBetween(500, 700);
+            assertThat(events).filteredOn(e -> e.kind() == LoadEvent.Kind.COMPLETE)
+                    .extracting(LoadEvent::key).containsExactlyInAnyOrderElementsOf(riders);
+            assertThat(events.get(events.size() - 1).at()).isLessThanOrEqualTo(30_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Trace Tests")
+    class TraceTests {
+
+        @Test
+        @DisplayName("Should replay a recorded trace event for event")
+        void testReplay(@TempDir Path directory) throws IOException {
+            // Given
+            List<LoadEvent> recorded = drain(new CityWorkload(settings(3)));
+            Path trace = directory.resolve("city.csv");
+            Files.write(trace, recorded.stream().map(LoadEvent::toCsv).toList());
+
+            // When
+            List<LoadEvent> replayed;
+            try (TraceWorkload workload = new TraceWorkload(trace)) {
+                replayed = drain(workload);
+            }
+
+            // Then
+            assertThat(replayed).isEqualTo(recorded);
+        }
+    }
+
+    @Nested
+    @DisplayName("Histogram Tests")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Should report quantiles within the bucket precision")
+        void testQuantiles() {
+            // Given
+            Histogram histogram = new Histogram();
+            for (long value = 1; value <= 100_000; value++) {
+                histogram.record(value);
+            }
+
+            // Then
+            assertThat(histogram.count()).isEqualTo(100_000);
+            assertThat(histogram.quantile(0.5)).isCloseTo(50_000, withinPercentage(1.6));
+            assertThat(histogram.quantile(0.99)).isCloseTo(99_000, withinPercentage(1.6));
+            assertThat(histogram.quantile(0.999)).isCloseTo(99_900, withinPercentage(1.6));
+            assertThat(histogram.quantile(0.001)).isEqualTo(100);
+        }
+    }
+}
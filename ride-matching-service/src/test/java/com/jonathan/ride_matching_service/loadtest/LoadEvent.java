@@ -0,0 +1,40 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import java.util.Locale;
+
+/**
+ * One step of a load run, stored in a trace as the CSV line {@code at,kind,key,x,y}.
+ *
+ * @param at   millis from the start of the run at which the event is due
+ * @param kind what to send
+ * @param key  the driver id, or the rider id of the ride request; a completion names the rider
+ *             whose ride it completes
+ * @param x    x of the driver's position or of the pickup
+ * @param y    y of the driver's position or of the pickup
+ */
+public record LoadEvent(long at, Kind kind, String key, double x, double y) {
+
+    public enum Kind {
+        /** {@code POST /drivers} */
+        REGISTER,
+        /** {@code PUT /drivers/{driverId}/location} */
+        PING,
+        /** {@code POST /rides} */
+        REQUEST,
+        /** {@code POST /rides/{rideId}/complete} of the rider's ride, if it was matched */
+        COMPLETE
+    }
+
+    public static LoadEvent parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Not a trace line: " + line);
+        }
+        return new LoadEvent(Long.parseLong(fields[0]), Kind.valueOf(fields[1]), fields[2],
+                Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+    }
+
+    public String toCsv() {
+        return String.format(Locale.ROOT, "%d,%s,%s,%s,%s", at, kind, key, x, y);
+    }
+}
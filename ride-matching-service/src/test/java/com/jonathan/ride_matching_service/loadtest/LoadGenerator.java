@@ -0,0 +1,91 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Simulates a city against a running instance and reports throughput, latency percentiles, match
+ * distance and unmatched rate. Runs through the {@code loadtest} profile:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest="--drivers=2000 --rate=50 --duration=60s --record=city.csv"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest="--replay=city.csv"
+ * </pre>
+ * Options, as {@code --name=value}:
+ * <ul>
+ *   <li>{@code url} – the instance, {@code http://localhost:8080} by default</li>
+ *   <li>{@code seed}, {@code drivers}, {@code city-size}, {@code step}, {@code ping-interval},
+ *       {@code rate}, {@code trip}, {@code duration}, {@code prefix} – the {@link CityWorkload}</li>
+ *   <li>{@code record} – writes the events sent to a trace file</li>
+ *   <li>{@code replay} – sends the events of a trace file instead of generating a city</li>
+ *   <li>{@code max-in-flight} – outstanding requests before sending waits, 1000 by default</li>
+ * </ul>
+ */
+public final class LoadGenerator {
+
+    private static final Set<String> OPTIONS = Set.of("url", "seed", "drivers", "city-size", "step", "ping-interval",
+            "rate", "trip", "duration", "prefix", "record", "replay", "max-in-flight");
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+
+        try (Workload workload = options.containsKey("replay")
+                ? new TraceWorkload(Path.of(options.get("replay")))
+                : new CityWorkload(settings(options));
+             BufferedWriter trace = options.containsKey("record") ? Files.newBufferedWriter(Path.of(options.get("record"))) : null) {
+            Consumer<LoadEvent> recorder = trace == null ? event -> {
+            } : event -> {
+                try {
+                    trace.write(event.toCsv());
+                    trace.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            System.out.printf("Running %s against %s%n", options.containsKey("replay") ? "trace " + options.get("replay") : settings(options), url);
+            LoadReport report = new LoadRunner(url, maxInFlight, recorder).run(workload);
+            report.print(System.out);
+        }
+    }
+
+    static CityWorkload.Settings settings(Map<String, String> options) {
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        return new CityWorkload.Settings(
+                seed,
+                Integer.parseInt(options.getOrDefault("drivers", "1000")),
+                Double.parseDouble(options.getOrDefault("city-size", "100")),
+                Double.parseDouble(options.getOrDefault("step", "0.05")),
+                DurationStyle.detectAndParse(options.getOrDefault("ping-interval", "1s")),
+                Double.parseDouble(options.getOrDefault("rate", "20")),
+                DurationStyle.detectAndParse(options.getOrDefault("trip", "30s")),
+                DurationStyle.detectAndParse(options.getOrDefault("duration", "60s")),
+                // Distinct per seed, so runs with different seeds against one instance do not collide
+                options.getOrDefault("prefix", "load-" + seed + "-"));
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !OPTIONS.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name in " + OPTIONS);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
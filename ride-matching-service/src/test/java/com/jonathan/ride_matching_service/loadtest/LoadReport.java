@@ -0,0 +1,129 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome of a load run, recorded concurrently from response callbacks.
+ * <p>
+ * Latencies are in microseconds from the time an event was due, not from the time it was sent,
+ * so a stalled server or client shows up in the tail instead of silently slowing the offered load.
+ */
+public class LoadReport {
+
+    // Match distances are recorded in thousandths of a coordinate unit
+    private static final double DISTANCE_SCALE = 1000;
+
+    private static final class KindStats {
+
+        final Histogram latency = new Histogram();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    private final Map<LoadEvent.Kind, KindStats> kinds = new EnumMap<>(LoadEvent.Kind.class);
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final Histogram matchDistance = new Histogram();
+
+    private volatile long elapsedNanos;
+
+    public LoadReport() {
+        for (LoadEvent.Kind kind : LoadEvent.Kind.values()) {
+            kinds.put(kind, new KindStats());
+        }
+    }
+
+    void ok(LoadEvent.Kind kind, long latencyMicros) {
+        kinds.get(kind).ok.incrementAndGet();
+        kinds.get(kind).latency.record(latencyMicros);
+    }
+
+    void error(LoadEvent.Kind kind, long latencyMicros) {
+        kinds.get(kind).errors.incrementAndGet();
+        kinds.get(kind).latency.record(latencyMicros);
+    }
+
+    void matched(long latencyMicros, double distance) {
+        ok(LoadEvent.Kind.REQUEST, latencyMicros);
+        matchDistance.record(Math.round(distance * DISTANCE_SCALE));
+    }
+
+    // No driver was available
+    void unmatched(long latencyMicros) {
+        unmatched.incrementAndGet();
+        kinds.get(LoadEvent.Kind.REQUEST).latency.record(latencyMicros);
+    }
+
+    // Shed by admission control
+    void rejected(long latencyMicros) {
+        rejected.incrementAndGet();
+        kinds.get(LoadEvent.Kind.REQUEST).latency.record(latencyMicros);
+    }
+
+    // A completion of a ride that was never matched
+    void skipped() {
+        skipped.incrementAndGet();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return responses received while the clock ran, i.e. to everything but registrations
+     */
+    public long responses() {
+        long responses = 0;
+        for (Map.Entry<LoadEvent.Kind, KindStats> entry : kinds.entrySet()) {
+            if (entry.getKey() != LoadEvent.Kind.REGISTER) {
+                responses += entry.getValue().latency.count();
+            }
+        }
+        return responses;
+    }
+
+    public long ok(LoadEvent.Kind kind) {
+        return kinds.get(kind).ok.get();
+    }
+
+    public long errors(LoadEvent.Kind kind) {
+        return kinds.get(kind).errors.get();
+    }
+
+    public long unmatched() {
+        return unmatched.get();
+    }
+
+    /**
+     * @return unmatched requests over requests that were matched or unmatched, rejections aside
+     */
+    public double unmatchedRate() {
+        long answered = ok(LoadEvent.Kind.REQUEST) + unmatched.get();
+        return answered == 0 ? 0 : (double) unmatched.get() / answered;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf(Locale.ROOT, "%nDuration %.1f s, %d responses, %.1f/s%n", seconds, responses(), responses() / seconds);
+        out.printf(Locale.ROOT, "%-9s %9s %8s %8s %10s %10s %10s %10s%n",
+                "", "ok", "errors", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        kinds.forEach((kind, stats) -> {
+            Histogram latency = stats.latency;
+            out.printf(Locale.ROOT, "%-9s %9d %8d %8s %10.2f %10.2f %10.2f %10.2f%n",
+                    kind, stats.ok.get(), stats.errors.get(),
+                    kind == LoadEvent.Kind.REGISTER ? "setup" : String.format(Locale.ROOT, "%.1f", latency.count() / seconds),
+                    latency.quantile(0.5) / 1e3, latency.quantile(0.99) / 1e3,
+                    latency.quantile(0.999) / 1e3, latency.quantile(1) / 1e3);
+        });
+        out.printf(Locale.ROOT, "Requests: %d matched, %d unmatched (%.2f%%), %d rejected; %d completions skipped%n",
+                ok(LoadEvent.Kind.REQUEST), unmatched.get(), unmatchedRate() * 100, rejected.get(), skipped.get());
+        out.printf(Locale.ROOT, "Match distance: mean %.3f, p50 %.3f, p99 %.3f%n",
+                matchDistance.mean() / DISTANCE_SCALE, matchDistance.quantile(0.5) / DISTANCE_SCALE,
+                matchDistance.quantile(0.99) / DISTANCE_SCALE);
+    }
+}
@@ -0,0 +1,205 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Plays a {@link Workload} against a running instance, open-loop: each event is sent when it is
+ * due, whether or not earlier ones were answered, up to {@code maxInFlight} outstanding requests.
+ */
+public class LoadRunner {
+
+    // A ride id, or null if the request was not matched, and when it became known
+    private record Match(String rideId, long knownAt) {
+    }
+
+    private final URI baseUrl;
+    private final Consumer<LoadEvent> recorder;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private final Semaphore inFlight;
+    private final AtomicLong outstanding = new AtomicLong();
+    private final Map<String, CompletableFuture<Match>> rides = new ConcurrentHashMap<>();
+    // Last position sent for each driver
+    private final Map<String, double[]> positions = new ConcurrentHashMap<>();
+
+    /**
+     * @param recorder receives every event as it is sent, to record a trace
+     */
+    public LoadRunner(URI baseUrl, int maxInFlight, Consumer<LoadEvent> recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public LoadReport run(Workload workload) throws IOException, InterruptedException {
+        LoadReport report = new LoadReport();
+        LoadEvent event = workload.next();
+        // Registrations leading the workload are setup: all are answered before the clock starts,
+        // so the first pings cannot overtake them
+        while (event != null && event.kind() == LoadEvent.Kind.REGISTER) {
+            recorder.accept(event);
+            dispatch(event, System.nanoTime(), report);
+            event = workload.next();
+        }
+        awaitOutstanding();
+
+        long start = System.nanoTime();
+        for (; event != null; event = workload.next()) {
+            long due = start + event.at() * 1_000_000;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            recorder.accept(event);
+            dispatch(event, due, report);
+        }
+        awaitOutstanding();
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    // Completions still wait on their requests, so the count only reaches 0 once all are answered
+    private void awaitOutstanding() throws InterruptedException {
+        while (outstanding.get() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void dispatch(LoadEvent event, long due, LoadReport report) throws InterruptedException {
+        switch (event.kind()) {
+            case REGISTER -> {
+                positions.put(event.key(), new double[]{event.x(), event.y()});
+                send(post("/drivers", String.format(Locale.ROOT, "{\"driverId\":\"%s\",\"x\":%s,\"y\":%s}",
+                        event.key(), event.x(), event.y())), due, true, (response, latency) -> {
+                    if (response != null && response.statusCode() == 200) {
+                        report.ok(event.kind(), latency);
+                    } else {
+                        report.error(event.kind(), latency);
+                    }
+                });
+            }
+            case PING -> {
+                positions.put(event.key(), new double[]{event.x(), event.y()});
+                send(HttpRequest.newBuilder(baseUrl.resolve(String.format(Locale.ROOT, "/drivers/%s/location?x=%s&y=%s",
+                                event.key(), event.x(), event.y())))
+                        .PUT(HttpRequest.BodyPublishers.noBody()).build(), due, true, (response, latency) -> {
+                    if (response != null && response.statusCode() / 100 == 2) {
+                        report.ok(event.kind(), latency);
+                    } else {
+                        report.error(event.kind(), latency);
+                    }
+                });
+            }
+            case REQUEST -> {
+                CompletableFuture<Match> match = new CompletableFuture<>();
+                rides.put(event.key(), match);
+                send(post("/rides", String.format(Locale.ROOT, "{\"riderId\":\"%s\",\"x\":%s,\"y\":%s}",
+                        event.key(), event.x(), event.y())), due, true, (response, latency) -> {
+                    String rideId = null;
+                    try {
+                        if (response == null) {
+                            report.error(event.kind(), latency);
+                        } else if (response.statusCode() == 200) {
+                            JsonNode ride = jsonMapper.readTree(response.body());
+                            // Distance from the driver's last sent position, which it may have left since
+                            double[] driver = positions.get(ride.get("driverId").asString());
+                            report.matched(latency, driver == null ? 0 : Math.hypot(driver[0] - event.x(), driver[1] - event.y()));
+                            rideId = ride.get("rideId").asString();
+                        } else if (response.statusCode() == 404) {
+                            report.unmatched(latency);
+                        } else if (response.statusCode() == 429 || response.statusCode() == 503) {
+                            report.rejected(latency);
+                        } else {
+                            report.error(event.kind(), latency);
+                        }
+                    } finally {
+                        // Releases the ride's completion, whatever happened
+                        match.complete(new Match(rideId, System.nanoTime()));
+                    }
+                });
+            }
+            case COMPLETE -> {
+                CompletableFuture<Match> match = rides.remove(event.key());
+                if (match == null) {
+                    report.skipped();
+                    return;
+                }
+                outstanding.incrementAndGet();
+                match.thenAccept(ride -> {
+                    try {
+                        if (ride.rideId() == null) {
+                            report.skipped();
+                            return;
+                        }
+                        // A completion due before its request was answered is timed from the answer
+                        send(post("/rides/" + ride.rideId() + "/complete", ""), Math.max(due, ride.knownAt()), false,
+                                (response, latency) -> {
+                                    if (response != null && response.statusCode() == 200) {
+                                        report.ok(event.kind(), latency);
+                                    } else {
+                                        report.error(event.kind(), latency);
+                                    }
+                                });
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        outstanding.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    private interface ResponseHandler {
+
+        /**
+         * @param response null if the request failed without a response
+         */
+        void handle(HttpResponse<String> response, long latencyMicros);
+    }
+
+    // Only the dispatching thread waits for a permit, so callbacks never block the client's threads
+    private void send(HttpRequest request, long due, boolean throttled, ResponseHandler handler) throws InterruptedException {
+        if (throttled) {
+            inFlight.acquire();
+        }
+        outstanding.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            try {
+                handler.handle(response, (System.nanoTime() - due) / 1000);
+            } finally {
+                if (throttled) {
+                    inFlight.release();
+                }
+                outstanding.decrementAndGet();
+            }
+        });
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
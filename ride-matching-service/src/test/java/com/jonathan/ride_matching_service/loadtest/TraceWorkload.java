@@ -0,0 +1,35 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays a trace recorded by {@link LoadGenerator}, read line by line.
+ */
+public class TraceWorkload implements Workload {
+
+    private final BufferedReader reader;
+
+    public TraceWorkload(Path trace) throws IOException {
+        this.reader = Files.newBufferedReader(trace);
+    }
+
+    @Override
+    public LoadEvent next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank() || line.startsWith("#"));
+        return LoadEvent.parse(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,18 @@
+package com.jonathan.ride_matching_service.loadtest;
+
+import java.io.IOException;
+
+/**
+ * A stream of load events in the order they are due.
+ */
+public interface Workload extends AutoCloseable {
+
+    /**
+     * @return the next event, or null when the workload is exhausted
+     */
+    LoadEvent next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
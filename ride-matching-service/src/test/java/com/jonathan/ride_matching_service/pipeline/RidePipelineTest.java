@@ -0,0 +1,194 @@
+package com.jonathan.ride_matching_service.pipeline;
+
+import com.jonathan.ride_matching_service.config.PipelineProperties;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.NotFoundException;
+import com.jonathan.ride_matching_service.exception.OverloadedException;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.model.RideListener;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.RideService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@DisplayName("RidePipeline Tests")
+class RidePipelineTest {
+
+    private DriverService driverService;
+    private RideRepository rideRepository;
+    private RideService rideService;
+    private RidePipeline ridePipeline;
+
+    @BeforeEach
+    void setUp() {
+        DriverMapper driverMapper = new DriverMapper();
+        driverService = new DriverServiceImpl(new DriverRepository(), driverMapper);
+        rideRepository = new RideRepository();
+        rideService = new RideServiceImpl(
+                new MatchingServiceImpl(driverService, driverMapper), rideRepository, new RideMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ridePipeline != null && ridePipeline.isRunning()) {
+            ridePipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent requests should each get a distinct driver until the fleet runs out")
+    void testConcurrentRequests() throws Exception {
+        // Given: 20 drivers spread over several regions, 50 riders
+        for (int i = 0; i < 20; i++) {
+            driverService.registerDriver("driver-" + i, new Location(i * 3, i * 3));
+        }
+        ridePipeline = new RidePipeline(rideService, properties(2, 256));
+        ridePipeline.start();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<RideResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String riderId = "rider-" + i;
+            Location pickup = new Location(i % 20 * 3, i % 20 * 3);
+            futures.add(executor.submit(() -> ridePipeline.requestRide(riderId, pickup)));
+        }
+
+        List<String> matched = new ArrayList<>();
+        int notFound = 0;
+        for (Future<RideResponse> future : futures) {
+            try {
+                matched.add(future.get(5, TimeUnit.SECONDS).driverId());
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(NotFoundException.class);
+                notFound++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(matched).hasSize(20).doesNotHaveDuplicates();
+        assertThat(notFound).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should shed requests once the ring is full and match the queued ones after start")
+    void testShedsWhenFull() throws Exception {
+        // Given: one matcher with four slots, not started yet
+        driverService.registerDriver("driver-1", new Location(0, 0));
+        ridePipeline = new RidePipeline(rideService, properties(1, 4));
+        List<CompletableFuture<RideResponse>> queued = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            queued.add(ridePipeline.submit("rider-" + i, new Location(0, 0)));
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> ridePipeline.submit("rider-5", new Location(0, 0)))
+                .isInstanceOf(OverloadedException.class);
+        assertThat(ridePipeline.getDepth()).isEqualTo(4);
+
+        // When
+        ridePipeline.start();
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .get(5, TimeUnit.SECONDS);
+
+        // Then: the first request in the ring wins the only driver
+        assertThat(queued.get(0).get().driverId()).isEqualTo("driver-1");
+        assertThat(queued.subList(1, 4)).allMatch(CompletableFuture::isCompletedExceptionally);
+    }
+
+    @Test
+    @DisplayName("A request that timed out should leave the driver available and save no ride")
+    void testTimedOutRequest() throws Exception {
+        // Given: the matcher is not started, so the request cannot be matched in time
+        driverService.registerDriver("driver-1", new Location(0, 0));
+        ridePipeline = new RidePipeline(rideService, properties(1, 4, Duration.ofMillis(20)));
+
+        // When
+        assertThatThrownBy(() -> ridePipeline.requestRide("rider-1", new Location(0, 0)))
+                .isInstanceOf(OverloadedException.class);
+        ridePipeline.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ridePipeline.getDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        // Then
+        assertThat(ridePipeline.getDepth()).isZero();
+        assertThat(driverService.getDriver("driver-1").available()).isTrue();
+        assertThat(rideRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A request abandoned while being matched should free the driver and leave no completed ride")
+    void testAbandonedWhileMatching() throws Exception {
+        // Given: the matcher holds the request until its caller has timed out
+        driverService.registerDriver("driver-1", new Location(0, 0));
+        CountDownLatch timedOut = new CountDownLatch(1);
+        RideService slowRideService = spy(rideService);
+        doAnswer(invocation -> {
+            timedOut.await();
+            return invocation.callRealMethod();
+        }).when(slowRideService).requestRide(any(), any(), any());
+        List<Ride> completed = new CopyOnWriteArrayList<>();
+        rideRepository.addListener(new RideListener() {
+            @Override
+            public void onCompleted(Ride ride) {
+                completed.add(ride);
+            }
+        });
+        ridePipeline = new RidePipeline(slowRideService, properties(1, 4, Duration.ofMillis(20)));
+        ridePipeline.start();
+
+        // When
+        assertThatThrownBy(() -> ridePipeline.requestRide("rider-1", new Location(0, 0)))
+                .isInstanceOf(OverloadedException.class);
+        timedOut.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ridePipeline.getDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        // Then
+        assertThat(ridePipeline.getDepth()).isZero();
+        assertThat(driverService.getDriver("driver-1").available()).isTrue();
+        assertThat(rideRepository.findAll()).isEmpty();
+        assertThat(completed).isEmpty();
+    }
+
+    private static PipelineProperties properties(int matchers, int ringSize) {
+        return properties(matchers, ringSize, Duration.ofSeconds(5));
+    }
+
+    private static PipelineProperties properties(int matchers, int ringSize, Duration timeout) {
+        return new PipelineProperties(true, matchers, ringSize, 16, 15, timeout);
+    }
+}
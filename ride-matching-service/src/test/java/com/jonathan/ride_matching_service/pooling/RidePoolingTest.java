@@ -0,0 +1,106 @@
+package com.jonathan.ride_matching_service.pooling;
+
+import com.jonathan.ride_matching_service.config.PoolingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RidePooling Tests")
+class RidePoolingTest {
+
+    private RidePooling pooling;
+    private Driver driver;
+
+    @BeforeEach
+    void setUp() {
+        pooling = new RidePooling(new PoolingProperties(true, 17, 4, 1.5, 12, 0.25));
+        // Matched alone to a rider travelling from (1, 0) to (10, 0)
+        driver = new Driver("driver-1", new Location(0, 0));
+        driver.tryMarkUnavailable();
+        pooling.open(driver, "ride-1", new Location(1, 0), new Location(10, 0));
+    }
+
+    @Test
+    @DisplayName("Should add a rider whose trip lies along the route")
+    void testJoinAlongRoute() {
+        // When
+        Driver joined = pooling.join("ride-2", new Location(3, 0.5), new Location(8, 0.5), null);
+
+        // Then
+        assertThat(joined).isSameAs(driver);
+        assertThat(pooling.getActiveTrips()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not add a rider whose stops would detour the others too far")
+    void testRejectLongDetour() {
+        // When / Then: across the route and back, beyond 1.5x the first rider's 9 units, and
+        // serving the rider first or last would keep a pickup waiting too long
+        assertThat(pooling.join("ride-2", new Location(2, 5), new Location(2, -5), null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not find trips whose route passes nowhere near the pickup")
+    void testIgnoreDistantRoutes() {
+        // When / Then
+        assertThat(pooling.join("ride-2", new Location(100, 100), new Location(105, 100), null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should respect the vehicle's seats")
+    void testSeatCapacity() {
+        // Given: a standard car seats 3 riders
+        assertThat(pooling.join("ride-2", new Location(2, 0), new Location(9, 0), null)).isSameAs(driver);
+        assertThat(pooling.join("ride-3", new Location(3, 0), new Location(9, 0), null)).isSameAs(driver);
+
+        // When / Then: a fourth rider on board at the same time does not fit
+        assertThat(pooling.join("ride-4", new Location(4, 0), new Location(8, 0), null)).isNull();
+        // But one riding after the others are dropped off does
+        assertThat(pooling.join("ride-5", new Location(10, 0.5), new Location(12, 0.5), null)).isSameAs(driver);
+    }
+
+    @Test
+    @DisplayName("Should only match trips with the requested vehicle type")
+    void testVehicleType() {
+        // When / Then
+        assertThat(pooling.join("ride-2", new Location(3, 0), new Location(8, 0), VehicleType.XL)).isNull();
+        assertThat(pooling.join("ride-2", new Location(3, 0), new Location(8, 0), VehicleType.STANDARD)).isSameAs(driver);
+    }
+
+    @Test
+    @DisplayName("Should free the driver only when the last rider completes")
+    void testComplete() {
+        // Given
+        pooling.join("ride-2", new Location(3, 0), new Location(8, 0), null);
+
+        // When / Then
+        assertThat(pooling.complete("ride-1")).isFalse();
+        assertThat(pooling.complete("ride-2")).isTrue();
+        assertThat(pooling.getActiveTrips()).isZero();
+        assertThat(pooling.join("ride-3", new Location(3, 0), new Location(8, 0), null)).isNull();
+        assertThat(pooling.complete("ride-unknown")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should count riders picked up as on board")
+    void testPickupReached() {
+        // Given: an XL trip whose driver has reached the first pickup
+        Driver xl = new Driver("driver-2", new Location(50, 0), new DriverProfile(VehicleType.XL, 5));
+        xl.tryMarkUnavailable();
+        pooling.open(xl, "ride-10", new Location(51, 0), new Location(60, 0));
+        xl.updateLocation(51, 0.1);
+
+        // When: a rider behind the driver would need it to turn back
+        Driver joined = pooling.join("ride-11", new Location(47, 0), new Location(60, 0), null);
+
+        // Then: the picked-up rider's detour limit rules it out
+        assertThat(joined).isNull();
+        assertThat(pooling.join("ride-12", new Location(53, 0), new Location(59, 0), VehicleType.XL)).isSameAs(xl);
+    }
+}
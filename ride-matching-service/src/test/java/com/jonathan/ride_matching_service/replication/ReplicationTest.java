@@ -0,0 +1,267 @@
+package com.jonathan.ride_matching_service.replication;
+
+import com.jonathan.ride_matching_service.RideMatchingServiceApplication;
+import com.jonathan.ride_matching_service.dto.DriverRegistrationRequest;
+import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.dto.RideRequest;
+import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Replication Tests")
+class ReplicationTest {
+
+    private ConfigurableApplicationContext primary;
+    private ConfigurableApplicationContext replica;
+    private RestClient primaryClient;
+    private RestClient replicaClient;
+
+    @BeforeEach
+    void startNodes() throws IOException {
+        int streamPort = freePort();
+        int primaryPort = freePort();
+        int replicaPort = freePort();
+
+        primary = startNode(
+                "--server.port=" + primaryPort,
+                "--replication.role=primary",
+                "--replication.listen-port=" + streamPort,
+                "--replication.batch-interval=10ms"
+        );
+        replica = startNode(
+                "--server.port=" + replicaPort,
+                "--replication.role=replica",
+                "--replication.primary-port=" + streamPort,
+                "--replication.retry-interval=50ms"
+        );
+        primaryClient = RestClient.create("http://localhost:" + primaryPort);
+        replicaClient = RestClient.create("http://localhost:" + replicaPort);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        replica.close();
+        if (primary.isActive()) {
+            primary.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replicate driver registrations, pings, claims and rides")
+    void testReplicatesState() {
+        // Given
+        register("driver-1", 1, 1);
+        register("driver-2", 50, 50);
+
+        // When
+        RideResponse ride = primaryClient.post().uri("/rides")
+                .body(new RideRequest("rider-1", 0, 0))
+                .retrieve()
+                .body(RideResponse.class);
+        primaryClient.put().uri("/drivers/driver-2/location?x=60&y=60").retrieve().toBodilessEntity();
+
+        // Then
+        awaitReplica(() -> {
+            Driver driver = drivers(replica).findById("driver-2");
+            return driver != null && driver.getLocation().equals(new Location(60, 60))
+                    && rides(replica).findById(ride.rideId()) != null;
+        });
+        assertThat(drivers(replica).findById("driver-1").isAvailable()).isFalse();
+        assertThat(drivers(replica).findById("driver-2").isAvailable()).isTrue();
+
+        Ride replicated = rides(replica).findById(ride.rideId());
+        assertThat(replicated.getDriver()).isSameAs(drivers(replica).findById("driver-1"));
+        assertThat(replicated.getRiderId()).isEqualTo("rider-1");
+
+        // When
+        primaryClient.post().uri("/rides/{rideId}/complete", ride.rideId()).retrieve().toBodilessEntity();
+
+        // Then
+        awaitReplica(() -> rides(replica).findById(ride.rideId()).isCompleted());
+        assertThat(drivers(replica).findById("driver-1").isAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should drop rides the primary removes, such as archived ones")
+    void testReplicatesRideRemoval() {
+        // Given
+        register("driver-1", 1, 1);
+        RideResponse ride = primaryClient.post().uri("/rides")
+                .body(new RideRequest("rider-1", 0, 0))
+                .retrieve()
+                .body(RideResponse.class);
+        primaryClient.post().uri("/rides/{rideId}/complete", ride.rideId()).retrieve().toBodilessEntity();
+        awaitReplica(() -> {
+            Ride replicated = rides(replica).findById(ride.rideId());
+            return replicated != null && replicated.isCompleted();
+        });
+
+        // When
+        rides(primary).remove(ride.rideId());
+
+        // Then
+        awaitReplica(() -> rides(replica).findById(ride.rideId()) == null);
+        assertThat(rides(replica).findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Replica should serve available drivers but reject writes")
+    void testReadOnlyReplica() {
+        // Given
+        register("driver-1", 3, 4);
+        awaitReplica(() -> drivers(replica).findById("driver-1") != null);
+
+        // When
+        List<DriverResponse> available = replicaClient.get().uri("/rides/available-drivers?x=0&y=0")
+                .retrieve()
+                .body(new ParameterizedTypeReference<>() {
+                });
+
+        // Then
+        assertThat(available).extracting(DriverResponse::id).containsExactly("driver-1");
+        assertThatThrownBy(() -> replicaClient.post().uri("/drivers")
+                .body(new DriverRegistrationRequest("driver-2", 0, 0))
+                .retrieve()
+                .toBodilessEntity())
+                .isInstanceOfSatisfying(HttpServerErrorException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    @DisplayName("Replica should report its lag")
+    void testLagMetrics() {
+        // Given
+        register("driver-1", 3, 4);
+        awaitReplica(() -> drivers(replica).findById("driver-1") != null);
+
+        // When
+        double lag = replica.getBean(MeterRegistry.class).get("replication.lag").gauge().value();
+        ReplicationStatus status = replicaClient.get().uri("/internal/replication/status")
+                .retrieve()
+                .body(ReplicationStatus.class);
+
+        // Then
+        assertThat(lag).isBetween(0.0, 5_000.0);
+        assertThat(status.role()).isEqualTo("replica");
+        assertThat(status.sequence()).isPositive();
+        assertThat(primary.getBean(ReplicationManager.class).getStatus().replicas()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Promoted replica should take over in-flight rides after the primary dies")
+    void testPromotion() {
+        // Given: a ride in progress when the primary crashes
+        register("driver-1", 1, 1);
+        RideResponse ride = primaryClient.post().uri("/rides")
+                .body(new RideRequest("rider-1", 0, 0))
+                .retrieve()
+                .body(RideResponse.class);
+        awaitReplica(() -> rides(replica).findById(ride.rideId()) != null);
+        primary.close();
+
+        // When
+        ReplicationStatus status = replicaClient.post().uri("/internal/replication/promote")
+                .retrieve()
+                .body(ReplicationStatus.class);
+        replicaClient.post().uri("/rides/{rideId}/complete", ride.rideId()).retrieve().toBodilessEntity();
+        replicaClient.post().uri("/drivers")
+                .body(new DriverRegistrationRequest("driver-2", 5, 5))
+                .retrieve()
+                .toBodilessEntity();
+
+        // Then
+        assertThat(status.role()).isEqualTo("primary");
+        assertThat(rides(replica).findById(ride.rideId()).isCompleted()).isTrue();
+        assertThat(drivers(replica).findById("driver-1").isAvailable()).isTrue();
+        assertThat(drivers(replica).findById("driver-2")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Promoted replica should not match a driver still on a ride for a second rider")
+    void testPromotionKeepsRideClaims() {
+        // Given: driver-1 is on a ride when the primary crashes
+        register("driver-1", 1, 1);
+        RideResponse ride = primaryClient.post().uri("/rides")
+                .body(new RideRequest("rider-1", 0, 0))
+                .retrieve()
+                .body(RideResponse.class);
+        awaitReplica(() -> rides(replica).findById(ride.rideId()) != null && drivers(replica).findById("driver-1").isOnRide());
+        primary.close();
+        replicaClient.post().uri("/internal/replication/promote").retrieve().toBodilessEntity();
+
+        // When & Then
+        assertThatThrownBy(() -> replicaClient.post().uri("/rides")
+                .body(new RideRequest("rider-2", 0, 0))
+                .retrieve()
+                .toBodilessEntity())
+                .isInstanceOfSatisfying(HttpClientErrorException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+
+        // When
+        replicaClient.post().uri("/rides/{rideId}/complete", ride.rideId()).retrieve().toBodilessEntity();
+        RideResponse next = replicaClient.post().uri("/rides")
+                .body(new RideRequest("rider-2", 0, 0))
+                .retrieve()
+                .body(RideResponse.class);
+
+        // Then
+        assertThat(next.driverId()).isEqualTo("driver-1");
+    }
+
+    private static ConfigurableApplicationContext startNode(String... args) {
+        return new SpringApplicationBuilder(RideMatchingServiceApplication.class).run(args);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void register(String driverId, double x, double y) {
+        primaryClient.post().uri("/drivers")
+                .body(new DriverRegistrationRequest(driverId, x, y))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private static void awaitReplica(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Replica did not catch up within 5 seconds");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static DriverRepository drivers(ConfigurableApplicationContext node) {
+        return node.getBean(DriverRepository.class);
+    }
+
+    private static RideRepository rides(ConfigurableApplicationContext node) {
+        return node.getBean(RideRepository.class);
+    }
+}
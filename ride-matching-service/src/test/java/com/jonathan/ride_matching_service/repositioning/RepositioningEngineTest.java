@@ -0,0 +1,147 @@
+package com.jonathan.ride_matching_service.repositioning;
+
+import com.jonathan.ride_matching_service.config.HeatmapProperties;
+import com.jonathan.ride_matching_service.config.RepositioningProperties;
+import com.jonathan.ride_matching_service.heatmap.HeatmapAggregator;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RepositioningEngine Tests")
+class RepositioningEngineTest {
+
+    private DriverRepository driverRepository;
+    private DriverService driverService;
+    private HeatmapAggregator heatmap;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = new DriverRepository();
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        heatmap = new HeatmapAggregator(driverRepository,
+                new HeatmapProperties(true, 17, Duration.ofSeconds(10), Duration.ofMinutes(15)));
+    }
+
+    @Nested
+    @DisplayName("Min-Cost Flow Tests")
+    class MinCostFlowTests {
+
+        @Test
+        @DisplayName("Should move every unit at the lowest total cost")
+        void testMinimumCost() {
+            // Given: two suppliers and two consumers; the greedy cheapest edge (s1 -> c1) is not optimal
+            MinCostFlow flow = new MinCostFlow(6, 0, 5);
+            flow.addEdge(0, 1, 1, 0);
+            flow.addEdge(0, 2, 1, 0);
+            int s1c1 = flow.addEdge(1, 3, 1, 1);
+            int s1c2 = flow.addEdge(1, 4, 1, 2);
+            int s2c1 = flow.addEdge(2, 3, 1, 2);
+            int s2c2 = flow.addEdge(2, 4, 1, 100);
+            flow.addEdge(3, 5, 1, 0);
+            flow.addEdge(4, 5, 1, 0);
+
+            // When
+            int augmentations = 0;
+            while (flow.augment()) {
+                augmentations++;
+            }
+
+            // Then: s1 -> c2 and s2 -> c1 cost 4, against 101 for the greedy assignment
+            assertThat(augmentations).isEqualTo(2);
+            assertThat(flow.flow(s1c2)).isEqualTo(1);
+            assertThat(flow.flow(s2c1)).isEqualTo(1);
+            assertThat(flow.flow(s1c1)).isZero();
+            assertThat(flow.flow(s2c2)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Suggestion Tests")
+    class SuggestionTests {
+
+        @Test
+        @DisplayName("Should send surplus idle drivers to the nearby cell with unmet demand")
+        void testSuggestsMoves() {
+            // Given: three idle drivers in one cell, two requests next door and two out of reach
+            registerDrivers(3, 1, 1);
+            heatmap.recordRequest(new Location(5, 1), false);
+            heatmap.recordRequest(new Location(5, 1), false);
+            heatmap.recordRequest(new Location(50, 1), false);
+            heatmap.recordRequest(new Location(50, 1), false);
+            RepositioningEngine engine = engine(Duration.ofMillis(2));
+
+            // When
+            engine.runRound();
+
+            // Then
+            assertThat(engine.getSuggestions()).hasSize(2);
+            assertThat(engine.getSuggestions().values()).allSatisfy(suggestion -> {
+                assertThat(suggestion.toX()).isEqualTo(6);
+                assertThat(suggestion.toY()).isEqualTo(2);
+                assertThat(suggestion.forecastDemand()).isEqualTo(2);
+            });
+        }
+
+        @Test
+        @DisplayName("Should not hand out the suggestion of a driver that was claimed since")
+        void testClaimedDriverHasNoSuggestion() {
+            // Given
+            registerDrivers(1, 1, 1);
+            heatmap.recordRequest(new Location(5, 1), false);
+            RepositioningEngine engine = engine(Duration.ofMillis(2));
+            engine.runRound();
+            assertThat(engine.getSuggestion("driver-0")).isPresent();
+
+            // When
+            driverRepository.findById("driver-0").tryMarkUnavailable();
+
+            // Then
+            assertThat(engine.getSuggestion("driver-0")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("A round should be spread over several ticks when the budget is exhausted")
+        void testBudgetedTicks() {
+            // Given: a zero budget, so every tick takes a single step
+            registerDrivers(3, 1, 1);
+            heatmap.recordRequest(new Location(5, 1), false);
+            heatmap.recordRequest(new Location(5, 1), false);
+            RepositioningEngine engine = engine(Duration.ZERO);
+
+            // When
+            engine.tick();
+
+            // Then
+            assertThat(engine.getSuggestions()).isEmpty();
+
+            // When
+            for (int i = 0; i < 20; i++) {
+                engine.tick();
+            }
+
+            // Then
+            assertThat(engine.getSuggestions()).hasSize(2);
+        }
+    }
+
+    private void registerDrivers(int count, double x, double y) {
+        for (int i = 0; i < count; i++) {
+            driverService.registerDriver("driver-" + i, new Location(x, y));
+        }
+    }
+
+    private RepositioningEngine engine(Duration cpuBudget) {
+        return new RepositioningEngine(heatmap, driverRepository, new RepositioningProperties(
+                true, Duration.ofMinutes(1), 0.3, 8.0, 64, Duration.ofMillis(100), cpuBudget));
+    }
+}
@@ -0,0 +1,208 @@
+package com.jonathan.ride_matching_service.repository;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.util.CellId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DriverRepository Tests")
+class DriverRepositoryTest {
+
+    private DriverRepository driverRepository;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = new DriverRepository();
+    }
+
+    @Nested
+    @DisplayName("Cell Id Tests")
+    class CellIdTests {
+
+        @Test
+        @DisplayName("Nearby points should share coarse prefixes but not fine ones")
+        void testPrefixHierarchy() {
+            // Given
+            long a = CellId.of(10.0, 20.0);
+            long b = CellId.of(10.3, 20.3);
+
+            // Then
+            assertThat(CellId.prefix(a, 18)).isEqualTo(CellId.prefix(b, 18));
+            assertThat(CellId.prefix(a, CellId.MAX_LEVEL)).isNotEqualTo(CellId.prefix(b, CellId.MAX_LEVEL));
+        }
+
+        @Test
+        @DisplayName("Cell ids should lie inside their prefix range")
+        void testPrefixRange() {
+            // Given
+            long cellId = CellId.of(-73.9855, 40.7580);
+            int level = 20;
+            long prefix = CellId.prefix(cellId, level);
+
+            // Then
+            assertThat(cellId).isBetween(CellId.rangeStart(prefix, level), CellId.rangeEnd(prefix, level) - 1);
+        }
+
+        @Test
+        @DisplayName("Grid coordinates should round-trip through the cell id")
+        void testGridRoundTrip() {
+            // Given
+            long cellId = CellId.of(-5.5, 123.25);
+
+            // Then
+            assertThat(CellId.fromGrid(CellId.gridX(cellId), CellId.gridY(cellId))).isEqualTo(cellId);
+        }
+    }
+
+    @Nested
+    @DisplayName("Find By Cell Prefix Tests")
+    class FindByCellPrefixTests {
+
+        @Test
+        @DisplayName("Should return only drivers inside the requested cell")
+        void testFindByCellPrefix() {
+            // Given
+            Driver inside1 = new Driver("inside-1", new Location(10.1, 20.1));
+            Driver inside2 = new Driver("inside-2", new Location(10.9, 20.9));
+            Driver outside = new Driver("outside", new Location(50, 50));
+            driverRepository.save(inside1);
+            driverRepository.save(inside2);
+            driverRepository.save(outside);
+
+            int level = 19; // one coordinate unit per cell
+            long prefix = CellId.prefixOf(10.5, 20.5, level);
+
+            // When & Then
+            assertThat(driverRepository.findByCellPrefix(prefix, level)).containsExactlyInAnyOrder(inside1, inside2);
+        }
+
+        @Test
+        @DisplayName("Should follow drivers when they move between cells")
+        void testReindexOnMove() {
+            // Given
+            Driver driver = new Driver("mover", new Location(1, 1));
+            driverRepository.save(driver);
+            int level = 19;
+
+            // When
+            driver.updateLocation(100, 100);
+
+            // Then
+            assertThat(driverRepository.findByCellPrefix(CellId.prefixOf(1, 1, level), level)).isEmpty();
+            assertThat(driverRepository.findByCellPrefix(CellId.prefixOf(100, 100, level), level)).containsExactly(driver);
+        }
+
+        @Test
+        @DisplayName("Should filter on the driver's own cell for prefixes finer than the index")
+        void testFinePrefixQuery() {
+            // Given
+            Driver a = new Driver("a", new Location(1.0001, 1.0001));
+            Driver b = new Driver("b", new Location(1.0050, 1.0050));
+            driverRepository.save(a);
+            driverRepository.save(b);
+
+            // When & Then
+            assertThat(driverRepository.findByCellPrefix(a.getCellId(), CellId.MAX_LEVEL)).containsExactly(a);
+        }
+
+        @Test
+        @DisplayName("Should drop removed drivers from the index, even if they keep moving")
+        void testRemove() {
+            // Given
+            Driver driver = new Driver("leaver", new Location(5, 5));
+            driverRepository.save(driver);
+            int level = 19;
+
+            // When
+            driverRepository.remove(driver);
+            driver.updateLocation(6, 6);
+
+            // Then
+            assertThat(driverRepository.findById("leaver")).isNull();
+            assertThat(driverRepository.findByCellPrefix(CellId.prefixOf(5, 5, level), level)).isEmpty();
+            assertThat(driverRepository.findByCellPrefix(CellId.prefixOf(6, 6, level), level)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Handle Tests")
+    class HandleTests {
+
+        @Test
+        @DisplayName("Should assign dense handles and keep them when a driver registers again")
+        void testDenseStableHandles() {
+            // Given
+            Driver first = new Driver("driver-1", new Location(0, 0));
+            Driver second = new Driver("driver-2", new Location(1, 1));
+            driverRepository.save(first);
+            driverRepository.save(second);
+
+            // When
+            driverRepository.remove(first);
+            Driver again = new Driver("driver-1", new Location(2, 2));
+            driverRepository.save(again);
+
+            // Then
+            assertThat(first.getHandle()).isZero();
+            assertThat(second.getHandle()).isEqualTo(1);
+            assertThat(again.getHandle()).isZero();
+            assertThat(driverRepository.findByHandle(0)).isSameAs(again);
+            assertThat(driverRepository.findById("driver-1")).isSameAs(again);
+            assertThat(driverRepository.idOf(1)).isEqualTo("driver-2");
+            assertThat(driverRepository.findById("driver-3")).isNull();
+        }
+
+        @Test
+        @DisplayName("Available drivers should follow claims, releases and removals")
+        void testFindAvailable() {
+            // Given
+            for (int i = 0; i < 200; i++) {
+                driverRepository.save(new Driver("driver-" + i, new Location(i, 0)));
+            }
+            Driver claimed = driverRepository.findById("driver-7");
+            Driver released = driverRepository.findById("driver-8");
+            Driver removed = driverRepository.findById("driver-150");
+
+            // When
+            claimed.tryMarkUnavailable();
+            released.tryMarkUnavailable();
+            released.release();
+            driverRepository.remove(removed);
+
+            // Then
+            assertThat(driverRepository.findAvailable())
+                    .hasSize(198)
+                    .contains(released)
+                    .doesNotContain(claimed, removed);
+        }
+
+        @Test
+        @DisplayName("A removed driver should not change the availability of the driver re-registered under its handle")
+        void testRemoveAndRegisterAgain() {
+            // Given
+            Driver removed = new Driver("driver-1", new Location(0, 0));
+            driverRepository.save(removed);
+            driverRepository.remove(removed);
+            Driver again = new Driver("driver-1", new Location(1, 1));
+            driverRepository.save(again);
+
+            // When: the removed driver is claimed and its callback arrives late
+            removed.tryMarkUnavailable();
+            driverRepository.onAvailabilityChanged(removed, false);
+
+            // Then
+            assertThat(driverRepository.findAvailable()).containsExactly(again);
+
+            // When
+            driverRepository.remove(again);
+
+            // Then
+            assertThat(driverRepository.findAvailable()).isEmpty();
+        }
+    }
+}
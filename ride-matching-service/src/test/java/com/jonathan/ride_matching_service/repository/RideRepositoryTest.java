@@ -0,0 +1,150 @@
+package com.jonathan.ride_matching_service.repository;
+
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.util.ConcurrentOpenHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RideRepository Tests")
+class RideRepositoryTest {
+
+    private RideRepository rideRepository;
+    private Driver driver;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository = new RideRepository();
+        driver = new Driver("driver-1", new Location(0, 0));
+    }
+
+    @Nested
+    @DisplayName("Id Tests")
+    class IdTests {
+
+        @Test
+        @DisplayName("Should find rides by id")
+        void testFindById() {
+            // Given
+            String uuid = UUID.randomUUID().toString();
+            Ride generated = new Ride(uuid, "rider-1", driver, new Location(1, 1));
+            Ride replicated = new Ride("ride-789", "rider-2", driver, new Location(2, 2));
+
+            // When
+            rideRepository.save(generated);
+            rideRepository.save(replicated);
+
+            // Then
+            assertThat(rideRepository.findById(uuid)).isSameAs(generated);
+            assertThat(rideRepository.findById("ride-789")).isSameAs(replicated);
+            assertThat(rideRepository.findById(UUID.randomUUID().toString())).isNull();
+            assertThat(rideRepository.findAll()).containsExactlyInAnyOrder(generated, replicated);
+        }
+
+        @Test
+        @DisplayName("Should keep every ride across table growth")
+        void testManyRides() {
+            // Given
+            List<Ride> saved = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                Ride ride = new Ride(UUID.randomUUID().toString(), "rider-" + i, driver, new Location(i, i));
+                rideRepository.save(ride);
+                saved.add(ride);
+            }
+
+            // Then
+            assertThat(rideRepository.findAll()).hasSize(10_000);
+            for (Ride ride : saved) {
+                assertThat(rideRepository.findById(ride.getId())).isSameAs(ride);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Open Hash Map Tests")
+    class OpenHashMapTests {
+
+        private record Entry(String key, int value) {
+        }
+
+        @Test
+        @DisplayName("Should replace, remove and re-insert keys")
+        void testReplaceAndRemove() {
+            // Given
+            ConcurrentOpenHashMap<String, Entry> map = new ConcurrentOpenHashMap<>(Entry::key);
+            Entry first = new Entry("a", 1);
+            Entry second = new Entry("a", 2);
+            Entry third = new Entry("a", 3);
+            map.put(first);
+
+            // When / Then
+            assertThat(map.put(second)).isSameAs(first);
+            assertThat(map.get("a")).isSameAs(second);
+            assertThat(map.get("b")).isNull();
+            assertThat(map.remove("a")).isSameAs(second);
+            assertThat(map.get("a")).isNull();
+            assertThat(map.size()).isZero();
+            assertThat(map.put(third)).isNull();
+            assertThat(map.get("a")).isSameAs(third);
+            assertThat(map.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Readers should see every completed write while writers grow the table")
+        void testConcurrentReadersAndWriters() throws Exception {
+            // Given
+            ConcurrentOpenHashMap<Long, Long> map = new ConcurrentOpenHashMap<>(Function.identity());
+            int writers = 4;
+            long perWriter = 20_000;
+            ExecutorService executor = Executors.newFixedThreadPool(writers * 2);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+
+            // When
+            for (int w = 0; w < writers; w++) {
+                long first = w * perWriter;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long key = first; key < first + perWriter; key++) {
+                        map.put(key);
+                    }
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // A key is readable once written, and once readable stays so
+                    for (long key = first; key < first + perWriter; key++) {
+                        while (map.get(key) == null) {
+                            Thread.onSpinWait();
+                        }
+                        assertThat(map.get(key)).isEqualTo(key);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Then
+            assertThat(map.size()).isEqualTo(writers * (int) perWriter);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.jonathan.ride_matching_service.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LandmarkRouter Tests")
+class LandmarkRouterTest {
+
+    @Test
+    @DisplayName("Should match plain Dijkstra on a random grid with one-way streets")
+    void testMatchesDijkstra() throws IOException {
+        // Given
+        RoadGraph graph = randomGrid(20, new Random(7));
+        LandmarkRouter router = new LandmarkRouter(graph, 4);
+        Random random = new Random(11);
+
+        // When & Then
+        for (int i = 0; i < 200; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+            assertThat(router.travelSeconds(source, target))
+                    .as("%d -> %d", source, target)
+                    .isCloseTo(dijkstra(graph, source, target), within(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report unreachable targets as infinite")
+    void testUnreachableTarget() throws IOException {
+        // Given
+        RoadGraph graph = RoadGraphLoader.read(new BufferedReader(new StringReader("""
+                N 1 0 0
+                N 2 1 0
+                N 3 5 5
+                A 1 2 10
+                """)));
+        LandmarkRouter router = new LandmarkRouter(graph, 2);
+
+        // When & Then
+        assertThat(router.travelSeconds(0, 1)).isEqualTo(10);
+        assertThat(router.travelSeconds(1, 0)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(router.travelSeconds(0, 2)).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    @DisplayName("Should snap to the nearest node")
+    void testNearestNode() throws IOException {
+        // Given
+        RoadGraph graph = randomGrid(10, new Random(3));
+
+        // When & Then
+        assertThat(graph.nearestNode(4.2, 6.9)).isEqualTo(4 * 10 + 7);
+        assertThat(graph.nearestNode(-100, -100)).isEqualTo(0);
+    }
+
+    private static RoadGraph randomGrid(int size, Random random) throws IOException {
+        StringBuilder graph = new StringBuilder();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                graph.append("N ").append(x * size + y).append(' ').append(x).append(' ').append(y).append('\n');
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int node = x * size + y;
+                if (x + 1 < size) {
+                    graph.append(random.nextInt(4) == 0 ? "A " : "E ")
+                            .append(node).append(' ').append(node + size).append(' ')
+                            .append(1 + random.nextInt(20)).append('\n');
+                }
+                if (y + 1 < size) {
+                    graph.append(random.nextInt(4) == 0 ? "A " : "E ")
+                            .append(node).append(' ').append(node + 1).append(' ')
+                            .append(1 + random.nextInt(20)).append('\n');
+                }
+            }
+        }
+        return RoadGraphLoader.read(new BufferedReader(new StringReader(graph.toString())));
+    }
+
+    private static double dijkstra(RoadGraph graph, int source, int target) {
+        double[] cost = new double[graph.nodeCount()];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        cost[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[0] > cost[node]) {
+                continue;
+            }
+            for (int arc = graph.firstArc(node); arc < graph.firstArc(node + 1); arc++) {
+                int head = graph.arcHead(arc);
+                double candidate = cost[node] + graph.arcSeconds(arc);
+                if (candidate < cost[head]) {
+                    cost[head] = candidate;
+                    queue.add(new double[]{candidate, head});
+                }
+            }
+        }
+        return cost[target];
+    }
+}
@@ -0,0 +1,191 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import com.jonathan.ride_matching_service.config.SchedulingProperties;
+import com.jonathan.ride_matching_service.exception.BadRequestException;
+import com.jonathan.ride_matching_service.exception.ConflictException;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.repository.RideRepository;
+import com.jonathan.ride_matching_service.service.DriverService;
+import com.jonathan.ride_matching_service.service.MatchingService;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import com.jonathan.ride_matching_service.testing.ManualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RideScheduler Tests")
+class RideSchedulerTest {
+
+    private ManualClock clock;
+    private DriverRepository driverRepository;
+    private DriverService driverService;
+    private RideRepository rideRepository;
+    private RideScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        driverRepository = new DriverRepository();
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        rideRepository = new RideRepository();
+        MatchingServiceImpl matchingService = new MatchingServiceImpl(driverService, new DriverMapper());
+        scheduler = new RideScheduler(
+                properties(Duration.ofDays(30)),
+                matchingService,
+                new RideServiceImpl(matchingService, rideRepository, new RideMapper()),
+                clock);
+    }
+
+    @Test
+    @DisplayName("Should hold a driver at the lead time and start the ride at the pickup time")
+    void testHoldAndDispatch() {
+        // Given
+        driverService.registerDriver("driver-1", new Location(1, 1));
+        Driver driver = driverRepository.findById("driver-1");
+        ScheduledRide ride = scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant().plus(Duration.ofHours(2)));
+
+        // When / Then: nothing happens before the lead time
+        advance(Duration.ofMinutes(109));
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.SCHEDULED);
+        assertThat(driver.isAvailable()).isTrue();
+
+        // When / Then: the driver is held from the lead time on
+        advance(Duration.ofMinutes(1));
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.HELD);
+        assertThat(ride.getDriver()).isSameAs(driver);
+        assertThat(driver.isAvailable()).isFalse();
+
+        // When / Then: the ride starts at the pickup time
+        advance(Duration.ofMinutes(10));
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.DISPATCHED);
+        Ride started = rideRepository.findById(ride.getRideId());
+        assertThat(started.getDriver()).isSameAs(driver);
+        assertThat(started.getRiderId()).isEqualTo("rider-1");
+    }
+
+    @Test
+    @DisplayName("Should retry matching until the pickup time, then give up")
+    void testRetryAndGiveUp() {
+        // Given
+        ScheduledRide ride = scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant().plus(Duration.ofMinutes(30)));
+        advance(Duration.ofMinutes(21));
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.SCHEDULED);
+
+        // When: a driver comes online before the pickup time
+        driverService.registerDriver("driver-1", new Location(1, 1));
+        advance(Duration.ofSeconds(30));
+
+        // Then
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.HELD);
+
+        // Given: a second booking nobody is left for
+        ScheduledRide unmatched = scheduler.schedule("rider-2", new Location(0, 0), null, clock.instant().plus(Duration.ofMinutes(5)));
+
+        // When
+        advance(Duration.ofMinutes(5));
+
+        // Then
+        assertThat(unmatched.getStatus()).isEqualTo(ScheduledRide.Status.UNMATCHED);
+    }
+
+    @Test
+    @DisplayName("Should release the held driver on cancellation and forget finished bookings")
+    void testCancel() {
+        // Given
+        driverService.registerDriver("driver-1", new Location(1, 1));
+        ScheduledRide ride = scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant().plus(Duration.ofMinutes(5)));
+        advance(Duration.ofSeconds(1));
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.HELD);
+
+        // When
+        scheduler.cancel(ride.getId());
+        advance(Duration.ofMinutes(10));
+
+        // Then
+        assertThat(ride.getStatus()).isEqualTo(ScheduledRide.Status.CANCELLED);
+        assertThat(driverRepository.findById("driver-1").isAvailable()).isTrue();
+        assertThatThrownBy(() -> scheduler.cancel(ride.getId())).isInstanceOf(ConflictException.class);
+
+        // When
+        advance(Duration.ofHours(1));
+
+        // Then
+        assertThat(scheduler.find(ride.getId())).isEmpty();
+        assertThat(scheduler.getPending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject pickup times in the past or beyond the horizon")
+    void testRejectsInvalidTimes() {
+        // When / Then
+        assertThatThrownBy(() -> scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant().plus(Duration.ofDays(31))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Should finish a booking as unmatched when matching fails, and keep dispatching")
+    void testMatchingFailure() {
+        // Given
+        MatchingService failing = mock(MatchingService.class);
+        when(failing.findNearestAvailableDriver(any(), any())).thenThrow(new IllegalStateException("Index unavailable"));
+        scheduler = new RideScheduler(properties(Duration.ofDays(30)), failing,
+                new RideServiceImpl(failing, rideRepository, new RideMapper()), clock);
+        ScheduledRide first = scheduler.schedule("rider-1", new Location(0, 0), null, clock.instant().plus(Duration.ofMinutes(5)));
+        ScheduledRide second = scheduler.schedule("rider-2", new Location(0, 0), null, clock.instant().plus(Duration.ofMinutes(6)));
+
+        // When
+        advance(Duration.ofSeconds(1));
+
+        // Then
+        assertThat(first.getStatus()).isEqualTo(ScheduledRide.Status.UNMATCHED);
+        assertThat(second.getStatus()).isEqualTo(ScheduledRide.Status.UNMATCHED);
+
+        // When
+        advance(Duration.ofHours(1));
+
+        // Then
+        assertThat(scheduler.find(first.getId())).isEmpty();
+        assertThat(scheduler.getPending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should refuse a horizon beyond the timing wheel's span")
+    void testHorizonBeyondSpan() {
+        // Given: 64^4 one-second ticks are about 194 days
+        MatchingServiceImpl matchingService = new MatchingServiceImpl(driverService, new DriverMapper());
+        RideServiceImpl rideService = new RideServiceImpl(matchingService, rideRepository, new RideMapper());
+
+        // When / Then
+        assertThatThrownBy(() -> new RideScheduler(properties(Duration.ofDays(365)), matchingService, rideService, clock))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SchedulingProperties properties(Duration horizon) {
+        return new SchedulingProperties(true, Duration.ofSeconds(1), 64, 4, Duration.ofMinutes(10),
+                Duration.ofSeconds(30), horizon, Duration.ofHours(1));
+    }
+
+    private void advance(Duration duration) {
+        // One dispatcher run per tick, as on the scheduler thread
+        for (long second = 0; second < duration.toSeconds(); second++) {
+            clock.advance(Duration.ofSeconds(1));
+            scheduler.advance();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.jonathan.ride_matching_service.scheduling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TimingWheel Tests")
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Should expire every timer exactly at its deadline across all levels")
+    void testExpiresAtDeadline() {
+        // Given: 4 levels of 8 slots span 4096 ticks, starting off a slot boundary
+        TimingWheel<Long> wheel = new TimingWheel<>(8, 4, 13);
+        Random random = new Random(42);
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            long deadline = 13 + random.nextInt(4096);
+            wheel.add(deadline, deadline);
+        }
+
+        // When
+        List<Long> wrong = new ArrayList<>();
+        int[] expired = {0};
+        for (long tick = 13; tick < 13 + 4096; tick++) {
+            long now = tick;
+            wheel.advanceTo(now, deadline -> {
+                expired[0]++;
+                if (deadline != now) {
+                    wrong.add(deadline);
+                }
+            });
+        }
+
+        // Then
+        assertThat(wrong).isEmpty();
+        assertThat(expired[0]).isEqualTo(count);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not expire cancelled timers")
+    void testCancel() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(8, 3, 0);
+        TimingWheel.Timer<String> kept = wheel.add(100, "kept");
+        TimingWheel.Timer<String> cancelled = wheel.add(100, "cancelled");
+
+        // When
+        boolean first = wheel.cancel(cancelled);
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(100, expired::add);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.cancel(kept)).isFalse();
+        assertThat(expired).containsExactly("kept");
+    }
+
+    @Test
+    @DisplayName("Should expire overdue timers on the next tick and reject deadlines beyond the span")
+    void testBounds() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(8, 2, 50);
+        wheel.add(10, "overdue");
+
+        // When
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(50, expired::add);
+
+        // Then
+        assertThat(expired).containsExactly("overdue");
+        assertThatThrownBy(() -> wheel.add(51 + 64, "too far")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
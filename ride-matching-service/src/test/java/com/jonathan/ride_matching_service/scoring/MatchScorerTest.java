@@ -0,0 +1,134 @@
+package com.jonathan.ride_matching_service.scoring;
+
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MatchScorer Tests")
+class MatchScorerTest {
+
+    private static final Location PICKUP = new Location(0, 0);
+
+    @Test
+    @DisplayName("Should pick the nearest driver when only distance is weighted")
+    void testDistanceOnly() {
+        // Given
+        MatchScorer scorer = scorer(16, 1, 0, 0, 0);
+        Driver far = new Driver("driver-1", new Location(5, 0));
+        Driver near = new Driver("driver-2", new Location(0, 2));
+
+        // When
+        Driver claimed = claim(scorer, List.of(far, near), null);
+
+        // Then
+        assertThat(claimed).isSameAs(near);
+        assertThat(near.isAvailable()).isFalse();
+        assertThat(far.isAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should only consider drivers with the requested vehicle type")
+    void testVehicleTypeFilter() {
+        // Given
+        MatchScorer scorer = scorer(16, 1, 0, 0, 0);
+        Driver standard = new Driver("driver-1", new Location(1, 0));
+        Driver xl = new Driver("driver-2", new Location(9, 0), new DriverProfile(VehicleType.XL, 5));
+
+        // When / Then
+        assertThat(claim(scorer, List.of(standard, xl), VehicleType.XL)).isSameAs(xl);
+        assertThat(claim(scorer, List.of(standard, xl), VehicleType.COMFORT)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should prefer a slightly farther driver heading towards the pickup")
+    void testHeading() {
+        // Given: both drivers end up 4 units away, one driving towards the pickup and one away from it
+        MatchScorer scorer = scorer(16, 1, 1, 0, 0);
+        Driver leaving = new Driver("driver-1", new Location(3, 0));
+        leaving.updateLocation(4, 0);
+        Driver approaching = new Driver("driver-2", new Location(-5, 0));
+        approaching.updateLocation(-4.5, 0);
+
+        // When
+        Driver claimed = claim(scorer, List.of(leaving, approaching), null);
+
+        // Then
+        assertThat(claimed).isSameAs(approaching);
+    }
+
+    @Test
+    @DisplayName("Should trade distance against rating by weight")
+    void testRating() {
+        // Given
+        Driver nearLowRated = new Driver("driver-1", new Location(1, 0), new DriverProfile(VehicleType.STANDARD, 1));
+        Driver farTopRated = new Driver("driver-2", new Location(2, 0), new DriverProfile(VehicleType.STANDARD, 5));
+
+        // When / Then
+        assertThat(claim(scorer(16, 1, 0, 0, 0.1), List.of(nearLowRated, farTopRated), null)).isSameAs(nearLowRated);
+        assertThat(claim(scorer(16, 1, 0, 0, 1), List.of(nearLowRated, farTopRated), null)).isSameAs(farTopRated);
+    }
+
+    @Test
+    @DisplayName("Should compute exact distances only for the prefiltered candidates")
+    void testLazyDistance() {
+        // Given
+        MatchScorer scorer = scorer(4, 1, 0, 0, 0);
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 100; i > 0; i--) {
+            drivers.add(new Driver("driver-" + i, new Location(i, 0)));
+        }
+        AtomicInteger evaluated = new AtomicInteger();
+
+        // When
+        Driver claimed = scorer.claimBest(drivers, PICKUP, null, DistanceMetric.PLANAR.ranker(PICKUP), driver -> {
+            evaluated.incrementAndGet();
+            return DistanceMetric.PLANAR.distance(driver.getLocation(), PICKUP);
+        });
+
+        // Then
+        assertThat(claimed.getId()).isEqualTo("driver-1");
+        assertThat(evaluated).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Should move on to the next candidates when the scored ones are already claimed")
+    void testAllCandidatesClaimed() {
+        // Given
+        MatchScorer scorer = scorer(2, 1, 0, 0, 0);
+        Driver first = new Driver("driver-1", new Location(1, 0));
+        Driver second = new Driver("driver-2", new Location(2, 0));
+        Driver third = new Driver("driver-3", new Location(3, 0));
+        first.tryMarkUnavailable();
+        second.tryMarkUnavailable();
+
+        // When
+        Driver claimed = claim(scorer, List.of(first, second, third), null);
+
+        // Then
+        assertThat(claimed).isSameAs(third);
+        assertThat(claim(scorer, List.of(first, second, third), null)).isNull();
+    }
+
+    private static MatchScorer scorer(int candidates, double distance, double heading, double idle, double rating) {
+        return new MatchScorer(new MatchingProperties(DistanceMetric.PLANAR,
+                MatchingProperties.Eta.disabled(),
+                MatchingProperties.Cache.disabled(),
+                new MatchingProperties.Scoring(true, candidates, distance, heading, idle, rating)));
+    }
+
+    private static Driver claim(MatchScorer scorer, List<Driver> drivers, VehicleType vehicleType) {
+        return scorer.claimBest(drivers, PICKUP, vehicleType, DistanceMetric.PLANAR.ranker(PICKUP),
+                driver -> DistanceMetric.PLANAR.distance(driver.getLocation(), PICKUP));
+    }
+}
@@ -0,0 +1,84 @@
+package com.jonathan.ride_matching_service.service;
+
+import com.jonathan.ride_matching_service.coalescing.LocationCoalescer;
+import com.jonathan.ride_matching_service.config.CoalescingProperties;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Measures heap allocation of the location ping path with the per-thread allocation
+ * counter. {@code DriverUpdateBenchmark} with {@code -prof gc} gives the same figure under JMH.
+ */
+@DisplayName("Driver Location Allocation Tests")
+class DriverLocationAllocationTest {
+
+    private static final int WARMUP_PINGS = 50_000;
+    private static final int MEASURED_PINGS = 200_000;
+
+    private DriverService driverService;
+
+    @BeforeEach
+    void setUp() {
+        DriverRepository driverRepository = new DriverRepository();
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper());
+        driverService.registerDriver("driver-ping", new Location(0, 0));
+    }
+
+    @Test
+    @DisplayName("Location ping should not allocate per call")
+    void testLocationPingDoesNotAllocate() {
+        assertPingDoesNotAllocate();
+    }
+
+    @Test
+    @DisplayName("Coalesced location ping should not allocate per call")
+    void testCoalescedLocationPingDoesNotAllocate() {
+        // Given
+        DriverRepository driverRepository = new DriverRepository();
+        LocationCoalescer locationCoalescer = new LocationCoalescer(new CoalescingProperties(true, Duration.ofMillis(250), 1.0, 16));
+        driverService = new DriverServiceImpl(driverRepository, new DriverMapper(), Optional.of(locationCoalescer));
+        driverService.registerDriver("driver-ping", new Location(0, 0));
+
+        // Then
+        assertPingDoesNotAllocate();
+    }
+
+    private void assertPingDoesNotAllocate() {
+        // Given
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        ping(WARMUP_PINGS);
+
+        // When
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        ping(MEASURED_PINGS);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Then
+        assertThat((double) allocated / MEASURED_PINGS)
+                .as("bytes allocated per ping")
+                .isLessThan(1.0);
+    }
+
+    // GPS jitter around one spot: the driver never leaves its index cell
+    private void ping(int count) {
+        for (int i = 0; i < count; i++) {
+            driverService.updateDriverLocation("driver-ping", (i & 7) * 0.001, (i & 3) * 0.002);
+        }
+    }
+}
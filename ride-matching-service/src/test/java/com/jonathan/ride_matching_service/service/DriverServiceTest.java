@@ -1,11 +1,15 @@
 package com.jonathan.ride_matching_service.service;
 
+import com.jonathan.ride_matching_service.dto.DriverHandoff;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
+import com.jonathan.ride_matching_service.exception.ConflictException;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.exception.RepositorySaveException;
 import com.jonathan.ride_matching_service.mapper.DriverMapper;
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
 import com.jonathan.ride_matching_service.repository.DriverRepository;
 import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +17,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -195,6 +201,73 @@ class DriverServiceTest {
             assertThat(driver.isAvailable()).isFalse();
             assertThat(response).isEqualTo(expectedResponse);
         }
+
+        @Test
+        @DisplayName("Should keep a driver on a ride unavailable until the ride completes")
+        void testUpdateDriverOnRideStaysUnavailable() {
+            // Given
+            String driverId = "driver-on-ride";
+            Location location = new Location(40.7128, -74.0060);
+
+            Driver driver = new Driver(driverId, location);
+            assertThat(driver.tryMarkUnavailable()).isTrue();
+
+            when(driverRepository.findById(driverId)).thenReturn(driver);
+            when(driverMapper.toDriverResponse(driver)).thenReturn(new DriverResponse(driverId, location.x(), location.y(), false));
+
+            // When
+            DriverResponse response = driverService.updateDriver(driverId, location, true);
+
+            // Then
+            assertThat(response.available()).isFalse();
+            assertThat(driver.isAvailable()).isFalse();
+            assertThat(driver.tryMarkUnavailable()).as("a second claim").isFalse();
+
+            // When - the ride completes
+            driver.release();
+
+            // Then
+            assertThat(driver.isAvailable()).isTrue();
+            assertThat(driver.isOnRide()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Update Driver Location Tests")
+    class UpdateDriverLocationTests {
+
+        @Test
+        @DisplayName("Should update location in place and keep availability")
+        void testUpdateDriverLocationKeepsAvailability() {
+            // Given
+            String driverId = "driver-ping";
+            Driver driver = new Driver(driverId, new Location(40.7128, -74.0060));
+            driver.tryMarkUnavailable();
+
+            when(driverRepository.findById(driverId)).thenReturn(driver);
+
+            // When
+            driverService.updateDriverLocation(driverId, 40.7580, -73.9855);
+
+            // Then
+            assertThat(driver.getLocation()).isEqualTo(new Location(40.7580, -73.9855));
+            assertThat(driver.isAvailable()).isFalse();
+            verifyNoInteractions(driverMapper);
+        }
+
+        @Test
+        @DisplayName("Should throw NotFoundException when pinging non-existing driver")
+        void testUpdateLocationOfNonExistingDriver() {
+            // Given
+            String driverId = "non-existing-driver";
+
+            when(driverRepository.findById(driverId)).thenReturn(null);
+
+            // When & Then
+            assertThatThrownBy(() -> driverService.updateDriverLocation(driverId, 1, 2))
+                    .isInstanceOf(NotFoundException.class)
+                    .hasMessageContaining("Driver not found with id: " + driverId);
+        }
     }
 
     @Nested
@@ -276,4 +349,80 @@ class DriverServiceTest {
             assertThat(driver.isAvailable()).isFalse();
         }
     }
+
+    @Nested
+    @DisplayName("Hand Off Driver Tests")
+    class HandOffDriverTests {
+
+        @Test
+        @DisplayName("Should hand off an offline driver as offline")
+        void testHandOffOfflineDriver() {
+            // Given
+            Driver driver = new Driver("driver-offline", new Location(3, 4));
+            driver.setAvailable(false);
+            when(driverRepository.findById("driver-offline")).thenReturn(driver);
+
+            // When
+            DriverHandoff handoff = driverService.handOffDriver("driver-offline", "node-b");
+
+            // Then
+            assertThat(handoff.available()).isFalse();
+            assertThat(handoff.x()).isEqualTo(3);
+            assertThat(handoff.y()).isEqualTo(4);
+            verify(driverRepository).remove(driver);
+        }
+
+        @Test
+        @DisplayName("Should refuse to hand off a driver on a ride")
+        void testHandOffDriverOnRide() {
+            // Given
+            Driver driver = new Driver("driver-busy", new Location(0, 0));
+            driver.tryMarkUnavailable();
+            when(driverRepository.findById("driver-busy")).thenReturn(driver);
+
+            // When & Then
+            assertThatThrownBy(() -> driverService.handOffDriver("driver-busy", "node-b"))
+                    .isInstanceOf(ConflictException.class);
+            verify(driverRepository, never()).remove(any());
+        }
+
+        @Test
+        @DisplayName("Should repeat a handoff to the same node until it is acknowledged")
+        void testHandOffRetry() {
+            // Given
+            Driver driver = new Driver("driver-moving", new Location(1, 2));
+            when(driverRepository.findById("driver-moving")).thenReturn(driver, (Driver) null);
+            DriverHandoff handoff = driverService.handOffDriver("driver-moving", "node-b");
+
+            // When & Then
+            assertThat(driverService.handOffDriver("driver-moving", "node-b")).isEqualTo(handoff);
+            assertThatThrownBy(() -> driverService.handOffDriver("driver-moving", "node-c"))
+                    .isInstanceOf(NotFoundException.class);
+
+            // When
+            driverService.acknowledgeHandoff("driver-moving", "node-b");
+
+            // Then
+            assertThatThrownBy(() -> driverService.handOffDriver("driver-moving", "node-b"))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should take over a handed-off driver with its availability")
+        void testTakeOverDriver() {
+            // Given
+            DriverHandoff handoff = new DriverHandoff("driver-new", 5, 6, VehicleType.XL, 4.5, false);
+            when(driverRepository.findById("driver-new")).thenReturn(null);
+
+            // When
+            driverService.takeOverDriver(handoff);
+
+            // Then
+            ArgumentCaptor<Driver> saved = ArgumentCaptor.forClass(Driver.class);
+            verify(driverRepository).save(saved.capture());
+            assertThat(saved.getValue().isAvailable()).isFalse();
+            assertThat(saved.getValue().getLocation()).isEqualTo(new Location(5, 6));
+            assertThat(saved.getValue().getProfile()).isEqualTo(new DriverProfile(VehicleType.XL, 4.5));
+        }
+    }
 }
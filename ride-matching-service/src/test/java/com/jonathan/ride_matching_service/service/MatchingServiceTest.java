@@ -1,11 +1,18 @@
 package com.jonathan.ride_matching_service.service;
 
+import com.jonathan.ride_matching_service.config.MatchingProperties;
 import com.jonathan.ride_matching_service.dto.DriverResponse;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.mapper.DriverMapper;
 import com.jonathan.ride_matching_service.model.Driver;
+import com.jonathan.ride_matching_service.model.DriverProfile;
 import com.jonathan.ride_matching_service.model.Location;
+import com.jonathan.ride_matching_service.model.VehicleType;
+import com.jonathan.ride_matching_service.routing.RoadGraphLoader;
+import com.jonathan.ride_matching_service.routing.RoadNetworkEta;
 import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.util.DistanceCalculator;
+import com.jonathan.ride_matching_service.util.DistanceMetric;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,9 +21,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -149,6 +158,27 @@ class MatchingServiceTest {
                     .isInstanceOf(NotFoundException.class)
                     .hasMessageContaining("No available drivers found");
         }
+
+        @Test
+        @DisplayName("Should skip nearer drivers with a different vehicle type")
+        void testVehicleTypeMismatch() {
+            // Given
+            Location pickupLocation = new Location(0, 0);
+
+            Driver standard = new Driver("driver-1", new Location(1, 0));
+            Driver comfort = new Driver("driver-2", new Location(5, 0), new DriverProfile(VehicleType.COMFORT, 4.8));
+
+            when(driverService.getAvailableDrivers()).thenReturn(Arrays.asList(standard, comfort));
+
+            // When
+            Driver matched = matchingService.findNearestAvailableDriver(pickupLocation, VehicleType.COMFORT);
+
+            // Then
+            assertThat(matched).isSameAs(comfort);
+            assertThat(standard.isAvailable()).isTrue();
+            assertThatThrownBy(() -> matchingService.findNearestAvailableDriver(pickupLocation, VehicleType.XL))
+                    .isInstanceOf(NotFoundException.class);
+        }
     }
 
     @Nested
@@ -363,4 +393,108 @@ class MatchingServiceTest {
             assertThat(results).isEmpty();
         }
     }
+
+    @Nested
+    @DisplayName("Distance Metric Tests")
+    class DistanceMetricTests {
+
+        // At 60°N a degree of longitude is half as long as a degree of latitude
+        private final Location pickupLocation = new Location(60, 10);
+        private final Driver eastDriver = new Driver("east-driver", new Location(60, 10.5));
+        private final Driver northDriver = new Driver("north-driver", new Location(60.3, 10));
+
+        @Test
+        @DisplayName("Planar metric should compare raw coordinate differences")
+        void testPlanarMetric() {
+            // Given
+            when(driverService.getAvailableDrivers()).thenReturn(Arrays.asList(eastDriver, northDriver));
+
+            // When
+            Driver matched = matchingService.findNearestAvailableDriver(pickupLocation);
+
+            // Then
+            assertThat(matched).isEqualTo(northDriver);
+        }
+
+        @Test
+        @DisplayName("Haversine metric should account for longitude shrinking with latitude")
+        void testHaversineMetric() {
+            // Given
+            matchingService = new MatchingServiceImpl(driverService, driverMapper,
+                    new MatchingProperties(DistanceMetric.HAVERSINE, MatchingProperties.Eta.disabled(), MatchingProperties.Cache.disabled(), MatchingProperties.Scoring.disabled()),
+                    Optional.empty());
+            when(driverService.getAvailableDrivers()).thenReturn(Arrays.asList(northDriver, eastDriver));
+
+            // When
+            Driver matched = matchingService.findNearestAvailableDriver(pickupLocation);
+
+            // Then
+            assertThat(matched).isEqualTo(eastDriver);
+        }
+
+        @Test
+        @DisplayName("Should order returned drivers by exact great-circle distance")
+        void testHaversineFindNearestDrivers() {
+            // Given
+            matchingService = new MatchingServiceImpl(driverService, driverMapper,
+                    new MatchingProperties(DistanceMetric.HAVERSINE, MatchingProperties.Eta.disabled(), MatchingProperties.Cache.disabled(), MatchingProperties.Scoring.disabled()),
+                    Optional.empty());
+            when(driverService.getAvailableDrivers()).thenReturn(Arrays.asList(northDriver, eastDriver));
+            when(driverMapper.toDriverResponse(eastDriver))
+                    .thenReturn(new DriverResponse("east-driver", 60, 10.5, true));
+            when(driverMapper.toDriverResponse(northDriver))
+                    .thenReturn(new DriverResponse("north-driver", 60.3, 10, true));
+
+            // When
+            List<DriverResponse> results = matchingService.findNearestAvailableDrivers(pickupLocation, 2);
+
+            // Then
+            assertThat(results).extracting(DriverResponse::id).containsExactly("east-driver", "north-driver");
+        }
+
+        @Test
+        @DisplayName("Haversine and equirectangular distances should agree at city scale")
+        void testDistanceAccuracy() {
+            // Given
+            Location timesSquare = new Location(40.7580, -73.9855);
+            Location wallStreet = new Location(40.7060, -74.0090);
+
+            // When
+            double haversine = DistanceCalculator.haversine(timesSquare, wallStreet);
+            double equirectangular = DistanceCalculator.equirectangular(timesSquare, wallStreet);
+
+            // Then
+            assertThat(haversine).isCloseTo(6_090, within(50.0));
+            assertThat(equirectangular).isCloseTo(haversine, within(1.0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Road Network ETA Tests")
+    class RoadNetworkEtaTests {
+
+        @Test
+        @DisplayName("Should prefer a farther driver on the same river bank over one across the river")
+        void testEtaReranking() {
+            // Given - the only bridge is at y = 10, see roads/river.graph
+            MatchingProperties properties = new MatchingProperties(DistanceMetric.PLANAR,
+                    new MatchingProperties.Eta(true, null, 8, 2, 1000, 1), MatchingProperties.Cache.disabled(), MatchingProperties.Scoring.disabled());
+            RoadNetworkEta roadNetworkEta = new RoadNetworkEta(
+                    RoadGraphLoader.load(Path.of("src/test/resources/roads/river.graph")), properties);
+            matchingService = new MatchingServiceImpl(driverService, driverMapper, properties, Optional.of(roadNetworkEta));
+
+            Location pickupLocation = new Location(0, 0);
+            Driver acrossRiver = new Driver("across-river", new Location(1, 0));
+            Driver sameBank = new Driver("same-bank", new Location(0, 3));
+
+            when(driverService.getAvailableDrivers()).thenReturn(Arrays.asList(acrossRiver, sameBank));
+
+            // When
+            Driver matched = matchingService.findNearestAvailableDriver(pickupLocation);
+
+            // Then
+            assertThat(matched).isEqualTo(sameBank);
+            assertThat(acrossRiver.isAvailable()).isTrue();
+        }
+    }
 }
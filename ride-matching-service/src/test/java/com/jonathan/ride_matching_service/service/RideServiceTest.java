@@ -1,12 +1,15 @@
 package com.jonathan.ride_matching_service.service;
 
+import com.jonathan.ride_matching_service.config.PoolingProperties;
 import com.jonathan.ride_matching_service.dto.RideResponse;
+import com.jonathan.ride_matching_service.exception.ConflictException;
 import com.jonathan.ride_matching_service.exception.NotFoundException;
 import com.jonathan.ride_matching_service.exception.RepositorySaveException;
 import com.jonathan.ride_matching_service.mapper.RideMapper;
 import com.jonathan.ride_matching_service.model.Driver;
 import com.jonathan.ride_matching_service.model.Location;
 import com.jonathan.ride_matching_service.model.Ride;
+import com.jonathan.ride_matching_service.pooling.RidePooling;
 import com.jonathan.ride_matching_service.repository.RideRepository;
 import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +21,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -282,6 +287,171 @@ class RideServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Cancel Ride Tests")
+    class CancelRideTests {
+
+        @Test
+        @DisplayName("Should remove the ride and release its driver without completing it")
+        void testCancelRide() {
+            // Given
+            String rideId = "ride-123";
+            Driver driver = new Driver("driver-456", new Location(40.7150, -74.0050));
+            Ride ride = new Ride(rideId, "rider-789", driver, new Location(40.7128, -74.0060));
+            driver.tryMarkUnavailable();
+
+            when(rideRepository.findById(rideId)).thenReturn(ride);
+
+            // When
+            rideService.cancelRide(rideId);
+
+            // Then
+            verify(rideRepository).remove(rideId);
+            assertThat(ride.isCompleted()).isFalse();
+            assertThat(driver.isAvailable()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should refuse to cancel a completed ride")
+        void testCancelCompletedRide() {
+            // Given
+            String rideId = "ride-123";
+            Ride ride = new Ride(rideId, "rider-789", new Driver("driver-456", new Location(0, 0)), new Location(0, 0));
+            ride.complete();
+
+            when(rideRepository.findById(rideId)).thenReturn(ride);
+
+            // When & Then
+            assertThatThrownBy(() -> rideService.cancelRide(rideId))
+                    .isInstanceOf(ConflictException.class);
+            verify(rideRepository, never()).remove(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Shared Ride Tests")
+    class SharedRideTests {
+
+        // A rider travelling from (1, 0) to (10, 0); the driver waits at the origin
+        private final Location pickup = new Location(1, 0);
+        private final Location dropoff = new Location(10, 0);
+
+        private RidePooling pooling;
+        private RideService pooledService;
+        private Driver driver;
+
+        @BeforeEach
+        void setUp() {
+            pooling = new RidePooling(new PoolingProperties(true, 17, 4, 1.5, 12, 0.25));
+            pooledService = RideServiceImpl.builder(matchingService, rideRepository, rideMapper).pooling(pooling).build();
+            driver = new Driver("driver-1", new Location(0, 0));
+        }
+
+        @Test
+        @DisplayName("Should open a trip on an idle driver, then let a rider along the route join it")
+        void testOpenThenJoin() {
+            // Given
+            when(matchingService.findNearestAvailableDriver(pickup)).thenAnswer(invocation -> claimed(driver));
+
+            // When
+            pooledService.requestSharedRide("rider-1", pickup, dropoff, null);
+            pooledService.requestSharedRide("rider-2", new Location(3, 0.5), new Location(8, 0.5), null);
+
+            // Then: only the first rider needed an idle driver
+            verify(matchingService, times(1)).findNearestAvailableDriver(any(Location.class));
+            assertThat(savedRides()).extracting(Ride::getDriver).containsExactly(driver, driver);
+            assertThat(pooling.getActiveTrips()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should open a new trip when no trip passes near the pickup")
+        void testOpenWhenNoTripNearby() {
+            // Given
+            Driver other = new Driver("driver-2", new Location(100, 100));
+            when(matchingService.findNearestAvailableDriver(any(Location.class)))
+                    .thenAnswer(invocation -> claimed(driver))
+                    .thenAnswer(invocation -> claimed(other));
+            pooledService.requestSharedRide("rider-1", pickup, dropoff, null);
+
+            // When
+            pooledService.requestSharedRide("rider-2", new Location(100, 100), new Location(105, 100), null);
+
+            // Then
+            assertThat(savedRides()).extracting(Ride::getDriver).containsExactly(driver, other);
+            assertThat(pooling.getActiveTrips()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should keep a pooled driver busy until its last rider completes")
+        void testDriverBusyUntilLastRider() {
+            // Given
+            when(matchingService.findNearestAvailableDriver(pickup)).thenAnswer(invocation -> claimed(driver));
+            pooledService.requestSharedRide("rider-1", pickup, dropoff, null);
+            pooledService.requestSharedRide("rider-2", new Location(3, 0.5), new Location(8, 0.5), null);
+            List<Ride> rides = savedRides();
+            rides.forEach(ride -> when(rideRepository.findById(ride.getId())).thenReturn(ride));
+
+            // When / Then
+            pooledService.completeRide(rides.get(1).getId());
+            assertThat(driver.isAvailable()).isFalse();
+
+            pooledService.completeRide(rides.get(0).getId());
+            assertThat(driver.isAvailable()).isTrue();
+            assertThat(pooling.getActiveTrips()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should drop a rider whose ride fails to save, releasing the driver only once its trip is empty")
+        void testSaveFailure() {
+            // Given
+            when(matchingService.findNearestAvailableDriver(pickup)).thenAnswer(invocation -> claimed(driver));
+            doNothing().doThrow(new RuntimeException("Database error")).when(rideRepository).save(any(Ride.class));
+            pooledService.requestSharedRide("rider-1", pickup, dropoff, null);
+
+            // When / Then: the joining rider is taken off the trip, the first one keeps the driver
+            assertThatThrownBy(() -> pooledService.requestSharedRide("rider-2", new Location(3, 0.5), new Location(8, 0.5), null))
+                    .isInstanceOf(RepositorySaveException.class);
+            assertThat(driver.isAvailable()).isFalse();
+            assertThat(pooling.getActiveTrips()).isEqualTo(1);
+
+            // When / Then: a trip whose only ride fails to save is closed and its driver released
+            Driver other = new Driver("driver-2", new Location(100, 100));
+            when(matchingService.findNearestAvailableDriver(new Location(100, 100))).thenAnswer(invocation -> claimed(other));
+            assertThatThrownBy(() -> pooledService.requestSharedRide("rider-3", new Location(100, 100), new Location(105, 100), null))
+                    .isInstanceOf(RepositorySaveException.class);
+            assertThat(other.isAvailable()).isTrue();
+            assertThat(pooling.getActiveTrips()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should match an idle driver for a solo ride when pooling is disabled")
+        void testPoolingDisabled() {
+            // Given
+            when(matchingService.findNearestAvailableDriver(pickup)).thenAnswer(invocation -> claimed(driver));
+            Driver other = new Driver("driver-2", new Location(3, 0));
+            when(matchingService.findNearestAvailableDriver(new Location(3, 0.5))).thenAnswer(invocation -> claimed(other));
+
+            // When
+            rideService.requestSharedRide("rider-1", pickup, dropoff, null);
+            rideService.requestSharedRide("rider-2", new Location(3, 0.5), new Location(8, 0.5), null);
+
+            // Then
+            assertThat(savedRides()).extracting(Ride::getDriver).containsExactly(driver, other);
+        }
+
+        private List<Ride> savedRides() {
+            ArgumentCaptor<Ride> rides = ArgumentCaptor.forClass(Ride.class);
+            verify(rideRepository, atLeastOnce()).save(rides.capture());
+            return rides.getAllValues();
+        }
+
+        // Matching claims the driver it returns
+        private static Driver claimed(Driver driver) {
+            driver.tryMarkUnavailable();
+            return driver;
+        }
+    }
+
     @Nested
     @DisplayName("Integration Scenario Tests")
     class IntegrationTests {
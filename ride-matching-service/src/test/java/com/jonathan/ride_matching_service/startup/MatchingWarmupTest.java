@@ -0,0 +1,107 @@
+package com.jonathan.ride_matching_service.startup;
+
+import com.jonathan.ride_matching_service.archive.RideArchive;
+import com.jonathan.ride_matching_service.config.MatchingProperties;
+import com.jonathan.ride_matching_service.config.StartupProperties;
+import com.jonathan.ride_matching_service.controller.RideController;
+import com.jonathan.ride_matching_service.heatmap.HeatmapController;
+import com.jonathan.ride_matching_service.ids.RideIdGenerator;
+import com.jonathan.ride_matching_service.ids.UuidRideIdGenerator;
+import com.jonathan.ride_matching_service.mapper.DriverMapper;
+import com.jonathan.ride_matching_service.mapper.RideMapper;
+import com.jonathan.ride_matching_service.repository.DriverRepository;
+import com.jonathan.ride_matching_service.service.impl.DriverServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.MatchingServiceImpl;
+import com.jonathan.ride_matching_service.service.impl.RideServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MatchingWarmup Tests")
+class MatchingWarmupTest {
+
+    private static MatchingWarmup warmup(int drivers, int rides, Duration budget, RideIdGenerator rideIds) {
+        return new MatchingWarmup(new StartupProperties(new StartupProperties.Warmup(true, drivers, rides, budget)),
+                MatchingProperties.defaults(), new DriverMapper(), new RideMapper(), rideIds,
+                Optional.empty(), Optional.empty());
+    }
+
+    @Nested
+    @DisplayName("Warm-up Tests")
+    class WarmupTests {
+
+        @Test
+        @DisplayName("Should match and complete every synthetic ride through the production id generator")
+        void testWarmUp() {
+            // Given
+            AtomicInteger ids = new AtomicInteger();
+            RideIdGenerator rideIds = () -> "ride-" + ids.incrementAndGet();
+
+            // When
+            int matched = warmup(16, 1000, Duration.ofMinutes(1), rideIds).warmUp();
+
+            // Then
+            assertThat(matched).isEqualTo(1000);
+            assertThat(ids).hasValue(1000);
+        }
+
+        @Test
+        @DisplayName("Should stop at the time budget, after at least one ride")
+        void testBudget() {
+            // When
+            int matched = warmup(16, 1_000_000, Duration.ZERO, new UuidRideIdGenerator()).warmUp();
+
+            // Then
+            assertThat(matched).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should do nothing without synthetic drivers")
+        void testNoDrivers() {
+            // Then
+            assertThat(warmup(0, 1000, Duration.ofMinutes(1), new UuidRideIdGenerator()).warmUp()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should start and report running, whatever the warm-up does")
+        void testStart() {
+            // Given - the generator fails, so the first request does
+            MatchingWarmup warmup = warmup(16, 1000, Duration.ofMinutes(1), () -> {
+                throw new IllegalStateException("no ids");
+            });
+
+            // When
+            warmup.start();
+
+            // Then
+            assertThat(warmup.isRunning()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Eager Filter Tests")
+    class EagerFilterTests {
+
+        private final MatchingPathEagerFilter filter = new MatchingPathEagerFilter();
+
+        @Test
+        @DisplayName("Should keep the matching path eager and leave other beans lazy")
+        void testExcludedBeans() {
+            // Then
+            assertThat(filter.isExcluded("driverRepository", null, DriverRepository.class)).isTrue();
+            assertThat(filter.isExcluded("driverServiceImpl", null, DriverServiceImpl.class)).isTrue();
+            assertThat(filter.isExcluded("matchingServiceImpl", null, MatchingServiceImpl.class)).isTrue();
+            assertThat(filter.isExcluded("rideServiceImpl", null, RideServiceImpl.class)).isTrue();
+            assertThat(filter.isExcluded("rideController", null, RideController.class)).isTrue();
+            assertThat(filter.isExcluded("heatmapController", null, HeatmapController.class)).isFalse();
+            assertThat(filter.isExcluded("rideArchive", null, RideArchive.class)).isFalse();
+            assertThat(filter.isExcluded("factoryBean", null, null)).isFalse();
+        }
+    }
+}